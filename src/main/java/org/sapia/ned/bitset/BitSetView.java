@@ -48,6 +48,19 @@ public class BitSetView extends ImmutableBitSetSupport {
     return delegate.getBitAt(offset + index);
   }
   
+  @Override
+  public long getWordAt(int wordIndex) {
+    Check.isTrue(
+        wordIndex >= 0 && wordIndex < BitSets.wordCount(size), 
+        "Invalid word index: %s. Index is expected to be in range [0, %s]", wordIndex, BitSets.wordCount(size) - 1
+    );
+    long word = getBitsAt(delegate, offset + wordIndex * Long.SIZE);
+    if (wordIndex == BitSets.wordCount(size) - 1) {
+      word &= BitSets.lastWordMask(size);
+    }
+    return word;
+  }
+  
   @Override
   public int size() {
     return size;
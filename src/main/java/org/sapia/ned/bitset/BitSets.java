@@ -2,8 +2,7 @@ package org.sapia.ned.bitset;
 
 import java.util.BitSet;
 
-import org.sapia.ned.util.Binary;
-import org.sapia.ned.util.Check;
+import org.sapia.ned.util.logic.BitSetEvaluator;
 
 /**
  * Bitset-related utility methods.
@@ -12,10 +11,31 @@ import org.sapia.ned.util.Check;
  *
  */
 public final class BitSets {
+  
+  private static final int ADDRESS_BITS = 6;
+  private static final int WORD_MASK    = Long.SIZE - 1;
 
   private BitSets() {
   }
   
+  /**
+   * @param size a number of bits.
+   * @return the number of 64-bit words required to hold the given number of bits.
+   * @see ImmutableBitSet#getWordAt(int)
+   */
+  public static int wordCount(int size) {
+    return (size + WORD_MASK) >>> ADDRESS_BITS;
+  }
+  
+  /**
+   * @param size the number of bits in a bitset.
+   * @return the mask of the bits that are in use in the last word of a bitset of the given size.
+   * @see ImmutableBitSet#getWordAt(int)
+   */
+  public static long lastWordMask(int size) {
+    return -1L >>> (-size & WORD_MASK);
+  }
+  
   /**
    * Returns an {@link ImmutableBitSet} that consists of a view of the given bitset.
    * 
@@ -33,26 +53,10 @@ public final class BitSets {
    * 
    * @param binaryLiteral a binary literal.
    * @return a new {@link ImmutableBitSet} resulting from the parsing of the given literal.
+   * @see LongWordBitSet
    */
   public static ImmutableBitSet valueOf(String binaryLiteral) {
-    if (binaryLiteral.length() <= Byte.SIZE) {
-      return new ByteBitSet(Binary.parseByte(binaryLiteral));
-    } else if (binaryLiteral.length() % Byte.SIZE == 0) {
-      byte[] bytes = new byte[binaryLiteral.length() / Byte.SIZE];
-      for (int i = 0; i < bytes.length; i++) {
-        StringBuilder byteLiteral = new StringBuilder(Byte.SIZE);
-        for (int j = 0; j < Byte.SIZE; j++) {
-          int index = i * Byte.SIZE + j;
-          char c    = binaryLiteral.charAt(index);
-          Check.isTrue(c == '0' || c == '1', "Invalid binary literal. Expecting only 0s and 1s, got %s at index %s", c, index);
-          byteLiteral.append(c);
-        }
-        bytes[i] = Binary.parseByte(byteLiteral.toString());
-      }
-      return new MultiByteBitset(bytes);
-    } else {
-      return new BooleanBitSet(binaryLiteral);
-    }
+    return LongWordBitSet.valueOf(binaryLiteral);
   }
   
   /**
@@ -61,13 +65,33 @@ public final class BitSets {
    * 
    * @param bitset an {@link ImmutableBitSet} corresponding to the given {@link BitSet}.
    * @return a new {@link ImmutableBitSet}.
+   * @see LongWordBitSet
    */
   public static ImmutableBitSet valueOf(BitSet bitset) {
-    boolean[] bits = new boolean[bitset.size()];
-    for (int i = 0; i < bitset.size(); i++) {
-       bits[bits.length - i - 1]  = bitset.get(i);
-    }
-    
-    return new BooleanBitSet(bits);
+    return LongWordBitSet.valueOf(bitset);
+  }
+  
+  /**
+   * Evaluates the given expression (made of the views returned by {@link ImmutableBitSet#and(ImmutableBitSet)}, 
+   * {@link ImmutableBitSet#or(ImmutableBitSet)}, {@link ImmutableBitSet#xor(ImmutableBitSet)} and {@link ImmutableBitSet#not()}) 
+   * in a single pass, returning the materialized result.
+   * 
+   * @param expression an {@link ImmutableBitSet} expression.
+   * @return a new {@link ImmutableBitSet}, holding the result of the given expression.
+   * @see BitSetEvaluator
+   */
+  public static ImmutableBitSet evaluate(ImmutableBitSet expression) {
+    return BitSetEvaluator.evaluate(expression);
+  }
+  
+  /**
+   * @param expression an {@link ImmutableBitSet} expression.
+   * @param threshold the minimum number of operators that the expression must hold in order to be materialized.
+   * @return a new {@link ImmutableBitSet} holding the result of the given expression, or the expression itself if 
+   * it holds less operators than the given threshold.
+   * @see BitSetEvaluator#optimize(ImmutableBitSet, int)
+   */
+  public static ImmutableBitSet evaluate(ImmutableBitSet expression, int threshold) {
+    return BitSetEvaluator.optimize(expression, threshold);
   }
 }
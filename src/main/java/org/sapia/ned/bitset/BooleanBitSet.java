@@ -45,6 +45,23 @@ public class BooleanBitSet extends ImmutableBitSetSupport {
     return bits[bits.length - index - 1];
   }
   
+  @Override
+  public long getWordAt(int wordIndex) {
+    Check.isTrue(
+        wordIndex >= 0 && wordIndex < BitSets.wordCount(bits.length), 
+        "Invalid word index: %s. Index is expected to be in range [0, %s]", wordIndex, BitSets.wordCount(bits.length) - 1
+    );
+    int  from = wordIndex * Long.SIZE;
+    int  to   = Math.min(from + Long.SIZE, bits.length);
+    long word = 0;
+    for (int i = from; i < to; i++) {
+      if (bits[bits.length - i - 1]) {
+        word |= 1L << i;
+      }
+    }
+    return word;
+  }
+  
   @Override
   public int size() {
     return bits.length;
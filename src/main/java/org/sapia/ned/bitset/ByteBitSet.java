@@ -24,6 +24,12 @@ public class ByteBitSet extends ImmutableBitSetSupport implements ImmutableBitSe
     return Binary.getBitAt(index, bits);
   }
   
+  @Override
+  public long getWordAt(int wordIndex) {
+    Check.isTrue(wordIndex == 0, "Invalid word index: %s. Index is expected to be 0", wordIndex);
+    return Binary.unsignedByteToInt(bits);
+  }
+  
   @Override
   public int size() {
     return Byte.SIZE;
@@ -36,10 +42,5 @@ public class ByteBitSet extends ImmutableBitSetSupport implements ImmutableBitSe
   public String toString() {
     return Binary.toBitString(bits);
   }
-  
-  @Override
-  public int hashCode() {
-    return Binary.unsignedByteToInt(bits);
-  }
 
 }
@@ -21,11 +21,61 @@ public interface ImmutableBitSet {
    */
   boolean getBitAt(int index);
   
+  /**
+   * Returns the 64 bits held in the word at the given index: bit <code>i</code> of this instance is
+   * held in word <code>i / 64</code>, at position <code>i % 64</code>. The positions of the last
+   * word that are beyond the size of this instance are set to 0.
+   * 
+   * @param wordIndex the index of the word to return, from 0 to {@link BitSets#wordCount(int)} - 1.
+   * @return the word at the given index.
+   */
+  long getWordAt(int wordIndex);
+  
   /**
    * @return the number of bits that this instance holds.
    */
   int size();
   
+  /**
+   * @return the number of bits set to 1 in this instance.
+   */
+  int cardinality();
+  
+  /**
+   * @param fromIndex the index from which to start searching (inclusive).
+   * @return the index of the first bit that is set to 1 at or after the given index, or -1 if there is none.
+   */
+  int nextSetBit(int fromIndex);
+  
+  /**
+   * @param fromIndex the index from which to start searching (inclusive).
+   * @return the index of the first bit that is set to 0 at or after the given index, or -1 if there is none.
+   */
+  int nextClearBit(int fromIndex);
+  
+  /**
+   * @return the number of consecutive 0 bits, starting from the MSB (this instance's size if all bits are 0).
+   */
+  int numberOfLeadingZeros();
+  
+  /**
+   * @return the number of consecutive 0 bits, starting from the LSB (this instance's size if all bits are 0).
+   */
+  int numberOfTrailingZeros();
+  
+  /**
+   * @param index an index, from 0 to {@link #size()} (inclusive).
+   * @return the number of bits set to 1 at the indexes lower than the given one.
+   */
+  int rank(int index);
+  
+  /**
+   * @param n the rank of the bit to look for (0 for the first set bit, 1 for the second, etc.).
+   * @return the index of the bit set to 1 that has the given rank (such that <code>rank(select(n)) == n</code>), 
+   * or -1 if this instance has <code>n</code> bits or less that are set to 1.
+   */
+  int select(int n);
+  
   /**
    * @return a new mutable {@link BitSet}, holding a copy of this instance's bits.
    */
@@ -37,6 +87,13 @@ public interface ImmutableBitSet {
    * in the given bitset, in the same order.
    */
   boolean isPrefixOf(ImmutableBitSet other);
+  
+  /**
+   * @param other another {@link ImmutableBitSet}.
+   * @return the number of bits, starting from the MSB of both bitsets, that this instance has in 
+   * common with the given one.
+   */
+  int commonPrefixLength(ImmutableBitSet other);
 
   /**
    * @param other another {@link ImmutableBitSet}.
@@ -50,6 +107,12 @@ public interface ImmutableBitSet {
    */
   ImmutableBitSet or(ImmutableBitSet other);
   
+  /**
+   * @param other another {@link ImmutableBitSet}.
+   * @return a new {@link ImmutableBitSet}, resulting from a logical XOR performed on this instance is the given bitset.
+   */
+  ImmutableBitSet xor(ImmutableBitSet other);
+  
   /**
    * @return a new {@link ImmutableBitSet}, resulting from a logical NOT performed on this instance.
    */
@@ -2,10 +2,12 @@ package org.sapia.ned.bitset;
 
 import java.util.BitSet;
 
+import org.sapia.ned.util.Check;
 import org.sapia.ned.util.Safe;
 import org.sapia.ned.util.logic.AndBitSet;
 import org.sapia.ned.util.logic.NotBitSet;
 import org.sapia.ned.util.logic.OrBitSet;
+import org.sapia.ned.util.logic.XorBitSet;
 
 /**
  * Abstract support class for implementing {@link ImmutableBitSet}s.
@@ -18,27 +20,142 @@ public abstract class ImmutableBitSetSupport implements ImmutableBitSet {
   // --------------------------------------------------------------------------
   // ImmutableBitSet interface
   
+  @Override
+  public long getWordAt(int wordIndex) {
+    int wordCount = BitSets.wordCount(size());
+    Check.isTrue(
+        wordIndex >= 0 && wordIndex < wordCount, 
+        "Invalid word index: %s. Index is expected to be in range [0, %s]", wordIndex, wordCount - 1
+    );
+    int  from = wordIndex * Long.SIZE;
+    int  to   = Math.min(from + Long.SIZE, size());
+    long word = 0;
+    for (int i = from; i < to; i++) {
+      if (getBitAt(i)) {
+        word |= 1L << i;
+      }
+    }
+    return word;
+  }
+  
+  @Override
+  public int cardinality() {
+    int count = 0;
+    for (int i = 0; i < BitSets.wordCount(size()); i++) {
+      count += Long.bitCount(getWordAt(i));
+    }
+    return count;
+  }
+  
+  @Override
+  public int nextSetBit(int fromIndex) {
+    Check.isTrue(fromIndex >= 0, "Index must be positive. Got %s", fromIndex);
+    if (fromIndex >= size()) {
+      return -1;
+    }
+    int  wordIndex = fromIndex / Long.SIZE;
+    long word      = getWordAt(wordIndex) & (-1L << fromIndex);
+    while (word == 0) {
+      if (++wordIndex == BitSets.wordCount(size())) {
+        return -1;
+      }
+      word = getWordAt(wordIndex);
+    }
+    return wordIndex * Long.SIZE + Long.numberOfTrailingZeros(word);
+  }
+  
+  @Override
+  public int nextClearBit(int fromIndex) {
+    Check.isTrue(fromIndex >= 0, "Index must be positive. Got %s", fromIndex);
+    if (fromIndex >= size()) {
+      return -1;
+    }
+    int  wordIndex = fromIndex / Long.SIZE;
+    long word      = ~getWordAt(wordIndex) & (-1L << fromIndex);
+    while (word == 0) {
+      if (++wordIndex == BitSets.wordCount(size())) {
+        return -1;
+      }
+      word = ~getWordAt(wordIndex);
+    }
+    int index = wordIndex * Long.SIZE + Long.numberOfTrailingZeros(word);
+    return index < size() ? index : -1;
+  }
+  
+  @Override
+  public int numberOfLeadingZeros() {
+    int wordCount = BitSets.wordCount(size());
+    for (int i = wordCount - 1; i >= 0; i--) {
+      long word = getWordAt(i);
+      if (word != 0) {
+        return size() - i * Long.SIZE - (Long.SIZE - Long.numberOfLeadingZeros(word));
+      }
+    }
+    return size();
+  }
+  
+  @Override
+  public int numberOfTrailingZeros() {
+    int index = nextSetBit(0);
+    return index < 0 ? size() : index;
+  }
+  
+  @Override
+  public int rank(int index) {
+    Check.isTrue(index >= 0 && index <= size(), "Invalid index: %s. Index is expected to be in range [0, %s]", index, size());
+    int count     = 0;
+    int wordIndex = 0;
+    for (; wordIndex < index / Long.SIZE; wordIndex++) {
+      count += Long.bitCount(getWordAt(wordIndex));
+    }
+    if (index % Long.SIZE != 0) {
+      count += Long.bitCount(getWordAt(wordIndex) & ~(-1L << index));
+    }
+    return count;
+  }
+  
+  @Override
+  public int select(int n) {
+    Check.isTrue(n >= 0, "Rank must be positive. Got %s", n);
+    int remaining = n;
+    for (int i = 0; i < BitSets.wordCount(size()); i++) {
+      long word  = getWordAt(i);
+      int  count = Long.bitCount(word);
+      if (remaining < count) {
+        return i * Long.SIZE + selectInWord(word, remaining);
+      }
+      remaining -= count;
+    }
+    return -1;
+  }
+  
   @Override
   public BitSet toMutable() {
-    BitSet mutable = new BitSet(size());
-    for (int i = 0; i < size(); i++) {
-      mutable.set(i, getBitAt(i));
+    long[] words = new long[BitSets.wordCount(size())];
+    for (int i = 0; i < words.length; i++) {
+      words[i] = getWordAt(i);
     }
-    return mutable;
+    return BitSet.valueOf(words);
   }
    
   @Override
   public boolean isPrefixOf(ImmutableBitSet other) {
-    if (size() <= other.size()) {
-      int j = other.size() - 1;
-      for (int i = size() - 1; i >= 0; i--) {
-        if (getBitAt(i) != other.getBitAt(j--)) {
-          return false;
-        }
+    return size() <= other.size() && commonPrefixLength(other) == size();
+  }
+  
+  @Override
+  public int commonPrefixLength(ImmutableBitSet other) {
+    int max     = Math.min(size(), other.size());
+    int matched = 0;
+    while (matched < max) {
+      int  len  = Math.min(Long.SIZE, max - matched);
+      long diff = getMsbAlignedBits(this, matched, len) ^ getMsbAlignedBits(other, matched, len);
+      if (diff != 0) {
+        return matched + Long.numberOfLeadingZeros(diff);
       }
-      return true;
+      matched += len;
     }
-    return false;
+    return max;
   }
   
   @Override
@@ -51,6 +168,11 @@ public abstract class ImmutableBitSetSupport implements ImmutableBitSet {
     return new OrBitSet(this, other);
   }
   
+  @Override
+  public ImmutableBitSet xor(ImmutableBitSet other) {
+    return new XorBitSet(this, other);
+  }
+  
   @Override
   public ImmutableBitSet not() {
     return new NotBitSet(this);
@@ -70,26 +192,22 @@ public abstract class ImmutableBitSetSupport implements ImmutableBitSet {
   
   @Override
   public int hashCode() {
-    if (size() == 0) {
-      return 0;
-    }
-    
-    int h = 0;
-    for (int i = 0; i < size(); i++) {
-      int val = getBitAt(i) ? 1 : 0;
-      h = h + val * (2^i) * Safe.PRIME;
+    long h = size();
+    for (int i = 0; i < BitSets.wordCount(size()); i++) {
+      h = Safe.mix(h + getWordAt(i));
     }
-    
-    return h;
+    return (int) (h ^ (h >>> Integer.SIZE));
   }
   
   @Override
   public boolean equals(Object obj) {
-    if (obj instanceof ImmutableBitSet) {
+    if (obj == this) {
+      return true;
+    } else if (obj instanceof ImmutableBitSet) {
       ImmutableBitSet other = ImmutableBitSet.class.cast(obj);
       if (size() == other.size()) {
-        for (int i = 0; i < other.size(); i++) {
-          if (getBitAt(i) != other.getBitAt(i)) {
+        for (int i = 0; i < BitSets.wordCount(size()); i++) {
+          if (getWordAt(i) != other.getWordAt(i)) {
             return false;
           }
         }
@@ -99,4 +217,44 @@ public abstract class ImmutableBitSetSupport implements ImmutableBitSet {
     }
     return false;
   }
+  
+  // --------------------------------------------------------------------------
+  // Restricted
+  
+  /**
+   * @param bitset an {@link ImmutableBitSet}.
+   * @param from the index of the first bit to return.
+   * @return the 64 bits of the given bitset starting at the given index (the bits beyond the size of
+   * the bitset being set to 0).
+   */
+  protected static long getBitsAt(ImmutableBitSet bitset, int from) {
+    if (from >= bitset.size()) {
+      return 0;
+    }
+    int  wordIndex = from / Long.SIZE;
+    int  offset    = from % Long.SIZE;
+    long bits      = bitset.getWordAt(wordIndex) >>> offset;
+    if (offset != 0 && wordIndex + 1 < BitSets.wordCount(bitset.size())) {
+      bits |= bitset.getWordAt(wordIndex + 1) << (Long.SIZE - offset);
+    }
+    return bits;
+  }
+  
+  /**
+   * @param word a word.
+   * @param n the rank of the bit to look for, expected to be lower than the number of bits set in the given word.
+   * @return the position, in the given word, of the bit set to 1 that has the given rank.
+   */
+  protected static int selectInWord(long word, int n) {
+    long w = word;
+    for (int i = 0; i < n; i++) {
+      w &= w - 1;
+    }
+    return Long.numberOfTrailingZeros(w);
+  }
+  
+  // returns len bits of the given bitset, skipping the given number of bits from its MSB, aligned to the left of the returned value
+  private static long getMsbAlignedBits(ImmutableBitSet bitset, int skip, int len) {
+    return getBitsAt(bitset, bitset.size() - skip - len) << (Long.SIZE - len);
+  }
 }
@@ -0,0 +1,289 @@
+package org.sapia.ned.bitset;
+
+import java.util.BitSet;
+
+import org.sapia.ned.util.Check;
+
+/**
+ * Implements the {@link ImmutableBitSet} interface over an array of <code>long</code> words. Bit <code>i</code>
+ * is held in word <code>i / 64</code>, at position <code>i % 64</code> (this is the layout used by {@link BitSet#toLongArray()}).
+ * The unused bits of the last word are always 0.
+ * <p>
+ * Logic operations are computed eagerly, 64 bits at a time (the words of the other bitset being obtained through
+ * {@link ImmutableBitSet#getWordAt(int)}).
+ *
+ * @author yduchesne
+ *
+ */
+public class LongWordBitSet extends ImmutableBitSetSupport {
+
+  private static final int ADDRESS_BITS = 6;
+
+  private long[] words;
+  private int    size;
+
+  /**
+   * @param words the words holding the bits of the new instance (the array is copied).
+   * @param size the number of bits of the new instance.
+   */
+  public LongWordBitSet(long[] words, int size) {
+    this(copyOf(words, size), size, true);
+  }
+
+  // trusted constructor: the given array is not copied, and its unused bits are expected to be cleared.
+  private LongWordBitSet(long[] words, int size, boolean trusted) {
+    this.words = words;
+    this.size  = size;
+  }
+
+  /**
+   * @param word a word holding the bits of the new instance.
+   * @param size the number of bits of the new instance (from 0 to 64).
+   * @return a new instance of this class.
+   */
+  public static LongWordBitSet valueOf(long word, int size) {
+    Check.isTrue(size >= 0 && size <= Long.SIZE, "Invalid size: %s. Expected value within [0, %s]", size, Long.SIZE);
+    if (size == 0) {
+      return new LongWordBitSet(new long[0], 0, true);
+    }
+    return new LongWordBitSet(new long[] { word & BitSets.lastWordMask(size) }, size, true);
+  }
+
+  /**
+   * @param binaryLiteral a binary literal, consisting of a sequence of 1s and 0s (MSB first).
+   * @return a new instance of this class.
+   */
+  public static LongWordBitSet valueOf(String binaryLiteral) {
+    Check.isNotNullOrEmpty(binaryLiteral, "Invalid binary literal: input null or empty");
+    int    size  = binaryLiteral.length();
+    long[] words = new long[BitSets.wordCount(size)];
+    for (int i = 0; i < size; i++) {
+      char c = binaryLiteral.charAt(size - i - 1);
+      Check.isTrue(
+          c == '0' || c == '1',
+          "Invalid binary literal: expected sequence of 0s and 1s, got: %s (invalid character at index %s: %s)",
+          binaryLiteral, size - i - 1, c
+      );
+      if (c == '1') {
+        words[i >>> ADDRESS_BITS] |= 1L << i;
+      }
+    }
+    return new LongWordBitSet(words, size, true);
+  }
+
+  /**
+   * @param bitset a {@link BitSet}, whose bits should be copied.
+   * @return a new instance of this class, holding a copy of the given {@link BitSet}'s bits, and having the size of that bitset.
+   */
+  public static LongWordBitSet valueOf(BitSet bitset) {
+    long[] words = new long[BitSets.wordCount(bitset.size())];
+    long[] set   = bitset.toLongArray();
+    System.arraycopy(set, 0, words, 0, set.length);
+    return new LongWordBitSet(words, bitset.size(), true);
+  }
+
+  /**
+   * @param bitset an {@link ImmutableBitSet}.
+   * @return the given bitset, if it is an instance of this class, or a new instance of this class holding a copy of its bits.
+   */
+  public static LongWordBitSet valueOf(ImmutableBitSet bitset) {
+    if (bitset instanceof LongWordBitSet) {
+      return (LongWordBitSet) bitset;
+    }
+    long[] words = new long[BitSets.wordCount(bitset.size())];
+    for (int i = 0; i < words.length; i++) {
+      words[i] = bitset.getWordAt(i);
+    }
+    return new LongWordBitSet(words, bitset.size(), true);
+  }
+
+  // --------------------------------------------------------------------------
+  // ImmutableBitSet interface
+
+  @Override
+  public boolean getBitAt(int index) {
+    Check.isTrue(index >= 0 && index < size, "Invalid index: %s. Index is expected to be in range [0, %s]", index, size - 1);
+    return (words[index >>> ADDRESS_BITS] & (1L << index)) != 0;
+  }
+
+  @Override
+  public long getWordAt(int wordIndex) {
+    Check.isTrue(
+        wordIndex >= 0 && wordIndex < words.length, 
+        "Invalid word index: %s. Index is expected to be in range [0, %s]", wordIndex, words.length - 1
+    );
+    return words[wordIndex];
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public int cardinality() {
+    int count = 0;
+    for (long word : words) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  @Override
+  public int nextSetBit(int fromIndex) {
+    Check.isTrue(fromIndex >= 0, "Index must be positive. Got %s", fromIndex);
+    if (fromIndex >= size) {
+      return -1;
+    }
+    int  wordIndex = fromIndex >>> ADDRESS_BITS;
+    long word      = words[wordIndex] & (-1L << fromIndex);
+    while (word == 0) {
+      if (++wordIndex == words.length) {
+        return -1;
+      }
+      word = words[wordIndex];
+    }
+    return (wordIndex << ADDRESS_BITS) + Long.numberOfTrailingZeros(word);
+  }
+
+  @Override
+  public int nextClearBit(int fromIndex) {
+    Check.isTrue(fromIndex >= 0, "Index must be positive. Got %s", fromIndex);
+    if (fromIndex >= size) {
+      return -1;
+    }
+    int  wordIndex = fromIndex >>> ADDRESS_BITS;
+    long word      = ~words[wordIndex] & (-1L << fromIndex);
+    while (word == 0) {
+      if (++wordIndex == words.length) {
+        return -1;
+      }
+      word = ~words[wordIndex];
+    }
+    int index = (wordIndex << ADDRESS_BITS) + Long.numberOfTrailingZeros(word);
+    return index < size ? index : -1;
+  }
+
+  @Override
+  public int numberOfLeadingZeros() {
+    for (int i = words.length - 1; i >= 0; i--) {
+      if (words[i] != 0) {
+        return size - (i << ADDRESS_BITS) - (Long.SIZE - Long.numberOfLeadingZeros(words[i]));
+      }
+    }
+    return size;
+  }
+
+  @Override
+  public int rank(int index) {
+    Check.isTrue(index >= 0 && index <= size, "Invalid index: %s. Index is expected to be in range [0, %s]", index, size);
+    int count     = 0;
+    int wordIndex = index >>> ADDRESS_BITS;
+    for (int i = 0; i < wordIndex; i++) {
+      count += Long.bitCount(words[i]);
+    }
+    if ((index & (Long.SIZE - 1)) != 0) {
+      count += Long.bitCount(words[wordIndex] & ~(-1L << index));
+    }
+    return count;
+  }
+
+  @Override
+  public int select(int n) {
+    Check.isTrue(n >= 0, "Rank must be positive. Got %s", n);
+    int remaining = n;
+    for (int i = 0; i < words.length; i++) {
+      int count = Long.bitCount(words[i]);
+      if (remaining < count) {
+        return (i << ADDRESS_BITS) + selectInWord(words[i], remaining);
+      }
+      remaining -= count;
+    }
+    return -1;
+  }
+
+  /**
+   * @return a copy of the words holding this instance's bits (see {@link BitSet#toLongArray()}).
+   */
+  public long[] toLongArray() {
+    return words.clone();
+  }
+
+  @Override
+  public BitSet toMutable() {
+    return BitSet.valueOf(words);
+  }
+
+  @Override
+  public ImmutableBitSet and(ImmutableBitSet other) {
+    long[] otherWords = wordsOf(other);
+    long[] result     = new long[words.length];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = words[i] & otherWords[i];
+    }
+    return new LongWordBitSet(result, size, true);
+  }
+
+  @Override
+  public ImmutableBitSet or(ImmutableBitSet other) {
+    long[] otherWords = wordsOf(other);
+    long[] result     = new long[words.length];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = words[i] | otherWords[i];
+    }
+    return new LongWordBitSet(result, size, true);
+  }
+
+  @Override
+  public ImmutableBitSet xor(ImmutableBitSet other) {
+    long[] otherWords = wordsOf(other);
+    long[] result     = new long[words.length];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = words[i] ^ otherWords[i];
+    }
+    return new LongWordBitSet(result, size, true);
+  }
+
+  @Override
+  public ImmutableBitSet not() {
+    long[] result = new long[words.length];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = ~words[i];
+    }
+    clearUnusedBits(result, size);
+    return new LongWordBitSet(result, size, true);
+  }
+
+  // --------------------------------------------------------------------------
+  // Restricted
+
+  private long[] wordsOf(ImmutableBitSet other) {
+    Check.isTrue(other.size() == size, "Both bitsets must have the same size (got %s vs %s)", size, other.size());
+    if (other instanceof LongWordBitSet) {
+      return ((LongWordBitSet) other).words;
+    }
+    long[] otherWords = new long[words.length];
+    for (int i = 0; i < otherWords.length; i++) {
+      otherWords[i] = other.getWordAt(i);
+    }
+    return otherWords;
+  }
+
+  private static void clearUnusedBits(long[] words, int size) {
+    if (words.length > 0) {
+      words[words.length - 1] &= BitSets.lastWordMask(size);
+    }
+  }
+
+  private static long[] copyOf(long[] words, int size) {
+    Check.isTrue(size >= 0, "Size given is negative: %s", size);
+    Check.isTrue(
+        words.length == BitSets.wordCount(size),
+        "Invalid number of words: %s. Expected %s words for %s bits",
+        words.length, BitSets.wordCount(size), size
+    );
+    long[] copy = words.clone();
+    clearUnusedBits(copy, size);
+    return copy;
+  }
+}
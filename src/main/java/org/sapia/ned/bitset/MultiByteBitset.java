@@ -2,7 +2,6 @@ package org.sapia.ned.bitset;
 
 import org.sapia.ned.util.Binary;
 import org.sapia.ned.util.Check;
-import org.sapia.ned.util.Safe;
 
 /**
  * Implements the {@link ImmutableBitSet} interface over multiple byte arrays.
@@ -29,13 +28,23 @@ public class MultiByteBitset extends ImmutableBitSetSupport {
   }
 
   @Override
-  public int size() {
-    return bytes.length * Byte.SIZE;
+  public long getWordAt(int wordIndex) {
+    Check.isTrue(
+        wordIndex >= 0 && wordIndex < BitSets.wordCount(size()), 
+        "Invalid word index: %s. Index is expected to be in range [0, %s]", wordIndex, BitSets.wordCount(size()) - 1
+    );
+    int  from = wordIndex * Long.BYTES;
+    int  to   = Math.min(from + Long.BYTES, bytes.length);
+    long word = 0;
+    for (int i = from; i < to; i++) {
+      word |= (long) Binary.unsignedByteToInt(bytes[bytes.length - i - 1]) << ((i - from) * Byte.SIZE);
+    }
+    return word;
   }
-  
+
   @Override
-  public int hashCode() {
-    return Safe.hashBytes(bytes);
+  public int size() {
+    return bytes.length * Byte.SIZE;
   }
 
 }
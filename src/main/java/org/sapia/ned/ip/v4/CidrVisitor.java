@@ -0,0 +1,16 @@
+package org.sapia.ned.ip.v4;
+
+/**
+ * Visits CIDR blocks, passed as network address/prefix length pairs, so that no object is created per block.
+ *
+ * @author yduchesne
+ *
+ */
+public interface CidrVisitor {
+
+  /**
+   * @param network the network address of a block, packed into an <code>int</code>.
+   * @param prefixLen the prefix length of the block.
+   */
+  void visit(int network, int prefixLen);
+}
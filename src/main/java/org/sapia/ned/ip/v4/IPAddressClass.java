@@ -1,6 +1,5 @@
 package org.sapia.ned.ip.v4;
 
-import org.sapia.ned.bitset.BooleanBitSet;
 import org.sapia.ned.util.Binary;
 import org.sapia.ned.util.Check;
 import org.sapia.ned.util.IntRange;
@@ -20,6 +19,9 @@ public enum IPAddressClass {
   CLASS_E(4, 0, new IntRange(240, 255)),
   CLASSLESS(0, 0, new IntRange(0, 0));
   
+  // values() returns a copy of the constants on each call
+  private static final IPAddressClass[] CLASSES = IPAddressClass.values();
+  
   private int      classIndicatorBitCount;
   private int      byteCount;
   private IntRange range;
@@ -51,10 +53,10 @@ public enum IPAddressClass {
    * @return the {@link IPAddressClass} corresponding to the given {@link IPv4Address}.
    */
   public static IPAddressClass classOf(IPv4Address addr) {
-    if (addr.getPrefix().size() > 0) {
+    if (addr.getPrefixLength() > 0) {
       return IPAddressClass.CLASSLESS;
     }
-    IPAddressClass[] classes = IPAddressClass.values();
+    IPAddressClass[] classes = CLASSES;
     for (int i = 0; i < classes.length; i ++) {
       if (classes[i].range.isWithin(addr.getIntAt(IPv4Address.LEN - 1))) {
         return classes[i];
@@ -65,7 +67,7 @@ public enum IPAddressClass {
   }
   
   static IPAddressClass classOf(byte firstByte) {
-    IPAddressClass[] classes = IPAddressClass.values();
+    IPAddressClass[] classes = CLASSES;
     int intValue = Binary.unsignedByteToInt(firstByte);
     for (int i = 0; i < classes.length; i ++) {
       if (classes[i].range.isWithin(intValue)) {
@@ -99,16 +101,11 @@ public enum IPAddressClass {
   }
   
   /**
-   * @return an {@link IPv4SubnetMasks} corresponding to this class of IP address.
+   * @return the shared {@link IPv4SubnetMask} corresponding to this class of IP address.
    */
   public IPv4SubnetMask getSubnetMask() {
     Check.state(this != CLASSLESS, "Cannot determine subnet mask for CLASSLESS type (invoke IPv4Address.getSubnetMask())");
-    boolean[] bits = new boolean[IPv4Address.SIZE];
-    int len = Byte.SIZE * byteCount;
-    for (int i = 0; i < len; i++) {
-      bits[i] = true;
-    }
-    return new IPv4SubnetMask(new BooleanBitSet(bits), 0);
+    return IPv4SubnetMask.forClassfulByteCount(byteCount);
   }
 
 }
@@ -1,7 +1,5 @@
 package org.sapia.ned.ip.v4;
 
-import static org.sapia.ned.util.Binary.unsignedByteToInt;
-
 import java.io.Externalizable;
 import java.io.IOException;
 import java.io.ObjectInput;
@@ -10,10 +8,9 @@ import java.util.BitSet;
 
 import org.sapia.ned.NetworkAddress;
 import org.sapia.ned.SubnetMask;
-import org.sapia.ned.bitset.BooleanBitSet;
 import org.sapia.ned.bitset.ByteBitSet;
 import org.sapia.ned.bitset.ImmutableBitSet;
-import org.sapia.ned.bitset.MultiByteBitset;
+import org.sapia.ned.bitset.LongWordBitSet;
 import org.sapia.ned.util.Binary;
 import org.sapia.ned.util.Check;
 import org.sapia.ned.util.ExternalizationOnly;
@@ -41,34 +38,34 @@ public class IPv4Address implements NetworkAddress, Externalizable {
   private static final int MIN = 0;
   private static final int MAX = 255;
   
-  private byte[]         bytes      = new byte[LEN];
+  private static final long UNSIGNED_MASK = 0xFFFFFFFFL;
+  
+  // the address, packed in big-endian order: the first byte of the literal is the MSB.
+  private int            value;
   private int            prefixLen;
   private IPAddressClass clazz;
-  
-  // lazily initialized
-  private transient ImmutableBitSet prefix;
-
-  // lazily initialized
-  private transient MultiByteBitset bitset;
-  
-  // lazily initialized
-  private transient IPv4SubnetMask subnetMask;
     
   @ExternalizationOnly
   public IPv4Address() {
   }
   
   protected IPv4Address(Pair<int[], Integer> data) {
-    int[] parts = data.getA();
+    this(data.getA(), data.getB());
+  }
+  
+  /**
+   * @param parts the IP address bytes (consisting of 8-bit integers) that this address should hold.
+   * @param prefixLen the length of the prefix to use in case of classless addressing (0 if it doesn't apply).
+   */
+  public IPv4Address(int[] parts, int prefixLen) {
     Check.isTrue(parts.length == LEN, "Invalid input for IPv4 address: expected 4 parts, got %s", parts.length);
-    Check.isTrue(data.getB() >= 0, "Invalid IP address prefix length: %s. Must be positive", data.getB());
-    Check.isTrue(data.getB() <= SIZE, "Invalid IP address prefix length: %s. Must be <= %s", data.getB(), SIZE);
+    checkPrefixLength(prefixLen);
     for (int i = 0; i < parts.length; i++) {
       Check.isTrue(parts[i] >= MIN, "Invalid value for IPv4 address part at index %s. Expected >= 0, got: %s", i, parts[i]);
       Check.isTrue(parts[i] <= MAX, "Invalid value for IPv4 address part at index %s. Expected <= 255, got: %s", i, parts[i]);
-      bytes[i] = (byte) parts[i];
+      value = (value << Byte.SIZE) | parts[i];
     }
-    prefixLen = data.getB();
+    this.prefixLen = prefixLen;
     guessClass();
   }
   
@@ -76,32 +73,22 @@ public class IPv4Address implements NetworkAddress, Externalizable {
    * @param parts the IP address bytes (consisting of 8-bit integers) that this address should hold.
    * @param prefixLen the length of the prefix to use in case of classless addressing (0 if it doesn't apply).
    */
-  public IPv4Address(int[] parts, int prefixLen) {
-    this(new Pair<>(parts, 0));
+  public IPv4Address(byte[] parts, int prefixLen) {
+    Check.isTrue(parts.length == LEN, "Invalid input for IPv4 address: expected 4 parts, got %s", parts.length);
+    checkPrefixLength(prefixLen);
+    this.value     = Binary.getInt(parts);
+    this.prefixLen = prefixLen;
+    guessClass();
   }
   
   /**
-   * @param parts the IP address bytes (consisting of 8-bit integers) that this address should hold.
+   * @param value the IP address, packed into an <code>int</code> (the first byte of the address' literal 
+   * being the most significant byte of the given value).
    * @param prefixLen the length of the prefix to use in case of classless addressing (0 if it doesn't apply).
    */
-  public IPv4Address(byte[] parts, int prefixLen) {
-    Check.isTrue(parts.length == LEN, "Invalid input for IPv4 address: expected 4 parts, got %s", parts.length);
-    Check.isTrue(prefixLen >= 0, "Invalid IP address prefix length: %s. Must be positive", prefixLen);
-    Check.isTrue(prefixLen <= SIZE, "Invalid IP address prefix length: %s. Must be <= %s", prefixLen, SIZE);
-
-    for (int i = 0; i < parts.length; i++) {
-      Check.isTrue(
-          unsignedByteToInt(parts[i]) >= MIN, 
-          "Invalid value for IPv4 address part at index %s. Expected >= 0, got: %s", 
-          i, unsignedByteToInt(parts[i])
-      );
-      Check.isTrue(
-          unsignedByteToInt(parts[i]) <= MAX, 
-          "Invalid value for IPv4 address part at index %s. Expected <= 255, got: %s", 
-          i, unsignedByteToInt(parts[i])
-      );
-      bytes[i] = parts[i];
-    }
+  public IPv4Address(int value, int prefixLen) {
+    checkPrefixLength(prefixLen);
+    this.value     = value;
     this.prefixLen = prefixLen;
     guessClass();
   }
@@ -123,22 +110,17 @@ public class IPv4Address implements NetworkAddress, Externalizable {
     this(doParse(literal));
   }
   
+  private IPv4Address(long parsed) {
+    this(IPv4Parser.address(parsed), IPv4Parser.prefixLength(parsed));
+  }
+  
   /**
    * @param bitset an {@link ImmutableBitSet} to create new instance of this class from.
    * @param prefixLen the prefix length of this address.
    */
   public IPv4Address(ImmutableBitSet bitset, int prefixLen) {
     Check.isTrue(bitset.size() == SIZE, "Bitset expected to have size of 32 bits. Got %s bits", bitset.size());
-    int bitIndex = 0;
-    for (int i = 0; i < LEN; i++) {
-      byte part = 0;
-      for (int j = 0; j < Byte.SIZE; j++) {
-        boolean bit = bitset.getBitAt(bitIndex++);
-        int unsigned = Binary.setBitAt(j, part, bit);
-        part = (byte) unsigned;
-      }
-      bytes[LEN - i - 1] = part;
-    }
+    this.value     = (int) bitset.getWordAt(0);
     this.prefixLen = prefixLen;
     guessClass();
   }
@@ -157,13 +139,21 @@ public class IPv4Address implements NetworkAddress, Externalizable {
     return prefixLen;
   }
   
+  /**
+   * @return this address, packed into an <code>int</code> (the first byte of the address' literal 
+   * corresponds to the most significant byte of the returned value).
+   */
+  public int toInt() {
+    return value;
+  }
+  
   /**
    * @param index the index of the byte to return.
    * @return the IP address byte corresponding to the given index. 
    */
   public byte getByteAt(int index) {
     Check.isTrue(index >= 0 && index < LEN , "Invalid index: %s (expected value within [0, %s]", index, LEN - 1);
-    return bytes[LEN - index - 1];
+    return (byte) (value >>> (index * Byte.SIZE));
   }
   
   /**
@@ -179,9 +169,7 @@ public class IPv4Address implements NetworkAddress, Externalizable {
    * @return the {@link BitSet} corresponding to the byte at the given index.
    */
   public ImmutableBitSet getBitSetAt(int index) {
-    Check.isTrue(index >= 0 && index < LEN , "Invalid index: %s (expected value within [0, %s]", index, LEN - 1);
-    byte part = getByteAt(index);
-    return new ByteBitSet(part);
+    return new ByteBitSet(getByteAt(index));
   }
   
   /**
@@ -190,18 +178,14 @@ public class IPv4Address implements NetworkAddress, Externalizable {
    */
   public boolean getBitAt(int index) {
     Check.isTrue(index >= 0 && index < SIZE, "Invalid index: %s. Index is expected to be in range [0, %s]", index, SIZE - 1);
-    int partIndex = index / Byte.SIZE;
-    int offset    = index - partIndex * Byte.SIZE;
-    return Binary.getBitAt(offset, bytes[bytes.length - partIndex - 1]);
+    return Binary.getBitAt(index, value);
   }
 
   /**
    * @return a copy of this instance's bytes.
    */
   public byte[] getBytes() {
-    byte[] copy = new byte[LEN];
-    System.arraycopy(bytes, 0, copy, 0, LEN);
-    return copy;
+    return Binary.getBytes(value);
   }
   
   /**
@@ -211,7 +195,7 @@ public class IPv4Address implements NetworkAddress, Externalizable {
    * @return a copy of this instance, with the given prefix length.
    */
   public IPv4Address withPrefix(int prefixLen) {
-    return new IPv4Address(bytes, prefixLen);
+    return new IPv4Address(value, prefixLen);
   }
   
   /**
@@ -229,18 +213,10 @@ public class IPv4Address implements NetworkAddress, Externalizable {
    * @return the {@link SubnetMask} corresponding to this address.
    */
   public IPv4SubnetMask getSubnetMask() {
-    if (subnetMask == null) {
-      if (clazz == IPAddressClass.CLASSLESS) {
-        boolean[] bits = new boolean[SIZE];
-        for (int i = 0; i < prefixLen; i++) {
-          bits[i] = true;
-        }
-        subnetMask = new IPv4SubnetMask(new BooleanBitSet(bits), prefixLen);
-      } else {
-        subnetMask = clazz.getSubnetMask();
-      }
+    if (clazz == IPAddressClass.CLASSLESS) {
+      return IPv4SubnetMask.forPrefixLength(prefixLen);
     } 
-    return subnetMask;
+    return clazz.getSubnetMask();
   }
   
   /**
@@ -249,13 +225,7 @@ public class IPv4Address implements NetworkAddress, Externalizable {
    */
   public IPv4Address plus(int toAdd) {
     Check.isTrue(toAdd >= 0, "Value to add to IPv4 address %s must be >= 0. Got %s", this, toAdd);
-
-    long currentAddressValue = Binary.unnsignedIntToLong(Binary.getInt(bytes)); 
-    long newAddressValue     = currentAddressValue + toAdd;
-    
-    //Check.isTrue(newAddressValue < currentAddressValue + getAddressCount(), "Value too large: %s. Resulting address would be beyond block capacity (%s)", toAdd, getAddressCount());
-    
-    return new IPv4Address(Binary.getBytes((int) newAddressValue), prefixLen);
+    return new IPv4Address(value + toAdd, prefixLen);
   }
   
   /**
@@ -265,12 +235,11 @@ public class IPv4Address implements NetworkAddress, Externalizable {
   public IPv4Address minus(int toSubtract) {
     Check.isTrue(toSubtract >= 0, "Value to subtract from IPv4 address %s must be >= 0. Got %s", this, toSubtract);
 
-    int  intValue = Binary.getInt(bytes); 
-    long diff     = intValue - toSubtract;
+    long diff = (value & UNSIGNED_MASK) - toSubtract;
     
-    Check.isTrue(diff < 0, "Value too large: %s - operation would yield invalid IPv4 address", toSubtract);
+    Check.isTrue(diff >= 0, "Value too large: %s - operation would yield invalid IPv4 address", toSubtract);
     
-    return new IPv4Address(Binary.getBytes((int) diff), prefixLen);
+    return new IPv4Address((int) diff, prefixLen);
   }
   
   // --------------------------------------------------------------------------
@@ -288,22 +257,12 @@ public class IPv4Address implements NetworkAddress, Externalizable {
   
   @Override
   public ImmutableBitSet toBitSet() {
-    if (bitset == null) {
-      bitset = new MultiByteBitset(bytes);
-    }
-    return bitset;
+    return LongWordBitSet.valueOf(value & UNSIGNED_MASK, SIZE);
   }
   
   @Override
   public ImmutableBitSet getPrefix() {
-    if (prefix == null) {
-      boolean[] bits = new boolean[prefixLen];
-      for (int i = SIZE - prefixLen, j = bits.length - 1; i < SIZE; i++, j--) {
-        bits[j] = getBitAt(i);
-      }
-      prefix = new BooleanBitSet(bits);
-    }
-    return prefix;
+    return LongWordBitSet.valueOf((value & UNSIGNED_MASK) >>> (SIZE - prefixLen), prefixLen);
   }
  
   // --------------------------------------------------------------------------
@@ -312,12 +271,7 @@ public class IPv4Address implements NetworkAddress, Externalizable {
   @Override
   public String toString() {
     StringBuilder s = new StringBuilder(LEN * 3 + 3);
-    for (int i = 0; i < bytes.length; i++) {
-      if (i > 0) {
-        s.append('.');
-      }
-      s.append(Integer.toString(Binary.unsignedByteToInt(bytes[i])));
-    }
+    appendTo(s);
     if (prefixLen > 0) {
       s.append("/").append(prefixLen);
     }
@@ -328,17 +282,16 @@ public class IPv4Address implements NetworkAddress, Externalizable {
   public boolean equals(Object obj) {
     if (obj instanceof IPv4Address) {
       IPv4Address other = IPv4Address.class.cast(obj);
-      return bytes[0] == other.bytes[0] 
-          && bytes[1] == other.bytes[1]
-          && bytes[2] == other.bytes[2]
-          && bytes[3] == other.bytes[3];
+      return value == other.value;
     }
     return false;
   }
   
   @Override
   public int hashCode() {
-     return Safe.hashBytes(bytes) + prefixLen * Safe.PRIME;
+    // consistent with equals(): the prefix length is not taken into account. Equivalent to
+    // Safe.hashBytes(getBytes()), without the array copy
+    return Safe.hashInt(value);
   }
  
   // --------------------------------------------------------------------------
@@ -346,62 +299,55 @@ public class IPv4Address implements NetworkAddress, Externalizable {
   
   @Override
   public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
-    bytes     = (byte[]) in.readObject();
+    value     = Binary.getInt((byte[]) in.readObject());
     prefixLen = in.readInt();
     guessClass();
   }
    
   @Override
   public void writeExternal(ObjectOutput out) throws IOException {
-    out.writeObject(bytes);
+    // keeping the byte array in the stream, for compatibility with previously serialized instances
+    out.writeObject(getBytes());
     out.writeInt(prefixLen);
-    guessClass();
   }
   
   // --------------------------------------------------------------------------
   // Restricted
   
-  protected byte[] doGetBytes() {
-    return bytes;
+  /**
+   * Appends this address' dotted-decimal notation (without the prefix) to the given builder.
+   * 
+   * @param s the {@link StringBuilder} to append to.
+   */
+  protected void appendTo(StringBuilder s) {
+    for (int i = LEN - 1; i >= 0; i--) {
+      s.append(getIntAt(i));
+      if (i > 0) {
+        s.append('.');
+      }
+    }
+  }
+  
+  private static void checkPrefixLength(int prefixLen) {
+    Check.isTrue(prefixLen >= 0, "Invalid IP address prefix length: %s. Must be positive", prefixLen);
+    Check.isTrue(prefixLen <= SIZE, "Invalid IP address prefix length: %s. Must be <= %s", prefixLen, SIZE);
   }
   
   private void guessClass() {
     if (prefixLen > 0) {
       clazz = IPAddressClass.CLASSLESS;
     } else {
-      clazz = IPAddressClass.classOf(bytes[0]);
+      clazz = IPAddressClass.classOf(getByteAt(LEN - 1));
     }
   }
   
-  /**
-   * @param literal an IPv4 address literal.
-   * @return a new instance of this class, corresponding to the given literal.
-   */
-  static Pair<int[], Integer> doParse(String literal) {
-    int prefixIndex = literal.indexOf('/');
-    
-    int prefix = 0;
-    if (prefixIndex > 0) {
-      Check.isTrue(prefixIndex < literal.length() - 1, "Invalid IP address literal: %s. Prefix value is empty", literal);
-      String prefixValue = literal.substring(prefixIndex + 1, literal.length());
-      Check.isInteger(prefixValue, "Invalid prefix (%s) in address %s. Integer value expected", prefixValue, literal);
-      prefix = Integer.parseInt(prefixValue);
-      Check.isTrue(prefix >= 0, "Invalid prefix (%s) in address %. Positive value expected ", prefix, literal);
-      Check.isTrue(prefix <= SIZE, "Invalid prefix (%s) in address %s. Value is too large, expected between 0 and %s", prefix, literal, SIZE);
-    }
-  
-    String   ipAddressValue = prefixIndex > 0 ? literal.substring(0, prefixIndex) : literal;
-    String[] parts          = ipAddressValue.split("\\.");
-    
-    Check.isTrue(parts.length == LEN, "Invalid value for IPv4 address %s: got %s parts, expected %s", ipAddressValue, parts.length, LEN);
-    
-    int[] bytes = new int[LEN];
-    for (int i = 0; i < parts.length; i++) {
-      String p = parts[i];
-      Check.isInteger(p, "IPv4 address literal %s, must be composed of groups of 3 digits separated by dots: %s is not a digit", ipAddressValue, p);
-      bytes[i] = Integer.parseInt(p);
-    }
-    
-    return new Pair<>(bytes, prefix);
+  private static long doParse(String literal) {
+    long result = IPv4Parser.parse(literal);
+    Check.isTrue(
+        IPv4Parser.isValid(result), 
+        "Invalid IPv4 address literal: %s (unexpected input at index %s)", 
+        literal, IPv4Parser.errorIndex(result)
+    );
+    return result;
   }
 }
@@ -0,0 +1,318 @@
+package org.sapia.ned.ip.v4;
+
+import org.sapia.ned.util.Check;
+import org.sapia.ned.util.Safe;
+
+/**
+ * A map of addresses to <code>int</code> values (such as per-address counters), implemented with open addressing
+ * (linear probing) over primitive arrays: the addresses are held in packed form (see {@link IPv4Address#toInt()}),
+ * so that contrary to a <code>HashMap&lt;IPv4Address, Integer&gt;</code>, neither keys nor values are boxed, and no
+ * entry objects are created. Addresses are spread over the table by the finalizer of the MurmurHash3 hash function,
+ * so that sequential addresses, or addresses differing only by the order of their octets, do not collide.
+ * <p>
+ * The address 0.0.0.0 is used to mark empty slots: it is therefore tracked separately. Removals shift subsequent
+ * entries back, so that no tombstones are left in the table.
+ * <p>
+ * The entries are iterated over without boxing, through an {@link EntryVisitor}.
+ * This class is not thread-safe.
+ *
+ * @author yduchesne
+ *
+ */
+public class IPv4AddressIntMap {
+
+  /**
+   * Visits the entries of an {@link IPv4AddressIntMap}.
+   */
+  public interface EntryVisitor {
+
+    /**
+     * @param address an address, packed into an <code>int</code>.
+     * @param value the value associated with the address.
+     */
+    void visit(int address, int value);
+  }
+
+  private static final int   MIN_CAPACITY = 8;
+  private static final float LOAD_FACTOR  = 0.5f;
+
+  private int[]   keys;
+  private int[]   values;
+  private int     mask;
+  private int     size;
+  private int     threshold;
+  private boolean hasZero;
+  private int     zeroValue;
+
+  public IPv4AddressIntMap() {
+    this(MIN_CAPACITY);
+  }
+
+  /**
+   * @param expectedSize the number of entries that the new instance is expected to hold.
+   */
+  public IPv4AddressIntMap(int expectedSize) {
+    Check.isTrue(expectedSize >= 0, "Expected size must be positive. Got %s", expectedSize);
+    allocate(capacityFor(expectedSize));
+  }
+
+  /**
+   * @param address an address, packed into an <code>int</code>.
+   * @param defaultValue the value to return if no value is associated with the given address.
+   * @return the value associated with the given address, or the given default value.
+   */
+  public int get(int address, int defaultValue) {
+    if (address == 0) {
+      return hasZero ? zeroValue : defaultValue;
+    }
+    int i = indexOf(address);
+    while (keys[i] != 0) {
+      if (keys[i] == address) {
+        return values[i];
+      }
+      i = (i + 1) & mask;
+    }
+    return defaultValue;
+  }
+
+  /**
+   * @param address an {@link IPv4Address}.
+   * @param defaultValue the value to return if no value is associated with the given address.
+   * @return the value associated with the given address, or the given default value.
+   */
+  public int get(IPv4Address address, int defaultValue) {
+    return get(address.toInt(), defaultValue);
+  }
+
+  /**
+   * @param address an address, packed into an <code>int</code>.
+   * @return <code>true</code> if a value is associated with the given address.
+   */
+  public boolean containsKey(int address) {
+    if (address == 0) {
+      return hasZero;
+    }
+    int i = indexOf(address);
+    while (keys[i] != 0) {
+      if (keys[i] == address) {
+        return true;
+      }
+      i = (i + 1) & mask;
+    }
+    return false;
+  }
+
+  /**
+   * @param address an {@link IPv4Address}.
+   * @return <code>true</code> if a value is associated with the given address.
+   */
+  public boolean containsKey(IPv4Address address) {
+    return containsKey(address.toInt());
+  }
+
+  /**
+   * @param address an address, packed into an <code>int</code>.
+   * @param value the value to associate with the address (replacing the current one, if any).
+   */
+  public void put(int address, int value) {
+    if (address == 0) {
+      hasZero   = true;
+      zeroValue = value;
+      return;
+    }
+    // insert() may reallocate the values: the slot is obtained before the array is dereferenced
+    int i = insert(address);
+    values[i] = value;
+  }
+
+  /**
+   * @param address an {@link IPv4Address}.
+   * @param value the value to associate with the address (replacing the current one, if any).
+   */
+  public void put(IPv4Address address, int value) {
+    put(address.toInt(), value);
+  }
+
+  /**
+   * Adds the given delta to the value associated with the given address (which is considered to be 0 if there is
+   * no such value).
+   *
+   * @param address an address, packed into an <code>int</code>.
+   * @param delta the delta to add.
+   * @return the new value associated with the address.
+   */
+  public int addTo(int address, int delta) {
+    if (address == 0) {
+      zeroValue = hasZero ? zeroValue + delta : delta;
+      hasZero   = true;
+      return zeroValue;
+    }
+    int i = insert(address);
+    return values[i] += delta;
+  }
+
+  /**
+   * @param address an address, packed into an <code>int</code>.
+   * @return <code>true</code> if the entry of the given address was removed, <code>false</code> if there was none.
+   */
+  public boolean remove(int address) {
+    if (address == 0) {
+      boolean removed = hasZero;
+      hasZero = false;
+      return removed;
+    }
+    int i = indexOf(address);
+    while (keys[i] != 0) {
+      if (keys[i] == address) {
+        removeAt(i);
+        return true;
+      }
+      i = (i + 1) & mask;
+    }
+    return false;
+  }
+
+  /**
+   * @param address an {@link IPv4Address}.
+   * @return <code>true</code> if the entry of the given address was removed, <code>false</code> if there was none.
+   */
+  public boolean remove(IPv4Address address) {
+    return remove(address.toInt());
+  }
+
+  /**
+   * @param visitor the {@link EntryVisitor} to which to pass this instance's entries (in no particular order).
+   */
+  public void forEach(EntryVisitor visitor) {
+    if (hasZero) {
+      visitor.visit(0, zeroValue);
+    }
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != 0) {
+        visitor.visit(keys[i], values[i]);
+      }
+    }
+  }
+
+  /**
+   * @return the number of entries that this instance holds.
+   */
+  public int size() {
+    return hasZero ? size + 1 : size;
+  }
+
+  /**
+   * @return <code>true</code> if this instance holds no entry.
+   */
+  public boolean isEmpty() {
+    return size == 0 && !hasZero;
+  }
+
+  /**
+   * Removes all entries from this instance.
+   */
+  public void clear() {
+    allocate(MIN_CAPACITY);
+    size    = 0;
+    hasZero = false;
+  }
+
+  // --------------------------------------------------------------------------
+  // Object overrides
+
+  @Override
+  public String toString() {
+    StringBuilder s = new StringBuilder("{");
+    forEach((address, value) -> {
+      if (s.length() > 1) {
+        s.append(", ");
+      }
+      s.append(new IPv4Address(address, 0)).append('=').append(value);
+    });
+    return s.append('}').toString();
+  }
+
+  // --------------------------------------------------------------------------
+  // Restricted
+
+  private int indexOf(int address) {
+    return Safe.mix(address) & mask;
+  }
+
+  // returns the slot of the given (non-zero) address, inserting it (with a value of 0) if it is absent
+  private int insert(int address) {
+    int i = indexOf(address);
+    while (keys[i] != 0) {
+      if (keys[i] == address) {
+        return i;
+      }
+      i = (i + 1) & mask;
+    }
+    keys[i]   = address;
+    values[i] = 0;
+    if (++size > threshold) {
+      rehash(keys.length * 2);
+      return slotOf(address);
+    }
+    return i;
+  }
+
+  private int slotOf(int address) {
+    int i = indexOf(address);
+    while (keys[i] != address) {
+      i = (i + 1) & mask;
+    }
+    return i;
+  }
+
+  // backward-shift deletion: moves back the entries that follow the removed one in its probe sequence
+  private void removeAt(int index) {
+    int hole = index;
+    int i    = (index + 1) & mask;
+    while (keys[i] != 0) {
+      int home = indexOf(keys[i]);
+      if (((i - home) & mask) >= ((i - hole) & mask)) {
+        keys[hole]   = keys[i];
+        values[hole] = values[i];
+        hole = i;
+      }
+      i = (i + 1) & mask;
+    }
+    keys[hole] = 0;
+    size--;
+    if (keys.length > MIN_CAPACITY && size < threshold / 4) {
+      rehash(keys.length / 2);
+    }
+  }
+
+  private void rehash(int capacity) {
+    int[] oldKeys   = keys;
+    int[] oldValues = values;
+    allocate(capacity);
+    for (int j = 0; j < oldKeys.length; j++) {
+      if (oldKeys[j] != 0) {
+        int i = indexOf(oldKeys[j]);
+        while (keys[i] != 0) {
+          i = (i + 1) & mask;
+        }
+        keys[i]   = oldKeys[j];
+        values[i] = oldValues[j];
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys      = new int[capacity];
+    values    = new int[capacity];
+    mask      = capacity - 1;
+    threshold = (int) (capacity * LOAD_FACTOR);
+  }
+
+  private static int capacityFor(int expectedSize) {
+    int capacity = MIN_CAPACITY;
+    while (capacity * LOAD_FACTOR < expectedSize) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+}
@@ -0,0 +1,303 @@
+package org.sapia.ned.ip.v4;
+
+import java.util.function.IntFunction;
+
+import org.sapia.ned.util.Check;
+import org.sapia.ned.util.Safe;
+
+/**
+ * A map of addresses to objects (such as sessions), implemented with open addressing (linear probing): the addresses
+ * are held in packed form (see {@link IPv4Address#toInt()}) in a primitive array, and the values in a parallel array,
+ * so that contrary to a <code>HashMap&lt;IPv4Address, V&gt;</code>, no key or entry objects are created. Addresses are
+ * spread over the table by the finalizer of the MurmurHash3 hash function, so that sequential addresses, or addresses
+ * differing only by the order of their octets, do not collide.
+ * <p>
+ * The address 0.0.0.0 is used to mark empty slots: it is therefore tracked separately. Removals shift subsequent
+ * entries back, so that no tombstones are left in the table. Values may not be <code>null</code>.
+ * <p>
+ * The entries are iterated over without boxing the addresses, through an {@link EntryVisitor}.
+ * This class is not thread-safe.
+ *
+ * @param <V> the type of the values.
+ *
+ * @author yduchesne
+ *
+ */
+public class IPv4AddressMap<V> {
+
+  /**
+   * Visits the entries of an {@link IPv4AddressMap}.
+   *
+   * @param <V> the type of the values.
+   */
+  public interface EntryVisitor<V> {
+
+    /**
+     * @param address an address, packed into an <code>int</code>.
+     * @param value the value associated with the address.
+     */
+    void visit(int address, V value);
+  }
+
+  private static final int   MIN_CAPACITY = 8;
+  private static final float LOAD_FACTOR  = 0.5f;
+
+  private int[]    keys;
+  private Object[] values;
+  private int      mask;
+  private int      size;
+  private int      threshold;
+  private V        zeroValue;
+
+  public IPv4AddressMap() {
+    this(MIN_CAPACITY);
+  }
+
+  /**
+   * @param expectedSize the number of entries that the new instance is expected to hold.
+   */
+  public IPv4AddressMap(int expectedSize) {
+    Check.isTrue(expectedSize >= 0, "Expected size must be positive. Got %s", expectedSize);
+    allocate(capacityFor(expectedSize));
+  }
+
+  /**
+   * @param address an address, packed into an <code>int</code>.
+   * @return the value associated with the given address, or <code>null</code> if there is none.
+   */
+  @SuppressWarnings("unchecked")
+  public V get(int address) {
+    if (address == 0) {
+      return zeroValue;
+    }
+    int i = indexOf(address);
+    while (keys[i] != 0) {
+      if (keys[i] == address) {
+        return (V) values[i];
+      }
+      i = (i + 1) & mask;
+    }
+    return null;
+  }
+
+  /**
+   * @param address an {@link IPv4Address}.
+   * @return the value associated with the given address, or <code>null</code> if there is none.
+   */
+  public V get(IPv4Address address) {
+    return get(address.toInt());
+  }
+
+  /**
+   * @param address an address, packed into an <code>int</code>.
+   * @return <code>true</code> if a value is associated with the given address.
+   */
+  public boolean containsKey(int address) {
+    return get(address) != null;
+  }
+
+  /**
+   * @param address an {@link IPv4Address}.
+   * @return <code>true</code> if a value is associated with the given address.
+   */
+  public boolean containsKey(IPv4Address address) {
+    return get(address.toInt()) != null;
+  }
+
+  /**
+   * @param address an address, packed into an <code>int</code>.
+   * @param value the value to associate with the address (replacing the current one, if any).
+   * @return the value that was previously associated with the address, or <code>null</code> if there was none.
+   */
+  @SuppressWarnings("unchecked")
+  public V put(int address, V value) {
+    Check.isTrue(value != null, "Value cannot be null");
+    if (address == 0) {
+      V previous = zeroValue;
+      zeroValue = value;
+      return previous;
+    }
+    int i = indexOf(address);
+    while (keys[i] != 0) {
+      if (keys[i] == address) {
+        V previous = (V) values[i];
+        values[i] = value;
+        return previous;
+      }
+      i = (i + 1) & mask;
+    }
+    keys[i]   = address;
+    values[i] = value;
+    if (++size > threshold) {
+      rehash(keys.length * 2);
+    }
+    return null;
+  }
+
+  /**
+   * @param address an {@link IPv4Address}.
+   * @param value the value to associate with the address (replacing the current one, if any).
+   * @return the value that was previously associated with the address, or <code>null</code> if there was none.
+   */
+  public V put(IPv4Address address, V value) {
+    return put(address.toInt(), value);
+  }
+
+  /**
+   * @param address an address, packed into an <code>int</code>.
+   * @param factory the {@link IntFunction} to invoke to create the value to associate with the address, if there is
+   * none (it is passed the address, and may not return <code>null</code>).
+   * @return the value associated with the address.
+   */
+  public V computeIfAbsent(int address, IntFunction<? extends V> factory) {
+    V value = get(address);
+    if (value == null) {
+      value = factory.apply(address);
+      put(address, value);
+    }
+    return value;
+  }
+
+  /**
+   * @param address an address, packed into an <code>int</code>.
+   * @return the value that was associated with the given address, or <code>null</code> if there was none.
+   */
+  @SuppressWarnings("unchecked")
+  public V remove(int address) {
+    if (address == 0) {
+      V previous = zeroValue;
+      zeroValue = null;
+      return previous;
+    }
+    int i = indexOf(address);
+    while (keys[i] != 0) {
+      if (keys[i] == address) {
+        V previous = (V) values[i];
+        removeAt(i);
+        return previous;
+      }
+      i = (i + 1) & mask;
+    }
+    return null;
+  }
+
+  /**
+   * @param address an {@link IPv4Address}.
+   * @return the value that was associated with the given address, or <code>null</code> if there was none.
+   */
+  public V remove(IPv4Address address) {
+    return remove(address.toInt());
+  }
+
+  /**
+   * @param visitor the {@link EntryVisitor} to which to pass this instance's entries (in no particular order).
+   */
+  @SuppressWarnings("unchecked")
+  public void forEach(EntryVisitor<? super V> visitor) {
+    if (zeroValue != null) {
+      visitor.visit(0, zeroValue);
+    }
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != 0) {
+        visitor.visit(keys[i], (V) values[i]);
+      }
+    }
+  }
+
+  /**
+   * @return the number of entries that this instance holds.
+   */
+  public int size() {
+    return zeroValue != null ? size + 1 : size;
+  }
+
+  /**
+   * @return <code>true</code> if this instance holds no entry.
+   */
+  public boolean isEmpty() {
+    return size == 0 && zeroValue == null;
+  }
+
+  /**
+   * Removes all entries from this instance.
+   */
+  public void clear() {
+    allocate(MIN_CAPACITY);
+    size      = 0;
+    zeroValue = null;
+  }
+
+  // --------------------------------------------------------------------------
+  // Object overrides
+
+  @Override
+  public String toString() {
+    StringBuilder s = new StringBuilder("{");
+    forEach((address, value) -> {
+      if (s.length() > 1) {
+        s.append(", ");
+      }
+      s.append(new IPv4Address(address, 0)).append('=').append(value);
+    });
+    return s.append('}').toString();
+  }
+
+  // --------------------------------------------------------------------------
+  // Restricted
+
+  private int indexOf(int address) {
+    return Safe.mix(address) & mask;
+  }
+
+  // backward-shift deletion: moves back the entries that follow the removed one in its probe sequence
+  private void removeAt(int index) {
+    int hole = index;
+    int i    = (index + 1) & mask;
+    while (keys[i] != 0) {
+      int home = indexOf(keys[i]);
+      if (((i - home) & mask) >= ((i - hole) & mask)) {
+        keys[hole]   = keys[i];
+        values[hole] = values[i];
+        hole = i;
+      }
+      i = (i + 1) & mask;
+    }
+    keys[hole]   = 0;
+    values[hole] = null;
+    size--;
+    if (keys.length > MIN_CAPACITY && size < threshold / 4) {
+      rehash(keys.length / 2);
+    }
+  }
+
+  private void rehash(int capacity) {
+    int[]    oldKeys   = keys;
+    Object[] oldValues = values;
+    allocate(capacity);
+    for (int j = 0; j < oldKeys.length; j++) {
+      if (oldKeys[j] != 0) {
+        int i = indexOf(oldKeys[j]);
+        while (keys[i] != 0) {
+          i = (i + 1) & mask;
+        }
+        keys[i]   = oldKeys[j];
+        values[i] = oldValues[j];
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys      = new int[capacity];
+    values    = new Object[capacity];
+    mask      = capacity - 1;
+    threshold = (int) (capacity * LOAD_FACTOR);
+  }
+
+  private static int capacityFor(int expectedSize) {
+    int capacity = MIN_CAPACITY;
+    while (capacity * LOAD_FACTOR < expectedSize) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+}
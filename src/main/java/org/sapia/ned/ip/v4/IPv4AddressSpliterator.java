@@ -0,0 +1,92 @@
+package org.sapia.ned.ip.v4;
+
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+
+import org.sapia.ned.util.Check;
+
+/**
+ * A {@link Spliterator.OfInt} over a range of IPv4 addresses, each packed into an <code>int</code> 
+ * (see {@link IPv4Address#toInt()}). The range is expressed with unsigned values held in <code>long</code>s,
+ * so that it may cover the whole IPv4 address space (that is, up to 2^32 addresses).
+ * <p>
+ * An instance of this class splits by halving its remaining range, which yields balanced chunks when
+ * traversed by a parallel stream. Note that this spliterator does not report {@link Spliterator#SORTED}:
+ * the addresses are produced in ascending unsigned order, which is not the natural order of <code>int</code>s
+ * (addresses from <code>128.0.0.0</code> onwards are negative).
+ *
+ * @author yduchesne
+ *
+ */
+public class IPv4AddressSpliterator implements Spliterator.OfInt {
+  
+  private static final long MAX_EXCLUSIVE   = 1L << IPv4Address.SIZE;
+  private static final int  CHARACTERISTICS = 
+      ORDERED | DISTINCT | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+  
+  private long from;
+  private long to;
+  
+  /**
+   * @param from the first address of the range, as an unsigned value (inclusive).
+   * @param to the end of the range, as an unsigned value (exclusive: up to 2^32).
+   */
+  public IPv4AddressSpliterator(long from, long to) {
+    Check.isTrue(
+        from >= 0 && from <= to && to <= MAX_EXCLUSIVE, 
+        "Invalid address range: [%s, %s). Expected 0 <= from <= to <= 2^32", from, to
+    );
+    this.from = from;
+    this.to   = to;
+  }
+  
+  /**
+   * @param subnet an {@link IPv4Subnet}.
+   * @return a new instance of this class, over the given subnet's addresses.
+   */
+  public static IPv4AddressSpliterator of(IPv4Subnet subnet) {
+    long first = subnet.getNetworkAddress().toInt() & (MAX_EXCLUSIVE - 1);
+    return new IPv4AddressSpliterator(first, first + subnet.getAddressCount());
+  }
+  
+  @Override
+  public boolean tryAdvance(IntConsumer action) {
+    if (from < to) {
+      action.accept((int) from++);
+      return true;
+    }
+    return false;
+  }
+  
+  @Override
+  public void forEachRemaining(IntConsumer action) {
+    long i   = from;
+    long end = to;
+    from = end;
+    for (; i < end; i++) {
+      action.accept((int) i);
+    }
+  }
+  
+  @Override
+  public Spliterator.OfInt trySplit() {
+    long mid = from + ((to - from) >>> 1);
+    if (mid <= from) {
+      return null;
+    }
+    IPv4AddressSpliterator prefix = new IPv4AddressSpliterator(from, mid);
+    from = mid;
+    return prefix;
+  }
+  
+  @Override
+  public long estimateSize() {
+    return to - from;
+  }
+  
+  @Override
+  public int characteristics() {
+    return CHARACTERISTICS;
+  }
+
+}
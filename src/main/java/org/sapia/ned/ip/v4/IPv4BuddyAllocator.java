@@ -0,0 +1,162 @@
+package org.sapia.ned.ip.v4;
+
+import org.sapia.ned.util.Check;
+import org.sapia.ned.util.IntHashSet;
+
+/**
+ * Allocates variable-length subnets (VLSM) out of a base block of addresses, according to the buddy system:
+ * <ul>
+ *   <li>a request for a given prefix length is served from the smallest free block that can hold it
+ *   (best fit). If that block is larger than requested, it is split in halves repeatedly, the unused halves
+ *   being kept as free blocks;
+ *   <li>when a subnet is freed, it is merged with its buddy (the other half of the block from which it was split)
+ *   if the latter is also free, and so on up the levels.
+ * </ul>
+ * Free and allocated blocks are tracked per prefix length, in sets of network addresses (packed into <code>int</code>s),
+ * so that allocating and freeing take time proportional to the number of prefix levels crossed (at most 32).
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @author yduchesne
+ *
+ */
+public class IPv4BuddyAllocator {
+
+  private int          basePrefixLen;
+  private IntHashSet[] free;
+  private IntHashSet[] allocated;
+  private long         freeAddressCount;
+
+  /**
+   * @param baseAddress the network address of the base block, whose prefix length indicates the size of the block.
+   */
+  public IPv4BuddyAllocator(IPv4Address baseAddress) {
+    this.basePrefixLen = baseAddress.getPrefixLength();
+    Check.isTrue(basePrefixLen > 0, "Expected prefix length to be > 0 for base address %s", baseAddress);
+    Check.isTrue(
+        (baseAddress.toInt() & ~IPv4CidrLong.mask(basePrefixLen)) == 0,
+        "The base address %s must be the network address of its block", baseAddress
+    );
+    free      = new IntHashSet[IPv4Address.SIZE + 1];
+    allocated = new IntHashSet[IPv4Address.SIZE + 1];
+    for (int i = basePrefixLen; i <= IPv4Address.SIZE; i++) {
+      free[i]      = new IntHashSet();
+      allocated[i] = new IntHashSet();
+    }
+    free[basePrefixLen].add(baseAddress.toInt());
+    freeAddressCount = blockSize(basePrefixLen);
+  }
+
+  /**
+   * @param prefixLen the prefix length of the subnet to allocate.
+   * @return the {@link IPv4Subnet} that was allocated, or <code>null</code> if no free block can hold a subnet
+   * of the given prefix length.
+   */
+  public IPv4Subnet allocate(int prefixLen) {
+    Check.isTrue(
+        prefixLen >= basePrefixLen && prefixLen <= IPv4Address.SIZE,
+        "Invalid prefix length: %s. Must be within [%s, %s]", prefixLen, basePrefixLen, IPv4Address.SIZE
+    );
+    // best fit: the smallest free block that is large enough
+    int level = prefixLen;
+    while (level >= basePrefixLen && free[level].isEmpty()) {
+      level--;
+    }
+    if (level < basePrefixLen) {
+      return null;
+    }
+    int network = free[level].removeAny();
+    // splitting: the lower half is kept, the upper half is freed, until the requested size is reached
+    while (level < prefixLen) {
+      level++;
+      free[level].add(network | blockBit(level));
+    }
+    allocated[prefixLen].add(network);
+    freeAddressCount -= blockSize(prefixLen);
+    return IPv4CidrLong.toSubnet(network, prefixLen);
+  }
+
+  /**
+   * @param numberOfAddresses the number of addresses that the subnet to allocate should hold at least.
+   * @return the {@link IPv4Subnet} that was allocated (its size being the given number of addresses, rounded up to
+   * the next power of two), or <code>null</code> if no free block can hold the given number of addresses.
+   */
+  public IPv4Subnet allocateAddresses(long numberOfAddresses) {
+    Check.isTrue(
+        numberOfAddresses > 0 && numberOfAddresses <= blockSize(basePrefixLen),
+        "Invalid number of addresses: %s. Must be within [1, %s]", numberOfAddresses, blockSize(basePrefixLen)
+    );
+    int hostBits = Long.SIZE - Long.numberOfLeadingZeros(numberOfAddresses - 1);
+    return allocate(IPv4Address.SIZE - hostBits);
+  }
+
+  /**
+   * @param subnet an {@link IPv4Subnet} that was returned by this instance, and that should be freed.
+   * @throws IllegalArgumentException if the given subnet is not currently allocated.
+   */
+  public void free(IPv4Subnet subnet) {
+    free(subnet.getNetworkAddress().toInt(), subnet.getNetworkAddress().getPrefixLength());
+  }
+
+  /**
+   * @param network the network address of the subnet to free, packed into an <code>int</code>.
+   * @param prefixLen the prefix length of the subnet to free.
+   * @throws IllegalArgumentException if the given subnet is not currently allocated.
+   */
+  public void free(int network, int prefixLen) {
+    if (prefixLen < basePrefixLen || prefixLen > IPv4Address.SIZE || !allocated[prefixLen].remove(network)) {
+      // not using Check here, to avoid creating the address for the message when the subnet is valid
+      throw new IllegalArgumentException(String.format("Subnet not allocated: %s/%s", new IPv4Address(network, 0), prefixLen));
+    }
+    freeAddressCount += blockSize(prefixLen);
+    // coalescing: as long as the buddy is free, both are merged into the block of the upper level
+    int block = network;
+    int level = prefixLen;
+    while (level > basePrefixLen && free[level].remove(block ^ blockBit(level))) {
+      block &= ~blockBit(level);
+      level--;
+    }
+    free[level].add(block);
+  }
+
+  /**
+   * @param subnet an {@link IPv4Subnet}.
+   * @return <code>true</code> if the given subnet is currently allocated by this instance.
+   */
+  public boolean isAllocated(IPv4Subnet subnet) {
+    int prefixLen = subnet.getNetworkAddress().getPrefixLength();
+    return prefixLen >= basePrefixLen && prefixLen <= IPv4Address.SIZE
+        && allocated[prefixLen].contains(subnet.getNetworkAddress().toInt());
+  }
+
+  /**
+   * @return the number of addresses that are not currently allocated.
+   */
+  public long getFreeAddressCount() {
+    return freeAddressCount;
+  }
+
+  /**
+   * @param prefixLen a prefix length.
+   * @return the number of free blocks having the given prefix length.
+   */
+  public int getFreeBlockCount(int prefixLen) {
+    Check.isTrue(
+        prefixLen >= basePrefixLen && prefixLen <= IPv4Address.SIZE,
+        "Invalid prefix length: %s. Must be within [%s, %s]", prefixLen, basePrefixLen, IPv4Address.SIZE
+    );
+    return free[prefixLen].size();
+  }
+
+  // --------------------------------------------------------------------------
+  // Restricted
+
+  // the bit that distinguishes the two halves of a block of the level above the given one
+  private static int blockBit(int prefixLen) {
+    return 1 << (IPv4Address.SIZE - prefixLen);
+  }
+
+  private static long blockSize(int prefixLen) {
+    return 1L << (IPv4Address.SIZE - prefixLen);
+  }
+}
@@ -0,0 +1,176 @@
+package org.sapia.ned.ip.v4;
+
+import java.util.List;
+
+import org.sapia.ned.util.Check;
+
+/**
+ * Computes the minimal list of CIDR blocks that exactly covers a given set of subnets, addresses and ranges - this is
+ * the inverse of what the {@link IPv4SubnetGenerator} does.
+ * <p>
+ * The blocks that are added are accumulated as packed ranges (in a primitive array), which are sorted and merged when
+ * overlapping or adjacent (see {@link IPv4RangeSet.Builder#build()}): aggregating takes <code>O(n log n)</code> time,
+ * or <code>O(n)</code> if the blocks were added in ascending order. Each merged range is then decomposed into the
+ * largest aligned blocks that it holds (see {@link #decompose(int, int, CidrVisitor)}).
+ * <p>
+ * The blocks of the cover are passed to a {@link CidrVisitor} as network address/prefix length pairs, so that no
+ * object is created per block (unless they are requested as {@link IPv4Subnet}s, with {@link #aggregate()}).
+ * This class is not thread-safe.
+ *
+ * @author yduchesne
+ *
+ */
+public class IPv4CidrAggregator {
+
+  private static final long UNSIGNED_MASK = 0xFFFFFFFFL;
+
+  private IPv4RangeSet.Builder ranges;
+
+  public IPv4CidrAggregator() {
+    this(0);
+  }
+
+  /**
+   * @param expectedSize the number of blocks, addresses and ranges that are expected to be added to the new instance.
+   */
+  public IPv4CidrAggregator(int expectedSize) {
+    ranges = IPv4RangeSet.builder(expectedSize);
+  }
+
+  /**
+   * @param network the network address of a block to add, packed into an <code>int</code> (the bits beyond
+   * the prefix length are ignored).
+   * @param prefixLen the prefix length of the block, from 0 to 32.
+   * @return this instance.
+   */
+  public IPv4CidrAggregator add(int network, int prefixLen) {
+    IPv4CidrLong.checkPrefixLength(prefixLen);
+    int mask = IPv4CidrLong.mask(prefixLen);
+    ranges.add(network & mask, network | ~mask);
+    return this;
+  }
+
+  /**
+   * @param subnet an {@link IPv4Subnet} to add.
+   * @return this instance.
+   */
+  public IPv4CidrAggregator add(IPv4Subnet subnet) {
+    ranges.add(subnet);
+    return this;
+  }
+
+  /**
+   * @param address a single {@link IPv4Address} to add (its prefix length is not taken into account).
+   * @return this instance.
+   */
+  public IPv4CidrAggregator add(IPv4Address address) {
+    ranges.add(address);
+    return this;
+  }
+
+  /**
+   * @param blocks an {@link IPv4CidrLongList} holding packed blocks to add.
+   * @return this instance.
+   */
+  public IPv4CidrAggregator add(IPv4CidrLongList blocks) {
+    for (int i = 0; i < blocks.size(); i++) {
+      long cidr = blocks.get(i);
+      ranges.add(IPv4CidrLong.first(cidr), IPv4CidrLong.last(cidr));
+    }
+    return this;
+  }
+
+  /**
+   * @param start the first address of a range to add, packed into an <code>int</code>.
+   * @param end the last address of the range (inclusive), packed into an <code>int</code>.
+   * @return this instance.
+   */
+  public IPv4CidrAggregator addRange(int start, int end) {
+    ranges.add(start, end);
+    return this;
+  }
+
+  /**
+   * @return the number of blocks, addresses and ranges that were added to this instance.
+   */
+  public int size() {
+    return ranges.size();
+  }
+
+  /**
+   * Passes the blocks of the minimal cover of the blocks, addresses and ranges added so far to the given visitor,
+   * in ascending order of network address.
+   *
+   * @param visitor the {@link CidrVisitor} to which to pass the blocks.
+   * @return the number of blocks of the cover.
+   */
+  public int aggregate(CidrVisitor visitor) {
+    IPv4RangeSet set   = ranges.build();
+    int          count = 0;
+    for (int i = 0; i < set.getRangeCount(); i++) {
+      count += decompose(set.getRangeStartAt(i), set.getRangeEndAt(i), visitor);
+    }
+    return count;
+  }
+
+  /**
+   * Adds the blocks of the minimal cover of the blocks, addresses and ranges added so far to the given list, packed
+   * into <code>long</code>s, in ascending order of network address.
+   *
+   * @param out the {@link IPv4CidrLongList} to which to add the blocks.
+   * @return the number of blocks of the cover.
+   * @see #aggregate(CidrVisitor)
+   */
+  public int aggregate(IPv4CidrLongList out) {
+    return aggregate((network, prefixLen) -> out.add(IPv4CidrLong.pack(network, prefixLen)));
+  }
+
+  /**
+   * @return the {@link List} of {@link IPv4Subnet}s corresponding to the minimal cover of the blocks, addresses
+   * and ranges added so far, in ascending order of network address.
+   * @see #aggregate(CidrVisitor)
+   */
+  public List<IPv4Subnet> aggregate() {
+    IPv4CidrLongList blocks = new IPv4CidrLongList();
+    aggregate(blocks);
+    return blocks.toSubnets();
+  }
+
+  /**
+   * Decomposes the given range into the minimal list of CIDR blocks that covers it exactly.
+   *
+   * @param start the first address of the range, packed into an <code>int</code>.
+   * @param end the last address of the range (inclusive), packed into an <code>int</code>.
+   * @param visitor the {@link CidrVisitor} to which to pass the blocks, in ascending order.
+   * @return the number of blocks.
+   */
+  public static int decompose(int start, int end, CidrVisitor visitor) {
+    Check.isTrue(Integer.compareUnsigned(start, end) <= 0, "Invalid range: %s - %s", start, end);
+    long from  = start & UNSIGNED_MASK;
+    long to    = end & UNSIGNED_MASK;
+    int  count = 0;
+    while (from <= to) {
+      // the largest block that is aligned on the current address, and that does not extend beyond the range
+      int alignment = Math.min(Long.numberOfTrailingZeros(from), IPv4Address.SIZE);
+      int fit       = Long.SIZE - 1 - Long.numberOfLeadingZeros(to - from + 1);
+      int hostBits  = Math.min(alignment, fit);
+      visitor.visit((int) from, IPv4Address.SIZE - hostBits);
+      from += 1L << hostBits;
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * @param start the first address of a range.
+   * @param end the last address of the range (inclusive).
+   * @return the {@link List} of {@link IPv4Subnet}s corresponding to the minimal list of CIDR blocks that covers
+   * the range exactly, in ascending order.
+   * @see #decompose(int, int, CidrVisitor)
+   */
+  public static List<IPv4Subnet> decompose(IPv4Address start, IPv4Address end) {
+    IPv4CidrLongList blocks = new IPv4CidrLongList();
+    decompose(start.toInt(), end.toInt(), (network, prefixLen) -> blocks.add(IPv4CidrLong.pack(network, prefixLen)));
+    return blocks.toSubnets();
+  }
+}
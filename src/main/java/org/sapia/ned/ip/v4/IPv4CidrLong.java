@@ -0,0 +1,246 @@
+package org.sapia.ned.ip.v4;
+
+import org.sapia.ned.util.Check;
+
+/**
+ * Holds static methods operating on CIDR blocks packed into <code>long</code>s, so that blocks can be handled in bulk
+ * without creating {@link IPv4Subnet} and {@link IPv4Address} instances.
+ * <p>
+ * A packed block holds its network address (as an unsigned value) in bits 8 to 39, and its prefix length in bits 0
+ * to 7: packed blocks are thus positive, and their natural order is the order of their network address, then of their
+ * prefix length (a block comes before the blocks that it contains). The network address of a packed block never has
+ * bits set beyond its prefix length: {@link #of(int, int)} clears them.
+ * <p>
+ * The methods of this class other than {@link #of(int, int)} and {@link #of(IPv4Subnet)} expect valid packed blocks,
+ * and do not check them.
+ *
+ * @author yduchesne
+ *
+ */
+public final class IPv4CidrLong {
+
+  private static final int  PREFIX_BITS   = 8;
+  private static final int  PREFIX_MASK   = (1 << PREFIX_BITS) - 1;
+  private static final long UNSIGNED_MASK = 0xFFFFFFFFL;
+
+  private IPv4CidrLong() {
+  }
+
+  /**
+   * @param network the network address of a block, packed into an <code>int</code> (the bits beyond the prefix length
+   * are ignored).
+   * @param prefixLen the prefix length of the block, from 0 to 32.
+   * @return the packed block.
+   */
+  public static long of(int network, int prefixLen) {
+    checkPrefixLength(prefixLen);
+    return pack(network & mask(prefixLen), prefixLen);
+  }
+
+  /**
+   * @param subnet an {@link IPv4Subnet}.
+   * @return the given subnet, as a packed block.
+   * @throws IllegalArgumentException if the given subnet does not correspond to a CIDR block.
+   */
+  public static long of(IPv4Subnet subnet) {
+    long size      = subnet.getAddressCount();
+    int  network   = subnet.getNetworkAddress().toInt();
+    int  prefixLen = IPv4Address.SIZE - Long.numberOfTrailingZeros(size);
+    Check.isTrue(
+        (size & (size - 1)) == 0 && (network & ~mask(prefixLen)) == 0,
+        "Subnet %s does not correspond to a CIDR block", subnet
+    );
+    return pack(network, prefixLen);
+  }
+
+  /**
+   * @param cidr a packed block.
+   * @return the {@link IPv4Subnet} corresponding to the given block (whose addresses have the block's prefix length).
+   */
+  public static IPv4Subnet toSubnet(long cidr) {
+    return toSubnet(first(cidr), prefixLength(cidr));
+  }
+
+  /**
+   * @param network the network address of a block, packed into an <code>int</code> (the bits beyond the prefix length
+   * are expected to be cleared).
+   * @param prefixLen the prefix length of the block, from 0 to 32 (not checked).
+   * @return the {@link IPv4Subnet} corresponding to the given block (whose addresses have the block's prefix length).
+   */
+  public static IPv4Subnet toSubnet(int network, int prefixLen) {
+    return new IPv4Subnet(
+        new IPv4Address(network, prefixLen), new IPv4Address(network | ~mask(prefixLen), prefixLen)
+    );
+  }
+
+  /**
+   * @param prefixLen a prefix length (not checked: see {@link #checkPrefixLength(int)}).
+   * @return the network mask corresponding to the given prefix length, packed into an <code>int</code>.
+   */
+  public static int mask(int prefixLen) {
+    // shifting a long by 32 yields 0 in the lower bits, where shifting an int would leave it unchanged
+    return (int) (-1L << (IPv4Address.SIZE - prefixLen));
+  }
+
+  /**
+   * @param prefixLen a prefix length.
+   * @throws IllegalArgumentException if the given prefix length is not within [0, 32].
+   */
+  public static void checkPrefixLength(int prefixLen) {
+    if (prefixLen < 0 || prefixLen > IPv4Address.SIZE) {
+      throw new IllegalArgumentException(
+          String.format("Invalid prefix length: %s. Must be within [0, %s]", prefixLen, IPv4Address.SIZE)
+      );
+    }
+  }
+
+  /**
+   * @param cidr a packed block.
+   * @return the prefix length of the given block.
+   */
+  public static int prefixLength(long cidr) {
+    return (int) cidr & PREFIX_MASK;
+  }
+
+  /**
+   * @param cidr a packed block.
+   * @return the network address of the given block (that is, its first address), packed into an <code>int</code>.
+   */
+  public static int first(long cidr) {
+    return (int) (cidr >>> PREFIX_BITS);
+  }
+
+  /**
+   * @param cidr a packed block.
+   * @return the last address of the given block, packed into an <code>int</code>.
+   */
+  public static int last(long cidr) {
+    return first(cidr) | ~mask(prefixLength(cidr));
+  }
+
+  /**
+   * @param cidr a packed block.
+   * @return the number of addresses in the given block.
+   */
+  public static long size(long cidr) {
+    return 1L << (IPv4Address.SIZE - prefixLength(cidr));
+  }
+
+  /**
+   * @param cidr a packed block.
+   * @param address an address, packed into an <code>int</code>.
+   * @return <code>true</code> if the given block contains the given address.
+   */
+  public static boolean contains(long cidr, int address) {
+    return (address & mask(prefixLength(cidr))) == first(cidr);
+  }
+
+  /**
+   * @param outer a packed block.
+   * @param inner another packed block.
+   * @return <code>true</code> if the first block contains the second one (a block contains itself).
+   */
+  public static boolean contains(long outer, long inner) {
+    int prefixLen = prefixLength(outer);
+    return prefixLen <= prefixLength(inner) && (first(inner) & mask(prefixLen)) == first(outer);
+  }
+
+  /**
+   * @param a a packed block.
+   * @param b another packed block.
+   * @return <code>true</code> if the given blocks have addresses in common (that is, if one contains the other).
+   */
+  public static boolean overlaps(long a, long b) {
+    int prefixLen = Math.min(prefixLength(a), prefixLength(b));
+    return ((first(a) ^ first(b)) & mask(prefixLen)) == 0;
+  }
+
+  /**
+   * @param cidr a packed block, whose prefix length is greater than 0.
+   * @return the block whose prefix is one bit shorter, and which contains the given block.
+   */
+  public static long parent(long cidr) {
+    int prefixLen = prefixLength(cidr);
+    if (prefixLen == 0) {
+      throw new IllegalArgumentException("Block has no parent: " + toString(cidr));
+    }
+    return pack(first(cidr) & mask(prefixLen - 1), prefixLen - 1);
+  }
+
+  /**
+   * @param cidr a packed block, whose prefix length is greater than 0.
+   * @return the other block with which the given block shares its parent.
+   */
+  public static long sibling(long cidr) {
+    int prefixLen = prefixLength(cidr);
+    if (prefixLen == 0) {
+      throw new IllegalArgumentException("Block has no sibling: " + toString(cidr));
+    }
+    return pack(first(cidr) ^ (1 << (IPv4Address.SIZE - prefixLen)), prefixLen);
+  }
+
+  /**
+   * @param cidr a packed block, whose prefix length is less than 32.
+   * @return the first half of the given block.
+   */
+  public static long lowerChild(long cidr) {
+    int prefixLen = prefixLength(cidr);
+    if (prefixLen == IPv4Address.SIZE) {
+      throw new IllegalArgumentException("Block has no children: " + toString(cidr));
+    }
+    return pack(first(cidr), prefixLen + 1);
+  }
+
+  /**
+   * @param cidr a packed block, whose prefix length is less than 32.
+   * @return the second half of the given block.
+   */
+  public static long upperChild(long cidr) {
+    int prefixLen = prefixLength(cidr);
+    if (prefixLen == IPv4Address.SIZE) {
+      throw new IllegalArgumentException("Block has no children: " + toString(cidr));
+    }
+    return pack(first(cidr) | (1 << (IPv4Address.SIZE - prefixLen - 1)), prefixLen + 1);
+  }
+
+  /**
+   * Splits the given block into the blocks of the given (longer) prefix length that it holds, and adds them, in
+   * ascending order, to the given list.
+   *
+   * @param cidr a packed block.
+   * @param prefixLen the prefix length of the blocks into which to split the given one.
+   * @param out the {@link IPv4CidrLongList} to which to add the resulting blocks.
+   * @return the number of blocks added.
+   */
+  public static int split(long cidr, int prefixLen, IPv4CidrLongList out) {
+    int current = prefixLength(cidr);
+    Check.isTrue(
+        prefixLen >= current && prefixLen <= IPv4Address.SIZE,
+        "Invalid prefix length: %s. Must be within [%s, %s]", prefixLen, current, IPv4Address.SIZE
+    );
+    Check.isTrue(prefixLen - current <= 24, "Too many blocks: 2^%s", prefixLen - current);
+    int  count = 1 << (prefixLen - current);
+    long step  = 1L << (IPv4Address.SIZE - prefixLen + PREFIX_BITS);
+    long block = (cidr & ~(long) PREFIX_MASK) | prefixLen;
+    out.ensureCapacity(out.size() + count);
+    for (int i = 0; i < count; i++, block += step) {
+      out.add(block);
+    }
+    return count;
+  }
+
+  /**
+   * @param cidr a packed block.
+   * @return the given block, in CIDR notation (for example: <code>10.0.0.0/8</code>).
+   */
+  public static String toString(long cidr) {
+    return new IPv4Address(first(cidr), 0).toString() + '/' + prefixLength(cidr);
+  }
+
+  // --------------------------------------------------------------------------
+  // Restricted
+
+  static long pack(int network, int prefixLen) {
+    return (network & UNSIGNED_MASK) << PREFIX_BITS | prefixLen;
+  }
+}
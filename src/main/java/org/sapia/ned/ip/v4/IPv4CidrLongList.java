@@ -0,0 +1,238 @@
+package org.sapia.ned.ip.v4;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.sapia.ned.util.Check;
+
+/**
+ * A growable list of CIDR blocks packed into <code>long</code>s (see {@link IPv4CidrLong}), held in a primitive array.
+ * <p>
+ * Since the natural order of packed blocks is the order of their network address, then of their prefix length,
+ * {@link #sort()} orders blocks as they appear in the address space, and {@link #dedup()} then removes duplicates
+ * in a single pass.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @author yduchesne
+ *
+ */
+public class IPv4CidrLongList {
+
+  private static final int MIN_CAPACITY = 8;
+
+  private long[] blocks;
+  private int    size;
+
+  public IPv4CidrLongList() {
+    this(MIN_CAPACITY);
+  }
+
+  /**
+   * @param expectedSize the number of blocks that the new instance is expected to hold.
+   */
+  public IPv4CidrLongList(int expectedSize) {
+    Check.isTrue(expectedSize >= 0, "Expected size must be positive. Got %s", expectedSize);
+    blocks = new long[Math.max(expectedSize, MIN_CAPACITY)];
+  }
+
+  /**
+   * @param subnets the {@link IPv4Subnet}s to convert.
+   * @return a new instance holding the given subnets, as packed blocks, in the same order.
+   * @throws IllegalArgumentException if one of the given subnets does not correspond to a CIDR block.
+   */
+  public static IPv4CidrLongList of(Iterable<IPv4Subnet> subnets) {
+    IPv4CidrLongList list = new IPv4CidrLongList();
+    for (IPv4Subnet s : subnets) {
+      list.add(IPv4CidrLong.of(s));
+    }
+    return list;
+  }
+
+  /**
+   * @param cidr a packed block to add (see {@link IPv4CidrLong}).
+   * @return this instance.
+   */
+  public IPv4CidrLongList add(long cidr) {
+    if (size == blocks.length) {
+      blocks = Arrays.copyOf(blocks, size * 2);
+    }
+    blocks[size++] = cidr;
+    return this;
+  }
+
+  /**
+   * @param network the network address of a block to add, packed into an <code>int</code> (the bits beyond
+   * the prefix length are ignored).
+   * @param prefixLen the prefix length of the block, from 0 to 32.
+   * @return this instance.
+   */
+  public IPv4CidrLongList add(int network, int prefixLen) {
+    return add(IPv4CidrLong.of(network, prefixLen));
+  }
+
+  /**
+   * @param subnet an {@link IPv4Subnet} to add.
+   * @return this instance.
+   * @throws IllegalArgumentException if the given subnet does not correspond to a CIDR block.
+   */
+  public IPv4CidrLongList add(IPv4Subnet subnet) {
+    return add(IPv4CidrLong.of(subnet));
+  }
+
+  /**
+   * @param other another {@link IPv4CidrLongList}, whose blocks should be added to this instance.
+   * @return this instance.
+   */
+  public IPv4CidrLongList addAll(IPv4CidrLongList other) {
+    ensureCapacity(size + other.size);
+    System.arraycopy(other.blocks, 0, blocks, size, other.size);
+    size += other.size;
+    return this;
+  }
+
+  /**
+   * @param index the index of a block.
+   * @return the packed block at the given index.
+   */
+  public long get(int index) {
+    Check.isTrue(index >= 0 && index < size, "Invalid index: %s. Index is expected to be in range [0, %s]", index, size - 1);
+    return blocks[index];
+  }
+
+  /**
+   * @return the number of blocks that this instance holds.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return <code>true</code> if this instance holds no block.
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Removes all blocks from this instance (its capacity is retained).
+   */
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * @param capacity the number of blocks that this instance should be able to hold without growing.
+   */
+  public void ensureCapacity(int capacity) {
+    if (capacity > blocks.length) {
+      blocks = Arrays.copyOf(blocks, Math.max(capacity, blocks.length * 2));
+    }
+  }
+
+  /**
+   * Sorts this instance's blocks by network address, then by prefix length.
+   *
+   * @return this instance.
+   */
+  public IPv4CidrLongList sort() {
+    Arrays.sort(blocks, 0, size);
+    return this;
+  }
+
+  /**
+   * Removes the blocks that are equal to their predecessor: if this instance is sorted, it then holds no duplicates.
+   *
+   * @return the number of blocks that were removed.
+   */
+  public int dedup() {
+    if (size == 0) {
+      return 0;
+    }
+    int j = 1;
+    for (int i = 1; i < size; i++) {
+      if (blocks[i] != blocks[j - 1]) {
+        blocks[j++] = blocks[i];
+      }
+    }
+    int removed = size - j;
+    size = j;
+    return removed;
+  }
+
+  /**
+   * @param visitor the {@link CidrVisitor} to which to pass this instance's blocks, in order.
+   */
+  public void forEach(CidrVisitor visitor) {
+    for (int i = 0; i < size; i++) {
+      visitor.visit(IPv4CidrLong.first(blocks[i]), IPv4CidrLong.prefixLength(blocks[i]));
+    }
+  }
+
+  /**
+   * @return a new array holding this instance's blocks, in order.
+   */
+  public long[] toArray() {
+    return Arrays.copyOf(blocks, size);
+  }
+
+  /**
+   * @return the {@link List} of {@link IPv4Subnet}s corresponding to this instance's blocks, in order.
+   */
+  public List<IPv4Subnet> toSubnets() {
+    List<IPv4Subnet> subnets = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      subnets.add(IPv4CidrLong.toSubnet(blocks[i]));
+    }
+    return subnets;
+  }
+
+  /**
+   * @return a new {@link IPv4CidrLongSet} holding this instance's blocks (this instance is not modified).
+   */
+  public IPv4CidrLongSet toSet() {
+    return IPv4CidrLongSet.of(this);
+  }
+
+  // --------------------------------------------------------------------------
+  // Object overrides
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj instanceof IPv4CidrLongList) {
+      IPv4CidrLongList other = (IPv4CidrLongList) obj;
+      if (size != other.size) {
+        return false;
+      }
+      for (int i = 0; i < size; i++) {
+        if (blocks[i] != other.blocks[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    int h = 1;
+    for (int i = 0; i < size; i++) {
+      h = 31 * h + Long.hashCode(blocks[i]);
+    }
+    return h;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder s = new StringBuilder("[");
+    for (int i = 0; i < size; i++) {
+      if (i > 0) {
+        s.append(", ");
+      }
+      s.append(IPv4CidrLong.toString(blocks[i]));
+    }
+    return s.append(']').toString();
+  }
+}
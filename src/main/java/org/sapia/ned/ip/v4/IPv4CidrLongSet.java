@@ -0,0 +1,156 @@
+package org.sapia.ned.ip.v4;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.sapia.ned.util.Check;
+
+/**
+ * An immutable set of CIDR blocks packed into <code>long</code>s (see {@link IPv4CidrLong}), held in a sorted primitive
+ * array without duplicates: membership is tested by binary search, and the blocks are iterated over in order
+ * of network address, then of prefix length.
+ * <p>
+ * Blocks are kept as they are: nested or adjacent blocks are not merged (see {@link IPv4CidrAggregator} for this).
+ *
+ * @author yduchesne
+ *
+ */
+public class IPv4CidrLongSet {
+
+  private static final IPv4CidrLongSet EMPTY = new IPv4CidrLongSet(new long[0]);
+
+  private long[] blocks;
+
+  private IPv4CidrLongSet(long[] blocks) {
+    this.blocks = blocks;
+  }
+
+  /**
+   * @param list the {@link IPv4CidrLongList} holding the blocks of the new set (the list is not modified).
+   * @return a new {@link IPv4CidrLongSet}.
+   */
+  public static IPv4CidrLongSet of(IPv4CidrLongList list) {
+    if (list.isEmpty()) {
+      return EMPTY;
+    }
+    IPv4CidrLongList copy = new IPv4CidrLongList(list.size()).addAll(list);
+    copy.sort().dedup();
+    return new IPv4CidrLongSet(copy.toArray());
+  }
+
+  /**
+   * @param subnets the {@link IPv4Subnet}s to convert.
+   * @return a new {@link IPv4CidrLongSet} holding the given subnets, as packed blocks.
+   * @throws IllegalArgumentException if one of the given subnets does not correspond to a CIDR block.
+   */
+  public static IPv4CidrLongSet of(Iterable<IPv4Subnet> subnets) {
+    return of(IPv4CidrLongList.of(subnets));
+  }
+
+  /**
+   * @return the empty set.
+   */
+  public static IPv4CidrLongSet empty() {
+    return EMPTY;
+  }
+
+  /**
+   * @param cidr a packed block.
+   * @return <code>true</code> if this set holds the given block.
+   */
+  public boolean contains(long cidr) {
+    return Arrays.binarySearch(blocks, cidr) >= 0;
+  }
+
+  /**
+   * @param network the network address of a block, packed into an <code>int</code>.
+   * @param prefixLen the prefix length of the block.
+   * @return <code>true</code> if this set holds the given block.
+   */
+  public boolean contains(int network, int prefixLen) {
+    return contains(IPv4CidrLong.of(network, prefixLen));
+  }
+
+  /**
+   * @param cidr a packed block.
+   * @return the index of the given block in this set, or <code>-1</code> if this set does not hold it.
+   */
+  public int indexOf(long cidr) {
+    int i = Arrays.binarySearch(blocks, cidr);
+    return i < 0 ? -1 : i;
+  }
+
+  /**
+   * @param index the index of a block.
+   * @return the packed block at the given index.
+   */
+  public long get(int index) {
+    Check.isTrue(
+        index >= 0 && index < blocks.length,
+        "Invalid index: %s. Index is expected to be in range [0, %s]", index, blocks.length - 1
+    );
+    return blocks[index];
+  }
+
+  /**
+   * @return the number of blocks in this set.
+   */
+  public int size() {
+    return blocks.length;
+  }
+
+  /**
+   * @return <code>true</code> if this set holds no block.
+   */
+  public boolean isEmpty() {
+    return blocks.length == 0;
+  }
+
+  /**
+   * @param visitor the {@link CidrVisitor} to which to pass the blocks of this set, in order.
+   */
+  public void forEach(CidrVisitor visitor) {
+    for (long b : blocks) {
+      visitor.visit(IPv4CidrLong.first(b), IPv4CidrLong.prefixLength(b));
+    }
+  }
+
+  /**
+   * @return a new {@link IPv4CidrLongList} holding the blocks of this set, in order.
+   */
+  public IPv4CidrLongList toList() {
+    IPv4CidrLongList list = new IPv4CidrLongList(blocks.length);
+    for (long b : blocks) {
+      list.add(b);
+    }
+    return list;
+  }
+
+  /**
+   * @return the {@link List} of {@link IPv4Subnet}s corresponding to the blocks of this set, in order.
+   */
+  public List<IPv4Subnet> toSubnets() {
+    return toList().toSubnets();
+  }
+
+  // --------------------------------------------------------------------------
+  // Object overrides
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj instanceof IPv4CidrLongSet) {
+      return Arrays.equals(blocks, ((IPv4CidrLongSet) obj).blocks);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(blocks);
+  }
+
+  @Override
+  public String toString() {
+    return toList().toString();
+  }
+}
@@ -0,0 +1,217 @@
+package org.sapia.ned.ip.v4;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.sapia.ned.util.Check;
+import org.sapia.ned.util.Safe;
+
+/**
+ * A thread-safe pool of addresses, leased individually out of a subnet, without locking:
+ * <ul>
+ *   <li>the leased addresses are tracked in a bitmap (one bit per address of the subnet), held in an
+ *   {@link AtomicLongArray}: addresses are acquired and released by compare-and-set operations on the words
+ *   of the bitmap;
+ *   <li>the search for a free address starts at a hint, which is kept per stripe (threads being mapped to stripes
+ *   according to their ID): the hints are initially spread over the bitmap, so that concurrent threads search
+ *   (and contend on) different words, and each hint is moved to the word where an address was last found, so that
+ *   a search typically completes within a single word;
+ *   <li>the number of leased addresses is kept in a {@link LongAdder}, and is thus updated without contention.
+ * </ul>
+ *
+ * @author yduchesne
+ *
+ */
+public class IPv4LeasePool {
+
+  private static final long UNSIGNED_MASK = 0xFFFFFFFFL;
+  private static final int  WORD_BITS     = Long.SIZE;
+  private static final int  WORD_SHIFT    = 6;
+  // the hints of two stripes are separated by a cache line, to avoid false sharing
+  private static final int  HINT_SPACING  = 16;
+
+  private IPv4Subnet      subnet;
+  private long            first;
+  private long            count;
+  private AtomicLongArray bitmap;
+  // the hints are read and written without synchronization: a stale hint merely lengthens a search
+  private int[]           hints;
+  private int             stripeMask;
+  private LongAdder       leased = new LongAdder();
+
+  /**
+   * @param subnet the {@link IPv4Subnet} whose addresses should be leased.
+   */
+  public IPv4LeasePool(IPv4Subnet subnet) {
+    this(subnet, Runtime.getRuntime().availableProcessors() * 4);
+  }
+
+  /**
+   * @param subnet the {@link IPv4Subnet} whose addresses should be leased.
+   * @param concurrency the expected number of threads leasing addresses concurrently (used to determine the number
+   * of stripes).
+   */
+  public IPv4LeasePool(IPv4Subnet subnet, int concurrency) {
+    Check.isTrue(concurrency > 0, "Concurrency must be greater than 0. Got: %s", concurrency);
+    this.subnet = subnet;
+    this.first  = subnet.getNetworkAddress().toInt() & UNSIGNED_MASK;
+    this.count  = subnet.getAddressCount();
+    int words   = (int) ((count + WORD_BITS - 1) >>> WORD_SHIFT);
+    this.bitmap = new AtomicLongArray(words);
+    // the bits beyond the last address are marked as leased, so that they are never handed out
+    int tail = (int) (count & (WORD_BITS - 1));
+    if (tail != 0) {
+      bitmap.set(words - 1, -1L << tail);
+    }
+    int stripes     = Integer.highestOneBit(Math.min(concurrency, words) * 2 - 1);
+    this.stripeMask = stripes - 1;
+    this.hints      = new int[stripes * HINT_SPACING];
+    for (int i = 0; i < stripes; i++) {
+      hints[i * HINT_SPACING] = (int) ((long) i * words / stripes);
+    }
+  }
+
+  /**
+   * @return the {@link IPv4Subnet} whose addresses this instance leases.
+   */
+  public IPv4Subnet getSubnet() {
+    return subnet;
+  }
+
+  /**
+   * Leases a free address.
+   *
+   * @return the address that was leased, packed into the lower 32 bits of the returned value (see
+   * {@link IPv4Address#toInt()}), or <code>-1</code> if all addresses are leased.
+   */
+  public long acquire() {
+    int words = bitmap.length();
+    int hint  = hintIndex();
+    int start = hints[hint];
+    for (int n = 0, w = start; n < words; n++, w = w + 1 == words ? 0 : w + 1) {
+      long bits = bitmap.get(w);
+      while (bits != -1L) {
+        long bit = Long.lowestOneBit(~bits);
+        if (bitmap.compareAndSet(w, bits, bits | bit)) {
+          if (w != start) {
+            hints[hint] = w;
+          }
+          leased.increment();
+          return (first + ((long) w << WORD_SHIFT) + Long.numberOfTrailingZeros(bit)) & UNSIGNED_MASK;
+        }
+        bits = bitmap.get(w);
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return the {@link IPv4Address} that was leased, or <code>null</code> if all addresses are leased.
+   * @see #acquire()
+   */
+  public IPv4Address acquireAddress() {
+    long address = acquire();
+    return address < 0 ? null : new IPv4Address((int) address, subnet.getNetworkAddress().getPrefixLength());
+  }
+
+  /**
+   * Leases the given address, if it is free.
+   *
+   * @param address an address of this instance's subnet, packed into an <code>int</code>.
+   * @return <code>true</code> if the address was leased, <code>false</code> if it already was.
+   */
+  public boolean acquire(int address) {
+    long index = indexOf(address);
+    int  w     = (int) (index >>> WORD_SHIFT);
+    long bit   = 1L << index;
+    long bits  = bitmap.get(w);
+    while ((bits & bit) == 0) {
+      if (bitmap.compareAndSet(w, bits, bits | bit)) {
+        leased.increment();
+        return true;
+      }
+      bits = bitmap.get(w);
+    }
+    return false;
+  }
+
+  /**
+   * Releases the given address, which becomes free to be leased again.
+   *
+   * @param address an address of this instance's subnet, packed into an <code>int</code>.
+   * @return <code>true</code> if the address was released, <code>false</code> if it was not leased.
+   */
+  public boolean release(int address) {
+    long index = indexOf(address);
+    int  w     = (int) (index >>> WORD_SHIFT);
+    long bit   = 1L << index;
+    long bits  = bitmap.get(w);
+    while ((bits & bit) != 0) {
+      if (bitmap.compareAndSet(w, bits, bits & ~bit)) {
+        leased.decrement();
+        return true;
+      }
+      bits = bitmap.get(w);
+    }
+    return false;
+  }
+
+  /**
+   * @param address an {@link IPv4Address} of this instance's subnet.
+   * @return <code>true</code> if the address was released, <code>false</code> if it was not leased.
+   * @see #release(int)
+   */
+  public boolean release(IPv4Address address) {
+    return release(address.toInt());
+  }
+
+  /**
+   * @param address an address of this instance's subnet, packed into an <code>int</code>.
+   * @return <code>true</code> if the given address is currently leased.
+   */
+  public boolean isLeased(int address) {
+    long index = indexOf(address);
+    return (bitmap.get((int) (index >>> WORD_SHIFT)) & (1L << index)) != 0;
+  }
+
+  /**
+   * @return the number of addresses currently leased (this number is exact when no lease is concurrently acquired
+   * or released).
+   */
+  public long getLeasedCount() {
+    return leased.sum();
+  }
+
+  /**
+   * @return the number of addresses currently free (this number is exact when no lease is concurrently acquired
+   * or released).
+   */
+  public long getFreeCount() {
+    return count - leased.sum();
+  }
+
+  // --------------------------------------------------------------------------
+  // Object overrides
+
+  @Override
+  public String toString() {
+    return "[subnet: " + subnet + ", leased: " + leased.sum() + "]";
+  }
+
+  // --------------------------------------------------------------------------
+  // Restricted
+
+  private long indexOf(int address) {
+    long index = (address & UNSIGNED_MASK) - first;
+    if (index < 0 || index >= count) {
+      // not using Check here, to avoid creating the address for the message when it is valid
+      throw new IllegalArgumentException(String.format("Address %s not in subnet %s", new IPv4Address(address, 0), subnet));
+    }
+    return index;
+  }
+
+  // the index (in the hints array) of the hint of the current thread's stripe
+  private int hintIndex() {
+    return ((int) Safe.mix(Thread.currentThread().getId()) & stripeMask) * HINT_SPACING;
+  }
+}
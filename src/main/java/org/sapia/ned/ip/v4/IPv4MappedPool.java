@@ -0,0 +1,553 @@
+package org.sapia.ned.ip.v4;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import org.sapia.ned.util.Check;
+import org.sapia.ned.util.Safe;
+
+/**
+ * A persistent pool of addresses and subnets allocated out of a given subnet, whose state is held in a memory-mapped file:
+ * the state is used in place, so that opening a pool takes constant time, whatever its size (nothing is rebuilt).
+ * <p>
+ * The file holds:
+ * <ul>
+ *   <li>two header slots, written alternately: each holds the counters of the pool, a sequence number, the record of the
+ *   last write performed on the data (see below), and a CRC32 checksum;
+ *   <li>the bitmap of the leased addresses (one bit per address of the subnet);
+ *   <li>the index of the allocated subnets: an open-addressing hash table of fixed capacity, whose entries are
+ *   <code>long</code>s (removed entries are overwritten with a tombstone). The file holds two copies of the index, only
+ *   one of which is in use at a given time (as indicated by the header).
+ * </ul>
+ * Each modification of the pool consists of a single 8-byte write to the data (a word of the bitmap, or an entry of
+ * the index). The header is written first, into the slot that does not hold the current header, with the next sequence
+ * number and the record of the data write (its offset and value); the data write is performed afterwards. When the pool
+ * is opened, the valid header (as per its checksum) with the highest sequence number is used, and its data write is
+ * performed again (it is idempotent). The state of the pool thus remains consistent if the process is killed at any
+ * point: either the new header is valid, and the data write is redone, or it is not, and the data was not modified.
+ * <p>
+ * Since tombstones are never turned back into empty slots in place, the index is compacted when too few of its slots
+ * are empty (that is, when lookups of absent subnets would have to scan too many slots): the recorded subnets are
+ * inserted into the copy of the index that is not in use, and a new header then designates that copy as the one in
+ * use. If the process is killed before the header is written, the index in use was not modified. Compaction scans the
+ * whole index, but it takes place at most once every <code>capacity / 4</code> removals.
+ * <p>
+ * Writes to the mapped file reach the page cache of the operating system immediately, and thus survive the termination
+ * of the process; they are not flushed to the storage device unless {@link #force()} is called.
+ * <p>
+ * This class is thread-safe: its methods are synchronized.
+ *
+ * @author yduchesne
+ *
+ */
+public class IPv4MappedPool implements Closeable {
+
+  private static final int  MAGIC          = 0x4E454450; // "NEDP"
+  private static final int  VERSION        = 2;
+  private static final int  HEADER_SIZE    = 64;
+  private static final int  DATA_OFFSET    = HEADER_SIZE * 2;
+  private static final int  CRC_OFFSET     = 60;
+  private static final int  NO_REDO        = -1;
+  private static final long UNSIGNED_MASK  = 0xFFFFFFFFL;
+  private static final int  WORD_SHIFT     = 6;
+  private static final int  MAX_SUBNETS    = 1 << 24;
+
+  // index entries: 0 = empty, -1 = removed, otherwise: 1 << 40 | prefix length << 32 | network address
+  private static final long EMPTY          = 0;
+  private static final long TOMBSTONE      = -1;
+  private static final long ENTRY_FLAG     = 1L << 40;
+
+  // the index is compacted when fewer than 1 / MIN_EMPTY_RATIO of its slots are empty
+  private static final int  MIN_EMPTY_RATIO = 4;
+
+  private FileChannel      channel;
+  private MappedByteBuffer buffer;
+  private ByteBuffer       header = ByteBuffer.allocate(HEADER_SIZE);
+  private CRC32            crc    = new CRC32();
+
+  private int  network;
+  private int  last;
+  private long count;
+  private int  words;
+  private long indexOffset;
+  private int  indexCapacity;
+
+  private long sequence;
+  private int  subnetCount;
+  private int  tombstoneCount;
+  private int  activeIndex;
+  private long leasedCount;
+  private int  hint;
+
+  // written after the header, and before the data: a volatile write is followed by a full fence on HotSpot, so that
+  // the stores to the mapped file are performed in that order
+  private volatile int fence;
+
+  private IPv4MappedPool() {
+  }
+
+  /**
+   * Creates a new pool, whose state is held in the given file (which is overwritten if it exists).
+   *
+   * @param file the {@link Path} of the file in which to hold the state of the pool.
+   * @param subnet the {@link IPv4Subnet} whose addresses and subnets should be allocated.
+   * @param maxSubnets the number of subnets that may be recorded at a given time (rounded up to a power of 2): the index
+   * of the subnets has twice that capacity (and the file holds two copies of it).
+   * @return a new {@link IPv4MappedPool}.
+   * @throws IOException if an I/O error occurs.
+   */
+  public static IPv4MappedPool create(Path file, IPv4Subnet subnet, int maxSubnets) throws IOException {
+    Check.isTrue(maxSubnets >= 0 && maxSubnets <= MAX_SUBNETS, "Invalid maximum number of subnets: %s", maxSubnets);
+    IPv4MappedPool pool = new IPv4MappedPool();
+    pool.layout(
+        subnet.getNetworkAddress().toInt(), subnet.getLastAddress().toInt(), Integer.highestOneBit(Math.max(maxSubnets, 1) * 2 - 1) * 2
+    );
+    pool.channel = FileChannel.open(
+        file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING
+    );
+    pool.buffer = pool.channel.map(MapMode.READ_WRITE, 0, pool.fileSize());
+    // the bits beyond the last address are marked as leased, so that they are never handed out
+    int tail = (int) (pool.count & (Long.SIZE - 1));
+    if (tail != 0) {
+      pool.buffer.putLong(pool.wordOffset(pool.words - 1), -1L << tail);
+    }
+    pool.writeHeader(NO_REDO, 0);
+    return pool;
+  }
+
+  /**
+   * Opens an existing pool.
+   *
+   * @param file the {@link Path} of the file holding the state of the pool.
+   * @return the {@link IPv4MappedPool} that was opened.
+   * @throws IOException if an I/O error occurs, or if the file does not hold a valid pool.
+   */
+  public static IPv4MappedPool open(Path file) throws IOException {
+    IPv4MappedPool pool = new IPv4MappedPool();
+    pool.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      long size = pool.channel.size();
+      if (size < DATA_OFFSET) {
+        throw new IOException("File too small to hold a pool: " + file);
+      }
+      pool.buffer = pool.channel.map(MapMode.READ_WRITE, 0, size);
+      int current = pool.currentHeaderSlot();
+      if (current < 0) {
+        throw new IOException("No valid header in file: " + file);
+      }
+      ByteBuffer h = pool.header;
+      pool.layout(h.getInt(16), h.getInt(20), h.getInt(24));
+      if (pool.fileSize() != size) {
+        throw new IOException("File size does not match the layout of the pool: " + file);
+      }
+      pool.sequence       = h.getLong(8);
+      pool.subnetCount    = h.getInt(28);
+      pool.leasedCount    = h.getLong(32);
+      pool.tombstoneCount = h.getInt(44);
+      pool.activeIndex    = h.getInt(56);
+      int redoOffset      = h.getInt(40);
+      if (redoOffset != NO_REDO) {
+        pool.buffer.putLong(redoOffset, h.getLong(48));
+      }
+      return pool;
+    } catch (IOException | RuntimeException e) {
+      pool.channel.close();
+      throw e;
+    }
+  }
+
+  // --------------------------------------------------------------------------
+  // Addresses
+
+  /**
+   * Leases a free address.
+   *
+   * @return the address that was leased, packed into the lower 32 bits of the returned value (see
+   * {@link IPv4Address#toInt()}), or <code>-1</code> if all addresses are leased.
+   */
+  public synchronized long acquire() {
+    for (int n = 0, w = hint; n < words; n++, w = w + 1 == words ? 0 : w + 1) {
+      long bits = buffer.getLong(wordOffset(w));
+      if (bits != -1L) {
+        long bit = Long.lowestOneBit(~bits);
+        hint = w;
+        leasedCount++;
+        write(wordOffset(w), bits | bit);
+        return ((network & UNSIGNED_MASK) + ((long) w << WORD_SHIFT) + Long.numberOfTrailingZeros(bit)) & UNSIGNED_MASK;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Leases the given address, if it is free.
+   *
+   * @param address an address of this pool's subnet, packed into an <code>int</code>.
+   * @return <code>true</code> if the address was leased, <code>false</code> if it already was.
+   */
+  public synchronized boolean acquire(int address) {
+    long index  = indexOf(address);
+    int  offset = wordOffset((int) (index >>> WORD_SHIFT));
+    long bits   = buffer.getLong(offset);
+    if ((bits & (1L << index)) != 0) {
+      return false;
+    }
+    leasedCount++;
+    write(offset, bits | (1L << index));
+    return true;
+  }
+
+  /**
+   * Releases the given address, which becomes free to be leased again.
+   *
+   * @param address an address of this pool's subnet, packed into an <code>int</code>.
+   * @return <code>true</code> if the address was released, <code>false</code> if it was not leased.
+   */
+  public synchronized boolean release(int address) {
+    long index  = indexOf(address);
+    int  offset = wordOffset((int) (index >>> WORD_SHIFT));
+    long bits   = buffer.getLong(offset);
+    if ((bits & (1L << index)) == 0) {
+      return false;
+    }
+    leasedCount--;
+    write(offset, bits & ~(1L << index));
+    return true;
+  }
+
+  /**
+   * @param address an address of this pool's subnet, packed into an <code>int</code>.
+   * @return <code>true</code> if the given address is currently leased.
+   */
+  public synchronized boolean isLeased(int address) {
+    long index = indexOf(address);
+    return (buffer.getLong(wordOffset((int) (index >>> WORD_SHIFT))) & (1L << index)) != 0;
+  }
+
+  /**
+   * @return the number of addresses currently leased.
+   */
+  public synchronized long getLeasedCount() {
+    return leasedCount;
+  }
+
+  /**
+   * @return the number of addresses currently free.
+   */
+  public synchronized long getFreeCount() {
+    return count - leasedCount;
+  }
+
+  // --------------------------------------------------------------------------
+  // Subnets
+
+  /**
+   * Records the given subnet as allocated.
+   *
+   * @param subnetNetwork the network address of the subnet, packed into an <code>int</code> (the bits beyond
+   * the prefix length are ignored).
+   * @param prefixLen the prefix length of the subnet.
+   * @return <code>true</code> if the subnet was recorded, <code>false</code> if it already was.
+   * @throws IllegalArgumentException if the given subnet is not within this pool's subnet.
+   * @throws IllegalStateException if the maximum number of subnets has been reached.
+   */
+  public synchronized boolean addSubnet(int subnetNetwork, int prefixLen) {
+    long key  = key(subnetNetwork, prefixLen);
+    int  slot = slotOf(key);
+    if (slot >= 0) {
+      return false;
+    }
+    Check.state(subnetCount < indexCapacity / 2, "Maximum number of subnets reached: %s", subnetCount);
+    int insertion = -slot - 1;
+    if (buffer.getLong(entryOffset(insertion)) == TOMBSTONE) {
+      tombstoneCount--;
+    }
+    subnetCount++;
+    write(entryOffset(insertion), key);
+    return true;
+  }
+
+  /**
+   * @param subnet an {@link IPv4Subnet} to record as allocated.
+   * @return <code>true</code> if the subnet was recorded, <code>false</code> if it already was.
+   * @see #addSubnet(int, int)
+   */
+  public boolean addSubnet(IPv4Subnet subnet) {
+    long cidr = IPv4CidrLong.of(subnet);
+    return addSubnet(IPv4CidrLong.first(cidr), IPv4CidrLong.prefixLength(cidr));
+  }
+
+  /**
+   * @param subnetNetwork the network address of the subnet, packed into an <code>int</code>.
+   * @param prefixLen the prefix length of the subnet.
+   * @return <code>true</code> if the subnet was removed, <code>false</code> if it was not recorded.
+   */
+  public synchronized boolean removeSubnet(int subnetNetwork, int prefixLen) {
+    int slot = slotOf(key(subnetNetwork, prefixLen));
+    if (slot < 0) {
+      return false;
+    }
+    subnetCount--;
+    tombstoneCount++;
+    write(entryOffset(slot), TOMBSTONE);
+    if (indexCapacity - subnetCount - tombstoneCount < indexCapacity / MIN_EMPTY_RATIO) {
+      compact();
+    }
+    return true;
+  }
+
+  /**
+   * @param subnet an {@link IPv4Subnet} to remove.
+   * @return <code>true</code> if the subnet was removed, <code>false</code> if it was not recorded.
+   * @see #removeSubnet(int, int)
+   */
+  public boolean removeSubnet(IPv4Subnet subnet) {
+    long cidr = IPv4CidrLong.of(subnet);
+    return removeSubnet(IPv4CidrLong.first(cidr), IPv4CidrLong.prefixLength(cidr));
+  }
+
+  /**
+   * @param subnetNetwork the network address of the subnet, packed into an <code>int</code>.
+   * @param prefixLen the prefix length of the subnet.
+   * @return <code>true</code> if the given subnet is recorded as allocated.
+   */
+  public synchronized boolean containsSubnet(int subnetNetwork, int prefixLen) {
+    return slotOf(key(subnetNetwork, prefixLen)) >= 0;
+  }
+
+  /**
+   * @return the number of subnets recorded as allocated.
+   */
+  public synchronized int getSubnetCount() {
+    return subnetCount;
+  }
+
+  /**
+   * @param visitor the {@link CidrVisitor} to which to pass the subnets recorded as allocated (in no particular order).
+   */
+  public synchronized void forEachSubnet(CidrVisitor visitor) {
+    for (int i = 0; i < indexCapacity; i++) {
+      long entry = buffer.getLong(entryOffset(i));
+      if (entry != EMPTY && entry != TOMBSTONE) {
+        visitor.visit((int) entry, (int) (entry >>> Integer.SIZE) & 0xFF);
+      }
+    }
+  }
+
+  // --------------------------------------------------------------------------
+  // Lifecycle
+
+  /**
+   * Flushes the state of this pool to the storage device.
+   */
+  public synchronized void force() {
+    buffer.force();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    channel.close();
+  }
+
+  // --------------------------------------------------------------------------
+  // Object overrides
+
+  @Override
+  public String toString() {
+    return "[network: " + new IPv4Address(network, 0) + ", last: " + new IPv4Address(last, 0)
+        + ", leased: " + getLeasedCount() + ", subnets: " + getSubnetCount() + "]";
+  }
+
+  // --------------------------------------------------------------------------
+  // Restricted
+
+  /**
+   * @return the number of bits set in the bitmap (excluding those beyond the last address).
+   */
+  synchronized long countLeasedBits() {
+    long bits = 0;
+    for (int w = 0; w < words; w++) {
+      bits += Long.bitCount(buffer.getLong(wordOffset(w)));
+    }
+    int tail = (int) (count & (Long.SIZE - 1));
+    return tail == 0 ? bits : bits - (Long.SIZE - tail);
+  }
+
+  /**
+   * @return the number of subnet entries in the index.
+   */
+  synchronized int countSubnetEntries() {
+    int[] entries = {0};
+    forEachSubnet((n, p) -> entries[0]++);
+    return entries[0];
+  }
+
+  /**
+   * @return the number of tombstones in the index, as recorded in the header.
+   */
+  synchronized int getTombstoneCount() {
+    return tombstoneCount;
+  }
+
+  /**
+   * @return the number of empty slots in the index.
+   */
+  synchronized int countEmptySlots() {
+    int empty = 0;
+    for (int i = 0; i < indexCapacity; i++) {
+      if (buffer.getLong(entryOffset(i)) == EMPTY) {
+        empty++;
+      }
+    }
+    return empty;
+  }
+
+  private void layout(int network, int last, int indexCapacity) {
+    this.network       = network;
+    this.last          = last;
+    this.count         = (last & UNSIGNED_MASK) - (network & UNSIGNED_MASK) + 1;
+    this.words         = (int) ((count + Long.SIZE - 1) >>> WORD_SHIFT);
+    this.indexOffset   = DATA_OFFSET + (long) words * Long.BYTES;
+    this.indexCapacity = indexCapacity;
+  }
+
+  private long fileSize() {
+    return indexOffset + 2L * indexCapacity * Long.BYTES;
+  }
+
+  private int wordOffset(int word) {
+    return DATA_OFFSET + word * Long.BYTES;
+  }
+
+  private int entryOffset(int slot) {
+    return entryOffset(activeIndex, slot);
+  }
+
+  private int entryOffset(int index, int slot) {
+    return (int) (indexOffset + ((long) index * indexCapacity + slot) * Long.BYTES);
+  }
+
+  // records the given data write in a new header, and then performs it
+  private void write(int offset, long value) {
+    writeHeader(offset, value);
+    fence = 1;
+    buffer.putLong(offset, value);
+  }
+
+  // inserts the recorded subnets into the index that is not in use, and then designates it as the one in use
+  private void compact() {
+    int target = 1 - activeIndex;
+    int mask   = indexCapacity - 1;
+    for (int i = 0; i < indexCapacity; i++) {
+      buffer.putLong(entryOffset(target, i), EMPTY);
+    }
+    for (int i = 0; i < indexCapacity; i++) {
+      long entry = buffer.getLong(entryOffset(i));
+      if (entry != EMPTY && entry != TOMBSTONE) {
+        int j = (int) Safe.mix(entry) & mask;
+        while (buffer.getLong(entryOffset(target, j)) != EMPTY) {
+          j = (j + 1) & mask;
+        }
+        buffer.putLong(entryOffset(target, j), entry);
+      }
+    }
+    fence = 1;
+    activeIndex    = target;
+    tombstoneCount = 0;
+    writeHeader(NO_REDO, 0);
+  }
+
+  private void writeHeader(int redoOffset, long redoValue) {
+    sequence++;
+    header.putInt(0, MAGIC);
+    header.putInt(4, VERSION);
+    header.putLong(8, sequence);
+    header.putInt(16, network);
+    header.putInt(20, last);
+    header.putInt(24, indexCapacity);
+    header.putInt(28, subnetCount);
+    header.putLong(32, leasedCount);
+    header.putInt(40, redoOffset);
+    header.putInt(44, tombstoneCount);
+    header.putLong(48, redoValue);
+    header.putInt(56, activeIndex);
+    crc.reset();
+    crc.update(header.array(), 0, CRC_OFFSET);
+    header.putInt(CRC_OFFSET, (int) crc.getValue());
+    buffer.position((int) (sequence & 1) * HEADER_SIZE);
+    buffer.put(header.array());
+  }
+
+  // loads the valid header with the highest sequence number into the header buffer, returning its slot (or -1)
+  private int currentHeaderSlot() {
+    int  current     = -1;
+    long maxSequence = -1;
+    for (int slot = 0; slot < 2; slot++) {
+      buffer.position(slot * HEADER_SIZE);
+      buffer.get(header.array());
+      crc.reset();
+      crc.update(header.array(), 0, CRC_OFFSET);
+      boolean valid = header.getInt(0) == MAGIC && header.getInt(4) == VERSION
+          && header.getInt(CRC_OFFSET) == (int) crc.getValue();
+      if (valid && header.getLong(8) > maxSequence) {
+        current     = slot;
+        maxSequence = header.getLong(8);
+      }
+    }
+    if (current >= 0) {
+      buffer.position(current * HEADER_SIZE);
+      buffer.get(header.array());
+    }
+    return current;
+  }
+
+  private long indexOf(int address) {
+    long index = (address & UNSIGNED_MASK) - (network & UNSIGNED_MASK);
+    if (index < 0 || index >= count) {
+      // not using Check here, to avoid creating the addresses for the message when the address is valid
+      throw new IllegalArgumentException(String.format(
+          "Address %s not in range %s - %s", new IPv4Address(address, 0), new IPv4Address(network, 0), new IPv4Address(last, 0)
+      ));
+    }
+    return index;
+  }
+
+  private long key(int subnetNetwork, int prefixLen) {
+    IPv4CidrLong.checkPrefixLength(prefixLen);
+    int  mask  = IPv4CidrLong.mask(prefixLen);
+    long first = subnetNetwork & mask & UNSIGNED_MASK;
+    long end   = (subnetNetwork | ~mask) & UNSIGNED_MASK;
+    if (first < (network & UNSIGNED_MASK) || end > (last & UNSIGNED_MASK)) {
+      throw new IllegalArgumentException(String.format(
+          "Subnet %s/%s not in range %s - %s", new IPv4Address((int) first, 0), prefixLen,
+          new IPv4Address(network, 0), new IPv4Address(last, 0)
+      ));
+    }
+    return ENTRY_FLAG | ((long) prefixLen << Integer.SIZE) | first;
+  }
+
+  // the slot holding the given key, or (-(insertion slot) - 1) if the key is absent
+  private int slotOf(long key) {
+    int mask      = indexCapacity - 1;
+    int i         = (int) Safe.mix(key) & mask;
+    int insertion = -1;
+    for (int n = 0; n < indexCapacity; n++, i = (i + 1) & mask) {
+      long entry = buffer.getLong(entryOffset(i));
+      if (entry == key) {
+        return i;
+      } else if (entry == EMPTY) {
+        return -(insertion < 0 ? i : insertion) - 1;
+      } else if (entry == TOMBSTONE && insertion < 0) {
+        insertion = i;
+      }
+    }
+    return -insertion - 1;
+  }
+}
@@ -0,0 +1,205 @@
+package org.sapia.ned.ip.v4;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Parses IPv4 address literals in dotted-decimal notation, with an optional prefix length in CIDR
+ * notation (example: <code>192.168.0.0/16</code>).
+ * <p>
+ * The methods of this class perform a single pass over their input, do not allocate and do not throw:
+ * they return a primitive result, which is either:
+ * <ul>
+ *   <li>positive, in which case the address and prefix length are obtained with {@link #address(long)}
+ *   and {@link #prefixLength(long)};
+ *   <li>negative, if the input is not a valid literal. {@link #errorIndex(long)} then returns the index (relative
+ *   to the start of the parsed input) of the character at which parsing failed.
+ * </ul>
+ * A prefix length of 0 is returned when the literal has no prefix, consistent with {@link IPv4Address#getPrefixLength()}.
+ *
+ * @author yduchesne
+ *
+ */
+public final class IPv4Parser {
+
+  private static final long UNSIGNED_MASK = 0xFFFFFFFFL;
+
+  // parsing state, packed into a long:
+  //   bits 0-31:  the octets parsed so far
+  //   bits 32-40: the value of the group (octet or prefix) currently being parsed
+  //   bits 41-43: the number of groups completed so far
+  //   bit  44:    set if the current group has at least one digit
+  //   bit  45:    set if the prefix is being parsed
+  private static final int  GROUP_SHIFT  = 32;
+  private static final long GROUP_MASK   = 0x1FFL;
+  private static final int  COUNT_SHIFT  = 41;
+  private static final long COUNT_MASK   = 0x7L;
+  private static final long HAS_DIGITS   = 1L << 44;
+  private static final long IN_PREFIX    = 1L << 45;
+  private static final long ERROR        = -1L;
+
+  private static final int  MAX_OCTET    = 255;
+  private static final int  LAST_DOT     = IPv4Address.LEN - 1;
+
+  private IPv4Parser() {
+  }
+
+  /**
+   * @param literal the {@link CharSequence} holding the literal to parse.
+   * @return the parsing result.
+   */
+  public static long parse(CharSequence literal) {
+    return parse(literal, 0, literal.length());
+  }
+
+  /**
+   * @param chars the {@link CharSequence} holding the literal to parse.
+   * @param from the index of the first character to parse (inclusive).
+   * @param to the index of the last character to parse (exclusive).
+   * @return the parsing result.
+   */
+  public static long parse(CharSequence chars, int from, int to) {
+    long state = 0;
+    for (int i = from; i < to; i++) {
+      state = step(state, chars.charAt(i));
+      if (state == ERROR) {
+        return error(i - from);
+      }
+    }
+    return finish(state, to - from);
+  }
+
+  /**
+   * @param chars the array holding the literal to parse.
+   * @param offset the index of the first character to parse.
+   * @param length the number of characters to parse.
+   * @return the parsing result.
+   */
+  public static long parse(char[] chars, int offset, int length) {
+    long state = 0;
+    for (int i = 0; i < length; i++) {
+      state = step(state, chars[offset + i]);
+      if (state == ERROR) {
+        return error(i);
+      }
+    }
+    return finish(state, length);
+  }
+
+  /**
+   * @param ascii the array holding the ASCII-encoded literal to parse.
+   * @param offset the index of the first byte to parse.
+   * @param length the number of bytes to parse.
+   * @return the parsing result.
+   */
+  public static long parse(byte[] ascii, int offset, int length) {
+    long state = 0;
+    for (int i = 0; i < length; i++) {
+      state = step(state, ascii[offset + i]);
+      if (state == ERROR) {
+        return error(i);
+      }
+    }
+    return finish(state, length);
+  }
+
+  /**
+   * Parses an ASCII-encoded literal using absolute reads: the position of the given buffer is left untouched.
+   *
+   * @param ascii the {@link ByteBuffer} holding the ASCII-encoded literal to parse.
+   * @param offset the index of the first byte to parse.
+   * @param length the number of bytes to parse.
+   * @return the parsing result.
+   */
+  public static long parse(ByteBuffer ascii, int offset, int length) {
+    long state = 0;
+    for (int i = 0; i < length; i++) {
+      state = step(state, ascii.get(offset + i));
+      if (state == ERROR) {
+        return error(i);
+      }
+    }
+    return finish(state, length);
+  }
+
+  /**
+   * @param result a parsing result.
+   * @return <code>true</code> if the given result corresponds to a successfully parsed literal.
+   */
+  public static boolean isValid(long result) {
+    return result >= 0;
+  }
+
+  /**
+   * @param result a valid parsing result.
+   * @return the address parsed, packed into an <code>int</code> (see {@link IPv4Address#toInt()}).
+   */
+  public static int address(long result) {
+    return (int) result;
+  }
+
+  /**
+   * @param result a valid parsing result.
+   * @return the prefix length parsed (0 if the literal had none).
+   */
+  public static int prefixLength(long result) {
+    return (int) (result >>> GROUP_SHIFT);
+  }
+
+  /**
+   * @param result an invalid parsing result.
+   * @return the index of the character at which parsing failed, relative to the start of the parsed input.
+   */
+  public static int errorIndex(long result) {
+    return (int) -(result + 1);
+  }
+
+  // --------------------------------------------------------------------------
+  // Restricted
+
+  private static long error(int index) {
+    return -(index + 1L);
+  }
+
+  private static long step(long state, int c) {
+    int group = (int) ((state >>> GROUP_SHIFT) & GROUP_MASK);
+    int count = (int) ((state >>> COUNT_SHIFT) & COUNT_MASK);
+
+    if (c >= '0' && c <= '9') {
+      group = group * 10 + (c - '0');
+      if (group > ((state & IN_PREFIX) != 0 ? IPv4Address.SIZE : MAX_OCTET)) {
+        return ERROR;
+      }
+      return (state & ~(GROUP_MASK << GROUP_SHIFT)) | ((long) group << GROUP_SHIFT) | HAS_DIGITS;
+
+    } else if (c == '.') {
+      if ((state & (HAS_DIGITS | IN_PREFIX)) != HAS_DIGITS || count == LAST_DOT) {
+        return ERROR;
+      }
+      return shiftOctet(state, group) | ((long) (count + 1) << COUNT_SHIFT);
+
+    } else if (c == '/') {
+      if ((state & (HAS_DIGITS | IN_PREFIX)) != HAS_DIGITS || count != LAST_DOT) {
+        return ERROR;
+      }
+      return shiftOctet(state, group) | ((long) count << COUNT_SHIFT) | IN_PREFIX;
+    }
+    return ERROR;
+  }
+
+  private static long shiftOctet(long state, int octet) {
+    return ((state << Byte.SIZE) | octet) & UNSIGNED_MASK;
+  }
+
+  private static long finish(long state, int length) {
+    if ((state & HAS_DIGITS) == 0) {
+      return error(length);
+    }
+    int group = (int) ((state >>> GROUP_SHIFT) & GROUP_MASK);
+    if ((state & IN_PREFIX) != 0) {
+      return (state & UNSIGNED_MASK) | ((long) group << GROUP_SHIFT);
+    } else if (((state >>> COUNT_SHIFT) & COUNT_MASK) == LAST_DOT) {
+      return shiftOctet(state, group);
+    }
+    return error(length);
+  }
+}
@@ -0,0 +1,435 @@
+package org.sapia.ned.ip.v4;
+
+import java.util.Arrays;
+
+import org.sapia.ned.util.Check;
+
+/**
+ * An immutable set of IPv4 addresses, held as sorted, disjoint and non-adjacent ranges (each range being
+ * a <code>[start, end]</code> pair of addresses, both inclusive). The ranges are stored in a single primitive
+ * <code>int</code> array, the addresses being packed into <code>int</code>s (see {@link IPv4Address#toInt()}) and
+ * compared as unsigned values.
+ * <ul>
+ *   <li>membership tests ({@link #contains(int)}) and {@link #floor(int)}/{@link #ceiling(int)} queries
+ *   are performed by binary search, in <code>O(log n)</code>;
+ *   <li>set operations ({@link #union(IPv4RangeSet)}, {@link #intersection(IPv4RangeSet)},
+ *   {@link #difference(IPv4RangeSet)} and {@link #complement()}) merge the ranges of their operands,
+ *   in linear time.
+ * </ul>
+ * Instances are created with a {@link Builder} (see {@link #builder()}), which accepts overlapping ranges, in any order.
+ *
+ * @author yduchesne
+ *
+ */
+public class IPv4RangeSet {
+
+  private static final long UNSIGNED_MASK = 0xFFFFFFFFL;
+  private static final long MAX_ADDRESS   = UNSIGNED_MASK;
+
+  private static final IPv4RangeSet EMPTY = new IPv4RangeSet(new int[0]);
+  private static final IPv4RangeSet ALL   = new IPv4RangeSet(new int[] {0, -1});
+
+  /**
+   * Accumulates ranges, from which an {@link IPv4RangeSet} is built.
+   */
+  public static class Builder {
+
+    // each range packed into a long: (start ^ sign bit) << 32 | end, so that sorting by signed value sorts by start
+    private long[]  ranges;
+    private int     count;
+    private boolean sorted = true;
+
+    private Builder(int expectedRanges) {
+      Check.isTrue(expectedRanges >= 0, "Expected number of ranges must be positive. Got %s", expectedRanges);
+      ranges = new long[Math.max(expectedRanges, 16)];
+    }
+
+    /**
+     * @param start the first address of the range to add, packed into an <code>int</code>.
+     * @param end the last address of the range to add (inclusive), packed into an <code>int</code>: it must not
+     * be lower than the first address (both being compared as unsigned values).
+     * @return this instance.
+     */
+    public Builder add(int start, int end) {
+      Check.isTrue(Integer.compareUnsigned(start, end) <= 0, "Invalid range: %s - %s", start, end);
+      if (count == ranges.length) {
+        ranges = Arrays.copyOf(ranges, count * 2);
+      }
+      long range = ((long) (start ^ Integer.MIN_VALUE) << Integer.SIZE) | (end & UNSIGNED_MASK);
+      if (count > 0 && range < ranges[count - 1]) {
+        sorted = false;
+      }
+      ranges[count++] = range;
+      return this;
+    }
+
+    /**
+     * @param address an {@link IPv4Address} to add.
+     * @return this instance.
+     */
+    public Builder add(IPv4Address address) {
+      return add(address.toInt(), address.toInt());
+    }
+
+    /**
+     * @param start the first address of the range to add.
+     * @param end the last address of the range to add (inclusive).
+     * @return this instance.
+     */
+    public Builder add(IPv4Address start, IPv4Address end) {
+      return add(start.toInt(), end.toInt());
+    }
+
+    /**
+     * @param subnet an {@link IPv4Subnet} whose addresses should be added.
+     * @return this instance.
+     */
+    public Builder add(IPv4Subnet subnet) {
+      return add(subnet.getNetworkAddress().toInt(), subnet.getLastAddress().toInt());
+    }
+
+    /**
+     * @param set an {@link IPv4RangeSet} whose ranges should be added.
+     * @return this instance.
+     */
+    public Builder add(IPv4RangeSet set) {
+      for (int i = 0; i < set.ranges.length; i += 2) {
+        add(set.ranges[i], set.ranges[i + 1]);
+      }
+      return this;
+    }
+
+    /**
+     * @return the number of ranges that were added to this instance.
+     */
+    public int size() {
+      return count;
+    }
+
+    /**
+     * Builds a set from the ranges added so far: this takes <code>O(n log n)</code> time, or <code>O(n)</code> if
+     * the ranges were added in ascending order of start address.
+     *
+     * @return a new {@link IPv4RangeSet}, holding the ranges that were added to this instance (merged when
+     * they overlap or are adjacent).
+     */
+    public IPv4RangeSet build() {
+      if (!sorted) {
+        Arrays.sort(ranges, 0, count);
+        sorted = true;
+      }
+      RangeWriter writer = new RangeWriter(count);
+      for (int i = 0; i < count; i++) {
+        long r = ranges[i];
+        writer.append((r >>> Integer.SIZE) ^ (1L << (Integer.SIZE - 1)), r & UNSIGNED_MASK);
+      }
+      return writer.toSet();
+    }
+  }
+
+  private int[] ranges;
+
+  private IPv4RangeSet(int[] ranges) {
+    this.ranges = ranges;
+  }
+
+  /**
+   * @return a new {@link Builder}.
+   */
+  public static Builder builder() {
+    return new Builder(0);
+  }
+
+  /**
+   * @param expectedRanges the number of ranges that are expected to be added to the builder.
+   * @return a new {@link Builder}.
+   */
+  public static Builder builder(int expectedRanges) {
+    return new Builder(expectedRanges);
+  }
+
+  /**
+   * @return the empty {@link IPv4RangeSet}.
+   */
+  public static IPv4RangeSet empty() {
+    return EMPTY;
+  }
+
+  /**
+   * @return the {@link IPv4RangeSet} holding all addresses (from 0.0.0.0 to 255.255.255.255).
+   */
+  public static IPv4RangeSet all() {
+    return ALL;
+  }
+
+  /**
+   * @param address an address, packed into an <code>int</code>.
+   * @return <code>true</code> if this set contains the given address.
+   */
+  public boolean contains(int address) {
+    int i = indexOfFloorRange(address);
+    return i >= 0 && Integer.compareUnsigned(address, ranges[i + 1]) <= 0;
+  }
+
+  /**
+   * @param address an {@link IPv4Address}.
+   * @return <code>true</code> if this set contains the given address.
+   */
+  public boolean contains(IPv4Address address) {
+    return contains(address.toInt());
+  }
+
+  /**
+   * @param start the first address of a range, packed into an <code>int</code>.
+   * @param end the last address of the range (inclusive), packed into an <code>int</code>.
+   * @return <code>true</code> if this set contains all the addresses of the given range.
+   */
+  public boolean containsAll(int start, int end) {
+    Check.isTrue(Integer.compareUnsigned(start, end) <= 0, "Invalid range: %s - %s", start, end);
+    int i = indexOfFloorRange(start);
+    return i >= 0 && Integer.compareUnsigned(end, ranges[i + 1]) <= 0;
+  }
+
+  /**
+   * @param subnet an {@link IPv4Subnet}.
+   * @return <code>true</code> if this set contains all the addresses of the given subnet.
+   */
+  public boolean containsAll(IPv4Subnet subnet) {
+    return containsAll(subnet.getNetworkAddress().toInt(), subnet.getLastAddress().toInt());
+  }
+
+  /**
+   * @param address an address, packed into an <code>int</code>.
+   * @return the greatest address of this set that is lower than or equal to the given one (as an unsigned value,
+   * in a <code>long</code>), or <code>-1</code> if there is none.
+   */
+  public long floor(int address) {
+    int i = indexOfFloorRange(address);
+    if (i < 0) {
+      return -1;
+    }
+    return Math.min(address & UNSIGNED_MASK, ranges[i + 1] & UNSIGNED_MASK);
+  }
+
+  /**
+   * @param address an address, packed into an <code>int</code>.
+   * @return the lowest address of this set that is greater than or equal to the given one (as an unsigned value,
+   * in a <code>long</code>), or <code>-1</code> if there is none.
+   */
+  public long ceiling(int address) {
+    int i = indexOfFloorRange(address);
+    if (i >= 0 && Integer.compareUnsigned(address, ranges[i + 1]) <= 0) {
+      return address & UNSIGNED_MASK;
+    }
+    int next = i < 0 ? 0 : i + 2;
+    return next < ranges.length ? ranges[next] & UNSIGNED_MASK : -1;
+  }
+
+  /**
+   * @param other another {@link IPv4RangeSet}.
+   * @return a new {@link IPv4RangeSet}, holding the addresses that are in this set, or in the other one.
+   */
+  public IPv4RangeSet union(IPv4RangeSet other) {
+    RangeWriter writer = new RangeWriter(rangeCount() + other.rangeCount());
+    int i = 0;
+    int j = 0;
+    while (i < ranges.length || j < other.ranges.length) {
+      // the range with the lowest start is appended first
+      if (j == other.ranges.length || (i < ranges.length && Integer.compareUnsigned(ranges[i], other.ranges[j]) <= 0)) {
+        writer.append(ranges[i] & UNSIGNED_MASK, ranges[i + 1] & UNSIGNED_MASK);
+        i += 2;
+      } else {
+        writer.append(other.ranges[j] & UNSIGNED_MASK, other.ranges[j + 1] & UNSIGNED_MASK);
+        j += 2;
+      }
+    }
+    return writer.toSet();
+  }
+
+  /**
+   * @param other another {@link IPv4RangeSet}.
+   * @return a new {@link IPv4RangeSet}, holding the addresses that are both in this set and in the other one.
+   */
+  public IPv4RangeSet intersection(IPv4RangeSet other) {
+    RangeWriter writer = new RangeWriter(rangeCount() + other.rangeCount());
+    int i = 0;
+    int j = 0;
+    while (i < ranges.length && j < other.ranges.length) {
+      long start = Math.max(ranges[i] & UNSIGNED_MASK, other.ranges[j] & UNSIGNED_MASK);
+      long end1  = ranges[i + 1] & UNSIGNED_MASK;
+      long end2  = other.ranges[j + 1] & UNSIGNED_MASK;
+      long end   = Math.min(end1, end2);
+      if (start <= end) {
+        writer.append(start, end);
+      }
+      // the range that ends first cannot intersect with subsequent ones
+      if (end1 <= end2) {
+        i += 2;
+      } else {
+        j += 2;
+      }
+    }
+    return writer.toSet();
+  }
+
+  /**
+   * @param other another {@link IPv4RangeSet}.
+   * @return a new {@link IPv4RangeSet}, holding the addresses that are in this set, but not in the other one.
+   */
+  public IPv4RangeSet difference(IPv4RangeSet other) {
+    return intersection(other.complement());
+  }
+
+  /**
+   * @return a new {@link IPv4RangeSet}, holding the addresses that are not in this set.
+   */
+  public IPv4RangeSet complement() {
+    RangeWriter writer = new RangeWriter(rangeCount() + 1);
+    long        next   = 0;
+    for (int i = 0; i < ranges.length; i += 2) {
+      long start = ranges[i] & UNSIGNED_MASK;
+      if (start > next) {
+        writer.append(next, start - 1);
+      }
+      next = (ranges[i + 1] & UNSIGNED_MASK) + 1;
+    }
+    if (next <= MAX_ADDRESS) {
+      writer.append(next, MAX_ADDRESS);
+    }
+    return writer.toSet();
+  }
+
+  /**
+   * @return the number of (disjoint) ranges in this set.
+   */
+  public int getRangeCount() {
+    return rangeCount();
+  }
+
+  /**
+   * @param index the index of a range.
+   * @return the first address of the range at the given index.
+   */
+  public int getRangeStartAt(int index) {
+    checkRangeIndex(index);
+    return ranges[index * 2];
+  }
+
+  /**
+   * @param index the index of a range.
+   * @return the last address (inclusive) of the range at the given index.
+   */
+  public int getRangeEndAt(int index) {
+    checkRangeIndex(index);
+    return ranges[index * 2 + 1];
+  }
+
+  /**
+   * @return the number of addresses in this set.
+   */
+  public long getAddressCount() {
+    long count = 0;
+    for (int i = 0; i < ranges.length; i += 2) {
+      count += (ranges[i + 1] & UNSIGNED_MASK) - (ranges[i] & UNSIGNED_MASK) + 1;
+    }
+    return count;
+  }
+
+  /**
+   * @return <code>true</code> if this set holds no address.
+   */
+  public boolean isEmpty() {
+    return ranges.length == 0;
+  }
+
+  // --------------------------------------------------------------------------
+  // Object overrides
+
+  @Override
+  public String toString() {
+    StringBuilder s = new StringBuilder("[");
+    for (int i = 0; i < ranges.length; i += 2) {
+      if (i > 0) {
+        s.append(", ");
+      }
+      s.append(new IPv4Address(ranges[i], 0)).append(" - ").append(new IPv4Address(ranges[i + 1], 0));
+    }
+    return s.append(']').toString();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj instanceof IPv4RangeSet) {
+      return Arrays.equals(ranges, ((IPv4RangeSet) obj).ranges);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(ranges);
+  }
+
+  // --------------------------------------------------------------------------
+  // Restricted
+
+  // appends ranges in ascending order of start, merging those that overlap or are adjacent
+  private static final class RangeWriter {
+
+    private int[] ranges;
+    private int   size;
+    private long  lastEnd = -2;
+
+    // the expected number of ranges is an upper bound: merging may leave much fewer ones
+    private RangeWriter(int maxRanges) {
+      ranges = new int[Math.max(2, Math.min(maxRanges, 1024) * 2)];
+    }
+
+    private void append(long start, long end) {
+      if (size > 0 && start <= lastEnd + 1) {
+        if (end > lastEnd) {
+          lastEnd = end;
+          ranges[size - 1] = (int) end;
+        }
+        return;
+      }
+      if (size == ranges.length) {
+        ranges = Arrays.copyOf(ranges, size * 2);
+      }
+      ranges[size++] = (int) start;
+      ranges[size++] = (int) end;
+      lastEnd = end;
+    }
+
+    private IPv4RangeSet toSet() {
+      if (size == 0) {
+        return EMPTY;
+      }
+      return new IPv4RangeSet(size == ranges.length ? ranges : Arrays.copyOf(ranges, size));
+    }
+  }
+
+  // the index (in the ranges array) of the last range whose start is lower than or equal to the given address, or -1
+  private int indexOfFloorRange(int address) {
+    int low  = 0;
+    int high = rangeCount() - 1;
+    int key  = address ^ Integer.MIN_VALUE;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if ((ranges[mid * 2] ^ Integer.MIN_VALUE) <= key) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return high < 0 ? -1 : high * 2;
+  }
+
+  private int rangeCount() {
+    return ranges.length / 2;
+  }
+
+  private void checkRangeIndex(int index) {
+    Check.isTrue(index >= 0 && index < rangeCount(), "Invalid index: %s. Index is expected to be in range [0, %s]", index, rangeCount() - 1);
+  }
+}
@@ -1,15 +1,41 @@
 package org.sapia.ned.ip.v4;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import org.sapia.ned.util.Check;
 import org.sapia.ned.util.Safe;
 
-public class IPv4Subnet {
-  
+/**
+ * Models an IPv4 subnet, as a contiguous range of addresses (from the network address to the last address,
+ * both inclusive).
+ * <p>
+ * The addresses of a subnet are never materialized: {@link #iterator()}, {@link #intIterator()}, {@link #intStream()},
+ * {@link #stream()} and {@link #getAddresses()} all iterate over the subnet's range in constant memory. The streams
+ * are backed by an {@link IPv4AddressSpliterator}, and thus split evenly when made parallel.
+ * <p>
+ * Containment and overlap are tested on the packed addresses (see {@link IPv4Address#toInt()}), without creating
+ * any object: an address is within a subnet if its offset from the network address, compared as an unsigned value,
+ * does not exceed the span of the subnet. This single comparison also holds for subnets that are not aligned
+ * CIDR blocks.
+ *
+ * @author yduchesne
+ *
+ */
+public class IPv4Subnet implements Iterable<IPv4Address> {
+
+  private static final long UNSIGNED_MASK = 0xFFFFFFFFL;
+
   private IPv4Address netAddress;
   private IPv4Address lastAddress;
-  
+
   IPv4Subnet(IPv4Address netAddress, IPv4Address lastAddress) {
     this.netAddress  = netAddress;
     this.lastAddress = lastAddress;
@@ -18,28 +44,175 @@ public class IPv4Subnet {
   public IPv4Address getNetworkAddress() {
     return netAddress;
   }
-  
+
   public IPv4Address getLastAddress() {
     return lastAddress;
   }
 
+  /**
+   * @return the number of addresses in this subnet (as a <code>long</code>, since a subnet may span 2^32 addresses).
+   */
+  public long getAddressCount() {
+    return last() - first() + 1;
+  }
+
+  /**
+   * @param address an address, packed into an <code>int</code>.
+   * @return <code>true</code> if this subnet holds the given address.
+   */
+  public boolean contains(int address) {
+    int first = netAddress.toInt();
+    return address - first + Integer.MIN_VALUE <= lastAddress.toInt() - first + Integer.MIN_VALUE;
+  }
+
+  /**
+   * @param address an {@link IPv4Address} (its prefix length is not taken into account).
+   * @return <code>true</code> if this subnet holds the given address.
+   */
+  public boolean contains(IPv4Address address) {
+    return contains(address.toInt());
+  }
+
+  /**
+   * @param other another subnet.
+   * @return <code>true</code> if this subnet holds all the addresses of the given one (a subnet contains itself).
+   */
+  public boolean contains(IPv4Subnet other) {
+    return other.first() >= first() && other.last() <= last();
+  }
+
+  /**
+   * @param other another subnet.
+   * @return <code>true</code> if this subnet and the given one have at least one address in common.
+   */
+  public boolean overlaps(IPv4Subnet other) {
+    return other.first() <= last() && first() <= other.last();
+  }
+
+  /**
+   * Tests whether this subnet holds each of the given addresses. The tests are performed without branching, and
+   * their results are accumulated in words of 64 bits, whose set bits are then transferred to the given {@link BitSet}.
+   * No objects are created, provided the given {@link BitSet} is large enough to hold the results (that is, was
+   * created with at least <code>addresses.length</code> bits).
+   *
+   * @param addresses the addresses to test, each packed into an <code>int</code>.
+   * @param out the {@link BitSet} whose bit at a given index is set if this subnet holds the address at
+   * the same index, and cleared otherwise (the bits beyond the number of addresses are left untouched).
+   * @return the number of given addresses that this subnet holds.
+   */
+  public int containsAll(int[] addresses, BitSet out) {
+    int first = netAddress.toInt();
+    int span  = lastAddress.toInt() - first + Integer.MIN_VALUE;
+    int count = 0;
+    for (int base = 0; base < addresses.length; base += Long.SIZE) {
+      int  len  = Math.min(Long.SIZE, addresses.length - base);
+      long word = 0;
+      for (int i = 0; i < len; i++) {
+        word |= within(addresses[base + i], first, span) << i;
+      }
+      count += Long.bitCount(word);
+      out.clear(base, base + len);
+      for (; word != 0; word &= word - 1) {
+        out.set(base + Long.numberOfTrailingZeros(word));
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns a read-only view of this subnet's addresses: the {@link IPv4Address} instances are created
+   * on demand, when they are accessed.
+   *
+   * @return the {@link List} of this subnet's addresses.
+   */
   public List<IPv4Address> getAddresses() {
-     List<IPv4Address> addresses = new ArrayList<>();
-     addresses.add(netAddress);
-     IPv4Address previous = netAddress;
-     for (int i = 0; i < netAddress.getAddressCount() - 1; i++) {
-       IPv4Address next = previous.plus(1);
-       addresses.add(next);
-       previous = next;
-     }
-     return addresses;
-  }
-  
+    long count = getAddressCount();
+    Check.state(count <= Integer.MAX_VALUE, "Subnet %s has too many addresses to be viewed as a list (%s)", this, count);
+    return new AbstractList<IPv4Address>() {
+      @Override
+      public IPv4Address get(int index) {
+        Check.isTrue(index >= 0 && index < count, "Invalid index: %s. Index is expected to be in range [0, %s]", index, count - 1);
+        return address(first() + index);
+      }
+
+      @Override
+      public int size() {
+        return (int) count;
+      }
+
+      @Override
+      public Iterator<IPv4Address> iterator() {
+        return IPv4Subnet.this.iterator();
+      }
+    };
+  }
+
+  @Override
+  public Iterator<IPv4Address> iterator() {
+    PrimitiveIterator.OfInt addresses = intIterator();
+    return new Iterator<IPv4Address>() {
+      @Override
+      public boolean hasNext() {
+        return addresses.hasNext();
+      }
+
+      @Override
+      public IPv4Address next() {
+        return new IPv4Address(addresses.nextInt(), netAddress.getPrefixLength());
+      }
+    };
+  }
+
+  /**
+   * @return a {@link PrimitiveIterator.OfInt} over this subnet's addresses, each packed into an <code>int</code>
+   * (see {@link IPv4Address#toInt()}).
+   */
+  public PrimitiveIterator.OfInt intIterator() {
+    long from = first();
+    long to   = last();
+    return new PrimitiveIterator.OfInt() {
+      private long next = from;
+
+      @Override
+      public boolean hasNext() {
+        return next <= to;
+      }
+
+      @Override
+      public int nextInt() {
+        if (next > to) {
+          throw new NoSuchElementException();
+        }
+        return (int) next++;
+      }
+    };
+  }
+
+  /**
+   * @return a sequential {@link IntStream} over this subnet's addresses, each packed into an <code>int</code>
+   * (see {@link IPv4Address#toInt()}).
+   */
+  public IntStream intStream() {
+    return StreamSupport.intStream(IPv4AddressSpliterator.of(this), false);
+  }
+
+  /**
+   * @return a sequential {@link Stream} over this subnet's addresses (call {@link Stream#parallel()} to obtain 
+   * a parallel one).
+   */
+  public Stream<IPv4Address> stream() {
+    int prefixLen = netAddress.getPrefixLength();
+    return intStream().mapToObj(a -> new IPv4Address(a, prefixLen));
+  }
+
+  // --------------------------------------------------------------------------
+  // Object overrides
+
   @Override
   public String toString() {
     return "[range: " + netAddress + " - " + lastAddress + ", mask: " + netAddress.getSubnetMask() +"]";
   }
-  
+
   @Override
   public boolean equals(Object obj) {
     if (obj instanceof IPv4Subnet) {
@@ -48,10 +221,33 @@ public class IPv4Subnet {
     }
     return false;
   }
-  
+
   @Override
   public int hashCode() {
-    return Safe.hashCode(netAddress, lastAddress);
+    return Safe.hashInts(netAddress.toInt(), lastAddress.toInt());
+  }
+
+  // --------------------------------------------------------------------------
+  // Restricted
+
+  private long first() {
+    return netAddress.toInt() & UNSIGNED_MASK;
+  }
+
+  private long last() {
+    return lastAddress.toInt() & UNSIGNED_MASK;
+  }
+
+  // 1 if the given address is within the subnet starting at the given address, and spanning the given number of
+  // addresses (minus one, biased by MIN_VALUE), 0 otherwise. The offset of the address is biased by MIN_VALUE as well,
+  // so that the signed order of both is their unsigned order: their difference, computed as a long so as not to
+  // overflow, is negative if the offset exceeds the span
+  private static long within(int address, int first, int span) {
+    return ((((long) span - (address - first + Integer.MIN_VALUE)) >>> 63) ^ 1);
+  }
+
+  private IPv4Address address(long unsigned) {
+    return new IPv4Address((int) unsigned, netAddress.getPrefixLength());
   }
 
 }
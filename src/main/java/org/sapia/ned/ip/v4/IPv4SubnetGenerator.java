@@ -1,7 +1,11 @@
 package org.sapia.ned.ip.v4;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.sapia.ned.util.Binary;
 import org.sapia.ned.util.Check;
@@ -28,58 +32,134 @@ public class IPv4SubnetGenerator {
     return this;
   }
   
+  /**
+   * Eagerly generates the subnets corresponding to this instance's configuration.
+   * 
+   * @return the {@link List} of generated {@link IPv4Subnet}s.
+   * @see #stream()
+   */
   public List<IPv4Subnet> generate() {
+    Plan             plan    = plan();
+    List<IPv4Subnet> subnets = new ArrayList<>(plan.count);
+    for (int i = 0; i < plan.count; i++) {
+      subnets.add(plan.subnetAt(i));
+    }
+    return subnets;
+  }
+  
+  /**
+   * Lazily generates the subnets corresponding to this instance's configuration: each subnet is computed
+   * when it is reached. The stream is splittable, and may thus be processed in parallel.
+   * 
+   * @return a {@link Stream} of {@link IPv4Subnet}s.
+   */
+  public Stream<IPv4Subnet> stream() {
+    Plan plan = plan();
+    return IntStream.range(0, plan.count).mapToObj(plan::subnetAt);
+  }
+  
+  /**
+   * @return an {@link Iterator} that lazily generates the subnets corresponding to this instance's configuration.
+   */
+  public Iterator<IPv4Subnet> iterator() {
+    Plan plan = plan();
+    return new Iterator<IPv4Subnet>() {
+      private int index;
+      
+      @Override
+      public boolean hasNext() {
+        return index < plan.count;
+      }
+      
+      @Override
+      public IPv4Subnet next() {
+        if (index >= plan.count) {
+          throw new NoSuchElementException();
+        }
+        return plan.subnetAt(index++);
+      }
+    };
+  }
+  
+  /**
+   * @return the number of subnets that this instance generates, given its current configuration.
+   */
+  public int getSubnetCount() {
+    return plan().count;
+  }
+  
+  /**
+   * Computes the subnet at the given index arithmetically, without generating the preceding ones.
+   * 
+   * @param index the index of the subnet to return.
+   * @return the {@link IPv4Subnet} at the given index.
+   */
+  public IPv4Subnet subnetAt(int index) {
+    Plan plan = plan();
+    Check.isTrue(index >= 0 && index < plan.count, "Invalid subnet index: %s. Index is expected to be in range [0, %s]", index, plan.count - 1);
+    return plan.subnetAt(index);
+  }
+  
+  // --------------------------------------------------------------------------
+  // Restricted
+  
+  private Plan plan() {
     Check.isNotNull(address, "Base IP address not set");
     Check.isTrue(address.getPrefixLength() > 0, "Expected prefix length to be > 0 for base address %s", address);
     Check.isTrue(numberOfAddresses > 0 || numberOfSubnets > 0, "Either number of expected subnets or number of expected addresses has to be specified");
+    
+    // Formula: n_sub = n + log2 (N/N_sub) = 32 - log2(N_sub)
+    // Where:
+    //  n     = network prefix of the base IP address
+    //  N     = the total number of addresses in the network corresponding to the base IP address
+    //  n_sub = the network prefix computed for each subnet
+    //  N_sub = the number of addresses in each subnet
+    
+    int  n    = address.getPrefixLength();
+    long N    = 1L << (IPv4Address.SIZE - n);
+    long base = Binary.unnsignedIntToLong(address.toInt());
     Check.isTrue(
-        Binary.unnsignedIntToLong(Binary.getInt(address.getBytes())) % (long) address.getAddressCount() == 0, 
+        base % N == 0, 
         "The base address %s must divisible by the number of addresses (%s) in the block", 
-        address, address.getAddressCount()
+        address, N
     );
     if (numberOfAddresses > 0) {
       Check.isTrue(
-          numberOfAddresses <= address.getAddressCount(), 
+          numberOfAddresses <= N, 
           "Number of expected addresses (%s) must be smaller than/equal to number of possible addresses (%s) in block corresponding to %s", 
-          numberOfAddresses, address.getAddressCount(), address
+          numberOfAddresses, N, address
       );
     }
     
-    // Formula: n_sub = n + log2 (N/N_sub)
-    // Where:
-    //  n     = network prefix of the base IP address
-    //  N     = the total number of addresses in the network corresponding to the base IP address
-    //  n_sub = the network prefix computed for each subnet
-    //  N_sub = the number of addresses in each subnet
-    
-    int n     = address.getPrefixLength();
-    int N     = address.getAddressCount();
-    int N_sub = numberOfSubnets > 0 ? address.getAddressCount() / numberOfSubnets : numberOfAddresses;
+    long N_sub = numberOfSubnets > 0 ? N / numberOfSubnets : numberOfAddresses;
+    Check.isTrue(N_sub > 0, "Number of subnets (%s) must be smaller than/equal to number of addresses (%s) in block", numberOfSubnets, N);
     Check.isTrue((N_sub & (N_sub - 1)) == 0, "Number of addresses in subnets must be a power of two. Got %s", N_sub);
-    int n_sub = n + (int) (Math.log(N / N_sub) / Math.log(2));
+    int n_sub = IPv4Address.SIZE - Long.numberOfTrailingZeros(N_sub);
     
-    if (n_sub < 0) {
-      Stdout.args("....");
-    }
+    return new Plan(base, n_sub, N_sub, numberOfSubnets > 0 ? numberOfSubnets : 1);
+  }
+  
+  private static final class Plan {
     
-    List<IPv4Subnet> subnets = new ArrayList<>(numberOfSubnets > 0 ? numberOfSubnets : 1);
+    private final long base;
+    private final int  prefixLen;
+    private final long subnetSize;
+    private final int  count;
     
-    IPv4Address previous = null;
-    int max = numberOfSubnets > 0 ? numberOfSubnets : 1;
-    for (int i = 0; i < max; i++) {
-      IPv4Address firstAddress;
-      if (previous == null) {
-        firstAddress = new IPv4Address(address.toBitSet(), n_sub);
-      } else {
-        firstAddress = previous.plus(1);
-      }
-      
-      IPv4Address lastAddress = firstAddress.plus(N_sub - 1);
-      subnets.add(new IPv4Subnet(firstAddress, lastAddress));
-      previous = lastAddress;
+    private Plan(long base, int prefixLen, long subnetSize, int count) {
+      this.base       = base;
+      this.prefixLen  = prefixLen;
+      this.subnetSize = subnetSize;
+      this.count      = count;
+    }
+    
+    private IPv4Subnet subnetAt(int index) {
+      long first = base + index * subnetSize;
+      return new IPv4Subnet(
+          new IPv4Address((int) first, prefixLen), 
+          new IPv4Address((int) (first + subnetSize - 1), prefixLen)
+      );
     }
-
-    return subnets;
   }
   
   public static void main(String[] args) {
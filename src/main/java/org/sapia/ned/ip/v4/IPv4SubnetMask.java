@@ -2,7 +2,6 @@ package org.sapia.ned.ip.v4;
 
 import org.sapia.ned.SubnetMask;
 import org.sapia.ned.bitset.ImmutableBitSet;
-import org.sapia.ned.util.Binary;
 import org.sapia.ned.util.ExternalizationOnly;
 
 /**
@@ -12,6 +11,22 @@ import org.sapia.ned.util.ExternalizationOnly;
  *
  */
 public class IPv4SubnetMask extends IPv4Address implements SubnetMask {
+  
+  // canonical masks, indexed by prefix length (0 to 32)
+  private static final IPv4SubnetMask[] PREFIX_MASKS   = new IPv4SubnetMask[SIZE + 1];
+  
+  // canonical classful masks (which have no prefix length), indexed by their number of network bytes (0 to 3)
+  private static final IPv4SubnetMask[] CLASSFUL_MASKS = new IPv4SubnetMask[LEN];
+  
+  static {
+    for (int i = 0; i < PREFIX_MASKS.length; i++) {
+      PREFIX_MASKS[i] = new IPv4SubnetMask(IPv4CidrLong.mask(i), i);
+    }
+    CLASSFUL_MASKS[0] = PREFIX_MASKS[0];
+    for (int i = 1; i < CLASSFUL_MASKS.length; i++) {
+      CLASSFUL_MASKS[i] = new IPv4SubnetMask(-1 << (SIZE - i * Byte.SIZE), 0);
+    }
+  }
    
   @ExternalizationOnly
   public IPv4SubnetMask() {
@@ -21,7 +36,15 @@ public class IPv4SubnetMask extends IPv4Address implements SubnetMask {
    * @param from the {@link IPv4Address} to create an instance of this class from.
    */
   public IPv4SubnetMask(IPv4Address from) {
-    this(Binary.unsignedBytesToInts(from.getBytes()), from.getPrefixLength());
+    this(from.toInt(), from.getPrefixLength());
+  }
+  
+  /**
+   * @param value the mask, packed into an <code>int</code>.
+   * @param prefixLen the new mask's prefix length.
+   */
+  public IPv4SubnetMask(int value, int prefixLen) {
+    super(value, prefixLen);
   }
   
   /**
@@ -48,6 +71,53 @@ public class IPv4SubnetMask extends IPv4Address implements SubnetMask {
     super(bitset, prefixLen);
   }
   
+  /**
+   * @param prefixLen a prefix length, from 0 to 32.
+   * @return the shared {@link IPv4SubnetMask} corresponding to the given prefix length.
+   */
+  public static IPv4SubnetMask forPrefixLength(int prefixLen) {
+    IPv4CidrLong.checkPrefixLength(prefixLen);
+    return PREFIX_MASKS[prefixLen];
+  }
+  
+  /**
+   * @param byteCount the number of bytes of the network part of the mask (0 to 3).
+   * @return the shared {@link IPv4SubnetMask} corresponding to the given classful network part.
+   */
+  static IPv4SubnetMask forClassfulByteCount(int byteCount) {
+    return CLASSFUL_MASKS[byteCount];
+  }
+  
+  /**
+   * @return <code>true</code> if this mask consists of a sequence of 1s followed by a sequence of 0s.
+   */
+  public boolean isContiguous() {
+    int hostBits = ~toInt();
+    return (hostBits & (hostBits + 1)) == 0;
+  }
+  
+  /**
+   * @return the number of network bits in this mask (that is, the number of leading 1s).
+   */
+  public int getMaskLength() {
+    return Integer.numberOfLeadingZeros(~toInt());
+  }
+  
+  /**
+   * @return the number of host bits in this mask (that is, the number of trailing 0s).
+   */
+  public int getHostBitCount() {
+    return Integer.numberOfTrailingZeros(toInt());
+  }
+  
+  /**
+   * @return the number of addresses in the blocks corresponding to this mask (as a <code>long</code>,
+   * since a mask of length 0 covers 2^32 addresses).
+   */
+  public long getHostCount() {
+    return 1L << getHostBitCount();
+  }
+  
   /**
    * Returns the first address of the IP address block to which the given address belongs. The given 
    * address is expected to correspond to the network to which this subnet mask itself corresponds.
@@ -56,7 +126,7 @@ public class IPv4SubnetMask extends IPv4Address implements SubnetMask {
    * @return the {@link IPv4Address} consisting of the first address of the block to which the passed in IP address belongs.
    */
   public IPv4Address getFirstBlockAddress(IPv4Address arbitraryAddress) {    
-    return new IPv4Address(toBitSet().and(arbitraryAddress.toBitSet()), getPrefixLength());
+    return new IPv4Address(toInt() & arbitraryAddress.toInt(), getPrefixLength());
   }
 
   /**
@@ -67,14 +137,14 @@ public class IPv4SubnetMask extends IPv4Address implements SubnetMask {
    * @return the {@link IPv4Address} consisting of the last address of the block to which the passed in IP address belongs.
    */
   public IPv4Address getLastBlockAddress(IPv4Address arbitraryAddress) {
-    return new IPv4Address(arbitraryAddress.toBitSet().or(toBitSet().not()), getPrefixLength());
+    return new IPv4Address(arbitraryAddress.toInt() | ~toInt(), getPrefixLength());
   }
   
   /**
    * @return this instance's IP address representation (i.e: without a prefix).
    */
   public IPv4Address toAddress() {
-    return new IPv4Address(getBytes(), getPrefixLength());
+    return new IPv4Address(toInt(), getPrefixLength());
   }
 
 
@@ -84,23 +154,38 @@ public class IPv4SubnetMask extends IPv4Address implements SubnetMask {
   @Override
   public String toString() {
     StringBuilder s = new StringBuilder(LEN * 3 + 3);
-    byte[] tmp = doGetBytes();
-    for (int i = 0; i < tmp.length; i++) {
-      if (i > 0) {
-        s.append('.');
-      }
-      s.append(Integer.toString(Binary.unsignedByteToInt(tmp[i])));
-    }
+    appendTo(s);
     return s.toString();
   }
   
   @Override
   public boolean equals(Object obj) {
-    if (obj instanceof IPv4SubnetMask) {
+    if (obj == this) {
+      return true;
+    } else if (obj instanceof IPv4SubnetMask) {
       return super.equals(obj);
     }
     return false;
   }
   
+  // --------------------------------------------------------------------------
+  // Serialization
+  
+  /**
+   * @return the canonical instance corresponding to this mask, or this instance if there is none.
+   */
+  protected Object readResolve() {
+    int prefixLen = getPrefixLength();
+    if (prefixLen > 0) {
+      IPv4SubnetMask canonical = PREFIX_MASKS[prefixLen];
+      return canonical.toInt() == toInt() ? canonical : this;
+    }
+    for (IPv4SubnetMask canonical : CLASSFUL_MASKS) {
+      if (canonical.toInt() == toInt()) {
+        return canonical;
+      }
+    }
+    return this;
+  }
 
 }
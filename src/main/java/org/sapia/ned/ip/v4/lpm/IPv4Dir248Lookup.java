@@ -0,0 +1,117 @@
+package org.sapia.ned.ip.v4.lpm;
+
+import java.util.Arrays;
+
+import org.sapia.ned.ip.v4.IPv4Address;
+
+/**
+ * An {@link IPv4PrefixLookup} implementing the DIR-24-8 scheme, which trades memory for constant-time lookups:
+ * <ul>
+ *   <li>a first-level table holds one entry per /24 (2^24 <code>int</code>s, that is 64 MB), indexed by the 24 most
+ *   significant bits of an address;
+ *   <li>when prefixes longer than /24 exist within a given /24, the entry of the latter points to a second-level
+ *   block of 256 entries, indexed by the 8 least significant bits of an address.
+ * </ul>
+ * Most lookups thus take a single memory access, and at most two.
+ * <p>
+ * An instance of this class is built from an {@link IPv4PrefixList}, and is not updated incrementally: it is rather
+ * rebuilt (see {@link #rebuild(IPv4PrefixList)}), reusing its tables. Lookups may not be performed while an instance
+ * is being rebuilt.
+ *
+ * @author yduchesne
+ *
+ */
+public class IPv4Dir248Lookup extends IPv4PrefixLookupSupport {
+
+  private static final int TBL24_SIZE  = 1 << 24;
+  private static final int BLOCK_BITS  = 8;
+  private static final int BLOCK_SIZE  = 1 << BLOCK_BITS;
+  private static final int BLOCK_MASK  = BLOCK_SIZE - 1;
+
+  // entries: 0 = no match, > 0 = value + 1, < 0 = index of a second-level block (with the sign bit set)
+  private static final int EMPTY       = 0;
+  private static final int BLOCK_FLAG  = Integer.MIN_VALUE;
+
+  private int[] tbl24 = new int[TBL24_SIZE];
+  private int[] tbl8  = new int[BLOCK_SIZE * 16];
+  private int   blockCount;
+
+  private IPv4Dir248Lookup() {
+  }
+
+  /**
+   * @param prefixes the {@link IPv4PrefixList} holding the prefixes from which to build the new instance.
+   * @return a new instance of this class.
+   */
+  public static IPv4Dir248Lookup build(IPv4PrefixList prefixes) {
+    IPv4Dir248Lookup lookup = new IPv4Dir248Lookup();
+    lookup.rebuild(prefixes);
+    return lookup;
+  }
+
+  /**
+   * Rebuilds this instance's tables from the given prefixes (the tables previously allocated are reused).
+   *
+   * @param prefixes the {@link IPv4PrefixList} holding the prefixes from which to rebuild this instance.
+   */
+  public void rebuild(IPv4PrefixList prefixes) {
+    Arrays.fill(tbl24, EMPTY);
+    blockCount = 0;
+    // shorter prefixes are applied first, so that longer ones override them
+    for (int i : prefixes.indexesByPrefixLength()) {
+      int network   = prefixes.getNetworkAt(i);
+      int prefixLen = prefixes.getPrefixLengthAt(i);
+      int entry     = prefixes.getValueAt(i) + 1;
+      if (prefixLen <= IPv4Address.SIZE - BLOCK_BITS) {
+        int from = network >>> BLOCK_BITS;
+        Arrays.fill(tbl24, from, from + (1 << (IPv4Address.SIZE - BLOCK_BITS - prefixLen)), entry);
+      } else {
+        int slot = network >>> BLOCK_BITS;
+        if (tbl24[slot] >= 0) {
+          tbl24[slot] = BLOCK_FLAG | newBlock(tbl24[slot]);
+        }
+        int from = (tbl24[slot] & ~BLOCK_FLAG) * BLOCK_SIZE + (network & BLOCK_MASK);
+        Arrays.fill(tbl8, from, from + (1 << (IPv4Address.SIZE - prefixLen)), entry);
+      }
+    }
+  }
+
+  /**
+   * @return the number of second-level blocks that this instance holds.
+   */
+  public int getBlockCount() {
+    return blockCount;
+  }
+
+  /**
+   * @return the number of bytes used by this instance's tables.
+   */
+  public long getTableBytes() {
+    return ((long) tbl24.length + tbl8.length) * Integer.BYTES;
+  }
+
+  // --------------------------------------------------------------------------
+  // IPv4PrefixLookup interface
+
+  @Override
+  public int lookup(int address) {
+    int entry = tbl24[address >>> BLOCK_BITS];
+    if (entry < 0) {
+      entry = tbl8[(entry & ~BLOCK_FLAG) * BLOCK_SIZE + (address & BLOCK_MASK)];
+    }
+    return entry - 1;
+  }
+
+  // --------------------------------------------------------------------------
+  // Restricted
+
+  // creates a second-level block, whose entries are initialized with the given one (inherited from the /24 or shorter prefix)
+  private int newBlock(int inherited) {
+    int offset = blockCount * BLOCK_SIZE;
+    if (offset + BLOCK_SIZE > tbl8.length) {
+      tbl8 = Arrays.copyOf(tbl8, tbl8.length * 2);
+    }
+    Arrays.fill(tbl8, offset, offset + BLOCK_SIZE, inherited);
+    return blockCount++;
+  }
+}
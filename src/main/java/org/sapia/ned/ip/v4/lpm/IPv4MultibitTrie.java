@@ -0,0 +1,225 @@
+package org.sapia.ned.ip.v4.lpm;
+
+import java.util.Arrays;
+
+import org.sapia.ned.ip.v4.IPv4Address;
+import org.sapia.ned.util.Check;
+
+/**
+ * An {@link IPv4PrefixLookup} implemented as a multibit trie, whose levels consume a configurable number of bits
+ * (the strides) of the looked up address: with strides of 16-8-8, for example, the root node is indexed by the 16 most
+ * significant bits of an address, and the nodes of the next two levels by 8 bits each.
+ * <p>
+ * Prefixes whose length falls between two level boundaries are expanded to the next boundary (controlled prefix
+ * expansion), and the values of the slots that point to a child node are pushed down into the latter (leaf pushing):
+ * each slot thus holds either a value or a child pointer. A lookup reads a single slot per level - that is, touches
+ * at most one cache line per level - and ends as soon as a slot holding a value is found.
+ * <p>
+ * All nodes are stored in a single, flat <code>int</code> array. As with {@link IPv4Dir248Lookup}, instances are
+ * built from an {@link IPv4PrefixList}, and are not updated incrementally.
+ *
+ * @author yduchesne
+ *
+ */
+public class IPv4MultibitTrie extends IPv4PrefixLookupSupport {
+  
+  /**
+   * Strides of 16-8-8: a 256 KB root node, and at most three memory accesses per lookup.
+   */
+  public static final int[] STRIDES_16_8_8 = {16, 8, 8};
+  
+  /**
+   * Strides of 8-8-8-8: smaller nodes, and at most four memory accesses per lookup.
+   */
+  public static final int[] STRIDES_8_8_8_8 = {8, 8, 8, 8};
+  
+  private static final int MAX_STRIDE = 24;
+
+  // slots: 0 = no match, > 0 = value + 1, < 0 = offset of a child node (with the sign bit set)
+  static final int EMPTY      = 0;
+  static final int CHILD_FLAG = Integer.MIN_VALUE;
+  
+  // the number of addresses whose lookups are interleaved by lookupBatch()
+  private static final int BATCH_GROUP = 32;
+  
+  private int[] strides;
+  private int[] shifts;
+  private int[] masks;
+  private int[] nodes;
+  private int   nodeCount;
+  private int   slotCount;
+  
+  private IPv4MultibitTrie(int[] strides) {
+    int total = 0;
+    for (int s : strides) {
+      Check.isTrue(s > 0 && s <= MAX_STRIDE, "Invalid stride: %s. Must be within [1, %s]", s, MAX_STRIDE);
+      total += s;
+    }
+    Check.isTrue(total == IPv4Address.SIZE, "Strides must add up to %s. Got: %s", IPv4Address.SIZE, total);
+    this.strides = strides.clone();
+    this.shifts  = new int[strides.length];
+    this.masks   = new int[strides.length];
+    int end = 0;
+    for (int i = 0; i < strides.length; i++) {
+      end      += strides[i];
+      shifts[i] = IPv4Address.SIZE - end;
+      masks[i]  = (1 << strides[i]) - 1;
+    }
+    this.nodes   = new int[nodeSize(0) + nodeSize(1) * 16];
+  }
+  
+  /**
+   * @param prefixes the {@link IPv4PrefixList} holding the prefixes from which to build the new instance.
+   * @return a new instance of this class, with strides of 16-8-8.
+   */
+  public static IPv4MultibitTrie build(IPv4PrefixList prefixes) {
+    return build(prefixes, STRIDES_16_8_8);
+  }
+  
+  /**
+   * @param prefixes the {@link IPv4PrefixList} holding the prefixes from which to build the new instance.
+   * @param strides the number of bits consumed at each level of the trie (each stride must be within [1, 24],
+   * and the strides must add up to 32).
+   * @return a new instance of this class.
+   */
+  public static IPv4MultibitTrie build(IPv4PrefixList prefixes, int... strides) {
+    IPv4MultibitTrie trie = new IPv4MultibitTrie(strides);
+    trie.rebuild(prefixes);
+    // the spare capacity left by the growth of the node array is released
+    trie.nodes = Arrays.copyOf(trie.nodes, trie.slotCount);
+    return trie;
+  }
+  
+  /**
+   * Rebuilds this instance's nodes from the given prefixes (the node array previously allocated is reused).
+   * 
+   * @param prefixes the {@link IPv4PrefixList} holding the prefixes from which to rebuild this instance.
+   */
+  public void rebuild(IPv4PrefixList prefixes) {
+    nodeCount = 0;
+    slotCount = 0;
+    newNode(0, EMPTY);
+    // shorter prefixes are applied first, so that longer ones override them
+    for (int i : prefixes.indexesByPrefixLength()) {
+      insert(prefixes.getNetworkAt(i), prefixes.getPrefixLengthAt(i), prefixes.getValueAt(i) + 1);
+    }
+  }
+  
+  /**
+   * @return a copy of the strides of this instance.
+   */
+  public int[] getStrides() {
+    return strides.clone();
+  }
+  
+  /**
+   * @return the number of nodes that this instance holds (including the root).
+   */
+  public int getNodeCount() {
+    return nodeCount;
+  }
+  
+  /**
+   * @return the number of bytes used by this instance's nodes.
+   */
+  public long getTableBytes() {
+    return (long) nodes.length * Integer.BYTES;
+  }
+  
+  // --------------------------------------------------------------------------
+  // IPv4PrefixLookup interface
+  
+  @Override
+  public int lookup(int address) {
+    int node = 0;
+    for (int level = 0; ; level++) {
+      int slot = nodes[node + ((address >>> shifts[level]) & masks[level])];
+      if (slot >= 0) {
+        return slot - 1;
+      }
+      node = slot & ~CHILD_FLAG;
+    }
+  }
+  
+  @Override
+  public void lookupBatch(int[] addresses, int off, int len, int[] values) {
+    checkBatch(addresses, off, len, values);
+    // the slots reached by the lookups of the current group
+    int[] slots = new int[BATCH_GROUP];
+    int   end   = off + len;
+    int   i     = off;
+    for (; i <= end - BATCH_GROUP; i += BATCH_GROUP) {
+      int pending = 0;
+      for (int j = 0; j < BATCH_GROUP; j++) {
+        slots[j] = nodes[(addresses[i + j] >>> shifts[0]) & masks[0]];
+        pending |= slots[j];
+      }
+      // the lookups of the group advance by one level at a time, so that their cache misses overlap; the
+      // lookups that are complete read the root instead (without branching), and keep their slot
+      for (int level = 1; pending < 0; level++) {
+        pending = 0;
+        for (int j = 0; j < BATCH_GROUP; j++) {
+          int slot = slots[j];
+          int node = slot < 0 ? slot & ~CHILD_FLAG : 0;
+          int next = nodes[node + ((addresses[i + j] >>> shifts[level]) & masks[level])];
+          slots[j] = slot < 0 ? next : slot;
+          pending |= slots[j];
+        }
+      }
+      for (int j = 0; j < BATCH_GROUP; j++) {
+        values[i + j] = slots[j] - 1;
+      }
+    }
+    for (; i < end; i++) {
+      values[i] = lookup(addresses[i]);
+    }
+  }
+  
+  // --------------------------------------------------------------------------
+  // Restricted
+  
+  /**
+   * @return the array holding this instance's nodes, the root being at offset 0 (see {@link #CHILD_FLAG}
+   * for the encoding of the slots).
+   */
+  int[] slots() {
+    return nodes;
+  }
+  
+  private void insert(int network, int prefixLen, int entry) {
+    int node  = 0;
+    int level = 0;
+    int end   = strides[0];
+    while (prefixLen > end) {
+      int slot = node + ((network >>> shifts[level]) & masks[level]);
+      if (nodes[slot] >= 0) {
+        // not inlined: creating the node may reallocate the node array
+        int child = newNode(level + 1, nodes[slot]);
+        nodes[slot] = CHILD_FLAG | child;
+      }
+      node = nodes[slot] & ~CHILD_FLAG;
+      level++;
+      end += strides[level];
+    }
+    // controlled prefix expansion: the prefix covers 2^(end - prefixLen) slots of the node
+    int from = node + ((network >>> shifts[level]) & masks[level]);
+    Arrays.fill(nodes, from, from + (1 << (end - prefixLen)), entry);
+  }
+  
+  // creates a node at the given level, whose slots are initialized with the given one (inherited from the parent slot)
+  private int newNode(int level, int inherited) {
+    int offset = slotCount;
+    int length = nodeSize(level);
+    if (offset + length > nodes.length) {
+      nodes = Arrays.copyOf(nodes, Math.max(nodes.length * 2, offset + length));
+    }
+    Arrays.fill(nodes, offset, offset + length, inherited);
+    slotCount = offset + length;
+    nodeCount++;
+    return offset;
+  }
+  
+  private int nodeSize(int level) {
+    return 1 << strides[level];
+  }
+}
@@ -0,0 +1,191 @@
+package org.sapia.ned.ip.v4.lpm;
+
+import java.util.Arrays;
+
+/**
+ * A compressed {@link IPv4PrefixLookup}, following the Poptrie scheme (Asai &amp; Ohara, 2015): it holds a full
+ * routing table in a few bytes per prefix, while keeping lookups to a handful of memory accesses.
+ * <ul>
+ *   <li>the 18 most significant bits of an address index a direct table, whose entries hold either a value or
+ *   the index of a node;
+ *   <li>the remaining bits are consumed 6 at a time (the last level consuming 2), by nodes of (up to) 64 slots that are
+ *   not materialized: each node holds a 64-bit vector, indicating which slots lead to a child node, and a 64-bit leaf
+ *   vector, indicating where the runs of identical values start among the other slots;
+ *   <li>the children of a node are stored contiguously, as are its (distinct) leaves: the position of a child or
+ *   leaf is computed by counting the bits set in the corresponding vector, up to the looked up slot (popcount, which
+ *   the JIT compiles to a single instruction on most platforms).
+ * </ul>
+ * A node takes 24 bytes (the two vectors, and the base indexes of its children and leaves, stored next to each
+ * other in a <code>long</code> array). When the prefixes are associated with at most 65536 distinct values (which is
+ * typically the case for next hops), the leaves are stored as 16-bit indexes into a table of these values, and thus take
+ * 2 bytes each (4 bytes otherwise).
+ * <p>
+ * An instance of this class is built from an {@link IPv4PrefixList} (see {@link IPv4PrefixList#add(org.sapia.ned.ip.v4.IPv4Subnet, int)}
+ * to add {@link org.sapia.ned.ip.v4.IPv4Subnet}s to the latter), and is immutable.
+ *
+ * @author yduchesne
+ *
+ */
+public class IPv4Poptrie extends IPv4PrefixLookupSupport {
+  
+  private static final int[] STRIDES    = {18, 6, 6, 2};
+  private static final int[] SHIFTS     = {14, 8, 2, 0};
+  private static final int   NODE_LONGS = 3;
+  private static final int   MAX_NARROW = Character.MAX_VALUE + 1;
+  
+  // direct entries and leaves: 0 = no match, > 0 = value + 1; direct entries < 0 = node index (with the sign bit set)
+  private static final int NODE_FLAG = IPv4MultibitTrie.CHILD_FLAG;
+  
+  private int[]  direct = new int[1 << STRIDES[0]];
+  // per node: vector, leaf vector, (base index of children << 32) | base index of leaves
+  private long[] nodes  = new long[NODE_LONGS * 1024];
+  private int[]  leaves = new int[1024];
+  // when not null: the leaves, as indexes into the values held in the leaves array
+  private char[] narrowLeaves;
+  private int    nodeCount;
+  private int    leafCount;
+  
+  private IPv4Poptrie() {
+  }
+  
+  /**
+   * @param prefixes the {@link IPv4PrefixList} holding the prefixes from which to build the new instance.
+   * @return a new instance of this class.
+   */
+  public static IPv4Poptrie build(IPv4PrefixList prefixes) {
+    IPv4Poptrie poptrie = new IPv4Poptrie();
+    // the expanded, leaf-pushed trie is built first, and then compressed
+    int[] slots = IPv4MultibitTrie.build(prefixes, STRIDES).slots();
+    for (int i = 0; i < poptrie.direct.length; i++) {
+      int slot = slots[i];
+      if (slot >= 0) {
+        poptrie.direct[i] = slot;
+      } else {
+        int node = poptrie.newNodes(1);
+        poptrie.compress(slots, slot & ~NODE_FLAG, 1, node);
+        poptrie.direct[i] = NODE_FLAG | node;
+      }
+    }
+    poptrie.nodes = Arrays.copyOf(poptrie.nodes, poptrie.nodeCount * NODE_LONGS);
+    poptrie.narrowLeaves();
+    return poptrie;
+  }
+  
+  /**
+   * @return the number of nodes that this instance holds.
+   */
+  public int getNodeCount() {
+    return nodeCount;
+  }
+  
+  /**
+   * @return the number of leaves that this instance holds.
+   */
+  public int getLeafCount() {
+    return leafCount;
+  }
+  
+  /**
+   * @return the number of bytes used by this instance's direct table, nodes and leaves.
+   */
+  public long getTableBytes() {
+    long bytes = (long) direct.length * Integer.BYTES + (long) nodes.length * Long.BYTES + (long) leaves.length * Integer.BYTES;
+    return narrowLeaves == null ? bytes : bytes + (long) narrowLeaves.length * Character.BYTES;
+  }
+  
+  // --------------------------------------------------------------------------
+  // IPv4PrefixLookup interface
+  
+  @Override
+  public int lookup(int address) {
+    int entry = direct[address >>> SHIFTS[0]];
+    if (entry >= 0) {
+      return entry - 1;
+    }
+    int node = entry & ~NODE_FLAG;
+    for (int level = 1; ; level++) {
+      int  slot   = (address >>> SHIFTS[level]) & ((1 << STRIDES[level]) - 1);
+      int  offset = node * NODE_LONGS;
+      long vector = nodes[offset];
+      // the bits of the slots up to (and including) the looked up one
+      long upTo   = -1L >>> (Long.SIZE - 1 - slot);
+      if ((vector & (1L << slot)) == 0) {
+        int leaf = (int) nodes[offset + 2] + Long.bitCount(nodes[offset + 1] & upTo) - 1;
+        return (narrowLeaves == null ? leaves[leaf] : leaves[narrowLeaves[leaf]]) - 1;
+      }
+      node = (int) (nodes[offset + 2] >>> Integer.SIZE) + Long.bitCount(vector & upTo) - 1;
+    }
+  }
+  
+  // --------------------------------------------------------------------------
+  // Restricted
+  
+  // compresses the node of the multibit trie at the given offset, into the given node of this instance
+  private void compress(int[] slots, int from, int level, int node) {
+    long vector     = 0;
+    long leafVector = 0;
+    int  children   = 0;
+    int  leafBase   = leafCount;
+    int  previous   = -1;
+    for (int i = 0; i < 1 << STRIDES[level]; i++) {
+      int slot = slots[from + i];
+      if (slot < 0) {
+        vector |= 1L << i;
+        children++;
+      } else if (slot != previous) {
+        leafVector |= 1L << i;
+        newLeaf(slot);
+        previous = slot;
+      }
+    }
+    int childBase = newNodes(children);
+    int offset    = node * NODE_LONGS;
+    nodes[offset]     = vector;
+    nodes[offset + 1] = leafVector;
+    nodes[offset + 2] = ((long) childBase << Integer.SIZE) | leafBase;
+    int child = childBase;
+    for (int i = 0; i < 1 << STRIDES[level]; i++) {
+      if (slots[from + i] < 0) {
+        compress(slots, slots[from + i] & ~NODE_FLAG, level + 1, child++);
+      }
+    }
+  }
+  
+  // reserves the given number of contiguous nodes, returning the index of the first one
+  private int newNodes(int count) {
+    if ((nodeCount + count) * NODE_LONGS > nodes.length) {
+      nodes = Arrays.copyOf(nodes, Math.max(nodes.length * 2, (nodeCount + count) * NODE_LONGS));
+    }
+    int first = nodeCount;
+    nodeCount += count;
+    return first;
+  }
+  
+  // replaces the leaves by 16-bit indexes into the table of distinct leaf values, if the latter is small enough
+  private void narrowLeaves() {
+    int[] distinct = Arrays.copyOf(leaves, leafCount);
+    Arrays.sort(distinct);
+    int count = 0;
+    for (int i = 0; i < distinct.length; i++) {
+      if (i == 0 || distinct[i] != distinct[i - 1]) {
+        distinct[count++] = distinct[i];
+      }
+    }
+    if (count > MAX_NARROW) {
+      leaves = Arrays.copyOf(leaves, leafCount);
+      return;
+    }
+    narrowLeaves = new char[leafCount];
+    for (int i = 0; i < leafCount; i++) {
+      narrowLeaves[i] = (char) Arrays.binarySearch(distinct, 0, count, leaves[i]);
+    }
+    leaves = Arrays.copyOf(distinct, count);
+  }
+  
+  private void newLeaf(int leaf) {
+    if (leafCount == leaves.length) {
+      leaves = Arrays.copyOf(leaves, leaves.length * 2);
+    }
+    leaves[leafCount++] = leaf;
+  }
+}
@@ -0,0 +1,185 @@
+package org.sapia.ned.ip.v4.lpm;
+
+import java.util.Arrays;
+
+import org.sapia.ned.ip.v4.IPv4Address;
+import org.sapia.ned.ip.v4.IPv4CidrLong;
+import org.sapia.ned.ip.v4.IPv4Subnet;
+import org.sapia.ned.util.Check;
+
+/**
+ * Holds a list of IPv4 prefixes, each associated with an <code>int</code> value, from which {@link IPv4PrefixLookup}s
+ * are built. The entries are stored in primitive arrays (network addresses, prefix lengths and values).
+ * <p>
+ * The network addresses are normalized when added (that is, the bits beyond the prefix length are cleared). If the same 
+ * prefix is added more than once, the last value added prevails when a lookup structure is built. Values must be
+ * within <code>[0, 2^31 - 2]</code>.
+ * <p>
+ * This class is not thread-safe.
+ * 
+ * @author yduchesne
+ *
+ */
+public class IPv4PrefixList {
+  
+  /**
+   * The maximum value that may be associated with a prefix.
+   */
+  public static final int MAX_VALUE = Integer.MAX_VALUE - 1;
+  
+  private static final int DEFAULT_CAPACITY = 16;
+  
+  private int[] networks;
+  private int[] prefixLens;
+  private int[] values;
+  private int   size;
+  
+  public IPv4PrefixList() {
+    this(DEFAULT_CAPACITY);
+  }
+  
+  /**
+   * @param capacity the initial capacity of the new instance.
+   */
+  public IPv4PrefixList(int capacity) {
+    Check.isTrue(capacity >= 0, "Capacity must be positive. Got %s", capacity);
+    networks   = new int[capacity];
+    prefixLens = new int[capacity];
+    values     = new int[capacity];
+  }
+  
+  /**
+   * @param network the network address of the prefix to add, packed into an <code>int</code>.
+   * @param prefixLen the prefix length, from 0 to 32.
+   * @param value the value to associate with the prefix.
+   * @return this instance.
+   */
+  public IPv4PrefixList add(int network, int prefixLen, int value) {
+    IPv4CidrLong.checkPrefixLength(prefixLen);
+    Check.isTrue(value >= 0 && value <= MAX_VALUE, "Invalid value: %s. Must be within [0, %s]", value, MAX_VALUE);
+    if (size == networks.length) {
+      int capacity = Math.max(DEFAULT_CAPACITY, size * 2);
+      networks   = Arrays.copyOf(networks, capacity);
+      prefixLens = Arrays.copyOf(prefixLens, capacity);
+      values     = Arrays.copyOf(values, capacity);
+    }
+    networks[size]   = network & IPv4CidrLong.mask(prefixLen);
+    prefixLens[size] = prefixLen;
+    values[size]     = value;
+    size++;
+    return this;
+  }
+  
+  /**
+   * @param network the network address corresponding to the prefix to add: its prefix length is the one of its
+   * subnet mask (see {@link IPv4Address#getSubnetMask()}).
+   * @param value the value to associate with the prefix.
+   * @return this instance.
+   * @throws IllegalArgumentException if the given address has no prefix length, and is of class D or E (such addresses
+   * have no classful network mask).
+   */
+  public IPv4PrefixList add(IPv4Address network, int value) {
+    return add(network.toInt(), IPv4PrefixTable.prefixLengthOf(network), value);
+  }
+  
+  /**
+   * @param subnet the {@link IPv4Subnet} corresponding to the prefix to add.
+   * @param value the value to associate with the prefix.
+   * @return this instance.
+   */
+  public IPv4PrefixList add(IPv4Subnet subnet, int value) {
+    long cidr = IPv4CidrLong.of(subnet);
+    return add(IPv4CidrLong.first(cidr), IPv4CidrLong.prefixLength(cidr), value);
+  }
+  
+  /**
+   * Removes all the entries corresponding to the given prefix (the order of the remaining entries is preserved).
+   * 
+   * @param network the network address of the prefix to remove, packed into an <code>int</code>.
+   * @param prefixLen the prefix length.
+   * @return the number of entries that were removed.
+   */
+  public int remove(int network, int prefixLen) {
+    IPv4CidrLong.checkPrefixLength(prefixLen);
+    int key     = network & IPv4CidrLong.mask(prefixLen);
+    int kept    = 0;
+    for (int i = 0; i < size; i++) {
+      if (networks[i] != key || prefixLens[i] != prefixLen) {
+        networks[kept]   = networks[i];
+        prefixLens[kept] = prefixLens[i];
+        values[kept]     = values[i];
+        kept++;
+      }
+    }
+    int removed = size - kept;
+    size = kept;
+    return removed;
+  }
+  
+  /**
+   * Removes all entries from this instance.
+   */
+  public void clear() {
+    size = 0;
+  }
+  
+  /**
+   * @return the number of entries in this instance.
+   */
+  public int size() {
+    return size;
+  }
+  
+  /**
+   * @param index the index of an entry.
+   * @return the network address of the entry at the given index.
+   */
+  public int getNetworkAt(int index) {
+    checkIndex(index);
+    return networks[index];
+  }
+  
+  /**
+   * @param index the index of an entry.
+   * @return the prefix length of the entry at the given index.
+   */
+  public int getPrefixLengthAt(int index) {
+    checkIndex(index);
+    return prefixLens[index];
+  }
+  
+  /**
+   * @param index the index of an entry.
+   * @return the value of the entry at the given index.
+   */
+  public int getValueAt(int index) {
+    checkIndex(index);
+    return values[index];
+  }
+  
+  // --------------------------------------------------------------------------
+  // Restricted
+  
+  /**
+   * @return the indexes of this instance's entries, sorted by ascending prefix length (the order in which
+   * the entries were added being preserved for a given prefix length).
+   */
+  int[] indexesByPrefixLength() {
+    int[] starts = new int[IPv4Address.SIZE + 2];
+    for (int i = 0; i < size; i++) {
+      starts[prefixLens[i] + 1]++;
+    }
+    for (int i = 1; i < starts.length; i++) {
+      starts[i] += starts[i - 1];
+    }
+    int[] sorted = new int[size];
+    for (int i = 0; i < size; i++) {
+      sorted[starts[prefixLens[i]]++] = i;
+    }
+    return sorted;
+  }
+  
+  private void checkIndex(int index) {
+    Check.isTrue(index >= 0 && index < size, "Invalid index: %s. Index is expected to be in range [0, %s]", index, size - 1);
+  }
+}
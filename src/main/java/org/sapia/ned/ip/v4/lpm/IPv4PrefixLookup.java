@@ -0,0 +1,50 @@
+package org.sapia.ned.ip.v4.lpm;
+
+import org.sapia.ned.ip.v4.IPv4Address;
+
+/**
+ * Specifies the behavior of structures performing longest-prefix match lookups of IPv4 addresses, where each
+ * prefix is associated with an <code>int</code> value (typically, the index of a next hop, or of a class).
+ * <p>
+ * The implementations of this interface trade memory for lookup speed in different ways: they are built from
+ * an {@link IPv4PrefixList}, and can be used interchangeably. An {@link IPv4PrefixTable} (which can be modified
+ * in place) is viewed as an implementation of this interface through {@link IPv4PrefixTable#asLookup}.
+ * 
+ * @author yduchesne
+ *
+ */
+public interface IPv4PrefixLookup {
+  
+  /**
+   * The value returned by lookups when no prefix matches.
+   */
+  int NO_MATCH = -1;
+
+  /**
+   * @param address an address, packed into an <code>int</code> (see {@link IPv4Address#toInt()}).
+   * @return the value associated with the longest prefix that contains the given address, or {@link #NO_MATCH}.
+   */
+  int lookup(int address);
+  
+  /**
+   * @param address an {@link IPv4Address}.
+   * @return the value associated with the longest prefix that contains the given address, or {@link #NO_MATCH}.
+   */
+  int lookup(IPv4Address address);
+  
+  /**
+   * Looks up the given addresses, in batch: implementations may interleave the lookups of several addresses, so
+   * that the cache misses they incur overlap (rather than being waited for one after the other), when their lookups
+   * consist of chains of dependent memory accesses.
+   * <p>
+   * The value corresponding to <code>addresses[off + i]</code> is stored in <code>values[off + i]</code> (the
+   * addresses and values may thus be held in the same array).
+   * 
+   * @param addresses the addresses to look up, packed into <code>int</code>s.
+   * @param off the offset of the first address to look up.
+   * @param len the number of addresses to look up.
+   * @param values the array in which to store the values corresponding to the addresses (or {@link #NO_MATCH}).
+   */
+  void lookupBatch(int[] addresses, int off, int len, int[] values);
+  
+}
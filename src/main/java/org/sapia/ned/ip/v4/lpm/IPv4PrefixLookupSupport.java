@@ -0,0 +1,47 @@
+package org.sapia.ned.ip.v4.lpm;
+
+import org.sapia.ned.ip.v4.IPv4Address;
+import org.sapia.ned.util.Check;
+
+/**
+ * Abstract support class for implementing {@link IPv4PrefixLookup}s.
+ * 
+ * @author yduchesne
+ *
+ */
+public abstract class IPv4PrefixLookupSupport implements IPv4PrefixLookup {
+  
+  // --------------------------------------------------------------------------
+  // IPv4PrefixLookup interface
+  
+  @Override
+  public int lookup(IPv4Address address) {
+    return lookup(address.toInt());
+  }
+  
+  @Override
+  public void lookupBatch(int[] addresses, int off, int len, int[] values) {
+    checkBatch(addresses, off, len, values);
+    for (int i = off; i < off + len; i++) {
+      values[i] = lookup(addresses[i]);
+    }
+  }
+  
+  // --------------------------------------------------------------------------
+  // Restricted
+  
+  /**
+   * Checks the arguments of {@link #lookupBatch(int[], int, int, int[])}.
+   */
+  protected static void checkBatch(int[] addresses, int off, int len, int[] values) {
+    Check.isTrue(
+        off >= 0 && len >= 0 && len <= addresses.length - off, 
+        "Invalid batch: offset %s, length %s, for %s addresses", off, len, addresses.length
+    );
+    Check.isTrue(
+        len <= values.length - off, 
+        "Invalid batch: offset %s, length %s, for %s values", off, len, values.length
+    );
+  }
+  
+}
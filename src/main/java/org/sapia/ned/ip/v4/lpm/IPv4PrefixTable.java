@@ -0,0 +1,358 @@
+package org.sapia.ned.ip.v4.lpm;
+
+import java.util.function.ToIntFunction;
+
+import org.sapia.ned.ip.v4.IPv4Address;
+import org.sapia.ned.ip.v4.IPv4CidrLong;
+import org.sapia.ned.ip.v4.IPv4Subnet;
+import org.sapia.ned.util.Check;
+
+/**
+ * A table of IPv4 prefixes (network address and prefix length), each associated with a value, supporting
+ * longest-prefix match lookups. This is the data structure used by routers to determine the route corresponding
+ * to a given address.
+ * <p>
+ * The table is implemented as a path-compressed binary radix trie over the packed 32-bit addresses (see
+ * {@link IPv4Address#toInt()}): each node holds a full prefix, and the nodes that would have a single child
+ * (and no value) are skipped. A lookup thus visits at most 33 nodes, and does not allocate.
+ * <p>
+ * Prefix lengths range from 0 (the default route) to 32 (a host route). Values may not be <code>null</code>.
+ * This class is not thread-safe.
+ *
+ * @param <V> the type of the values held in the table.
+ *
+ * @author yduchesne
+ *
+ */
+public class IPv4PrefixTable<V> {
+
+  /**
+   * Visits the entries of an {@link IPv4PrefixTable}.
+   *
+   * @param <V> the type of the values held in the table.
+   */
+  public interface EntryVisitor<V> {
+
+    /**
+     * @param network the network address of the entry, packed into an <code>int</code>.
+     * @param prefixLen the prefix length of the entry.
+     * @param value the value of the entry.
+     */
+    void visit(int network, int prefixLen, V value);
+  }
+
+  private Node<V> root;
+  private int     size;
+
+  /**
+   * @param prefixes an {@link IPv4PrefixList}.
+   * @return a new table holding the prefixes of the given list (if the list holds the same prefix more than once, the
+   * last value added prevails).
+   */
+  public static IPv4PrefixTable<Integer> build(IPv4PrefixList prefixes) {
+    IPv4PrefixTable<Integer> table = new IPv4PrefixTable<>();
+    for (int i = 0; i < prefixes.size(); i++) {
+      table.put(prefixes.getNetworkAt(i), prefixes.getPrefixLengthAt(i), prefixes.getValueAt(i));
+    }
+    return table;
+  }
+
+  /**
+   * @param network the network address of the prefix, packed into an <code>int</code> (the bits beyond the prefix
+   * length are ignored).
+   * @param prefixLen the prefix length, from 0 to 32.
+   * @param value the value to associate with the prefix.
+   * @return the value that was previously associated with the prefix, or <code>null</code> if there was none.
+   */
+  public V put(int network, int prefixLen, V value) {
+    IPv4CidrLong.checkPrefixLength(prefixLen);
+    Check.isNotNull(value, "Value cannot be null");
+    int key = network & IPv4CidrLong.mask(prefixLen);
+    if (root == null) {
+      root = new Node<>(key, prefixLen, value);
+      size++;
+      return null;
+    }
+    Node<V> parent = null;
+    Node<V> node   = root;
+    while (true) {
+      int common = commonPrefixLength(key, prefixLen, node.key, node.prefixLen);
+      if (common == node.prefixLen) {
+        if (common == prefixLen) {
+          V old = node.value;
+          node.value = value;
+          if (old == null) {
+            size++;
+          }
+          return old;
+        }
+        int     bit   = bitAt(key, node.prefixLen);
+        Node<V> child = node.child(bit);
+        if (child == null) {
+          node.setChild(bit, new Node<>(key, prefixLen, value));
+          size++;
+          return null;
+        }
+        parent = node;
+        node   = child;
+      } else {
+        Node<V> leaf = new Node<>(key, prefixLen, value);
+        if (common == prefixLen) {
+          // the new prefix is a prefix of the node's
+          leaf.setChild(bitAt(node.key, prefixLen), node);
+          replace(parent, node, leaf);
+        } else {
+          // the prefixes diverge: a node is inserted at the point where they do
+          Node<V> fork = new Node<>(key & IPv4CidrLong.mask(common), common, null);
+          fork.setChild(bitAt(key, common), leaf);
+          fork.setChild(bitAt(node.key, common), node);
+          replace(parent, node, fork);
+        }
+        size++;
+        return null;
+      }
+    }
+  }
+
+  /**
+   * @param network the network address corresponding to the prefix to add: its prefix length is the one of its
+   * subnet mask (see {@link IPv4Address#getSubnetMask()}).
+   * @param value the value to associate with the prefix.
+   * @return the value that was previously associated with the prefix, or <code>null</code> if there was none.
+   * @throws IllegalArgumentException if the given address has no prefix length, and is of class D or E (such addresses
+   * have no classful network mask).
+   */
+  public V put(IPv4Address network, V value) {
+    return put(network.toInt(), prefixLengthOf(network), value);
+  }
+
+  /**
+   * @param subnet the {@link IPv4Subnet} corresponding to the prefix to add.
+   * @param value the value to associate with the prefix.
+   * @return the value that was previously associated with the prefix, or <code>null</code> if there was none.
+   */
+  public V put(IPv4Subnet subnet, V value) {
+    long cidr = IPv4CidrLong.of(subnet);
+    return put(IPv4CidrLong.first(cidr), IPv4CidrLong.prefixLength(cidr), value);
+  }
+
+  /**
+   * @param network the network address of the prefix, packed into an <code>int</code>.
+   * @param prefixLen the prefix length, from 0 to 32.
+   * @return the value that was associated with the given prefix, or <code>null</code> if there was none.
+   */
+  public V remove(int network, int prefixLen) {
+    IPv4CidrLong.checkPrefixLength(prefixLen);
+    int     key         = network & IPv4CidrLong.mask(prefixLen);
+    Node<V> grandParent = null;
+    Node<V> parent      = null;
+    Node<V> node        = root;
+    while (node != null && node.prefixLen < prefixLen && matches(key, node)) {
+      grandParent = parent;
+      parent      = node;
+      node        = node.child(bitAt(key, node.prefixLen));
+    }
+    if (node == null || node.prefixLen != prefixLen || node.key != key || node.value == null) {
+      return null;
+    }
+    V old = node.value;
+    node.value = null;
+    size--;
+
+    // compaction: nodes without a value are only kept if they have two children
+    if (node.left != null && node.right != null) {
+      return old;
+    } else if (node.left != null || node.right != null) {
+      replace(parent, node, node.left != null ? node.left : node.right);
+    } else {
+      replace(parent, node, null);
+      if (parent != null && parent.value == null) {
+        replace(grandParent, parent, parent.left != null ? parent.left : parent.right);
+      }
+    }
+    return old;
+  }
+
+  /**
+   * @param subnet the {@link IPv4Subnet} corresponding to the prefix to remove.
+   * @return the value that was associated with the given prefix, or <code>null</code> if there was none.
+   */
+  public V remove(IPv4Subnet subnet) {
+    long cidr = IPv4CidrLong.of(subnet);
+    return remove(IPv4CidrLong.first(cidr), IPv4CidrLong.prefixLength(cidr));
+  }
+
+  /**
+   * Performs an exact match.
+   *
+   * @param network the network address of the prefix, packed into an <code>int</code>.
+   * @param prefixLen the prefix length, from 0 to 32.
+   * @return the value associated with the given prefix, or <code>null</code> if there is none.
+   */
+  public V get(int network, int prefixLen) {
+    IPv4CidrLong.checkPrefixLength(prefixLen);
+    int     key  = network & IPv4CidrLong.mask(prefixLen);
+    Node<V> node = root;
+    while (node != null && node.prefixLen < prefixLen && matches(key, node)) {
+      node = node.child(bitAt(key, node.prefixLen));
+    }
+    if (node != null && node.prefixLen == prefixLen && node.key == key) {
+      return node.value;
+    }
+    return null;
+  }
+
+  /**
+   * Performs a longest-prefix match.
+   *
+   * @param address an address, packed into an <code>int</code>.
+   * @return the value associated with the longest prefix that contains the given address, or <code>null</code>
+   * if no prefix contains it.
+   */
+  public V lookup(int address) {
+    V       best = null;
+    Node<V> node = root;
+    while (node != null && matches(address, node)) {
+      if (node.value != null) {
+        best = node.value;
+      }
+      if (node.prefixLen == IPv4Address.SIZE) {
+        break;
+      }
+      node = node.child(bitAt(address, node.prefixLen));
+    }
+    return best;
+  }
+
+  /**
+   * @param address an {@link IPv4Address}.
+   * @return the value associated with the longest prefix that contains the given address, or <code>null</code>
+   * if no prefix contains it.
+   * @see #lookup(int)
+   */
+  public V lookup(IPv4Address address) {
+    return lookup(address.toInt());
+  }
+
+  /**
+   * Returns a view of this table as an {@link IPv4PrefixLookup}, so that the table can be used interchangeably with the
+   * lookup structures built from an {@link IPv4PrefixList} (see {@link #build(IPv4PrefixList)}). The view reflects
+   * subsequent modifications of this table; its batch lookups are performed one address after the other.
+   *
+   * @param toInt the function converting this table's values to the <code>int</code> values returned by lookups.
+   * @return a new {@link IPv4PrefixLookup}, whose lookups return {@link IPv4PrefixLookup#NO_MATCH} when no prefix
+   * of this table matches.
+   */
+  public IPv4PrefixLookup asLookup(ToIntFunction<? super V> toInt) {
+    return new IPv4PrefixLookupSupport() {
+      @Override
+      public int lookup(int address) {
+        V value = IPv4PrefixTable.this.lookup(address);
+        return value == null ? NO_MATCH : toInt.applyAsInt(value);
+      }
+    };
+  }
+
+  /**
+   * Visits this instance's entries, in ascending order of network address (shorter prefixes first,
+   * for a given network address).
+   *
+   * @param visitor the {@link EntryVisitor} to which to pass the entries.
+   */
+  public void forEach(EntryVisitor<? super V> visitor) {
+    visit(root, visitor);
+  }
+
+  /**
+   * @return the number of prefixes in this table.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return <code>true</code> if this table holds no prefix.
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Removes all prefixes from this table.
+   */
+  public void clear() {
+    root = null;
+    size = 0;
+  }
+
+  // --------------------------------------------------------------------------
+  // Restricted
+
+  static final class Node<V> {
+
+    private int     key;
+    private int     prefixLen;
+    private V       value;
+    private Node<V> left, right;
+
+    private Node(int key, int prefixLen, V value) {
+      this.key       = key;
+      this.prefixLen = prefixLen;
+      this.value     = value;
+    }
+
+    private Node<V> child(int bit) {
+      return bit == 0 ? left : right;
+    }
+
+    private void setChild(int bit, Node<V> child) {
+      if (bit == 0) {
+        left = child;
+      } else {
+        right = child;
+      }
+    }
+  }
+
+  private void replace(Node<V> parent, Node<V> node, Node<V> replacement) {
+    if (parent == null) {
+      root = replacement;
+    } else if (parent.left == node) {
+      parent.left = replacement;
+    } else {
+      parent.right = replacement;
+    }
+  }
+
+  private static <V> void visit(Node<V> node, EntryVisitor<? super V> visitor) {
+    if (node != null) {
+      if (node.value != null) {
+        visitor.visit(node.key, node.prefixLen, node.value);
+      }
+      visit(node.left, visitor);
+      visit(node.right, visitor);
+    }
+  }
+
+  private static boolean matches(int address, Node<?> node) {
+    return ((address ^ node.key) & IPv4CidrLong.mask(node.prefixLen)) == 0;
+  }
+
+  // the bit at the given position, counted from the MSB (position 0)
+  private static int bitAt(int key, int position) {
+    return (key >>> (IPv4Address.SIZE - 1 - position)) & 1;
+  }
+
+  private static int commonPrefixLength(int key1, int len1, int key2, int len2) {
+    int diff   = key1 ^ key2;
+    int common = diff == 0 ? IPv4Address.SIZE : Integer.numberOfLeadingZeros(diff);
+    return Math.min(common, Math.min(len1, len2));
+  }
+
+  // class D and E addresses have no network mask: without a prefix length, they would yield the default route
+  static int prefixLengthOf(IPv4Address network) {
+    int prefixLen = network.getSubnetMask().getMaskLength();
+    Check.isTrue(prefixLen > 0, "Expected prefix length to be > 0 for network address %s", network);
+    return prefixLen;
+  }
+}
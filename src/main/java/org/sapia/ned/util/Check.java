@@ -28,6 +28,103 @@ public final class Check {
     }
   }
   
+  // --------------------------------------------------------------------------
+  // Primitive overloads: contrary to the varargs versions above, these do not allocate (no array 
+  // creation and no boxing) when the check passes. The message is formatted only if the check fails.
+  
+  public static void isTrue(boolean condition, String msg) {
+    if (!condition) {
+      throw new IllegalArgumentException(String.format(msg));
+    }
+  }
+  
+  public static void isTrue(boolean condition, String msg, int arg) {
+    if (!condition) {
+      throw new IllegalArgumentException(String.format(msg, arg));
+    }
+  }
+  
+  public static void isTrue(boolean condition, String msg, int arg1, int arg2) {
+    if (!condition) {
+      throw new IllegalArgumentException(String.format(msg, arg1, arg2));
+    }
+  }
+  
+  public static void isTrue(boolean condition, String msg, int arg1, int arg2, int arg3) {
+    if (!condition) {
+      throw new IllegalArgumentException(String.format(msg, arg1, arg2, arg3));
+    }
+  }
+  
+  public static void isTrue(boolean condition, String msg, long arg) {
+    if (!condition) {
+      throw new IllegalArgumentException(String.format(msg, arg));
+    }
+  }
+  
+  public static void isTrue(boolean condition, String msg, long arg1, long arg2) {
+    if (!condition) {
+      throw new IllegalArgumentException(String.format(msg, arg1, arg2));
+    }
+  }
+  
+  public static void isTrue(boolean condition, String msg, char arg) {
+    if (!condition) {
+      throw new IllegalArgumentException(String.format(msg, arg));
+    }
+  }
+  
+  public static void isTrue(boolean condition, String msg, Object arg) {
+    if (!condition) {
+      throw new IllegalArgumentException(String.format(msg, arg));
+    }
+  }
+  
+  public static void isTrue(boolean condition, String msg, Object arg1, int arg2) {
+    if (!condition) {
+      throw new IllegalArgumentException(String.format(msg, arg1, arg2));
+    }
+  }
+  
+  public static void isFalse(boolean condition, String msg) {
+    isTrue(!condition, msg);
+  }
+  
+  public static void isFalse(boolean condition, String msg, int arg) {
+    isTrue(!condition, msg, arg);
+  }
+  
+  public static void isFalse(boolean condition, String msg, int arg1, int arg2) {
+    isTrue(!condition, msg, arg1, arg2);
+  }
+  
+  public static void state(boolean condition, String msg) {
+    if (!condition) {
+      throw new IllegalStateException(String.format(msg));
+    }
+  }
+  
+  public static void state(boolean condition, String msg, int arg) {
+    if (!condition) {
+      throw new IllegalStateException(String.format(msg, arg));
+    }
+  }
+  
+  public static void state(boolean condition, String msg, int arg1, int arg2) {
+    if (!condition) {
+      throw new IllegalStateException(String.format(msg, arg1, arg2));
+    }
+  }
+  
+  public static void state(boolean condition, String msg, long arg) {
+    if (!condition) {
+      throw new IllegalStateException(String.format(msg, arg));
+    }
+  }
+  
+  // --------------------------------------------------------------------------
+  // Other checks
+  
   public static <T> T isNotNull(T value, String msg, Object...args) throws IllegalArgumentException {
     isTrue(value != null, msg, args);
     return value;
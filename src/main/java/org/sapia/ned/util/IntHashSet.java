@@ -0,0 +1,236 @@
+package org.sapia.ned.util;
+
+/**
+ * A set of <code>int</code> values, implemented with open addressing (linear probing) over a primitive array:
+ * contrary to a <code>HashSet&lt;Integer&gt;</code>, values are not boxed, and no entry objects are created.
+ * <p>
+ * The value 0 is used to mark empty slots: it is therefore tracked separately, with a flag. Removals
+ * shift subsequent entries back, so that no tombstones are left in the table.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @author yduchesne
+ *
+ */
+public class IntHashSet {
+
+  private static final int   MIN_CAPACITY = 8;
+  private static final float LOAD_FACTOR  = 0.5f;
+
+  private int[]   slots;
+  private int     mask;
+  private int     size;
+  private int     threshold;
+  private boolean hasZero;
+  private int     cursor;
+
+  public IntHashSet() {
+    this(MIN_CAPACITY);
+  }
+
+  /**
+   * @param expectedSize the number of values that the new instance is expected to hold.
+   */
+  public IntHashSet(int expectedSize) {
+    Check.isTrue(expectedSize >= 0, "Expected size must be positive. Got %s", expectedSize);
+    allocate(capacityFor(expectedSize));
+  }
+
+  /**
+   * @param value a value to add.
+   * @return <code>true</code> if the value was added, <code>false</code> if it was already present.
+   */
+  public boolean add(int value) {
+    if (value == 0) {
+      if (hasZero) {
+        return false;
+      }
+      hasZero = true;
+      return true;
+    }
+    int i = indexOf(value);
+    while (slots[i] != 0) {
+      if (slots[i] == value) {
+        return false;
+      }
+      i = (i + 1) & mask;
+    }
+    slots[i] = value;
+    if (++size > threshold) {
+      rehash(slots.length * 2);
+    }
+    return true;
+  }
+
+  /**
+   * @param value a value to test.
+   * @return <code>true</code> if this instance contains the given value.
+   */
+  public boolean contains(int value) {
+    if (value == 0) {
+      return hasZero;
+    }
+    int i = indexOf(value);
+    while (slots[i] != 0) {
+      if (slots[i] == value) {
+        return true;
+      }
+      i = (i + 1) & mask;
+    }
+    return false;
+  }
+
+  /**
+   * @param value a value to remove.
+   * @return <code>true</code> if the value was removed, <code>false</code> if it was not present.
+   */
+  public boolean remove(int value) {
+    if (value == 0) {
+      boolean removed = hasZero;
+      hasZero = false;
+      return removed;
+    }
+    int i = indexOf(value);
+    while (slots[i] != 0) {
+      if (slots[i] == value) {
+        removeAt(i);
+        return true;
+      }
+      i = (i + 1) & mask;
+    }
+    return false;
+  }
+
+  /**
+   * Removes an arbitrary value from this instance, and returns it. Successive calls resume scanning the table
+   * where the previous call left off, so that emptying a set this way takes time linear in its capacity.
+   *
+   * @return the value that was removed.
+   * @throws IllegalStateException if this instance is empty.
+   */
+  public int removeAny() {
+    Check.state(!isEmpty(), "Set is empty");
+    if (hasZero) {
+      hasZero = false;
+      return 0;
+    }
+    int i = cursor;
+    while (slots[i] == 0) {
+      i = (i + 1) & mask;
+    }
+    int value = slots[i];
+    cursor = i;
+    removeAt(i);
+    return value;
+  }
+
+  /**
+   * @return the number of values that this instance holds.
+   */
+  public int size() {
+    return hasZero ? size + 1 : size;
+  }
+
+  /**
+   * @return <code>true</code> if this instance holds no value.
+   */
+  public boolean isEmpty() {
+    return size == 0 && !hasZero;
+  }
+
+  /**
+   * Removes all values from this instance.
+   */
+  public void clear() {
+    allocate(MIN_CAPACITY);
+    size    = 0;
+    hasZero = false;
+  }
+
+  /**
+   * @return a new array holding this instance's values (in no particular order).
+   */
+  public int[] toArray() {
+    int[] values = new int[size()];
+    int   j      = 0;
+    if (hasZero) {
+      values[j++] = 0;
+    }
+    for (int v : slots) {
+      if (v != 0) {
+        values[j++] = v;
+      }
+    }
+    return values;
+  }
+
+  // --------------------------------------------------------------------------
+  // Object overrides
+
+  @Override
+  public String toString() {
+    StringBuilder s = new StringBuilder("[");
+    for (int v : toArray()) {
+      if (s.length() > 1) {
+        s.append(", ");
+      }
+      s.append(v);
+    }
+    return s.append(']').toString();
+  }
+
+  // --------------------------------------------------------------------------
+  // Restricted
+
+  private int indexOf(int value) {
+    return Safe.mix(value) & mask;
+  }
+
+  // backward-shift deletion: moves back the entries that follow the removed one in its probe sequence
+  private void removeAt(int index) {
+    int hole = index;
+    int i    = (index + 1) & mask;
+    while (slots[i] != 0) {
+      int home = indexOf(slots[i]);
+      if (((i - home) & mask) >= ((i - hole) & mask)) {
+        slots[hole] = slots[i];
+        hole = i;
+      }
+      i = (i + 1) & mask;
+    }
+    slots[hole] = 0;
+    size--;
+    if (slots.length > MIN_CAPACITY && size < threshold / 4) {
+      rehash(slots.length / 2);
+    }
+  }
+
+  private void rehash(int capacity) {
+    int[] old = slots;
+    allocate(capacity);
+    for (int v : old) {
+      if (v != 0) {
+        int i = indexOf(v);
+        while (slots[i] != 0) {
+          i = (i + 1) & mask;
+        }
+        slots[i] = v;
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    slots     = new int[capacity];
+    mask      = capacity - 1;
+    threshold = (int) (capacity * LOAD_FACTOR);
+    cursor    = 0;
+  }
+
+  private static int capacityFor(int expectedSize) {
+    int capacity = MIN_CAPACITY;
+    while (capacity * LOAD_FACTOR < expectedSize) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+}
@@ -14,6 +14,59 @@ public final class Safe {
     
   }
   
+  /**
+   * Computes a hash code for an integer.
+   * 
+   * @param value an integer.
+   * @return a hash code (equal to <code>hashInts(value)</code>).
+   */
+  public static int hashInt(int value) {
+    return finalizeHash(mixHash(0, value), Integer.BYTES);
+  }
+  
+  /**
+   * Scrambles the bits of the given value with the finalizer of the MurmurHash3 32-bit hash function, so that
+   * values that differ by a single bit yield unrelated results (suitable for indexing hash tables).
+   * 
+   * @param h an integer.
+   * @return the scrambled value.
+   */
+  public static int mix(int h) {
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h;
+  }
+  
+  /**
+   * Scrambles the bits of the given value with the finalizer of the MurmurHash3 64-bit hash function.
+   * 
+   * @param h a long.
+   * @return the scrambled value.
+   * @see #mix(int)
+   */
+  public static long mix(long h) {
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+  
+  /**
+   * Computes a hash code for two integers.
+   * 
+   * @param a an integer.
+   * @param b another integer.
+   * @return a hash code (equal to <code>hashInts(a, b)</code>).
+   */
+  public static int hashInts(int a, int b) {
+    return finalizeHash(mixHash(mixHash(0, a), b), Integer.BYTES * 2);
+  }
+  
   /**
    * Computes a hash code for one or more integers.
    * 
@@ -26,13 +79,14 @@ public final class Safe {
     }
     int h = 0;
     for (int i = 0; i < values.length; i++) {
-      h = h + values[i] * PRIME;
+      h = mixHash(h, values[i]);
     }
-    return h;
+    return finalizeHash(h, values.length * Integer.BYTES);
   }
 
   /**
-   * Computes a hash code for one or more byte integers.
+   * Computes a hash code for one or more byte integers. The bytes are combined into integers, 4 at a time,
+   * in big-endian order: the hash code of 4 bytes is thus the one of the corresponding integer.
    * 
    * @param values one or more byte integers.
    * @return a hash code.
@@ -41,11 +95,21 @@ public final class Safe {
     if (values == null || values.length == 0) {
       return 0;
     }
-    int h = 0;
-    for (int i = 0; i < values.length; i++) {
-      h = h + Binary.unsignedByteToInt(values[i]) * PRIME;
+    int h    = 0;
+    int i    = 0;
+    int full = values.length & ~(Integer.BYTES - 1);
+    for (; i < full; i += Integer.BYTES) {
+      h = mixHash(h, Binary.unsignedByteToInt(values[i]) << 24 | Binary.unsignedByteToInt(values[i + 1]) << 16 
+          | Binary.unsignedByteToInt(values[i + 2]) << 8 | Binary.unsignedByteToInt(values[i + 3]));
     }
-    return h;
+    if (i < values.length) {
+      int k = 0;
+      for (int shift = 24; i < values.length; i++, shift -= 8) {
+        k |= Binary.unsignedByteToInt(values[i]) << shift;
+      }
+      h ^= mixWord(k);
+    }
+    return finalizeHash(h, values.length);
   }
   
   /**
@@ -71,12 +135,33 @@ public final class Safe {
     if (obj == null) {
       return 0;
     }
-    int hash = 0;
+    int h = 0;
     for(int i = 0; i < obj.length; i++) {
-      if (obj[i] != null) {
-        hash = hash + obj[i].hashCode() * PRIME;
-      }
+      h = mixHash(h, obj[i] == null ? 0 : obj[i].hashCode());
     }
-    return hash;
+    return finalizeHash(h, obj.length * Integer.BYTES);
+  }
+  
+  // --------------------------------------------------------------------------
+  // Restricted
+  
+  // the hash functions above implement MurmurHash3 (x86, 32-bit), with a seed of 0: every input bit affects
+  // every output bit, so that values differing by the order of their components (such as permuted octets) 
+  // do not collide, and sequential values are spread over the whole range
+  
+  private static int mixWord(int k) {
+    k *= 0xcc9e2d51;
+    k = Integer.rotateLeft(k, 15);
+    return k * 0x1b873593;
+  }
+  
+  private static int mixHash(int h, int k) {
+    h ^= mixWord(k);
+    h = Integer.rotateLeft(h, 13);
+    return h * 5 + 0xe6546b64;
+  }
+  
+  private static int finalizeHash(int h, int length) {
+    return mix(h ^ length);
   }
 }
@@ -28,9 +28,22 @@ public class AndBitSet extends ImmutableBitSetSupport {
     return a.getBitAt(index) && b.getBitAt(index);
   }
   
+  @Override
+  public long getWordAt(int wordIndex) {
+    return a.getWordAt(wordIndex) & b.getWordAt(wordIndex);
+  }
+  
   @Override
   public int size() {
     return a.size();
   }
+  
+  ImmutableBitSet getA() {
+    return a;
+  }
+  
+  ImmutableBitSet getB() {
+    return b;
+  }
 
 }
@@ -0,0 +1,300 @@
+package org.sapia.ned.util.logic;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.sapia.ned.bitset.BitSets;
+import org.sapia.ned.bitset.ImmutableBitSet;
+import org.sapia.ned.bitset.LongWordBitSet;
+import org.sapia.ned.util.Check;
+
+/**
+ * Evaluates expressions made of the lazy {@link AndBitSet}, {@link OrBitSet}, {@link XorBitSet} and {@link NotBitSet}
+ * views in a single word-parallel pass, materializing the result into a {@link LongWordBitSet}.
+ * <p>
+ * Evaluating an expression on a bit-by-bit basis implies walking the whole expression tree for each bit that is read.
+ * This class rather compiles the tree into a postfix program, which is then run once per 64-bit word. Before compilation,
+ * the following rewrite rules are applied:
+ * <ul>
+ *   <li>double negations are removed (<code>NOT NOT a = a</code>);
+ *   <li>negations are pushed down to the operands, according to De Morgan's laws (<code>NOT (a AND b) = NOT a OR NOT b</code>,
+ *   <code>NOT (a OR b) = NOT a AND NOT b</code>), so that they are applied when an operand is loaded;
+ *   <li>operands consisting of all 0s or all 1s are folded (<code>a AND 0 = 0</code>, <code>a AND 1 = a</code>,
+ *   <code>a OR 1 = 1</code>, <code>a OR 0 = a</code>, <code>a XOR 0 = a</code>, <code>a XOR 1 = NOT a</code>).
+ * </ul>
+ * Any other {@link ImmutableBitSet} found in an expression is treated as an operand: its bits are read once,
+ * at compilation time.
+ *
+ * @author yduchesne
+ *
+ */
+public final class BitSetEvaluator {
+
+  // opcodes: operand indexes are encoded in the bits above the opcode
+  private static final int OP_BITS  = 3;
+  private static final int OP_MASK  = (1 << OP_BITS) - 1;
+  private static final int LOAD     = 0;
+  private static final int LOAD_NOT = 1;
+  private static final int AND      = 2;
+  private static final int OR       = 3;
+  private static final int XOR      = 4;
+  private static final int ZEROS    = 5;
+  private static final int ONES     = 6;
+
+  private BitSetEvaluator() {
+  }
+
+  /**
+   * @param expression an {@link ImmutableBitSet}.
+   * @return the number of logic operators that the given bitset consists of (0 if the bitset is not an expression).
+   */
+  public static int operatorCount(ImmutableBitSet expression) {
+    if (expression instanceof NotBitSet) {
+      return 1 + operatorCount(((NotBitSet) expression).getDelegate());
+    } else if (expression instanceof AndBitSet) {
+      AndBitSet and = (AndBitSet) expression;
+      return 1 + operatorCount(and.getA()) + operatorCount(and.getB());
+    } else if (expression instanceof OrBitSet) {
+      OrBitSet or = (OrBitSet) expression;
+      return 1 + operatorCount(or.getA()) + operatorCount(or.getB());
+    } else if (expression instanceof XorBitSet) {
+      XorBitSet xor = (XorBitSet) expression;
+      return 1 + operatorCount(xor.getA()) + operatorCount(xor.getB());
+    }
+    return 0;
+  }
+
+  /**
+   * Materializes the given expression if it holds at least the given number of operators, or returns it as is otherwise.
+   * A threshold of 0 or 1 always evaluates expressions eagerly, while {@link Integer#MAX_VALUE} keeps them lazy.
+   *
+   * @param expression an {@link ImmutableBitSet}.
+   * @param threshold the minimum number of operators that the expression must hold in order to be materialized.
+   * @return the {@link ImmutableBitSet} resulting from the evaluation, or the given expression.
+   */
+  public static ImmutableBitSet optimize(ImmutableBitSet expression, int threshold) {
+    Check.isTrue(threshold >= 0, "Threshold must be positive. Got %s", threshold);
+    if (threshold == Integer.MAX_VALUE || operatorCount(expression) < Math.max(threshold, 1)) {
+      return expression;
+    }
+    return evaluate(expression);
+  }
+
+  /**
+   * @param expression an {@link ImmutableBitSet}.
+   * @return a new {@link LongWordBitSet}, holding the result of the evaluation of the given expression.
+   */
+  public static LongWordBitSet evaluate(ImmutableBitSet expression) {
+    Compiler compiler = new Compiler();
+    Node     root     = compiler.rewrite(expression, false);
+    compiler.emit(root);
+    return compiler.run(expression.size());
+  }
+
+  // --------------------------------------------------------------------------
+  // Restricted
+
+  private static final class Node {
+
+    private static final Node ZEROS_NODE = new Node(ZEROS, null, null, -1);
+    private static final Node ONES_NODE  = new Node(ONES, null, null, -1);
+
+    private int  kind;
+    private Node a, b;
+    private int  operand;
+
+    private Node(int kind, Node a, Node b, int operand) {
+      this.kind    = kind;
+      this.a       = a;
+      this.b       = b;
+      this.operand = operand;
+    }
+
+    private boolean isConstant() {
+      return kind == ZEROS || kind == ONES;
+    }
+
+    private static Node operand(int index, boolean negated) {
+      return new Node(negated ? LOAD_NOT : LOAD, null, null, index);
+    }
+
+    private static Node and(Node a, Node b) {
+      if (a.kind == ZEROS || b.kind == ZEROS) {
+        return ZEROS_NODE;
+      } else if (a.kind == ONES) {
+        return b;
+      } else if (b.kind == ONES) {
+        return a;
+      }
+      return new Node(AND, a, b, -1);
+    }
+
+    private static Node or(Node a, Node b) {
+      if (a.kind == ONES || b.kind == ONES) {
+        return ONES_NODE;
+      } else if (a.kind == ZEROS) {
+        return b;
+      } else if (b.kind == ZEROS) {
+        return a;
+      }
+      return new Node(OR, a, b, -1);
+    }
+
+    private static Node xor(Node a, Node b) {
+      if (a.isConstant() && b.isConstant()) {
+        return a.kind == b.kind ? ZEROS_NODE : ONES_NODE;
+      } else if (a.kind == ZEROS) {
+        return b;
+      } else if (b.kind == ZEROS) {
+        return a;
+      } else if (a.kind == ONES) {
+        return negate(b);
+      } else if (b.kind == ONES) {
+        return negate(a);
+      }
+      return new Node(XOR, a, b, -1);
+    }
+
+    private static Node negate(Node n) {
+      switch (n.kind) {
+        case ZEROS:
+          return ONES_NODE;
+        case ONES:
+          return ZEROS_NODE;
+        case LOAD:
+          return operand(n.operand, true);
+        case LOAD_NOT:
+          return operand(n.operand, false);
+        case AND:
+          return or(negate(n.a), negate(n.b));
+        case OR:
+          return and(negate(n.a), negate(n.b));
+        default:
+          return xor(negate(n.a), n.b);
+      }
+    }
+  }
+
+  private static final class Compiler {
+
+    private Map<ImmutableBitSet, Integer> operandIndexes = new IdentityHashMap<>();
+    private List<long[]>                  operands       = new ArrayList<>();
+    private int[]                         program        = new int[16];
+    private int                           programLength;
+    private int                           stackDepth, maxStackDepth;
+
+    private Node rewrite(ImmutableBitSet expression, boolean negated) {
+      if (expression instanceof NotBitSet) {
+        return rewrite(((NotBitSet) expression).getDelegate(), !negated);
+
+      } else if (expression instanceof AndBitSet) {
+        AndBitSet and = (AndBitSet) expression;
+        Node      a   = rewrite(and.getA(), negated);
+        Node      b   = rewrite(and.getB(), negated);
+        return negated ? Node.or(a, b) : Node.and(a, b);
+
+      } else if (expression instanceof OrBitSet) {
+        OrBitSet or = (OrBitSet) expression;
+        Node     a  = rewrite(or.getA(), negated);
+        Node     b  = rewrite(or.getB(), negated);
+        return negated ? Node.and(a, b) : Node.or(a, b);
+
+      } else if (expression instanceof XorBitSet) {
+        XorBitSet xor = (XorBitSet) expression;
+        return Node.xor(rewrite(xor.getA(), negated), rewrite(xor.getB(), false));
+      }
+      return operand(expression, negated);
+    }
+
+    private Node operand(ImmutableBitSet bitset, boolean negated) {
+      Integer index = operandIndexes.get(bitset);
+      if (index == null) {
+        long[] words = LongWordBitSet.valueOf(bitset).toLongArray();
+        if (isConstant(words, bitset.size(), 0)) {
+          return negated ? Node.ONES_NODE : Node.ZEROS_NODE;
+        } else if (isConstant(words, bitset.size(), -1L)) {
+          return negated ? Node.ZEROS_NODE : Node.ONES_NODE;
+        }
+        index = operands.size();
+        operands.add(words);
+        operandIndexes.put(bitset, index);
+      }
+      return Node.operand(index, negated);
+    }
+
+    private void emit(Node n) {
+      if (n.kind == LOAD || n.kind == LOAD_NOT) {
+        emit((n.operand << OP_BITS) | n.kind, 1);
+      } else if (n.isConstant()) {
+        emit(n.kind, 1);
+      } else {
+        emit(n.a);
+        emit(n.b);
+        emit(n.kind, -1);
+      }
+    }
+
+    private void emit(int instruction, int stackDelta) {
+      if (programLength == program.length) {
+        int[] grown = new int[program.length * 2];
+        System.arraycopy(program, 0, grown, 0, programLength);
+        program = grown;
+      }
+      program[programLength++] = instruction;
+      stackDepth   += stackDelta;
+      maxStackDepth = Math.max(maxStackDepth, stackDepth);
+    }
+
+    private LongWordBitSet run(int size) {
+      long[][] ops    = operands.toArray(new long[operands.size()][]);
+      long[]   result = new long[BitSets.wordCount(size)];
+      long[]   stack  = new long[maxStackDepth];
+      for (int w = 0; w < result.length; w++) {
+        int top = -1;
+        for (int pc = 0; pc < programLength; pc++) {
+          int instruction = program[pc];
+          switch (instruction & OP_MASK) {
+            case LOAD:
+              stack[++top] = ops[instruction >>> OP_BITS][w];
+              break;
+            case LOAD_NOT:
+              stack[++top] = ~ops[instruction >>> OP_BITS][w];
+              break;
+            case AND:
+              stack[top - 1] &= stack[top--];
+              break;
+            case OR:
+              stack[top - 1] |= stack[top--];
+              break;
+            case XOR:
+              stack[top - 1] ^= stack[top--];
+              break;
+            case ZEROS:
+              stack[++top] = 0;
+              break;
+            default:
+              stack[++top] = -1L;
+          }
+        }
+        result[w] = stack[0];
+      }
+      // unused bits of the last word are cleared by the constructor
+      return new LongWordBitSet(result, size);
+    }
+
+    private static boolean isConstant(long[] words, int size, long constant) {
+      if (size == 0) {
+        return false;
+      }
+      for (int i = 0; i < words.length - 1; i++) {
+        if (words[i] != constant) {
+          return false;
+        }
+      }
+      long lastMask = BitSets.lastWordMask(size);
+      return (words[words.length - 1] & lastMask) == (constant & lastMask);
+    }
+  }
+}
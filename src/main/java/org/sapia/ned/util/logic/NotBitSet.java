@@ -1,5 +1,6 @@
 package org.sapia.ned.util.logic;
 
+import org.sapia.ned.bitset.BitSets;
 import org.sapia.ned.bitset.ImmutableBitSet;
 import org.sapia.ned.bitset.ImmutableBitSetSupport;
 
@@ -22,8 +23,21 @@ public class NotBitSet extends ImmutableBitSetSupport {
     return !delegate.getBitAt(index);
   }
   
+  @Override
+  public long getWordAt(int wordIndex) {
+    long word = ~delegate.getWordAt(wordIndex);
+    if (wordIndex == BitSets.wordCount(size()) - 1) {
+      word &= BitSets.lastWordMask(size());
+    }
+    return word;
+  }
+  
   @Override
   public int size() {
     return delegate.size();
   }
+  
+  ImmutableBitSet getDelegate() {
+    return delegate;
+  }
 }
@@ -0,0 +1,49 @@
+package org.sapia.ned.util.logic;
+
+import org.sapia.ned.bitset.ImmutableBitSet;
+import org.sapia.ned.bitset.ImmutableBitSetSupport;
+import org.sapia.ned.util.Check;
+
+/**
+ * An {@link ImmutableBitSet} that implements XOR boolean logic. An instance of this class
+ * takes two bitsets, and performs bit-by-bit XOR logic on each respective bits of the given bitsets.
+ * <p>
+ * Note: both bitsets must have the same size.
+ * 
+ * @author yduchesne
+ *
+ */
+public class XorBitSet extends ImmutableBitSetSupport {
+  
+  private ImmutableBitSet a, b;
+  
+  public XorBitSet(ImmutableBitSet a, ImmutableBitSet b) {
+    Check.isTrue(a.size() == b.size(), "Both bitsets must have the same size (got %s vs %s)", a.size(), b.size());
+    this.a = a;
+    this.b = b;
+  }
+  
+  @Override
+  public boolean getBitAt(int index) {
+    return a.getBitAt(index) ^ b.getBitAt(index);
+  }
+  
+  @Override
+  public long getWordAt(int wordIndex) {
+    return a.getWordAt(wordIndex) ^ b.getWordAt(wordIndex);
+  }
+  
+  @Override
+  public int size() {
+    return a.size();
+  }
+  
+  ImmutableBitSet getA() {
+    return a;
+  }
+  
+  ImmutableBitSet getB() {
+    return b;
+  }
+
+}
@@ -0,0 +1,102 @@
+package org.sapia.ned.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.sapia.ned.ip.v4.IPv4Address;
+import org.sapia.ned.ip.v4.IPv4AddressIntMap;
+import org.sapia.ned.ip.v4.IPv4AddressMap;
+import org.sapia.ned.util.Stdout;
+
+/**
+ * Compares a <code>HashMap&lt;IPv4Address, Integer&gt;</code> with an {@link IPv4AddressIntMap} used as per-address
+ * counters, and a <code>HashMap&lt;IPv4Address, Object&gt;</code> with an {@link IPv4AddressMap}: reports the retained
+ * size of the maps (per entry, keys included), and the throughput of lookups.
+ * <p>
+ * Run with: <code>java -Xms2g -Xmx2g -cp target/classes:target/test-classes org.sapia.ned.benchmarks.AddressMapFootprint</code>
+ * 
+ * @author yduchesne
+ *
+ */
+public class AddressMapFootprint {
+  
+  private static final int    COUNT = 1_000_000;
+  private static final int    RUNS  = 5;
+  private static final Object VALUE = new Object();
+  
+  public static void main(String[] args) {
+    int[]         addresses = SyntheticRoutingTable.generate(1, 1).addresses(COUNT, 2);
+    IPv4Address[] keys      = new IPv4Address[COUNT];
+    for (int i = 0; i < COUNT; i++) {
+      keys[i] = new IPv4Address(addresses[i], 32);
+    }
+    
+    hashMapCounters(addresses, keys);
+    intMapCounters(addresses);
+    hashMapObjects(addresses);
+    addressMapObjects(addresses);
+  }
+  
+  private static void hashMapCounters(int[] addresses, IPv4Address[] keys) {
+    long before = Benchmarks.usedMemory();
+    Map<IPv4Address, Integer> counters = new HashMap<>();
+    for (int a : addresses) {
+      counters.merge(new IPv4Address(a, 32), 1, Integer::sum);
+    }
+    report("HashMap<IPv4Address, Integer>", counters.size(), before);
+    Benchmarks.throughput("HashMap<IPv4Address, Integer>.get", COUNT, RUNS, () -> {
+      long sum = 0;
+      for (IPv4Address k : keys) {
+        sum += counters.get(k);
+      }
+      Benchmarks.consume(sum);
+    });
+  }
+  
+  private static void intMapCounters(int[] addresses) {
+    long before = Benchmarks.usedMemory();
+    IPv4AddressIntMap counters = new IPv4AddressIntMap();
+    for (int a : addresses) {
+      counters.addTo(a, 1);
+    }
+    report("IPv4AddressIntMap", counters.size(), before);
+    Benchmarks.throughput("IPv4AddressIntMap.get", COUNT, RUNS, () -> {
+      long sum = 0;
+      for (int a : addresses) {
+        sum += counters.get(a, 0);
+      }
+      Benchmarks.consume(sum);
+    });
+  }
+  
+  private static void hashMapObjects(int[] addresses) {
+    long before = Benchmarks.usedMemory();
+    Map<IPv4Address, Object> objects = new HashMap<>();
+    for (int a : addresses) {
+      objects.put(new IPv4Address(a, 32), VALUE);
+    }
+    report("HashMap<IPv4Address, Object>", objects.size(), before);
+    Benchmarks.consume(objects.size());
+  }
+  
+  private static void addressMapObjects(int[] addresses) {
+    long before = Benchmarks.usedMemory();
+    IPv4AddressMap<Object> objects = new IPv4AddressMap<>();
+    for (int a : addresses) {
+      objects.put(a, VALUE);
+    }
+    report("IPv4AddressMap<Object>", objects.size(), before);
+    Benchmarks.throughput("IPv4AddressMap.get", COUNT, RUNS, () -> {
+      long found = 0;
+      for (int a : addresses) {
+        found += objects.get(a) == VALUE ? 1 : 0;
+      }
+      Benchmarks.consume(found);
+    });
+  }
+  
+  private static void report(String name, int entries, long before) {
+    long retained = Benchmarks.usedMemory() - before;
+    Stdout.msg("%-50s %,15d bytes  (%.1f bytes/entry, %,d entries)", name, retained, (double) retained / entries, entries);
+  }
+}
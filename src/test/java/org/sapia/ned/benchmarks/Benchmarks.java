@@ -0,0 +1,98 @@
+package org.sapia.ned.benchmarks;
+
+import java.lang.management.ManagementFactory;
+
+import org.sapia.ned.util.Stdout;
+
+/**
+ * Helper methods shared by the benchmarks in this package. The benchmarks are plain <code>main</code>
+ * programs: they are not picked up by the test run, and are meant to be launched explicitly, with a
+ * quiet machine and a fixed heap size (<code>-Xms</code> equal to <code>-Xmx</code>).
+ * 
+ * @author yduchesne
+ *
+ */
+final class Benchmarks {
+  
+  private static final int GC_ROUNDS = 5;
+
+  private Benchmarks() {
+  }
+  
+  /**
+   * @return the number of bytes currently used in the heap, measured after a few forced GCs.
+   */
+  static long usedMemory() {
+    Runtime rt = Runtime.getRuntime();
+    for (int i = 0; i < GC_ROUNDS; i++) {
+      System.gc();
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    return rt.totalMemory() - rt.freeMemory();
+  }
+  
+  /**
+   * Runs the given task a number of times, first to warm up the JIT, then to measure it. Prints 
+   * the throughput of the measured runs.
+   * 
+   * @param name the name of the benchmark, used for output.
+   * @param opsPerRun the number of operations that a single run of the given task performs.
+   * @param runs the number of measured runs (the same number of warmup runs is performed beforehand).
+   * @param task the task to run.
+   * @return the number of operations per second.
+   */
+  static double throughput(String name, long opsPerRun, int runs, Runnable task) {
+    for (int i = 0; i < runs; i++) {
+      task.run();
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < runs; i++) {
+      task.run();
+    }
+    long   elapsed   = System.nanoTime() - start;
+    double opsPerSec = (double) opsPerRun * runs / (elapsed / 1e9);
+    Stdout.msg("%-50s %,15.0f ops/s  (%,.2f ns/op)", name, opsPerSec, (double) elapsed / (opsPerRun * runs));
+    return opsPerSec;
+  }
+  
+  /**
+   * Runs the given task a number of times, first to warm up the JIT, then to measure the number of bytes
+   * allocated by the current thread while running it. Prints the number of bytes allocated per operation.
+   * 
+   * @param name the name of the benchmark, used for output.
+   * @param opsPerRun the number of operations that a single run of the given task performs.
+   * @param runs the number of measured runs (the same number of warmup runs is performed beforehand).
+   * @param task the task to run.
+   * @return the number of bytes allocated per operation.
+   */
+  static double allocation(String name, long opsPerRun, int runs, Runnable task) {
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    for (int i = 0; i < runs; i++) {
+      task.run();
+    }
+    long before = threads.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < runs; i++) {
+      task.run();
+    }
+    long   allocated = threads.getThreadAllocatedBytes(threadId) - before;
+    double perOp     = (double) allocated / (opsPerRun * runs);
+    Stdout.msg("%-50s %,15d bytes  (%,.3f bytes/op)", name, allocated, perOp);
+    return perOp;
+  }
+  
+  /**
+   * Prevents the JIT from eliminating a computation whose result would otherwise not be used.
+   * 
+   * @param value a computed value.
+   */
+  static void consume(long value) {
+    if (value == 0x5A5A5A5A5A5A5A5AL) {
+      Stdout.args("");
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package org.sapia.ned.benchmarks;
+
+import java.util.Random;
+
+import org.sapia.ned.ip.v4.IPv4Address;
+import org.sapia.ned.ip.v4.IPv4BuddyAllocator;
+import org.sapia.ned.ip.v4.IPv4Subnet;
+import org.sapia.ned.util.Stdout;
+
+/**
+ * Measures the throughput of {@link IPv4BuddyAllocator}, over 1M operations performed on a /8: allocations 
+ * of random sizes (from /20 to /32), interleaved with frees of randomly chosen allocated subnets.
+ * <p>
+ * Run with: <code>java -cp target/classes:target/test-classes org.sapia.ned.benchmarks.BuddyAllocatorThroughput</code>
+ * 
+ * @author yduchesne
+ *
+ */
+public class BuddyAllocatorThroughput {
+  
+  private static final int OPS  = 1_000_000;
+  private static final int RUNS = 5;
+  
+  public static void main(String[] args) {
+    // the operations are drawn beforehand, so that only the allocator is measured
+    Random    random    = new Random(17);
+    boolean[] allocates = new boolean[OPS];
+    int[]     prefixes  = new int[OPS];
+    int[]     victims   = new int[OPS];
+    for (int i = 0; i < OPS; i++) {
+      allocates[i] = random.nextInt(5) < 3;
+      prefixes[i]  = 20 + random.nextInt(13);
+      victims[i]   = random.nextInt(Integer.MAX_VALUE);
+    }
+    
+    Benchmarks.throughput("allocate/free (1M ops on a /8)", OPS, RUNS, () -> {
+      IPv4BuddyAllocator allocator = new IPv4BuddyAllocator(new IPv4Address("10.0.0.0/8"));
+      int[] liveNetworks = new int[OPS];
+      int[] livePrefixes = new int[OPS];
+      int   live         = 0;
+      long  failed       = 0;
+      for (int i = 0; i < OPS; i++) {
+        if (allocates[i] || live == 0) {
+          IPv4Subnet subnet = allocator.allocate(prefixes[i]);
+          if (subnet == null) {
+            failed++;
+          } else {
+            liveNetworks[live] = subnet.getNetworkAddress().toInt();
+            livePrefixes[live] = prefixes[i];
+            live++;
+          }
+        } else {
+          int v = victims[i] % live;
+          allocator.free(liveNetworks[v], livePrefixes[v]);
+          live--;
+          liveNetworks[v] = liveNetworks[live];
+          livePrefixes[v] = livePrefixes[live];
+        }
+      }
+      Benchmarks.consume(failed + allocator.getFreeAddressCount());
+    });
+    Stdout.msg("Done");
+  }
+}
@@ -0,0 +1,74 @@
+package org.sapia.ned.benchmarks;
+
+import org.sapia.ned.bitset.BitSetView;
+import org.sapia.ned.bitset.BooleanBitSet;
+import org.sapia.ned.bitset.ByteBitSet;
+import org.sapia.ned.bitset.ImmutableBitSet;
+import org.sapia.ned.bitset.LongWordBitSet;
+import org.sapia.ned.bitset.MultiByteBitset;
+import org.sapia.ned.ip.v4.IPv4Address;
+import org.sapia.ned.util.Check;
+import org.sapia.ned.util.Stdout;
+
+/**
+ * Measures the number of bytes allocated by the precondition checks performed on hot paths (mainly
+ * <code>getBitAt()</code>), when these checks pass. The primitive overloads of {@link Check} are expected
+ * to yield 0 bytes/op, while the varargs version is given as a baseline (its allocation may be eliminated
+ * by the JIT's escape analysis, but this is not guaranteed - notably when the call is not inlined).
+ * <p>
+ * Run with: <code>java -cp target/classes:target/test-classes org.sapia.ned.benchmarks.CheckAllocation</code>
+ * (add <code>-XX:-DoEscapeAnalysis</code> to observe the allocations that the varargs version performs when 
+ * the JIT does not eliminate them).
+ * 
+ * @author yduchesne
+ *
+ */
+public class CheckAllocation {
+  
+  private static final int OPS  = 1_000_000;
+  private static final int RUNS = 20;
+  
+  public static void main(String[] args) {
+    String          literal = "1011011010110110101101101011011010110110101101101011011010110110";
+    ImmutableBitSet boolSet = new BooleanBitSet(literal);
+    ImmutableBitSet multi   = new MultiByteBitset(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+    ImmutableBitSet words   = LongWordBitSet.valueOf(literal);
+    ImmutableBitSet view    = new BitSetView(words, 8, 32);
+    ImmutableBitSet single  = new ByteBitSet((byte) 0x5A);
+    IPv4Address     addr    = new IPv4Address("192.168.10.1/24");
+    
+    Benchmarks.allocation("Check.isTrue (varargs, baseline)", OPS, RUNS, () -> {
+      for (int i = 0; i < OPS; i++) {
+        Check.isTrue(i >= 0, "Invalid index: %s. Expected within [0, %s]", new Object[] { i, OPS });
+      }
+    });
+    Benchmarks.allocation("Check.isTrue (int, int)", OPS, RUNS, () -> {
+      for (int i = 0; i < OPS; i++) {
+        Check.isTrue(i >= 0, "Invalid index: %s. Expected within [0, %s]", i, OPS);
+      }
+    });
+    Benchmarks.allocation("BooleanBitSet.getBitAt", OPS, RUNS, () -> consumeBits(boolSet));
+    Benchmarks.allocation("MultiByteBitset.getBitAt", OPS, RUNS, () -> consumeBits(multi));
+    Benchmarks.allocation("LongWordBitSet.getBitAt", OPS, RUNS, () -> consumeBits(words));
+    Benchmarks.allocation("BitSetView.getBitAt", OPS, RUNS, () -> consumeBits(view));
+    Benchmarks.allocation("ByteBitSet.getBitAt", OPS, RUNS, () -> consumeBits(single));
+    Benchmarks.allocation("IPv4Address.getBitAt/getByteAt", OPS, RUNS, () -> {
+      long count = 0;
+      for (int i = 0; i < OPS; i++) {
+        count += addr.getBitAt(i & (IPv4Address.SIZE - 1)) ? 1 : 0;
+        count += addr.getByteAt(i & (IPv4Address.LEN - 1));
+      }
+      Benchmarks.consume(count);
+    });
+    Stdout.msg("Done");
+  }
+  
+  private static void consumeBits(ImmutableBitSet bitset) {
+    long count = 0;
+    int  size  = bitset.size();
+    for (int i = 0; i < OPS; i++) {
+      count += bitset.getBitAt(i % size) ? 1 : 0;
+    }
+    Benchmarks.consume(count);
+  }
+}
@@ -0,0 +1,37 @@
+package org.sapia.ned.benchmarks;
+
+import org.sapia.ned.ip.v4.IPv4CidrAggregator;
+import org.sapia.ned.util.Stdout;
+
+/**
+ * Aggregates a synthetic table of 10M prefixes with an {@link IPv4CidrAggregator}, first in random order, then
+ * in ascending order, and reports the throughput (in prefixes per second) and the number of bytes allocated per prefix.
+ * <p>
+ * Run with: <code>java -Xms2g -Xmx2g -cp target/classes:target/test-classes org.sapia.ned.benchmarks.CidrAggregation</code>
+ * 
+ * @author yduchesne
+ *
+ */
+public class CidrAggregation {
+  
+  private static final int PREFIXES = 10_000_000;
+  private static final int RUNS     = 3;
+  
+  public static void main(String[] args) {
+    SyntheticRoutingTable random = SyntheticRoutingTable.generate(PREFIXES, 1);
+    SyntheticRoutingTable sorted = random.sorted();
+    
+    Stdout.msg("Blocks in cover: %,d", aggregate(random));
+    Benchmarks.throughput("aggregate (random order)", PREFIXES, RUNS, () -> Benchmarks.consume(aggregate(random)));
+    Benchmarks.throughput("aggregate (ascending order)", PREFIXES, RUNS, () -> Benchmarks.consume(aggregate(sorted)));
+    Benchmarks.allocation("aggregate (random order)", PREFIXES, RUNS, () -> Benchmarks.consume(aggregate(random)));
+  }
+  
+  private static int aggregate(SyntheticRoutingTable routes) {
+    IPv4CidrAggregator aggregator = new IPv4CidrAggregator(routes.networks.length);
+    for (int i = 0; i < routes.networks.length; i++) {
+      aggregator.add(routes.networks[i], routes.prefixLens[i]);
+    }
+    return aggregator.aggregate((network, prefixLen) -> { });
+  }
+}
@@ -0,0 +1,117 @@
+package org.sapia.ned.benchmarks;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntUnaryOperator;
+
+import org.sapia.ned.ip.v4.IPv4Address;
+import org.sapia.ned.ip.v4.IPv4Subnet;
+import org.sapia.ned.ip.v4.IPv4SubnetGenerator;
+import org.sapia.ned.util.Stdout;
+
+/**
+ * Measures the distribution of {@link IPv4Address} hash codes over the buckets of a hash table sized as a 
+ * <code>HashMap</code> would be, comparing the previous hash function (a sum of the octets, multiplied by 31) with
+ * the current one. Then measures the throughput of lookups in a <code>HashSet&lt;IPv4Address&gt;</code>, and of 
+ * {@link IPv4Subnet#hashCode()}.
+ * <p>
+ * The address sets are: a sequential /16, random addresses, and addresses whose octets are all taken from 
+ * the same 16 values (and are thus mostly permutations of one another).
+ * <p>
+ * Run with: <code>java -Xms1g -Xmx1g -cp target/classes:target/test-classes org.sapia.ned.benchmarks.HashDistribution</code>
+ * 
+ * @author yduchesne
+ *
+ */
+public class HashDistribution {
+  
+  private static final int COUNT = 1 << 16;
+  private static final int RUNS  = 20;
+  
+  public static void main(String[] args) {
+    int[] sequential = new int[COUNT];
+    int[] random     = new int[COUNT];
+    int[] permuted   = new int[COUNT];
+    Random r = new Random(1);
+    for (int i = 0; i < COUNT; i++) {
+      sequential[i] = 0x0A000000 | i;
+      random[i]     = r.nextInt();
+      // four 4-bit indexes into the same octet values
+      permuted[i]   = octet(i >>> 12) << 24 | octet(i >>> 8) << 16 | octet(i >>> 4) << 8 | octet(i);
+    }
+    run("sequential /16", sequential);
+    run("random", random);
+    run("permuted octets", permuted);
+    
+    IPv4Subnet[] subnets = new IPv4SubnetGenerator()
+        .withBaseAddress(new IPv4Address("10.0.0.0/8"))
+        .withNumberOfSubnets(COUNT)
+        .generate()
+        .toArray(new IPv4Subnet[COUNT]);
+    Benchmarks.throughput("IPv4Subnet.hashCode", COUNT, RUNS, () -> {
+      long h = 0;
+      for (IPv4Subnet s : subnets) {
+        h += s.hashCode();
+      }
+      Benchmarks.consume(h);
+    });
+  }
+  
+  private static void run(String name, int[] addresses) {
+    Stdout.msg("%s:", name);
+    distribution("  legacy hash", addresses, HashDistribution::legacyHash);
+    distribution("  IPv4Address.hashCode", addresses, a -> new IPv4Address(a, 0).hashCode());
+    
+    Set<IPv4Address> set   = new HashSet<>();
+    IPv4Address[]    probe = new IPv4Address[addresses.length];
+    for (int i = 0; i < addresses.length; i++) {
+      set.add(new IPv4Address(addresses[i], 0));
+      probe[i] = new IPv4Address(addresses[i], 24);
+    }
+    Benchmarks.throughput("  HashSet<IPv4Address>.contains", addresses.length, RUNS, () -> {
+      long found = 0;
+      for (IPv4Address a : probe) {
+        found += set.contains(a) ? 1 : 0;
+      }
+      Benchmarks.consume(found);
+    });
+  }
+  
+  private static void distribution(String name, int[] addresses, IntUnaryOperator hash) {
+    // the capacity of a HashMap holding the given number of entries, with its default load factor of 0.75
+    int   buckets = Integer.highestOneBit((int) (addresses.length / 0.75f) * 2 - 1);
+    int[] sizes   = new int[buckets];
+    Set<Integer> distinct = new HashSet<>();
+    for (int a : addresses) {
+      int h = hash.applyAsInt(a);
+      distinct.add(h);
+      // the spreading function of HashMap
+      sizes[(h ^ (h >>> 16)) & (buckets - 1)]++;
+    }
+    int  used    = 0;
+    int  max     = 0;
+    long squares = 0;
+    for (int s : sizes) {
+      used    += s > 0 ? 1 : 0;
+      max      = Math.max(max, s);
+      squares += (long) s * s;
+    }
+    // the average number of entries in the bucket of an entry (1 + load / 2 with a uniform hash)
+    Stdout.msg("%-50s distinct hashes: %,7d, used buckets: %,7d / %,d, max bucket: %,6d, avg chain: %.2f",
+        name, distinct.size(), used, buckets, max, (double) squares / addresses.length);
+  }
+  
+  private static int legacyHash(int address) {
+    int h = 0;
+    for (int shift = 24; shift >= 0; shift -= 8) {
+      h = h + ((address >>> shift) & 0xFF) * 31;
+    }
+    // the prefix length (of 0, here) was added as well
+    return h;
+  }
+  
+  private static int octet(int index) {
+    return 1 + (index & 0xF) * 13;
+  }
+}
@@ -0,0 +1,39 @@
+package org.sapia.ned.benchmarks;
+
+import org.sapia.ned.ip.v4.IPv4Address;
+import org.sapia.ned.util.Stdout;
+
+/**
+ * Measures the retained heap size of {@link IPv4Address} instances, with and without their
+ * lazily computed views (bitset, prefix and subnet mask).
+ * <p>
+ * Run with: <code>java -Xms2g -Xmx2g -cp target/classes:target/test-classes org.sapia.ned.benchmarks.IPv4AddressFootprint</code>
+ * 
+ * @author yduchesne
+ *
+ */
+public class IPv4AddressFootprint {
+  
+  private static final int COUNT = 1_000_000;
+
+  public static void main(String[] args) {
+    Stdout.msg("Plain addresses:          %.1f bytes/instance", measure(false));
+    Stdout.msg("After toBitSet/getPrefix/getSubnetMask: %.1f bytes/instance", measure(true));
+  }
+  
+  private static double measure(boolean touchViews) {
+    IPv4Address[] holder = new IPv4Address[COUNT];
+    long before = Benchmarks.usedMemory();
+    for (int i = 0; i < COUNT; i++) {
+      holder[i] = new IPv4Address(0x0A000000 + i, 8);
+      if (touchViews) {
+        holder[i].toBitSet();
+        holder[i].getPrefix();
+        holder[i].getSubnetMask();
+      }
+    }
+    long after = Benchmarks.usedMemory();
+    Benchmarks.consume(holder[COUNT - 1].hashCode());
+    return (double) (after - before) / COUNT;
+  }
+}
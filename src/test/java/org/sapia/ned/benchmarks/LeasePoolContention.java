@@ -0,0 +1,92 @@
+package org.sapia.ned.benchmarks;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.IntSupplier;
+
+import org.sapia.ned.ip.v4.IPv4Address;
+import org.sapia.ned.ip.v4.IPv4LeasePool;
+import org.sapia.ned.ip.v4.IPv4Subnet;
+import org.sapia.ned.ip.v4.IPv4SubnetGenerator;
+import org.sapia.ned.util.Stdout;
+
+/**
+ * Measures the throughput of an {@link IPv4LeasePool} under contention, with 1 to 64 threads each acquiring and 
+ * releasing addresses of a /16 (half of the addresses being leased beforehand), and compares it with the one of a
+ * synchronized deque of {@link IPv4Address}es.
+ * <p>
+ * Run with: <code>java -cp target/classes:target/test-classes org.sapia.ned.benchmarks.LeasePoolContention</code>
+ * 
+ * @author yduchesne
+ *
+ */
+public class LeasePoolContention {
+  
+  private static final int OPS_PER_RUN = 4_000_000;
+  private static final int RUNS        = 5;
+  
+  public static void main(String[] args) throws Exception {
+    IPv4Subnet subnet = new IPv4SubnetGenerator()
+        .withBaseAddress(new IPv4Address("10.0.0.0/16"))
+        .withNumberOfSubnets(1)
+        .generate().get(0);
+    
+    for (int threads = 1; threads <= 64; threads *= 2) {
+      IPv4LeasePool pool = new IPv4LeasePool(subnet, threads);
+      for (long i = 0; i < subnet.getAddressCount() / 2; i++) {
+        pool.acquire();
+      }
+      run("IPv4LeasePool, threads: " + threads, threads, () -> {
+        int address = (int) pool.acquire();
+        pool.release(address);
+        return address;
+      });
+    }
+    
+    for (int threads = 1; threads <= 64; threads *= 2) {
+      Deque<IPv4Address> free = new ArrayDeque<>();
+      subnet.stream().skip(subnet.getAddressCount() / 2).forEach(free::add);
+      run("synchronized deque, threads: " + threads, threads, () -> {
+        IPv4Address address;
+        synchronized (free) {
+          address = free.poll();
+        }
+        synchronized (free) {
+          free.add(address);
+        }
+        return address.toInt();
+      });
+    }
+  }
+  
+  // each operation is an acquire/release pair, performed by the given task
+  private static void run(String name, int threads, IntSupplier task) throws Exception {
+    long best = Long.MAX_VALUE;
+    for (int r = 0; r < RUNS; r++) {
+      CountDownLatch start   = new CountDownLatch(1);
+      CountDownLatch done    = new CountDownLatch(threads);
+      int            perThread = OPS_PER_RUN / threads;
+      for (int t = 0; t < threads; t++) {
+        new Thread(() -> {
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            return;
+          }
+          long sum = 0;
+          for (int i = 0; i < perThread; i++) {
+            sum += task.getAsInt();
+          }
+          Benchmarks.consume(sum);
+          done.countDown();
+        }).start();
+      }
+      long begin = System.nanoTime();
+      start.countDown();
+      done.await();
+      best = Math.min(best, System.nanoTime() - begin);
+    }
+    Stdout.msg("%-50s %,15.0f ops/s (best of %s runs)", name, OPS_PER_RUN / (best / 1e9), RUNS);
+  }
+}
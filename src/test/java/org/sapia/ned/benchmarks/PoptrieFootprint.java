@@ -0,0 +1,53 @@
+package org.sapia.ned.benchmarks;
+
+import org.sapia.ned.ip.v4.lpm.IPv4Poptrie;
+import org.sapia.ned.ip.v4.lpm.IPv4PrefixList;
+import org.sapia.ned.util.Stdout;
+
+/**
+ * Builds an {@link IPv4Poptrie} from a synthetic table of 900K prefixes, and reports its size (per prefix), 
+ * as well as its lookup latency. The prefixes are associated with 256 distinct next hops, and then with distinct
+ * values (which prevents the use of 16-bit leaves).
+ * <p>
+ * Run with: <code>java -Xms1g -Xmx1g -cp target/classes:target/test-classes org.sapia.ned.benchmarks.PoptrieFootprint</code>
+ * 
+ * @author yduchesne
+ *
+ */
+public class PoptrieFootprint {
+  
+  private static final int PREFIXES  = 900_000;
+  private static final int LOOKUPS   = 1_000_000;
+  private static final int RUNS      = 10;
+  private static final int NEXT_HOPS = 256;
+  
+  public static void main(String[] args) {
+    SyntheticRoutingTable routes    = SyntheticRoutingTable.generate(PREFIXES, 1);
+    int[]                 addresses = routes.addresses(LOOKUPS, 2);
+    for (int distinctValues : new int[] {NEXT_HOPS, PREFIXES}) {
+      IPv4PrefixList prefixes = new IPv4PrefixList(PREFIXES);
+      for (int i = 0; i < PREFIXES; i++) {
+        prefixes.add(routes.networks[i], routes.prefixLens[i], i % distinctValues);
+      }
+      run(prefixes, addresses, distinctValues);
+    }
+  }
+  
+  private static void run(IPv4PrefixList prefixes, int[] addresses, int distinctValues) {
+    long        before  = Benchmarks.usedMemory();
+    IPv4Poptrie poptrie = IPv4Poptrie.build(prefixes);
+    long        after   = Benchmarks.usedMemory();
+    Stdout.msg("Prefixes: %,d (distinct values: %,d)", PREFIXES, distinctValues);
+    Stdout.msg("Nodes: %,d, leaves: %,d", poptrie.getNodeCount(), poptrie.getLeafCount());
+    Stdout.msg("Tables: %,d bytes (%.2f bytes/prefix)", poptrie.getTableBytes(), (double) poptrie.getTableBytes() / PREFIXES);
+    Stdout.msg("Retained: %,d bytes (%.2f bytes/prefix)", after - before, (double) (after - before) / PREFIXES);
+    
+    Benchmarks.throughput("IPv4Poptrie.lookup", LOOKUPS, RUNS, () -> {
+      long found = 0;
+      for (int a : addresses) {
+        found += poptrie.lookup(a);
+      }
+      Benchmarks.consume(found);
+    });
+  }
+}
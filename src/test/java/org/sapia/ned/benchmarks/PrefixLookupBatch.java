@@ -0,0 +1,77 @@
+package org.sapia.ned.benchmarks;
+
+import org.sapia.ned.ip.v4.lpm.IPv4Dir248Lookup;
+import org.sapia.ned.ip.v4.lpm.IPv4MultibitTrie;
+import org.sapia.ned.ip.v4.lpm.IPv4Poptrie;
+import org.sapia.ned.ip.v4.lpm.IPv4PrefixList;
+import org.sapia.ned.ip.v4.lpm.IPv4PrefixLookup;
+import org.sapia.ned.util.Stdout;
+
+/**
+ * Compares the throughput of batch lookups ({@link IPv4PrefixLookup#lookupBatch(int[], int, int, int[])}) with the one
+ * of single lookups, for each {@link IPv4PrefixLookup} implementation, over a synthetic table of 1M prefixes (by default).
+ * Batching only pays off when the lookup structures are much larger than the last-level cache of the CPU: the number
+ * of prefixes may be passed as an argument, to that end (8M prefixes yield structures of a few hundred megabytes).
+ * <p>
+ * Run with: <code>java -Xms6g -Xmx6g -cp target/classes:target/test-classes org.sapia.ned.benchmarks.PrefixLookupBatch [prefixes]</code>
+ * 
+ * @author yduchesne
+ *
+ */
+public class PrefixLookupBatch {
+  
+  private static final int PREFIXES = 1_000_000;
+  private static final int LOOKUPS  = 4_194_304;
+  private static final int BATCH    = 1024;
+  private static final int RUNS     = 10;
+  
+  public static void main(String[] args) {
+    int                   count     = args.length > 0 ? Integer.parseInt(args[0]) : PREFIXES;
+    SyntheticRoutingTable routes    = SyntheticRoutingTable.generate(count, 1);
+    int[]                 addresses = routes.addresses(LOOKUPS, 2);
+    int[]                 values    = new int[LOOKUPS];
+    IPv4PrefixList        prefixes  = new IPv4PrefixList(count);
+    for (int i = 0; i < count; i++) {
+      prefixes.add(routes.networks[i], routes.prefixLens[i], i);
+    }
+    
+    IPv4Dir248Lookup dir = IPv4Dir248Lookup.build(prefixes);
+    Stdout.msg("IPv4Dir248Lookup: %,d bytes", dir.getTableBytes());
+    Benchmarks.throughput("IPv4Dir248Lookup.lookup", LOOKUPS, RUNS, () -> {
+      for (int i = 0; i < LOOKUPS; i++) {
+        values[i] = dir.lookup(addresses[i]);
+      }
+    });
+    Benchmarks.throughput("IPv4Dir248Lookup.lookupBatch", LOOKUPS, RUNS, () -> {
+      for (int i = 0; i < LOOKUPS; i += BATCH) {
+        dir.lookupBatch(addresses, i, BATCH, values);
+      }
+    });
+    
+    IPv4MultibitTrie trie = IPv4MultibitTrie.build(prefixes, IPv4MultibitTrie.STRIDES_8_8_8_8);
+    Stdout.msg("IPv4MultibitTrie: %,d bytes", trie.getTableBytes());
+    Benchmarks.throughput("IPv4MultibitTrie.lookup", LOOKUPS, RUNS, () -> {
+      for (int i = 0; i < LOOKUPS; i++) {
+        values[i] = trie.lookup(addresses[i]);
+      }
+    });
+    Benchmarks.throughput("IPv4MultibitTrie.lookupBatch", LOOKUPS, RUNS, () -> {
+      for (int i = 0; i < LOOKUPS; i += BATCH) {
+        trie.lookupBatch(addresses, i, BATCH, values);
+      }
+    });
+    
+    IPv4Poptrie poptrie = IPv4Poptrie.build(prefixes);
+    Stdout.msg("IPv4Poptrie: %,d bytes", poptrie.getTableBytes());
+    Benchmarks.throughput("IPv4Poptrie.lookup", LOOKUPS, RUNS, () -> {
+      for (int i = 0; i < LOOKUPS; i++) {
+        values[i] = poptrie.lookup(addresses[i]);
+      }
+    });
+    Benchmarks.throughput("IPv4Poptrie.lookupBatch", LOOKUPS, RUNS, () -> {
+      for (int i = 0; i < LOOKUPS; i += BATCH) {
+        poptrie.lookupBatch(addresses, i, BATCH, values);
+      }
+    });
+  }
+}
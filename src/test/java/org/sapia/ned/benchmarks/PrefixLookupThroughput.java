@@ -0,0 +1,102 @@
+package org.sapia.ned.benchmarks;
+
+import java.util.Arrays;
+
+import org.sapia.ned.ip.v4.lpm.IPv4Dir248Lookup;
+import org.sapia.ned.ip.v4.lpm.IPv4MultibitTrie;
+import org.sapia.ned.ip.v4.lpm.IPv4Poptrie;
+import org.sapia.ned.ip.v4.lpm.IPv4PrefixList;
+import org.sapia.ned.ip.v4.lpm.IPv4PrefixLookup;
+import org.sapia.ned.ip.v4.lpm.IPv4PrefixTable;
+import org.sapia.ned.util.Stdout;
+
+/**
+ * Compares the lookup throughput of the {@link IPv4PrefixLookup} implementations with the one of the 
+ * {@link IPv4PrefixTable} trie, over a synthetic, BGP-sized table (1M prefixes).
+ * <p>
+ * Run with: <code>java -Xms2g -Xmx2g -cp target/classes:target/test-classes org.sapia.ned.benchmarks.PrefixLookupThroughput</code>
+ * 
+ * @author yduchesne
+ *
+ */
+public class PrefixLookupThroughput {
+  
+  private static final int PREFIXES = 1_000_000;
+  private static final int LOOKUPS  = 1_000_000;
+  private static final int RUNS     = 10;
+  
+  public static void main(String[] args) {
+    SyntheticRoutingTable routes    = SyntheticRoutingTable.generate(PREFIXES, 1);
+    int[]                 addresses = routes.addresses(LOOKUPS, 2);
+    
+    IPv4PrefixList           prefixes = new IPv4PrefixList(PREFIXES);
+    IPv4PrefixTable<Integer> table    = new IPv4PrefixTable<>();
+    for (int i = 0; i < PREFIXES; i++) {
+      prefixes.add(routes.networks[i], routes.prefixLens[i], i);
+      table.put(routes.networks[i], routes.prefixLens[i], i);
+    }
+    
+    Benchmarks.throughput("IPv4PrefixTable.lookup", LOOKUPS, RUNS, () -> {
+      long found = 0;
+      for (int a : addresses) {
+        Integer v = table.lookup(a);
+        if (v != null) {
+          found += v;
+        }
+      }
+      Benchmarks.consume(found);
+    });
+    
+    long             start = System.nanoTime();
+    IPv4Dir248Lookup dir   = IPv4Dir248Lookup.build(prefixes);
+    Stdout.msg("IPv4Dir248Lookup: built in %,d ms, %,d second-level blocks, %,d bytes", 
+        (System.nanoTime() - start) / 1_000_000, dir.getBlockCount(), dir.getTableBytes());
+    run("IPv4Dir248Lookup.lookup", dir, addresses);
+    
+    for (int[] strides : new int[][] {IPv4MultibitTrie.STRIDES_16_8_8, IPv4MultibitTrie.STRIDES_8_8_8_8}) {
+      start = System.nanoTime();
+      IPv4MultibitTrie trie = IPv4MultibitTrie.build(prefixes, strides);
+      Stdout.msg("IPv4MultibitTrie %s: built in %,d ms, %,d nodes, %,d bytes", Arrays.toString(strides),
+          (System.nanoTime() - start) / 1_000_000, trie.getNodeCount(), trie.getTableBytes());
+      run("IPv4MultibitTrie.lookup " + Arrays.toString(strides), trie, addresses);
+    }
+    
+    start = System.nanoTime();
+    IPv4Poptrie poptrie = IPv4Poptrie.build(prefixes);
+    Stdout.msg("IPv4Poptrie: built in %,d ms, %,d nodes, %,d leaves, %,d bytes", 
+        (System.nanoTime() - start) / 1_000_000, poptrie.getNodeCount(), poptrie.getLeafCount(), poptrie.getTableBytes());
+    run("IPv4Poptrie.lookup", poptrie, addresses);
+  }
+  
+  // one method per implementation, so that the lookup call sites remain monomorphic (and get inlined)
+  
+  private static void run(String name, IPv4Dir248Lookup lookup, int[] addresses) {
+    Benchmarks.throughput(name, addresses.length, RUNS, () -> {
+      long found = 0;
+      for (int a : addresses) {
+        found += lookup.lookup(a);
+      }
+      Benchmarks.consume(found);
+    });
+  }
+  
+  private static void run(String name, IPv4MultibitTrie lookup, int[] addresses) {
+    Benchmarks.throughput(name, addresses.length, RUNS, () -> {
+      long found = 0;
+      for (int a : addresses) {
+        found += lookup.lookup(a);
+      }
+      Benchmarks.consume(found);
+    });
+  }
+  
+  private static void run(String name, IPv4Poptrie lookup, int[] addresses) {
+    Benchmarks.throughput(name, addresses.length, RUNS, () -> {
+      long found = 0;
+      for (int a : addresses) {
+        found += lookup.lookup(a);
+      }
+      Benchmarks.consume(found);
+    });
+  }
+}
@@ -0,0 +1,49 @@
+package org.sapia.ned.benchmarks;
+
+import org.sapia.ned.ip.v4.lpm.IPv4PrefixTable;
+import org.sapia.ned.util.Stdout;
+
+/**
+ * Loads a synthetic, BGP-sized table (1M prefixes) into an {@link IPv4PrefixTable}, and reports its retained 
+ * heap size, as well as its lookup throughput.
+ * <p>
+ * Run with: <code>java -Xms2g -Xmx2g -cp target/classes:target/test-classes org.sapia.ned.benchmarks.PrefixTableFootprint</code>
+ * 
+ * @author yduchesne
+ *
+ */
+public class PrefixTableFootprint {
+  
+  private static final int PREFIXES = 1_000_000;
+  private static final int LOOKUPS  = 1_000_000;
+  private static final int RUNS     = 10;
+  
+  public static void main(String[] args) {
+    SyntheticRoutingTable routes    = SyntheticRoutingTable.generate(PREFIXES, 1);
+    int[]                 addresses = routes.addresses(LOOKUPS, 2);
+    Integer[]             values    = new Integer[PREFIXES];
+    for (int i = 0; i < PREFIXES; i++) {
+      values[i] = i;
+    }
+    
+    long before = Benchmarks.usedMemory();
+    IPv4PrefixTable<Integer> table = new IPv4PrefixTable<>();
+    for (int i = 0; i < PREFIXES; i++) {
+      table.put(routes.networks[i], routes.prefixLens[i], values[i]);
+    }
+    long after = Benchmarks.usedMemory();
+    Stdout.msg("Prefixes: %,d (distinct: %,d)", PREFIXES, table.size());
+    Stdout.msg("Retained: %,d bytes (%.1f bytes/prefix)", after - before, (double) (after - before) / table.size());
+    
+    Benchmarks.throughput("IPv4PrefixTable.lookup", LOOKUPS, RUNS, () -> {
+      long found = 0;
+      for (int a : addresses) {
+        Integer v = table.lookup(a);
+        if (v != null) {
+          found += v;
+        }
+      }
+      Benchmarks.consume(found);
+    });
+  }
+}
@@ -0,0 +1,77 @@
+package org.sapia.ned.benchmarks;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.sapia.ned.ip.v4.IPv4Address;
+import org.sapia.ned.ip.v4.IPv4Subnet;
+import org.sapia.ned.ip.v4.IPv4SubnetGenerator;
+
+/**
+ * Measures the throughput of {@link IPv4Subnet} containment tests, address by address (from {@link IPv4Address}
+ * instances or packed addresses, counting them or setting them in a {@link BitSet}) and in batch, for addresses of which about half fall within a /16. For reference,
+ * also measures the test through the list view of the subnet's addresses (on a sample, since it scans the list).
+ * <p>
+ * Run with: <code>java -cp target/classes:target/test-classes org.sapia.ned.benchmarks.SubnetContainment</code>
+ * 
+ * @author yduchesne
+ *
+ */
+public class SubnetContainment {
+  
+  private static final int COUNT  = 1 << 20;
+  private static final int SAMPLE = 100;
+  private static final int RUNS   = 20;
+  
+  public static void main(String[] args) {
+    IPv4Subnet subnet = new IPv4SubnetGenerator()
+        .withBaseAddress(new IPv4Address("10.1.0.0/16"))
+        .withNumberOfSubnets(1)
+        .generate()
+        .get(0);
+    Random        random    = new Random(1);
+    int[]         addresses = new int[COUNT];
+    IPv4Address[] objects   = new IPv4Address[COUNT];
+    for (int i = 0; i < COUNT; i++) {
+      addresses[i] = random.nextBoolean() ? random.nextInt() : subnet.getNetworkAddress().toInt() + random.nextInt(1 << 16);
+      objects[i]   = new IPv4Address(addresses[i], 32);
+    }
+    BitSet out = new BitSet(COUNT);
+    
+    Benchmarks.throughput("IPv4Subnet.contains(IPv4Address)", COUNT, RUNS, () -> {
+      long found = 0;
+      for (IPv4Address a : objects) {
+        found += subnet.contains(a) ? 1 : 0;
+      }
+      Benchmarks.consume(found);
+    });
+    Benchmarks.throughput("IPv4Subnet.contains(int)", COUNT, RUNS, () -> {
+      long found = 0;
+      for (int a : addresses) {
+        found += subnet.contains(a) ? 1 : 0;
+      }
+      Benchmarks.consume(found);
+    });
+    Benchmarks.throughput("IPv4Subnet.contains(int), into BitSet", COUNT, RUNS, () -> {
+      out.clear();
+      for (int i = 0; i < COUNT; i++) {
+        if (subnet.contains(addresses[i])) {
+          out.set(i);
+        }
+      }
+      Benchmarks.consume(out.cardinality());
+    });
+    Benchmarks.throughput("IPv4Subnet.containsAll(int[], BitSet)", COUNT, RUNS, () -> {
+      Benchmarks.consume(subnet.containsAll(addresses, out));
+    });
+    List<IPv4Address> view = subnet.getAddresses();
+    Benchmarks.throughput("IPv4Subnet.getAddresses().contains", SAMPLE, 1, () -> {
+      long found = 0;
+      for (int i = 0; i < SAMPLE; i++) {
+        found += view.contains(objects[i]) ? 1 : 0;
+      }
+      Benchmarks.consume(found);
+    });
+  }
+}
@@ -0,0 +1,52 @@
+package org.sapia.ned.benchmarks;
+
+import java.util.function.IntPredicate;
+import java.util.stream.StreamSupport;
+
+import org.sapia.ned.ip.v4.IPv4AddressSpliterator;
+import org.sapia.ned.util.Stdout;
+
+/**
+ * Compares sequential and parallel scans of address ranges, using {@link IPv4AddressSpliterator}: a /8 
+ * (2^24 addresses) and the whole IPv4 address space (2^32 addresses). Each address is submitted to a 
+ * CPU-bound predicate, standing for a per-address check.
+ * <p>
+ * Run with: <code>java -cp target/classes:target/test-classes org.sapia.ned.benchmarks.SubnetScan</code>
+ * 
+ * @author yduchesne
+ *
+ */
+public class SubnetScan {
+  
+  private static final long SLASH_8     = 1L << 24;
+  private static final long ALL         = 1L << 32;
+  private static final int  RUNS_SLASH8 = 10;
+  private static final int  RUNS_ALL    = 1;
+  
+  public static void main(String[] args) {
+    Stdout.msg("Available processors: %s", Runtime.getRuntime().availableProcessors());
+    
+    IntPredicate check = a -> {
+      int h = a * 0x9E3779B9;
+      h ^= h >>> 16;
+      h *= 0x85EBCA6B;
+      h ^= h >>> 13;
+      return (h & 0xFF) == 0;
+    };
+    
+    double seq8 = Benchmarks.throughput("/8, sequential", SLASH_8, RUNS_SLASH8, () -> scan(0x0A000000L, SLASH_8, false, check));
+    double par8 = Benchmarks.throughput("/8, parallel", SLASH_8, RUNS_SLASH8, () -> scan(0x0A000000L, SLASH_8, true, check));
+    Stdout.msg("/8 speedup: %.2fx", par8 / seq8);
+    
+    double seqAll = Benchmarks.throughput("2^32, sequential", ALL, RUNS_ALL, () -> scan(0, ALL, false, check));
+    double parAll = Benchmarks.throughput("2^32, parallel", ALL, RUNS_ALL, () -> scan(0, ALL, true, check));
+    Stdout.msg("2^32 speedup: %.2fx", parAll / seqAll);
+  }
+  
+  private static void scan(long from, long count, boolean parallel, IntPredicate check) {
+    long matched = StreamSupport.intStream(new IPv4AddressSpliterator(from, from + count), parallel)
+        .filter(check)
+        .count();
+    Benchmarks.consume(matched);
+  }
+}
@@ -0,0 +1,94 @@
+package org.sapia.ned.benchmarks;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generates synthetic routing tables, whose prefix length distribution approximates the one of the
+ * public BGP table (most prefixes being /24s, followed by /22s, /23s, /21s and /20s).
+ * 
+ * @author yduchesne
+ *
+ */
+final class SyntheticRoutingTable {
+  
+  // cumulative distribution of prefix lengths, in thousandths: {prefix length, cumulative share}
+  private static final int[][] DISTRIBUTION = {
+      {8, 1}, {12, 4}, {14, 10}, {16, 30}, {17, 40}, {18, 60}, {19, 90}, {20, 140}, 
+      {21, 210}, {22, 320}, {23, 420}, {24, 985}, {25, 988}, {26, 991}, {27, 994}, 
+      {28, 996}, {29, 998}, {30, 999}, {32, 1000}
+  };
+  
+  final int[] networks;
+  final int[] prefixLens;
+  
+  private SyntheticRoutingTable(int[] networks, int[] prefixLens) {
+    this.networks   = networks;
+    this.prefixLens = prefixLens;
+  }
+  
+  /**
+   * @param count the number of prefixes to generate (duplicates are possible, but rare).
+   * @param seed the seed of the random generator.
+   * @return a new {@link SyntheticRoutingTable}.
+   */
+  static SyntheticRoutingTable generate(int count, long seed) {
+    Random random     = new Random(seed);
+    int[]  networks   = new int[count];
+    int[]  prefixLens = new int[count];
+    for (int i = 0; i < count; i++) {
+      int draw = random.nextInt(1000);
+      int len  = DISTRIBUTION[DISTRIBUTION.length - 1][0];
+      for (int[] d : DISTRIBUTION) {
+        if (draw < d[1]) {
+          len = d[0];
+          break;
+        }
+      }
+      // unicast space only (1.0.0.0 to 223.255.255.255)
+      int first = 1 + random.nextInt(223);
+      networks[i]   = ((first << 24) | (random.nextInt() >>> 8)) & (-1 << (32 - len));
+      prefixLens[i] = len;
+    }
+    return new SyntheticRoutingTable(networks, prefixLens);
+  }
+  
+  /**
+   * @param count the number of addresses to generate.
+   * @param seed the seed of the random generator.
+   * @return addresses, half of which fall in the prefixes of this table (the other half being random).
+   */
+  int[] addresses(int count, long seed) {
+    Random random    = new Random(seed);
+    int[]  addresses = new int[count];
+    for (int i = 0; i < count; i++) {
+      if (random.nextBoolean()) {
+        int p = random.nextInt(networks.length);
+        int hostMask = prefixLens[p] == 32 ? 0 : -1 >>> prefixLens[p];
+        addresses[i] = networks[p] | (random.nextInt() & hostMask);
+      } else {
+        addresses[i] = random.nextInt();
+      }
+    }
+    return addresses;
+  }
+  
+  /**
+   * @return a new {@link SyntheticRoutingTable}, holding the prefixes of this one, in ascending order of (unsigned)
+   * network address.
+   */
+  SyntheticRoutingTable sorted() {
+    long[] packed = new long[networks.length];
+    for (int i = 0; i < networks.length; i++) {
+      packed[i] = ((long) (networks[i] ^ Integer.MIN_VALUE) << Integer.SIZE) | prefixLens[i];
+    }
+    Arrays.sort(packed);
+    int[] sortedNetworks   = new int[networks.length];
+    int[] sortedPrefixLens = new int[networks.length];
+    for (int i = 0; i < networks.length; i++) {
+      sortedNetworks[i]   = (int) (packed[i] >>> Integer.SIZE) ^ Integer.MIN_VALUE;
+      sortedPrefixLens[i] = (int) packed[i];
+    }
+    return new SyntheticRoutingTable(sortedNetworks, sortedPrefixLens);
+  }
+}
@@ -72,6 +72,13 @@ public class BitSetViewTest {
     assertThat(view.getBitAt(7)).isFalse();
   }
   
+  @Test
+  public void testGetWordAt_forSlice() {
+    ImmutableBitSet view = getView(4, 8);
+
+    assertThat(view.getWordAt(0)).isEqualTo(0b01101010L);
+  }
+  
   @Test(expected = IllegalArgumentException.class)
   public void testNew_negative_offset() {
     getView(-1, 8);
@@ -15,17 +15,26 @@ public class BitSetsTest {
 
   @Test
   public void testValueOf_byte_literal() {
-    assertThat(BitSets.valueOf("11111111")).isInstanceOf(ByteBitSet.class);
+    ImmutableBitSet bitset = BitSets.valueOf("11110000");
+    
+    assertThat(bitset).isInstanceOf(LongWordBitSet.class);
+    assertThat(bitset.toString()).isEqualTo("11110000");
   }
   
   @Test
   public void testValueOf_multi_byte_literal() {
-    assertThat(BitSets.valueOf("000011110000111100001111")).isInstanceOf(MultiByteBitset.class);
+    ImmutableBitSet bitset = BitSets.valueOf("000011110000111100001111");
+    
+    assertThat(bitset).isInstanceOf(LongWordBitSet.class);
+    assertThat(bitset.toString()).isEqualTo("000011110000111100001111");
   }
 
   @Test
   public void testValueOf_binary_literal() {
-    assertThat(BitSets.valueOf("0000111101")).isInstanceOf(BooleanBitSet.class);
+    ImmutableBitSet bitset = BitSets.valueOf("0000111101");
+    
+    assertThat(bitset).isInstanceOf(LongWordBitSet.class);
+    assertThat(bitset.toString()).isEqualTo("0000111101");
   }
   
   @Test
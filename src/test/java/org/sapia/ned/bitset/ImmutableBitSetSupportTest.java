@@ -5,7 +5,6 @@ import static org.assertj.core.api.Assertions.assertThat;
 import java.util.BitSet;
 
 import org.junit.Test;
-import org.sapia.ned.util.Safe;
 
 /**
  * This test used the {@link BooleanBitSet} class, which extends {@link ImmutableBitSetSupport}, to
@@ -40,16 +39,77 @@ public class ImmutableBitSetSupportTest {
   
   @Test
   public void testHashCode() {
-    BooleanBitSet set = new BooleanBitSet("01010");
+    BooleanBitSet set1 = new BooleanBitSet("01010");
+    BooleanBitSet set2 = new BooleanBitSet("01010");
+    
+    assertThat(set1.hashCode()).isEqualTo(set2.hashCode());
+  }
+  
+  @Test
+  public void testHashCode_with_different_content() {
+    BooleanBitSet set1 = new BooleanBitSet("01010");
+    BooleanBitSet set2 = new BooleanBitSet("01011");
+    
+    assertThat(set1.hashCode()).isNotEqualTo(set2.hashCode());
+  }
+  
+  @Test
+  public void testHashCode_with_different_implementations() {
+    String        literal = "1101000100101001001111010110100100010110100101000101010100101010010101011111";
+    BooleanBitSet set     = new BooleanBitSet(literal);
+    
+    assertThat(set.hashCode()).isEqualTo(LongWordBitSet.valueOf(literal).hashCode());
+    assertThat(set.hashCode()).isEqualTo(BitSets.valueOf(literal).hashCode());
+    assertThat(new BooleanBitSet("00000101").hashCode()).isEqualTo(new ByteBitSet((byte) 5).hashCode());
+    assertThat(new BooleanBitSet("0000010100000011").hashCode()).isEqualTo(new MultiByteBitset(new byte[] { 5, 3 }).hashCode());
+  }
+  
+  @Test
+  public void testEquals_with_different_implementations() {
+    assertThat(new BooleanBitSet("0000010100000011")).isEqualTo(new MultiByteBitset(new byte[] { 5, 3 }));
+    assertThat(new MultiByteBitset(new byte[] { 5, 3 })).isEqualTo(LongWordBitSet.valueOf("0000010100000011"));
+  }
+  
+  @Test
+  public void testGetWordAt() {
+    String        literal = "1101000100101001001111010110100100010110100101000101010100101010010101011111";
+    BooleanBitSet set     = new BooleanBitSet(literal);
     
-    int expected = 
-          0 * 2^0 * Safe.PRIME 
-        + 1 * 2^1 * Safe.PRIME 
-        + 0 * 2^2 * Safe.PRIME
-        + 1 * 2^3 * Safe.PRIME
-        + 0 * 2^4 * Safe.PRIME;
-        
-    assertThat(set.hashCode()).isEqualTo(expected);
+    assertThat(set.getWordAt(0)).isEqualTo(Long.parseUnsignedLong(literal.substring(literal.length() - 64), 2));
+    assertThat(set.getWordAt(1)).isEqualTo(Long.parseLong(literal.substring(0, literal.length() - 64), 2));
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetWordAt_with_invalid_index() {
+    new BooleanBitSet("010101").getWordAt(1);
+  }
+  
+  @Test
+  public void testCommonPrefixLength() {
+    BooleanBitSet set1 = new BooleanBitSet("0101100");
+    BooleanBitSet set2 = new BooleanBitSet("0101011");
+    
+    assertThat(set1.commonPrefixLength(set2)).isEqualTo(4);
+  }
+  
+  @Test
+  public void testCommonPrefixLength_with_different_size() {
+    BooleanBitSet set1 = new BooleanBitSet("0101");
+    BooleanBitSet set2 = new BooleanBitSet("0101011");
+    
+    assertThat(set1.commonPrefixLength(set2)).isEqualTo(4);
+    assertThat(set2.commonPrefixLength(set1)).isEqualTo(4);
+  }
+  
+  @Test
+  public void testCommonPrefixLength_beyond_first_word() {
+    String literal = "11010001001010010011110101101001000101101001010001010101001010100101010111";
+    
+    BooleanBitSet set1 = new BooleanBitSet(literal + "0");
+    BooleanBitSet set2 = new BooleanBitSet(literal + "1");
+    
+    assertThat(set1.commonPrefixLength(set2)).isEqualTo(literal.length());
+    assertThat(set1.commonPrefixLength(set1)).isEqualTo(literal.length() + 1);
   }
   
   @Test
@@ -136,4 +196,73 @@ public class ImmutableBitSetSupportTest {
     assertThat(and.getBitAt(4)).isFalse();
     assertThat(and.getBitAt(5)).isFalse();
   }
+  
+  @Test
+  public void testXor() {
+    BooleanBitSet set1 = new BooleanBitSet("110101");
+    BooleanBitSet set2 = new BooleanBitSet("010111");
+    
+    ImmutableBitSet xor = set1.xor(set2);
+    
+    assertThat(xor.getBitAt(0)).isFalse();
+    assertThat(xor.getBitAt(1)).isTrue();
+    assertThat(xor.getBitAt(2)).isFalse();
+    assertThat(xor.getBitAt(3)).isFalse();
+    assertThat(xor.getBitAt(4)).isFalse();
+    assertThat(xor.getBitAt(5)).isTrue();
+  }
+  
+  @Test
+  public void testCardinality() {
+    assertThat(new BooleanBitSet("0110101").cardinality()).isEqualTo(4);
+  }
+  
+  @Test
+  public void testNextSetBit() {
+    BooleanBitSet set = new BooleanBitSet("0110100");
+    
+    assertThat(set.nextSetBit(0)).isEqualTo(2);
+    assertThat(set.nextSetBit(3)).isEqualTo(4);
+    assertThat(set.nextSetBit(6)).isEqualTo(-1);
+  }
+  
+  @Test
+  public void testNextClearBit() {
+    BooleanBitSet set = new BooleanBitSet("0110111");
+    
+    assertThat(set.nextClearBit(0)).isEqualTo(3);
+    assertThat(set.nextClearBit(6)).isEqualTo(6);
+    assertThat(new BooleanBitSet("11").nextClearBit(0)).isEqualTo(-1);
+  }
+  
+  @Test
+  public void testNumberOfLeadingZeros() {
+    assertThat(new BooleanBitSet("0010100").numberOfLeadingZeros()).isEqualTo(2);
+    assertThat(new BooleanBitSet("000").numberOfLeadingZeros()).isEqualTo(3);
+  }
+  
+  @Test
+  public void testNumberOfTrailingZeros() {
+    assertThat(new BooleanBitSet("0010100").numberOfTrailingZeros()).isEqualTo(2);
+    assertThat(new BooleanBitSet("000").numberOfTrailingZeros()).isEqualTo(3);
+  }
+  
+  @Test
+  public void testRank() {
+    BooleanBitSet set = new BooleanBitSet("0110101");
+    
+    assertThat(set.rank(0)).isEqualTo(0);
+    assertThat(set.rank(3)).isEqualTo(2);
+    assertThat(set.rank(7)).isEqualTo(4);
+  }
+  
+  @Test
+  public void testSelect() {
+    BooleanBitSet set = new BooleanBitSet("0110101");
+    
+    assertThat(set.select(0)).isEqualTo(0);
+    assertThat(set.select(1)).isEqualTo(2);
+    assertThat(set.select(3)).isEqualTo(5);
+    assertThat(set.select(4)).isEqualTo(-1);
+  }
 }
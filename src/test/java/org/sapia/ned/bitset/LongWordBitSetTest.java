@@ -0,0 +1,230 @@
+package org.sapia.ned.bitset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class LongWordBitSetTest {
+  
+  private static final String LONG_LITERAL = 
+        "1011"
+      + "0000000000000000000000000000000000000000000000000000000000000001"
+      + "1111111111111111111111111111111111111111111111111111111111111110";
+  
+  private LongWordBitSet set;
+  private LongWordBitSet multiWords;
+
+  @Before
+  public void setUp() throws Exception {
+    set        = LongWordBitSet.valueOf("10110110");
+    multiWords = LongWordBitSet.valueOf(LONG_LITERAL);
+  }
+
+  @Test
+  public void testGetBitAt() {
+    assertThat(set.getBitAt(0)).isFalse();
+    assertThat(set.getBitAt(1)).isTrue();
+    assertThat(set.getBitAt(2)).isTrue();
+    assertThat(set.getBitAt(3)).isFalse();
+    assertThat(set.getBitAt(4)).isTrue();
+    assertThat(set.getBitAt(5)).isTrue();
+    assertThat(set.getBitAt(6)).isFalse();
+    assertThat(set.getBitAt(7)).isTrue();
+  }
+  
+  @Test
+  public void testGetBitAt_multi_words() {
+    assertThat(multiWords.getBitAt(0)).isFalse();
+    assertThat(multiWords.getBitAt(63)).isTrue();
+    assertThat(multiWords.getBitAt(64)).isTrue();
+    assertThat(multiWords.getBitAt(65)).isFalse();
+    assertThat(multiWords.getBitAt(128)).isTrue();
+    assertThat(multiWords.getBitAt(130)).isFalse();
+    assertThat(multiWords.getBitAt(131)).isTrue();
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetBitAt_out_of_bounds() {
+    set.getBitAt(8);
+  }
+
+  @Test
+  public void testSize() {
+    assertThat(set.size()).isEqualTo(8);
+    assertThat(multiWords.size()).isEqualTo(132);
+  }
+  
+  @Test
+  public void testToString() {
+    assertThat(multiWords.toString()).isEqualTo(LONG_LITERAL);
+  }
+  
+  @Test
+  public void testValueOf_word() {
+    LongWordBitSet bitset = LongWordBitSet.valueOf(0xFFL, 4);
+    
+    assertThat(bitset.toString()).isEqualTo("1111");
+    assertThat(bitset).isEqualTo(new BooleanBitSet("1111"));
+  }
+  
+  @Test
+  public void testValueOf_bitset() {
+    ImmutableBitSet other = new MultiByteBitset(new byte[] { (byte) 0b01101101, (byte) 0b10110110 });
+    
+    assertThat(LongWordBitSet.valueOf(other)).isEqualTo(other);
+  }
+  
+  @Test
+  public void testValueOf_mutable() {
+    BitSet mutable = new BitSet(128);
+    mutable.set(3);
+    mutable.set(100);
+    
+    LongWordBitSet bitset = LongWordBitSet.valueOf(mutable);
+    
+    assertThat(bitset.size()).isEqualTo(mutable.size());
+    assertThat(bitset.toMutable()).isEqualTo(mutable);
+  }
+  
+  @Test
+  public void testConstructor_clears_unused_bits() {
+    LongWordBitSet bitset = new LongWordBitSet(new long[] { -1L }, 3);
+    
+    assertThat(bitset).isEqualTo(new BooleanBitSet("111"));
+    assertThat(bitset.not().toString()).isEqualTo("000");
+  }
+
+  @Test
+  public void testAnd() {
+    ImmutableBitSet result = LongWordBitSet.valueOf("110101").and(LongWordBitSet.valueOf("010111"));
+    
+    assertThat(result).isInstanceOf(LongWordBitSet.class);
+    assertThat(result.toString()).isEqualTo("010101");
+  }
+
+  @Test
+  public void testOr() {
+    ImmutableBitSet result = LongWordBitSet.valueOf("110101").or(LongWordBitSet.valueOf("010111"));
+    
+    assertThat(result).isInstanceOf(LongWordBitSet.class);
+    assertThat(result.toString()).isEqualTo("110111");
+  }
+
+  @Test
+  public void testXor() {
+    ImmutableBitSet result = LongWordBitSet.valueOf("110101").xor(LongWordBitSet.valueOf("010111"));
+    
+    assertThat(result).isInstanceOf(LongWordBitSet.class);
+    assertThat(result.toString()).isEqualTo("100010");
+  }
+  
+  @Test
+  public void testNot() {
+    ImmutableBitSet result = multiWords.not();
+    
+    assertThat(result.size()).isEqualTo(multiWords.size());
+    assertThat(result.not()).isEqualTo(multiWords);
+    assertThat(result.getBitAt(0)).isTrue();
+    assertThat(result.getBitAt(131)).isFalse();
+  }
+  
+  @Test
+  public void testAnd_with_other_type() {
+    ImmutableBitSet result = LongWordBitSet.valueOf("110101").and(new BooleanBitSet("010111"));
+    
+    assertThat(result).isInstanceOf(LongWordBitSet.class);
+    assertThat(result.toString()).isEqualTo("010101");
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testAnd_with_different_size() {
+    LongWordBitSet.valueOf("110101").and(LongWordBitSet.valueOf("0101"));
+  }
+  
+  @Test
+  public void testCardinality() {
+    assertThat(set.cardinality()).isEqualTo(5);
+    assertThat(multiWords.cardinality()).isEqualTo(67);
+  }
+  
+  @Test
+  public void testNextSetBit() {
+    assertThat(set.nextSetBit(0)).isEqualTo(1);
+    assertThat(set.nextSetBit(3)).isEqualTo(4);
+    assertThat(set.nextSetBit(8)).isEqualTo(-1);
+    assertThat(multiWords.nextSetBit(0)).isEqualTo(1);
+    assertThat(multiWords.nextSetBit(64)).isEqualTo(64);
+    assertThat(multiWords.nextSetBit(65)).isEqualTo(128);
+  }
+  
+  @Test
+  public void testNextClearBit() {
+    assertThat(set.nextClearBit(1)).isEqualTo(3);
+    assertThat(multiWords.nextClearBit(1)).isEqualTo(65);
+    assertThat(LongWordBitSet.valueOf("111").nextClearBit(0)).isEqualTo(-1);
+  }
+  
+  @Test
+  public void testNumberOfLeadingZeros() {
+    assertThat(set.numberOfLeadingZeros()).isEqualTo(0);
+    assertThat(LongWordBitSet.valueOf("0001000").numberOfLeadingZeros()).isEqualTo(3);
+    assertThat(LongWordBitSet.valueOf("0000").numberOfLeadingZeros()).isEqualTo(4);
+    assertThat(LongWordBitSet.valueOf(LONG_LITERAL.replace('1', '0')).numberOfLeadingZeros()).isEqualTo(LONG_LITERAL.length());
+  }
+  
+  @Test
+  public void testNumberOfTrailingZeros() {
+    assertThat(set.numberOfTrailingZeros()).isEqualTo(1);
+    assertThat(LongWordBitSet.valueOf("0000").numberOfTrailingZeros()).isEqualTo(4);
+  }
+  
+  @Test
+  public void testRank() {
+    assertThat(set.rank(0)).isEqualTo(0);
+    assertThat(set.rank(3)).isEqualTo(2);
+    assertThat(set.rank(8)).isEqualTo(5);
+    assertThat(multiWords.rank(64)).isEqualTo(63);
+    assertThat(multiWords.rank(65)).isEqualTo(64);
+  }
+  
+  @Test
+  public void testSelect() {
+    assertThat(set.select(0)).isEqualTo(1);
+    assertThat(set.select(2)).isEqualTo(4);
+    assertThat(set.select(5)).isEqualTo(-1);
+    assertThat(multiWords.select(63)).isEqualTo(64);
+    assertThat(multiWords.select(64)).isEqualTo(128);
+  }
+  
+  @Test
+  public void testBitQueries_consistent_with_generic_implementation() {
+    Random random = new Random(42);
+    for (int n = 0; n < 50; n++) {
+      StringBuilder literal = new StringBuilder();
+      int size = 1 + random.nextInt(200);
+      for (int i = 0; i < size; i++) {
+        literal.append(random.nextInt(4) == 0 ? '1' : '0');
+      }
+      LongWordBitSet words = LongWordBitSet.valueOf(literal.toString());
+      BooleanBitSet  bits  = new BooleanBitSet(literal.toString());
+      
+      assertThat(words.cardinality()).isEqualTo(bits.cardinality());
+      assertThat(words.numberOfLeadingZeros()).isEqualTo(bits.numberOfLeadingZeros());
+      assertThat(words.numberOfTrailingZeros()).isEqualTo(bits.numberOfTrailingZeros());
+      for (int i = 0; i < size; i++) {
+        assertThat(words.nextSetBit(i)).isEqualTo(bits.nextSetBit(i));
+        assertThat(words.nextClearBit(i)).isEqualTo(bits.nextClearBit(i));
+        assertThat(words.rank(i)).isEqualTo(bits.rank(i));
+        assertThat(words.select(i)).isEqualTo(bits.select(i));
+        if (words.select(i) >= 0) {
+          assertThat(words.rank(words.select(i))).isEqualTo(i);
+        }
+      }
+    }
+  }
+  
+}
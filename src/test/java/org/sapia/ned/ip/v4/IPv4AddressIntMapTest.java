@@ -0,0 +1,126 @@
+package org.sapia.ned.ip.v4;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class IPv4AddressIntMapTest {
+  
+  private IPv4AddressIntMap map;
+
+  @Before
+  public void setUp() {
+    map = new IPv4AddressIntMap();
+  }
+  
+  @Test
+  public void testPut() {
+    map.put(new IPv4Address("10.0.0.1"), 5);
+    map.put(new IPv4Address("10.0.0.1/24"), 6);
+    
+    assertThat(map.get(new IPv4Address("10.0.0.1"), -1)).isEqualTo(6);
+    assertThat(map.get(new IPv4Address("10.0.0.2"), -1)).isEqualTo(-1);
+    assertThat(map.containsKey(new IPv4Address("10.0.0.1"))).isTrue();
+    assertThat(map.size()).isEqualTo(1);
+  }
+  
+  @Test
+  public void testPut_zero_address() {
+    assertThat(map.containsKey(0)).isFalse();
+    map.put(0, 7);
+    
+    assertThat(map.containsKey(0)).isTrue();
+    assertThat(map.get(0, -1)).isEqualTo(7);
+    assertThat(map.size()).isEqualTo(1);
+  }
+  
+  @Test
+  public void testAddTo() {
+    int address = new IPv4Address("192.168.0.1").toInt();
+    
+    assertThat(map.addTo(address, 1)).isEqualTo(1);
+    assertThat(map.addTo(address, 2)).isEqualTo(3);
+    assertThat(map.addTo(0, 4)).isEqualTo(4);
+    assertThat(map.addTo(0, 4)).isEqualTo(8);
+    assertThat(map.get(address, 0)).isEqualTo(3);
+  }
+  
+  @Test
+  public void testAddTo_rehash() {
+    for (int i = 1; i <= 1000; i++) {
+      assertThat(map.addTo(i, i)).isEqualTo(i);
+    }
+    for (int i = 1; i <= 1000; i++) {
+      assertThat(map.addTo(i, 1)).isEqualTo(i + 1);
+    }
+    assertThat(map.size()).isEqualTo(1000);
+  }
+  
+  @Test
+  public void testRemove() {
+    map.put(5, 1);
+    map.put(0, 2);
+    
+    assertThat(map.remove(5)).isTrue();
+    assertThat(map.remove(5)).isFalse();
+    assertThat(map.remove(new IPv4Address("0.0.0.0"))).isTrue();
+    assertThat(map.isEmpty()).isTrue();
+  }
+  
+  @Test
+  public void testForEach() {
+    map.put(0, 1);
+    map.put(-1, 2);
+    map.put(42, 3);
+    
+    Map<Integer, Integer> entries = new HashMap<>();
+    map.forEach((address, value) -> entries.put(address, value));
+    
+    assertThat(entries).hasSize(3).containsEntry(0, 1).containsEntry(-1, 2).containsEntry(42, 3);
+  }
+  
+  @Test
+  public void testClear() {
+    map.put(0, 1);
+    map.put(42, 3);
+    map.clear();
+    
+    assertThat(map.isEmpty()).isTrue();
+    assertThat(map.containsKey(42)).isFalse();
+  }
+  
+  @Test
+  public void testToString() {
+    map.put(new IPv4Address("10.0.0.1"), 5);
+    
+    assertThat(map.toString()).isEqualTo("{10.0.0.1=5}");
+  }
+  
+  @Test
+  public void testConsistent_with_HashMap() {
+    Map<Integer, Integer> expected = new HashMap<>();
+    Random                random   = new Random(11);
+    for (int i = 0; i < 100_000; i++) {
+      // a small key space, so that removals and updates hit existing entries
+      int address = random.nextInt(1024) << 8;
+      int op      = random.nextInt(3);
+      if (op == 0) {
+        map.put(address, i);
+        expected.put(address, i);
+      } else if (op == 1) {
+        assertThat(map.addTo(address, 1)).isEqualTo(expected.merge(address, 1, Integer::sum));
+      } else {
+        assertThat(map.remove(address)).isEqualTo(expected.remove(address) != null);
+      }
+    }
+    assertThat(map.size()).isEqualTo(expected.size());
+    for (Map.Entry<Integer, Integer> e : expected.entrySet()) {
+      assertThat(map.get(e.getKey(), -1)).isEqualTo(e.getValue());
+    }
+  }
+}
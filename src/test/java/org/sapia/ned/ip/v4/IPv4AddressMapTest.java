@@ -0,0 +1,112 @@
+package org.sapia.ned.ip.v4;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class IPv4AddressMapTest {
+  
+  private IPv4AddressMap<String> map;
+
+  @Before
+  public void setUp() {
+    map = new IPv4AddressMap<>();
+  }
+  
+  @Test
+  public void testPut() {
+    assertThat(map.put(new IPv4Address("10.0.0.1"), "a")).isNull();
+    assertThat(map.put(new IPv4Address("10.0.0.1/24"), "b")).isEqualTo("a");
+    
+    assertThat(map.get(new IPv4Address("10.0.0.1"))).isEqualTo("b");
+    assertThat(map.get(new IPv4Address("10.0.0.2"))).isNull();
+    assertThat(map.containsKey(new IPv4Address("10.0.0.1"))).isTrue();
+    assertThat(map.size()).isEqualTo(1);
+  }
+  
+  @Test
+  public void testPut_zero_address() {
+    assertThat(map.put(0, "a")).isNull();
+    assertThat(map.put(0, "b")).isEqualTo("a");
+    
+    assertThat(map.containsKey(0)).isTrue();
+    assertThat(map.get(0)).isEqualTo("b");
+    assertThat(map.size()).isEqualTo(1);
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testPut_null_value() {
+    map.put(1, null);
+  }
+  
+  @Test
+  public void testComputeIfAbsent() {
+    assertThat(map.computeIfAbsent(5, a -> "v" + a)).isEqualTo("v5");
+    assertThat(map.computeIfAbsent(5, a -> "other")).isEqualTo("v5");
+    assertThat(map.size()).isEqualTo(1);
+  }
+  
+  @Test
+  public void testRemove() {
+    map.put(5, "a");
+    map.put(0, "b");
+    
+    assertThat(map.remove(5)).isEqualTo("a");
+    assertThat(map.remove(5)).isNull();
+    assertThat(map.remove(new IPv4Address("0.0.0.0"))).isEqualTo("b");
+    assertThat(map.isEmpty()).isTrue();
+  }
+  
+  @Test
+  public void testForEach() {
+    map.put(0, "a");
+    map.put(-1, "b");
+    map.put(42, "c");
+    
+    Map<Integer, String> entries = new HashMap<>();
+    map.forEach((address, value) -> entries.put(address, value));
+    
+    assertThat(entries).hasSize(3).containsEntry(0, "a").containsEntry(-1, "b").containsEntry(42, "c");
+  }
+  
+  @Test
+  public void testClear() {
+    map.put(0, "a");
+    map.put(42, "b");
+    map.clear();
+    
+    assertThat(map.isEmpty()).isTrue();
+    assertThat(map.get(42)).isNull();
+  }
+  
+  @Test
+  public void testToString() {
+    map.put(new IPv4Address("10.0.0.1"), "a");
+    
+    assertThat(map.toString()).isEqualTo("{10.0.0.1=a}");
+  }
+  
+  @Test
+  public void testConsistent_with_HashMap() {
+    Map<Integer, String> expected = new HashMap<>();
+    Random               random   = new Random(13);
+    for (int i = 0; i < 100_000; i++) {
+      int address = random.nextInt(1024) << 8;
+      if (random.nextBoolean()) {
+        String value = Integer.toString(i);
+        assertThat(map.put(address, value)).isEqualTo(expected.put(address, value));
+      } else {
+        assertThat(map.remove(address)).isEqualTo(expected.remove(address));
+      }
+    }
+    assertThat(map.size()).isEqualTo(expected.size());
+    for (Map.Entry<Integer, String> e : expected.entrySet()) {
+      assertThat(map.get(e.getKey())).isEqualTo(e.getValue());
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package org.sapia.ned.ip.v4;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Spliterator;
+import java.util.stream.StreamSupport;
+
+import org.junit.Test;
+
+public class IPv4AddressSpliteratorTest {
+
+  @Test
+  public void testEstimateSize() {
+    assertThat(new IPv4AddressSpliterator(10, 20).estimateSize()).isEqualTo(10);
+    assertThat(new IPv4AddressSpliterator(0, 1L << 32).estimateSize()).isEqualTo(1L << 32);
+  }
+  
+  @Test
+  public void testTrySplit() {
+    IPv4AddressSpliterator suffix = new IPv4AddressSpliterator(0, 1L << 32);
+    Spliterator.OfInt      prefix = suffix.trySplit();
+    
+    assertThat(prefix.estimateSize()).isEqualTo(1L << 31);
+    assertThat(suffix.estimateSize()).isEqualTo(1L << 31);
+    
+    int[] first = new int[1];
+    prefix.tryAdvance((int a) -> first[0] = a);
+    suffix.tryAdvance((int a) -> first[0] = a);
+    assertThat(first[0]).isEqualTo(new IPv4Address("128.0.0.0").toInt());
+  }
+  
+  @Test
+  public void testTrySplit_single_address() {
+    assertThat(new IPv4AddressSpliterator(5, 6).trySplit()).isNull();
+  }
+  
+  @Test
+  public void testForEachRemaining() {
+    IPv4AddressSpliterator itr = new IPv4AddressSpliterator(0xFFFFFFFDL, 1L << 32);
+    long[] sum = new long[1];
+    itr.forEachRemaining((int a) -> sum[0] += a);
+    
+    assertThat(sum[0]).isEqualTo(-3 + -2 + -1);
+    assertThat(itr.estimateSize()).isEqualTo(0);
+  }
+  
+  @Test
+  public void testParallelStream() {
+    IPv4Subnet subnet = new IPv4Subnet(new IPv4Address("10.0.0.0/12"), new IPv4Address("10.15.255.255/12"));
+    
+    long sequential = subnet.intStream().asLongStream().sum();
+    long parallel   = subnet.intStream().parallel().asLongStream().sum();
+    
+    assertThat(parallel).isEqualTo(sequential);
+    assertThat(subnet.intStream().parallel().count()).isEqualTo(1 << 20);
+  }
+  
+  @Test
+  public void testParallelStream_ordered() {
+    IPv4Subnet subnet = new IPv4Subnet(new IPv4Address("127.255.255.0/23"), new IPv4Address("128.0.0.255/23"));
+    
+    int[] addresses = StreamSupport.intStream(IPv4AddressSpliterator.of(subnet), true).toArray();
+    
+    assertThat(addresses).hasSize(512);
+    assertThat(addresses[0]).isEqualTo(new IPv4Address("127.255.255.0").toInt());
+    assertThat(addresses[511]).isEqualTo(new IPv4Address("128.0.0.255").toInt());
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testNew_invalid_range() {
+    new IPv4AddressSpliterator(0, (1L << 32) + 1);
+  }
+  
+}
@@ -48,6 +48,38 @@ public class IPv4AddressTest {
     assertThat(addr.getPrefixLength()).isEqualTo(16); 
   }
   
+  @Test(expected = IllegalArgumentException.class)
+  public void testIPv4Address_with_invalid_literal() {
+    new IPv4Address("192.168.0");
+  }
+  
+  @Test
+  public void testIPv4Address_with_packed_value() {
+    IPv4Address addr = new IPv4Address(0xC0A80066, 24);
+    
+    assertThat(addr.getIntAt(0)).isEqualTo(102);
+    assertThat(addr.getIntAt(1)).isEqualTo(0);
+    assertThat(addr.getIntAt(2)).isEqualTo(168);
+    assertThat(addr.getIntAt(3)).isEqualTo(192);
+    
+    assertThat(addr.getPrefixLength()).isEqualTo(24); 
+  }
+  
+  @Test
+  public void testIPv4Address_with_parts_prefix() {
+    IPv4Address addr = new IPv4Address(new int[] {192, 168, 0, 0}, 16);
+    
+    assertThat(addr.getPrefixLength()).isEqualTo(16); 
+    assertThat(addr.getAddressClass()).isEqualTo(IPAddressClass.CLASSLESS);
+  }
+  
+  @Test
+  public void testToInt() {
+    IPv4Address addr = new IPv4Address("192.168.0.102");
+    
+    assertThat(addr.toInt()).isEqualTo(0xC0A80066);
+  }
+  
   @Test
   public void testGetAddressClass_A() {
     IPv4Address addr = new IPv4Address("127.0.0.1");
@@ -130,6 +162,44 @@ public class IPv4AddressTest {
     assertThat(unsigned[3]).isEqualTo(102);
   }
 
+  @Test
+  public void testGetBitAt() {
+    IPv4Address addr = new IPv4Address(128, 0, 0, 1);
+    
+    assertThat(addr.getBitAt(0)).isTrue();
+    assertThat(addr.getBitAt(1)).isFalse();
+    assertThat(addr.getBitAt(30)).isFalse();
+    assertThat(addr.getBitAt(31)).isTrue();
+  }
+  
+  @Test
+  public void testPlus() {
+    IPv4Address addr = new IPv4Address("192.168.0.255/24");
+    
+    assertThat(addr.plus(1)).isEqualTo(new IPv4Address("192.168.1.0"));
+    assertThat(addr.plus(1).getPrefixLength()).isEqualTo(24);
+  }
+  
+  @Test
+  public void testPlus_high_address() {
+    IPv4Address addr = new IPv4Address("254.255.255.255");
+    
+    assertThat(addr.plus(1)).isEqualTo(new IPv4Address("255.0.0.0"));
+  }
+  
+  @Test
+  public void testMinus() {
+    IPv4Address addr = new IPv4Address("192.168.1.0/24");
+    
+    assertThat(addr.minus(1)).isEqualTo(new IPv4Address("192.168.0.255"));
+    assertThat(addr.minus(1).getPrefixLength()).isEqualTo(24);
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testMinus_below_zero() {
+    new IPv4Address("0.0.0.1").minus(2);
+  }
+  
   @Test
   public void testLength() {
     IPv4Address addr = new IPv4Address(192, 168, 0, 102);
@@ -234,6 +304,21 @@ public class IPv4AddressTest {
     IPv4Address addr = new IPv4Address(192, 168, 0, 102);
     assertThat(addr.hashCode()).isEqualTo(Safe.hashBytes(addr.getBytes()));
   }
+  
+  @Test
+  public void testHashCode_prefix_length_ignored() {
+    IPv4Address addr1 = new IPv4Address("10.1.2.3/8");
+    IPv4Address addr2 = new IPv4Address("10.1.2.3/24");
+    
+    assertThat(addr1).isEqualTo(addr2);
+    assertThat(addr1.hashCode()).isEqualTo(addr2.hashCode());
+  }
+  
+  @Test
+  public void testHashCode_permuted_octets() {
+    assertThat(new IPv4Address("10.1.2.3").hashCode()).isNotEqualTo(new IPv4Address("3.2.1.10").hashCode());
+    assertThat(new IPv4Address("10.1.2.3").hashCode()).isNotEqualTo(new IPv4Address("1.10.2.3").hashCode());
+  }
 
 
 }
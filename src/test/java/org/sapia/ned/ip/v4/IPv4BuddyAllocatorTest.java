@@ -0,0 +1,123 @@
+package org.sapia.ned.ip.v4;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class IPv4BuddyAllocatorTest {
+  
+  private IPv4BuddyAllocator allocator;
+
+  @Before
+  public void setUp() {
+    allocator = new IPv4BuddyAllocator(new IPv4Address("10.0.0.0/24"));
+  }
+
+  @Test
+  public void testAllocate() {
+    IPv4Subnet subnet = allocator.allocate(26);
+    
+    assertThat(subnet.getNetworkAddress()).isEqualTo(new IPv4Address("10.0.0.0"));
+    assertThat(subnet.getNetworkAddress().getPrefixLength()).isEqualTo(26);
+    assertThat(subnet.getLastAddress()).isEqualTo(new IPv4Address("10.0.0.63"));
+    assertThat(allocator.getFreeAddressCount()).isEqualTo(192);
+    assertThat(allocator.getFreeBlockCount(25)).isEqualTo(1);
+    assertThat(allocator.getFreeBlockCount(26)).isEqualTo(1);
+    assertThat(allocator.isAllocated(subnet)).isTrue();
+  }
+  
+  @Test
+  public void testAllocate_best_fit() {
+    IPv4Subnet first  = allocator.allocate(26);
+    allocator.allocate(25);
+    IPv4Subnet second = allocator.allocate(27);
+    
+    // the /27 is carved out of the remaining /26, not out of a larger block
+    assertThat(second.getNetworkAddress()).isEqualTo(new IPv4Address("10.0.0.64"));
+    assertThat(first.getNetworkAddress()).isEqualTo(new IPv4Address("10.0.0.0"));
+    assertThat(allocator.getFreeBlockCount(27)).isEqualTo(1);
+  }
+  
+  @Test
+  public void testAllocate_exhausted() {
+    assertThat(allocator.allocate(24)).isNotNull();
+    assertThat(allocator.allocate(32)).isNull();
+  }
+  
+  @Test
+  public void testAllocateAddresses() {
+    IPv4Subnet subnet = allocator.allocateAddresses(50);
+    
+    assertThat(subnet.getAddressCount()).isEqualTo(64);
+    assertThat(allocator.allocateAddresses(1).getAddressCount()).isEqualTo(1);
+  }
+  
+  @Test
+  public void testFree_coalesces_buddies() {
+    IPv4Subnet a = allocator.allocate(26);
+    IPv4Subnet b = allocator.allocate(26);
+    
+    allocator.free(a);
+    assertThat(allocator.getFreeBlockCount(26)).isEqualTo(1);
+    
+    allocator.free(b);
+    assertThat(allocator.getFreeBlockCount(26)).isEqualTo(0);
+    assertThat(allocator.getFreeBlockCount(25)).isEqualTo(0);
+    assertThat(allocator.getFreeBlockCount(24)).isEqualTo(1);
+    assertThat(allocator.getFreeAddressCount()).isEqualTo(256);
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testFree_twice() {
+    IPv4Subnet a = allocator.allocate(26);
+    allocator.free(a);
+    allocator.free(a);
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testAllocate_prefix_too_short() {
+    allocator.allocate(23);
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testNew_unaligned_base() {
+    new IPv4BuddyAllocator(new IPv4Address("10.0.0.1/24"));
+  }
+  
+  @Test
+  public void testRandom_allocations_do_not_overlap() {
+    IPv4BuddyAllocator large     = new IPv4BuddyAllocator(new IPv4Address("10.0.0.0/16"));
+    Random             random    = new Random(11);
+    List<IPv4Subnet>   subnets   = new ArrayList<>();
+    boolean[]          used      = new boolean[1 << 16];
+    int                base      = new IPv4Address("10.0.0.0").toInt();
+    for (int i = 0; i < 20_000; i++) {
+      if (subnets.isEmpty() || random.nextInt(3) > 0) {
+        IPv4Subnet s = large.allocate(20 + random.nextInt(13));
+        if (s != null) {
+          for (int a = s.getNetworkAddress().toInt(); a <= s.getLastAddress().toInt(); a++) {
+            assertThat(used[a - base]).isFalse();
+            used[a - base] = true;
+          }
+          subnets.add(s);
+        }
+      } else {
+        IPv4Subnet s = subnets.remove(random.nextInt(subnets.size()));
+        for (int a = s.getNetworkAddress().toInt(); a <= s.getLastAddress().toInt(); a++) {
+          used[a - base] = false;
+        }
+        large.free(s);
+      }
+    }
+    for (IPv4Subnet s : subnets) {
+      large.free(s);
+    }
+    assertThat(large.getFreeAddressCount()).isEqualTo(1 << 16);
+    assertThat(large.getFreeBlockCount(16)).isEqualTo(1);
+  }
+}
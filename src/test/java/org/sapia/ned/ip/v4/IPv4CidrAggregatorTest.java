@@ -0,0 +1,108 @@
+package org.sapia.ned.ip.v4;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class IPv4CidrAggregatorTest {
+
+  @Test
+  public void testDecompose() {
+    List<String> blocks = new ArrayList<>();
+    int count = IPv4CidrAggregator.decompose(
+        new IPv4Address("10.0.0.5").toInt(), new IPv4Address("10.0.1.17").toInt(), 
+        (network, prefixLen) -> blocks.add(new IPv4Address(network, 0) + "/" + prefixLen)
+    );
+    
+    assertThat(count).isEqualTo(9);
+    assertThat(blocks).containsExactly(
+        "10.0.0.5/32", "10.0.0.6/31", "10.0.0.8/29", "10.0.0.16/28", "10.0.0.32/27", 
+        "10.0.0.64/26", "10.0.0.128/25", "10.0.1.0/28", "10.0.1.16/31"
+    );
+  }
+  
+  @Test
+  public void testDecompose_subnets() {
+    List<IPv4Subnet> subnets = IPv4CidrAggregator.decompose(new IPv4Address("192.168.0.0"), new IPv4Address("192.168.1.255"));
+    
+    assertThat(subnets).hasSize(1);
+    assertThat(subnets.get(0).getNetworkAddress().toInt()).isEqualTo(new IPv4Address("192.168.0.0").toInt());
+    assertThat(subnets.get(0).getLastAddress().toInt()).isEqualTo(new IPv4Address("192.168.1.255").toInt());
+  }
+  
+  @Test
+  public void testDecompose_whole_space() {
+    List<Integer> prefixLens = new ArrayList<>();
+    IPv4CidrAggregator.decompose(0, -1, (network, prefixLen) -> prefixLens.add(prefixLen));
+    
+    assertThat(prefixLens).containsExactly(0);
+  }
+  
+  @Test
+  public void testAggregate() {
+    List<String> blocks = new ArrayList<>();
+    int count = new IPv4CidrAggregator()
+        .add(new IPv4Address("10.0.0.128").toInt(), 25)
+        .add(new IPv4Address("10.0.0.0").toInt(), 25)
+        .add(new IPv4Address("10.0.1.0").toInt(), 24)
+        .add(new IPv4Address("10.0.1.7").toInt(), 30)
+        .add(new IPv4Address("10.0.2.0"))
+        .add(new IPv4Address("10.0.2.1"))
+        .addRange(new IPv4Address("10.0.2.2").toInt(), new IPv4Address("10.0.2.3").toInt())
+        .aggregate((network, prefixLen) -> blocks.add(new IPv4Address(network, 0) + "/" + prefixLen));
+    
+    assertThat(count).isEqualTo(2);
+    assertThat(blocks).containsExactly("10.0.0.0/23", "10.0.2.0/30");
+  }
+  
+  @Test
+  public void testAggregate_packed_blocks() {
+    IPv4CidrLongList blocks = new IPv4CidrLongList()
+        .add(new IPv4Address("10.0.1.0").toInt(), 24)
+        .add(new IPv4Address("10.0.0.0").toInt(), 24)
+        .add(new IPv4Address("10.0.0.128").toInt(), 25);
+    IPv4CidrLongList out = new IPv4CidrLongList();
+    
+    assertThat(new IPv4CidrAggregator().add(blocks).aggregate(out)).isEqualTo(1);
+    assertThat(out.toString()).isEqualTo("[10.0.0.0/23]");
+  }
+  
+  @Test
+  public void testAggregate_exact_cover() {
+    Random             random     = new Random(1);
+    IPv4CidrAggregator aggregator = new IPv4CidrAggregator();
+    IPv4RangeSet.Builder expected = IPv4RangeSet.builder();
+    for (int i = 0; i < 1000; i++) {
+      int network   = random.nextInt(1 << 16);
+      int prefixLen = 20 + random.nextInt(13);
+      aggregator.add(network, prefixLen);
+      int mask = -1 << (32 - prefixLen);
+      expected.add(network & mask, network | ~mask);
+    }
+    IPv4RangeSet.Builder actual = IPv4RangeSet.builder();
+    List<int[]>          blocks = new ArrayList<>();
+    aggregator.aggregate((network, prefixLen) -> {
+      actual.add(network, network | (prefixLen == 0 ? -1 : ~(-1 << (32 - prefixLen))));
+      blocks.add(new int[] {network, prefixLen});
+    });
+    
+    assertThat(actual.build()).isEqualTo(expected.build());
+    // minimality: no two consecutive blocks are buddies that could be merged
+    for (int i = 1; i < blocks.size(); i++) {
+      int[] previous = blocks.get(i - 1);
+      int[] block    = blocks.get(i);
+      boolean buddies = previous[1] == block[1] && (previous[0] ^ block[0]) == 1 << (32 - block[1])
+          && (previous[0] & (1 << (32 - block[1]))) == 0;
+      assertThat(buddies).isFalse();
+    }
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testAdd_invalid_prefix_length() {
+    new IPv4CidrAggregator().add(0, 33);
+  }
+}
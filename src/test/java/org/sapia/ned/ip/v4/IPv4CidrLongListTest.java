@@ -0,0 +1,96 @@
+package org.sapia.ned.ip.v4;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class IPv4CidrLongListTest {
+  
+  private IPv4CidrLongList list;
+
+  @Before
+  public void setUp() {
+    list = new IPv4CidrLongList();
+  }
+  
+  @Test
+  public void testAdd() {
+    for (int i = 0; i < 100; i++) {
+      list.add(i << 8, 24);
+    }
+    
+    assertThat(list.size()).isEqualTo(100);
+    assertThat(list.get(99)).isEqualTo(IPv4CidrLong.of(99 << 8, 24));
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testGet_invalid_index() {
+    list.add(0, 8);
+    list.get(1);
+  }
+  
+  @Test
+  public void testSortAndDedup() {
+    list.add(new IPv4Address("10.1.0.0").toInt(), 16)
+        .add(new IPv4Address("10.0.0.0").toInt(), 8)
+        .add(new IPv4Address("10.1.0.0").toInt(), 16)
+        .add(new IPv4Address("10.0.0.0").toInt(), 16)
+        .add(new IPv4Address("192.168.0.0").toInt(), 16)
+        .add(new IPv4Address("10.0.0.0").toInt(), 8);
+    
+    assertThat(list.sort().dedup()).isEqualTo(2);
+    assertThat(list.toString()).isEqualTo("[10.0.0.0/8, 10.0.0.0/16, 10.1.0.0/16, 192.168.0.0/16]");
+  }
+  
+  @Test
+  public void testDedup_empty() {
+    assertThat(list.dedup()).isEqualTo(0);
+  }
+  
+  @Test
+  public void testAddAll() {
+    IPv4CidrLongList other = new IPv4CidrLongList();
+    for (int i = 0; i < 20; i++) {
+      other.add(i, 32);
+    }
+    list.add(0, 0).addAll(other);
+    
+    assertThat(list.size()).isEqualTo(21);
+    assertThat(list.get(20)).isEqualTo(IPv4CidrLong.of(19, 32));
+  }
+  
+  @Test
+  public void testSubnetConversion() {
+    IPv4Subnet s1 = new IPv4Subnet(new IPv4Address("10.0.0.0/8"), new IPv4Address("10.255.255.255/8"));
+    IPv4Subnet s2 = new IPv4Subnet(new IPv4Address("192.168.1.0/24"), new IPv4Address("192.168.1.255/24"));
+    
+    List<IPv4Subnet> subnets = IPv4CidrLongList.of(Arrays.asList(s2, s1)).toSubnets();
+    
+    assertThat(subnets).containsExactly(s2, s1);
+  }
+  
+  @Test
+  public void testForEach() {
+    list.add(new IPv4Address("10.0.0.0").toInt(), 8);
+    StringBuilder s = new StringBuilder();
+    list.forEach((network, prefixLen) -> s.append(new IPv4Address(network, 0)).append('/').append(prefixLen));
+    
+    assertThat(s.toString()).isEqualTo("10.0.0.0/8");
+  }
+  
+  @Test
+  public void testEquals() {
+    IPv4CidrLongList other = new IPv4CidrLongList(100);
+    list.add(0, 8);
+    other.add(0, 8);
+    
+    assertThat(list).isEqualTo(other);
+    assertThat(list.hashCode()).isEqualTo(other.hashCode());
+    other.add(0, 9);
+    assertThat(list).isNotEqualTo(other);
+  }
+}
@@ -0,0 +1,63 @@
+package org.sapia.ned.ip.v4;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class IPv4CidrLongSetTest {
+  
+  private IPv4CidrLongList list;
+  private IPv4CidrLongSet  set;
+
+  @Before
+  public void setUp() {
+    list = new IPv4CidrLongList()
+        .add(new IPv4Address("192.168.0.0").toInt(), 16)
+        .add(new IPv4Address("10.0.0.0").toInt(), 8)
+        .add(new IPv4Address("10.0.0.0").toInt(), 16)
+        .add(new IPv4Address("10.0.0.0").toInt(), 8);
+    set = list.toSet();
+  }
+  
+  @Test
+  public void testOf() {
+    assertThat(set.size()).isEqualTo(3);
+    assertThat(set.toString()).isEqualTo("[10.0.0.0/8, 10.0.0.0/16, 192.168.0.0/16]");
+    // the list is left untouched
+    assertThat(list.size()).isEqualTo(4);
+    assertThat(list.get(0)).isEqualTo(IPv4CidrLong.of(new IPv4Address("192.168.0.0").toInt(), 16));
+  }
+  
+  @Test
+  public void testContains() {
+    assertThat(set.contains(new IPv4Address("10.0.0.0").toInt(), 16)).isTrue();
+    assertThat(set.contains(new IPv4Address("10.0.0.0").toInt(), 24)).isFalse();
+    assertThat(set.indexOf(IPv4CidrLong.of(new IPv4Address("192.168.0.0").toInt(), 16))).isEqualTo(2);
+    assertThat(set.indexOf(IPv4CidrLong.of(0, 0))).isEqualTo(-1);
+  }
+  
+  @Test
+  public void testEmpty() {
+    assertThat(new IPv4CidrLongList().toSet()).isSameAs(IPv4CidrLongSet.empty());
+    assertThat(IPv4CidrLongSet.empty().isEmpty()).isTrue();
+  }
+  
+  @Test
+  public void testSubnetConversion() {
+    IPv4Subnet s1 = new IPv4Subnet(new IPv4Address("10.0.0.0/8"), new IPv4Address("10.255.255.255/8"));
+    IPv4Subnet s2 = new IPv4Subnet(new IPv4Address("192.168.1.0/24"), new IPv4Address("192.168.1.255/24"));
+    
+    assertThat(IPv4CidrLongSet.of(Arrays.asList(s2, s1, s2)).toSubnets()).containsExactly(s1, s2);
+  }
+  
+  @Test
+  public void testEquals() {
+    IPv4CidrLongSet other = IPv4CidrLongSet.of(set.toList());
+    
+    assertThat(other).isEqualTo(set);
+    assertThat(other.hashCode()).isEqualTo(set.hashCode());
+  }
+}
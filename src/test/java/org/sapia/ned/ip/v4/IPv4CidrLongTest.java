@@ -0,0 +1,172 @@
+package org.sapia.ned.ip.v4;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class IPv4CidrLongTest {
+  
+  private static long cidr(String address, int prefixLen) {
+    return IPv4CidrLong.of(new IPv4Address(address).toInt(), prefixLen);
+  }
+
+  @Test
+  public void testOf() {
+    long cidr = cidr("10.1.2.3", 16);
+    
+    assertThat(IPv4CidrLong.first(cidr)).isEqualTo(new IPv4Address("10.1.0.0").toInt());
+    assertThat(IPv4CidrLong.last(cidr)).isEqualTo(new IPv4Address("10.1.255.255").toInt());
+    assertThat(IPv4CidrLong.prefixLength(cidr)).isEqualTo(16);
+    assertThat(IPv4CidrLong.size(cidr)).isEqualTo(65536);
+    assertThat(IPv4CidrLong.toString(cidr)).isEqualTo("10.1.0.0/16");
+  }
+  
+  @Test
+  public void testOf_full_space() {
+    long cidr = cidr("255.1.2.3", 0);
+    
+    assertThat(IPv4CidrLong.first(cidr)).isEqualTo(0);
+    assertThat(IPv4CidrLong.last(cidr)).isEqualTo(-1);
+    assertThat(IPv4CidrLong.size(cidr)).isEqualTo(1L << 32);
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testOf_invalid_prefix_length() {
+    IPv4CidrLong.of(0, 33);
+  }
+  
+  @Test
+  public void testMask() {
+    assertThat(IPv4CidrLong.mask(0)).isEqualTo(0);
+    assertThat(IPv4CidrLong.mask(1)).isEqualTo(0x80000000);
+    assertThat(IPv4CidrLong.mask(24)).isEqualTo(0xFFFFFF00);
+    assertThat(IPv4CidrLong.mask(32)).isEqualTo(-1);
+    for (int i = 0; i <= IPv4Address.SIZE; i++) {
+      assertThat(IPv4CidrLong.mask(i)).isEqualTo(IPv4SubnetMask.forPrefixLength(i).toInt());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCheckPrefixLength_negative() {
+    IPv4CidrLong.checkPrefixLength(-1);
+  }
+
+  @Test
+  public void testToSubnet() {
+    IPv4Subnet subnet = IPv4CidrLong.toSubnet(new IPv4Address("10.1.0.0").toInt(), 16);
+
+    assertThat(subnet.getNetworkAddress()).isEqualTo(new IPv4Address("10.1.0.0/16"));
+    assertThat(subnet.getLastAddress()).isEqualTo(new IPv4Address("10.1.255.255/16"));
+    assertThat(IPv4CidrLong.toSubnet(cidr("10.1.0.0", 16))).isEqualTo(subnet);
+    assertThat(IPv4CidrLong.of(subnet)).isEqualTo(cidr("10.1.0.0", 16));
+  }
+
+  @Test
+  public void testOrder() {
+    assertThat(cidr("10.0.0.0", 8)).isLessThan(cidr("10.0.0.0", 9));
+    assertThat(cidr("10.0.0.0", 9)).isLessThan(cidr("10.128.0.0", 9));
+    assertThat(cidr("10.255.0.0", 16)).isLessThan(cidr("200.0.0.0", 8));
+    assertThat(cidr("255.255.255.255", 32)).isPositive();
+  }
+  
+  @Test
+  public void testSubnetConversion() {
+    IPv4Subnet subnet = new IPv4Subnet(new IPv4Address("192.168.4.0/22"), new IPv4Address("192.168.7.255/22"));
+    long       cidr   = IPv4CidrLong.of(subnet);
+    
+    assertThat(cidr).isEqualTo(cidr("192.168.4.0", 22));
+    assertThat(IPv4CidrLong.toSubnet(cidr)).isEqualTo(subnet);
+    assertThat(IPv4CidrLong.toSubnet(cidr).getNetworkAddress().getPrefixLength()).isEqualTo(22);
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testOf_subnet_not_a_block() {
+    IPv4CidrLong.of(new IPv4Subnet(new IPv4Address("10.0.0.0/24"), new IPv4Address("10.0.0.99/24")));
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testOf_subnet_not_aligned() {
+    IPv4CidrLong.of(new IPv4Subnet(new IPv4Address("10.0.0.2/30"), new IPv4Address("10.0.0.5/30")));
+  }
+  
+  @Test
+  public void testContains_address() {
+    long cidr = cidr("10.1.0.0", 16);
+    
+    assertThat(IPv4CidrLong.contains(cidr, new IPv4Address("10.1.200.3").toInt())).isTrue();
+    assertThat(IPv4CidrLong.contains(cidr, new IPv4Address("10.2.0.0").toInt())).isFalse();
+    assertThat(IPv4CidrLong.contains(cidr("0.0.0.0", 0), -1)).isTrue();
+  }
+  
+  @Test
+  public void testContains_block() {
+    long cidr = cidr("10.1.0.0", 16);
+    
+    assertThat(IPv4CidrLong.contains(cidr, cidr)).isTrue();
+    assertThat(IPv4CidrLong.contains(cidr, cidr("10.1.4.0", 24))).isTrue();
+    assertThat(IPv4CidrLong.contains(cidr("10.1.4.0", 24), cidr)).isFalse();
+    assertThat(IPv4CidrLong.contains(cidr, cidr("10.2.4.0", 24))).isFalse();
+  }
+  
+  @Test
+  public void testOverlaps() {
+    long cidr = cidr("10.1.0.0", 16);
+    
+    assertThat(IPv4CidrLong.overlaps(cidr, cidr("10.0.0.0", 8))).isTrue();
+    assertThat(IPv4CidrLong.overlaps(cidr("10.0.0.0", 8), cidr)).isTrue();
+    assertThat(IPv4CidrLong.overlaps(cidr, cidr("10.2.0.0", 16))).isFalse();
+  }
+  
+  @Test
+  public void testParent() {
+    assertThat(IPv4CidrLong.parent(cidr("10.1.0.0", 16))).isEqualTo(cidr("10.0.0.0", 15));
+    assertThat(IPv4CidrLong.parent(cidr("128.0.0.0", 1))).isEqualTo(cidr("0.0.0.0", 0));
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testParent_root() {
+    IPv4CidrLong.parent(cidr("0.0.0.0", 0));
+  }
+  
+  @Test
+  public void testSibling() {
+    assertThat(IPv4CidrLong.sibling(cidr("10.1.0.0", 16))).isEqualTo(cidr("10.0.0.0", 16));
+    assertThat(IPv4CidrLong.sibling(cidr("10.0.0.0", 16))).isEqualTo(cidr("10.1.0.0", 16));
+    assertThat(IPv4CidrLong.sibling(cidr("0.0.0.0", 1))).isEqualTo(cidr("128.0.0.0", 1));
+  }
+  
+  @Test
+  public void testChildren() {
+    long cidr = cidr("10.0.0.0", 8);
+    
+    assertThat(IPv4CidrLong.lowerChild(cidr)).isEqualTo(cidr("10.0.0.0", 9));
+    assertThat(IPv4CidrLong.upperChild(cidr)).isEqualTo(cidr("10.128.0.0", 9));
+    assertThat(IPv4CidrLong.parent(IPv4CidrLong.upperChild(cidr))).isEqualTo(cidr);
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testChildren_host() {
+    IPv4CidrLong.lowerChild(cidr("10.0.0.1", 32));
+  }
+  
+  @Test
+  public void testSplit() {
+    IPv4CidrLongList out = new IPv4CidrLongList();
+    
+    assertThat(IPv4CidrLong.split(cidr("255.255.255.0", 24), 26, out)).isEqualTo(4);
+    assertThat(out.toString()).isEqualTo("[255.255.255.0/26, 255.255.255.64/26, 255.255.255.128/26, 255.255.255.192/26]");
+  }
+  
+  @Test
+  public void testSplit_same_prefix_length() {
+    IPv4CidrLongList out = new IPv4CidrLongList();
+    
+    assertThat(IPv4CidrLong.split(cidr("10.0.0.0", 8), 8, out)).isEqualTo(1);
+    assertThat(out.get(0)).isEqualTo(cidr("10.0.0.0", 8));
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testSplit_shorter_prefix_length() {
+    IPv4CidrLong.split(cidr("10.0.0.0", 8), 7, new IPv4CidrLongList());
+  }
+}
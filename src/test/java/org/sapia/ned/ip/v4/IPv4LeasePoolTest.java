@@ -0,0 +1,111 @@
+package org.sapia.ned.ip.v4;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class IPv4LeasePoolTest {
+  
+  private IPv4Subnet    subnet;
+  private IPv4LeasePool pool;
+
+  @Before
+  public void setUp() {
+    subnet = new IPv4Subnet(new IPv4Address("10.0.0.0/26"), new IPv4Address("10.0.0.99/26"));
+    pool   = new IPv4LeasePool(subnet, 4);
+  }
+
+  @Test
+  public void testAcquire_all() {
+    BitSet leased = new BitSet();
+    for (int i = 0; i < 100; i++) {
+      long address = pool.acquire();
+      assertThat(address).isBetween(subnet.getNetworkAddress().toInt() & 0xFFFFFFFFL, subnet.getLastAddress().toInt() & 0xFFFFFFFFL);
+      int index = (int) address - subnet.getNetworkAddress().toInt();
+      assertThat(leased.get(index)).isFalse();
+      leased.set(index);
+    }
+    assertThat(pool.acquire()).isEqualTo(-1);
+    assertThat(pool.acquireAddress()).isNull();
+    assertThat(pool.getFreeCount()).isEqualTo(0);
+    assertThat(pool.getLeasedCount()).isEqualTo(100);
+  }
+  
+  @Test
+  public void testRelease() {
+    IPv4Address address = pool.acquireAddress();
+    
+    assertThat(pool.isLeased(address.toInt())).isTrue();
+    assertThat(pool.release(address)).isTrue();
+    assertThat(pool.release(address)).isFalse();
+    assertThat(pool.isLeased(address.toInt())).isFalse();
+    assertThat(pool.getFreeCount()).isEqualTo(100);
+  }
+  
+  @Test
+  public void testAcquire_specific_address() {
+    int address = new IPv4Address("10.0.0.1").toInt();
+    
+    assertThat(pool.acquire(address)).isTrue();
+    assertThat(pool.acquire(address)).isFalse();
+    for (int i = 0; i < 99; i++) {
+      assertThat(pool.acquire()).isNotEqualTo(address);
+    }
+    assertThat(pool.acquire()).isEqualTo(-1);
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testRelease_address_not_in_subnet() {
+    pool.release(new IPv4Address("10.0.0.100"));
+  }
+  
+  @Test
+  public void testAcquire_concurrently() throws Exception {
+    IPv4Subnet     large   = new IPv4Subnet(new IPv4Address("10.0.0.0/16"), new IPv4Address("10.0.255.255/16"));
+    IPv4LeasePool  shared  = new IPv4LeasePool(large, 8);
+    CountDownLatch start   = new CountDownLatch(1);
+    List<Thread>   threads = new ArrayList<>();
+    List<BitSet>   leases  = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      BitSet leased = new BitSet();
+      leases.add(leased);
+      Thread thread = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        // acquires and releases, then acquires until the pool is exhausted
+        for (int i = 0; i < 1000; i++) {
+          shared.release((int) shared.acquire());
+        }
+        long address;
+        while ((address = shared.acquire()) >= 0) {
+          leased.set((int) address & 0xFFFF);
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    
+    BitSet all   = new BitSet();
+    int    total = 0;
+    for (BitSet leased : leases) {
+      total += leased.cardinality();
+      all.or(leased);
+    }
+    assertThat(total).isEqualTo(65536);
+    assertThat(all.cardinality()).isEqualTo(65536);
+    assertThat(shared.getFreeCount()).isEqualTo(0);
+  }
+}
@@ -0,0 +1,355 @@
+package org.sapia.ned.ip.v4;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class IPv4MappedPoolTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private IPv4Subnet     subnet;
+  private Path           file;
+  private IPv4MappedPool pool;
+
+  @Before
+  public void setUp() throws IOException {
+    subnet = new IPv4Subnet(new IPv4Address("10.0.0.0/24"), new IPv4Address("10.0.0.99/24"));
+    file   = new File(folder.getRoot(), "pool.dat").toPath();
+    pool   = IPv4MappedPool.create(file, subnet, 10);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    pool.close();
+  }
+
+  @Test
+  public void testAcquire_all() {
+    for (int i = 0; i < 100; i++) {
+      assertThat(pool.acquire()).isEqualTo((subnet.getNetworkAddress().toInt() + i) & 0xFFFFFFFFL);
+    }
+    assertThat(pool.acquire()).isEqualTo(-1);
+    assertThat(pool.getLeasedCount()).isEqualTo(100);
+    assertThat(pool.getFreeCount()).isEqualTo(0);
+    assertThat(pool.countLeasedBits()).isEqualTo(100);
+  }
+
+  @Test
+  public void testAcquire_specific_address() {
+    int address = new IPv4Address("10.0.0.5").toInt();
+
+    assertThat(pool.acquire(address)).isTrue();
+    assertThat(pool.acquire(address)).isFalse();
+    assertThat(pool.isLeased(address)).isTrue();
+    assertThat(pool.getLeasedCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testRelease() {
+    int address = (int) pool.acquire();
+
+    assertThat(pool.release(address)).isTrue();
+    assertThat(pool.release(address)).isFalse();
+    assertThat(pool.isLeased(address)).isFalse();
+    assertThat(pool.getFreeCount()).isEqualTo(100);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAcquire_address_out_of_range() {
+    pool.acquire(new IPv4Address("10.0.0.100").toInt());
+  }
+
+  @Test
+  public void testAddSubnet() {
+    int network = new IPv4Address("10.0.0.16").toInt();
+
+    assertThat(pool.addSubnet(network, 28)).isTrue();
+    assertThat(pool.addSubnet(network | 3, 28)).isFalse();
+    assertThat(pool.addSubnet(network, 29)).isTrue();
+    assertThat(pool.containsSubnet(network, 28)).isTrue();
+    assertThat(pool.containsSubnet(network, 30)).isFalse();
+    assertThat(pool.getSubnetCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void testAddSubnet_subnet_instance() {
+    IPv4Subnet s = new IPv4Subnet(new IPv4Address("10.0.0.32/27"), new IPv4Address("10.0.0.63/27"));
+
+    assertThat(pool.addSubnet(s)).isTrue();
+    assertThat(pool.containsSubnet(s.getNetworkAddress().toInt(), 27)).isTrue();
+    assertThat(pool.removeSubnet(s)).isTrue();
+    assertThat(pool.getSubnetCount()).isEqualTo(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAddSubnet_out_of_range() {
+    pool.addSubnet(new IPv4Address("10.0.0.96").toInt(), 27);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testAddSubnet_index_full() {
+    int network = subnet.getNetworkAddress().toInt();
+    for (int i = 0; i <= 16; i++) {
+      pool.addSubnet(network + i, 32);
+    }
+  }
+
+  @Test
+  public void testRemoveSubnet() {
+    int network = subnet.getNetworkAddress().toInt();
+    for (int i = 0; i < 16; i++) {
+      pool.addSubnet(network + i, 32);
+    }
+    // removing and re-adding reuses the removed entries
+    for (int n = 0; n < 100; n++) {
+      assertThat(pool.removeSubnet(network + n % 16, 32)).isTrue();
+      assertThat(pool.removeSubnet(network + n % 16, 32)).isFalse();
+      assertThat(pool.addSubnet(network + n % 16, 32)).isTrue();
+    }
+    assertThat(pool.getSubnetCount()).isEqualTo(16);
+    assertThat(pool.countSubnetEntries()).isEqualTo(16);
+  }
+
+  @Test
+  public void testRemoveSubnet_churn_compacts_index() throws IOException {
+    pool.close();
+    pool = IPv4MappedPool.create(file, new IPv4Subnet(new IPv4Address("10.0.0.0/16"), new IPv4Address("10.0.255.255/16")), 1024);
+    int           network  = new IPv4Address("10.0.0.0").toInt();
+    int           capacity = 2048;
+    Random        random   = new Random(11);
+    List<Integer> live     = new ArrayList<>();
+    for (int n = 0; n < 200_000; n++) {
+      if (live.size() < 700 || (live.size() < 1024 && random.nextBoolean())) {
+        int address = network + random.nextInt(1 << 16);
+        if (pool.addSubnet(address, 32)) {
+          live.add(address);
+        }
+      } else {
+        assertThat(pool.removeSubnet(live.remove(random.nextInt(live.size())), 32)).isTrue();
+      }
+      if (n % 10_000 == 0) {
+        assertThat(pool.countEmptySlots()).isGreaterThanOrEqualTo(capacity / 4);
+      }
+    }
+    assertThat(pool.getSubnetCount()).isEqualTo(live.size());
+    assertThat(pool.countEmptySlots()).isEqualTo(capacity - live.size() - pool.getTombstoneCount());
+    pool.close();
+
+    pool = IPv4MappedPool.open(file);
+    assertThat(pool.countSubnetEntries()).isEqualTo(live.size());
+    for (int address : live) {
+      assertThat(pool.containsSubnet(address, 32)).isTrue();
+    }
+  }
+
+  @Test
+  public void testOpen_killed_during_compaction() throws IOException {
+    int           network   = subnet.getNetworkAddress().toInt();
+    Random        random    = new Random(3);
+    List<Integer> live      = new ArrayList<>();
+    byte[]        before    = null;
+    boolean       compacted = false;
+    for (int n = 0; n < 1000 && !compacted; n++) {
+      int address = network + random.nextInt(100);
+      if (live.size() < 12 && pool.addSubnet(address, 32)) {
+        live.add(address);
+      } else if (!live.isEmpty()) {
+        pool.force();
+        before = Files.readAllBytes(file);
+        pool.removeSubnet(live.remove(random.nextInt(live.size())), 32);
+        compacted = pool.getTombstoneCount() == 0;
+      }
+    }
+    assertThat(compacted).isTrue();
+    pool.force();
+    byte[] after = Files.readAllBytes(file);
+    pool.close();
+
+    // the compaction writes a single header: restoring either header slot to its prior content yields the state
+    // before or after that header is written
+    for (int slot = 0; slot < 2; slot++) {
+      byte[] content = after.clone();
+      System.arraycopy(before, slot * 64, content, slot * 64, 64);
+      Files.write(file, content);
+      pool = IPv4MappedPool.open(file);
+      assertThat(pool.getSubnetCount()).isEqualTo(live.size());
+      assertThat(pool.countSubnetEntries()).isEqualTo(live.size());
+      for (int address : live) {
+        assertThat(pool.containsSubnet(address, 32)).isTrue();
+      }
+      pool.close();
+    }
+    pool = IPv4MappedPool.open(file);
+  }
+
+  @Test
+  public void testForEachSubnet() {
+    int network = subnet.getNetworkAddress().toInt();
+    pool.addSubnet(network, 26);
+    pool.addSubnet(network + 64, 27);
+
+    List<String> subnets = new ArrayList<>();
+    pool.forEachSubnet((n, p) -> subnets.add(new IPv4Address(n, 0).toString() + "/" + p));
+
+    assertThat(subnets).containsOnly("10.0.0.0/26", "10.0.0.64/27");
+  }
+
+  @Test
+  public void testOpen() throws IOException {
+    long address = pool.acquire();
+    pool.addSubnet(subnet.getNetworkAddress().toInt(), 28);
+    pool.close();
+
+    pool = IPv4MappedPool.open(file);
+
+    assertThat(pool.isLeased((int) address)).isTrue();
+    assertThat(pool.getLeasedCount()).isEqualTo(1);
+    assertThat(pool.containsSubnet(subnet.getNetworkAddress().toInt(), 28)).isTrue();
+    assertThat(pool.acquire()).isEqualTo(address + 1);
+  }
+
+  @Test
+  public void testOpen_header_written_data_not_written() throws IOException {
+    int address = subnet.getNetworkAddress().toInt() + 10;
+    pool.force();
+    byte[] before = Files.readAllBytes(file);
+    pool.acquire(address);
+    pool.force();
+    byte[] after = Files.readAllBytes(file);
+    pool.close();
+
+    // the process is killed after the header is written, but before the data is
+    System.arraycopy(after, 0, before, 0, 128);
+    Files.write(file, before);
+    pool = IPv4MappedPool.open(file);
+
+    assertThat(pool.isLeased(address)).isTrue();
+    assertThat(pool.getLeasedCount()).isEqualTo(1);
+    assertThat(pool.countLeasedBits()).isEqualTo(1);
+  }
+
+  @Test
+  public void testOpen_torn_header() throws IOException {
+    int address = subnet.getNetworkAddress().toInt() + 10;
+    pool.acquire(address + 1);
+    pool.force();
+    byte[] before = Files.readAllBytes(file);
+    pool.acquire(address);
+    pool.force();
+    byte[] after = Files.readAllBytes(file);
+    pool.close();
+
+    // the process is killed while the header is being written: the header is ignored, the data was not written
+    for (int i = 0; i < 128; i++) {
+      if (after[i] != before[i]) {
+        before[i] = after[i];
+        break;
+      }
+    }
+    Files.write(file, before);
+    pool = IPv4MappedPool.open(file);
+
+    assertThat(pool.isLeased(address)).isFalse();
+    assertThat(pool.isLeased(address + 1)).isTrue();
+    assertThat(pool.getLeasedCount()).isEqualTo(1);
+    assertThat(pool.countLeasedBits()).isEqualTo(1);
+  }
+
+  @Test(expected = IOException.class)
+  public void testOpen_invalid_file() throws IOException {
+    pool.close();
+    Files.write(file, new byte[1024]);
+    pool = IPv4MappedPool.open(file);
+  }
+
+  @Test(expected = IOException.class)
+  public void testOpen_truncated_file() throws IOException {
+    byte[] content = Files.readAllBytes(file);
+    pool.close();
+    Files.write(file, Arrays.copyOf(content, content.length - 8));
+    pool = IPv4MappedPool.open(file);
+  }
+
+  @Test
+  public void testOpen_after_process_killed() throws Exception {
+    pool.close();
+    pool = IPv4MappedPool.create(file, new IPv4Subnet(new IPv4Address("10.0.0.0/20"), new IPv4Address("10.0.15.255/20")), 512);
+    pool.close();
+    Random random = new Random(7);
+    for (int run = 0; run < 5; run++) {
+      Process process = new ProcessBuilder(
+          new File(System.getProperty("java.home"), "bin/java").getPath(),
+          "-cp", System.getProperty("java.class.path"),
+          Writer.class.getName(), file.toString(), Integer.toString(run)
+      ).redirectErrorStream(true).start();
+      try {
+        BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream()));
+        assertThat(output.readLine()).isEqualTo(Writer.STARTED);
+        Thread.sleep(20 + random.nextInt(200));
+      } finally {
+        process.destroyForcibly().waitFor(10, TimeUnit.SECONDS);
+      }
+
+      pool = IPv4MappedPool.open(file);
+      assertThat(pool.countLeasedBits()).isEqualTo(pool.getLeasedCount());
+      assertThat(pool.countSubnetEntries()).isEqualTo(pool.getSubnetCount());
+      assertThat(pool.countEmptySlots()).isEqualTo(1024 - pool.getSubnetCount() - pool.getTombstoneCount());
+      pool.close();
+    }
+    pool = IPv4MappedPool.open(file);
+  }
+
+  /**
+   * Modifies a pool continuously, until killed.
+   */
+  public static class Writer {
+
+    static final String STARTED = "started";
+
+    public static void main(String[] args) throws IOException {
+      IPv4MappedPool pool    = IPv4MappedPool.open(new File(args[0]).toPath());
+      Random         random  = new Random(Integer.parseInt(args[1]));
+      int            network = new IPv4Address("10.0.0.0").toInt();
+      System.out.println(STARTED);
+      System.out.flush();
+      while (true) {
+        int address = network + random.nextInt(4096);
+        switch (random.nextInt(4)) {
+          case 0:
+            if (pool.acquire() < 0) {
+              pool.release(address);
+            }
+            break;
+          case 1:
+            pool.release(address);
+            break;
+          case 2:
+            if (pool.getSubnetCount() < 512) {
+              pool.addSubnet(address, 24 + random.nextInt(9));
+            }
+            break;
+          default:
+            pool.removeSubnet(address, 24 + random.nextInt(9));
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package org.sapia.ned.ip.v4;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class IPv4ParserTest {
+
+  @Test
+  public void testParse() {
+    long result = IPv4Parser.parse("192.168.0.102");
+    
+    assertThat(IPv4Parser.isValid(result)).isTrue();
+    assertThat(IPv4Parser.address(result)).isEqualTo(0xC0A80066);
+    assertThat(IPv4Parser.prefixLength(result)).isEqualTo(0);
+  }
+  
+  @Test
+  public void testParse_with_prefix() {
+    long result = IPv4Parser.parse("10.1.0.0/16");
+    
+    assertThat(IPv4Parser.isValid(result)).isTrue();
+    assertThat(IPv4Parser.address(result)).isEqualTo(0x0A010000);
+    assertThat(IPv4Parser.prefixLength(result)).isEqualTo(16);
+  }
+  
+  @Test
+  public void testParse_boundaries() {
+    assertThat(IPv4Parser.address(IPv4Parser.parse("0.0.0.0"))).isEqualTo(0);
+    assertThat(IPv4Parser.address(IPv4Parser.parse("255.255.255.255"))).isEqualTo(-1);
+    assertThat(IPv4Parser.prefixLength(IPv4Parser.parse("255.255.255.255/32"))).isEqualTo(32);
+  }
+  
+  @Test
+  public void testParse_char_sequence_range() {
+    String line = "src=10.0.0.1/8 dst=...";
+    
+    long result = IPv4Parser.parse(line, 4, 14);
+    
+    assertThat(IPv4Parser.address(result)).isEqualTo(0x0A000001);
+    assertThat(IPv4Parser.prefixLength(result)).isEqualTo(8);
+  }
+  
+  @Test
+  public void testParse_char_array() {
+    char[] chars = "xx172.16.5.4xx".toCharArray();
+    
+    assertThat(IPv4Parser.address(IPv4Parser.parse(chars, 2, 10))).isEqualTo(0xAC100504);
+  }
+
+  @Test
+  public void testParse_byte_array() {
+    byte[] bytes = "xx172.16.5.4/30".getBytes(StandardCharsets.US_ASCII);
+    
+    long result = IPv4Parser.parse(bytes, 2, 13);
+    
+    assertThat(IPv4Parser.address(result)).isEqualTo(0xAC100504);
+    assertThat(IPv4Parser.prefixLength(result)).isEqualTo(30);
+  }
+
+  @Test
+  public void testParse_byte_buffer() {
+    ByteBuffer buf = ByteBuffer.wrap("xx172.16.5.4xx".getBytes(StandardCharsets.US_ASCII));
+    
+    assertThat(IPv4Parser.address(IPv4Parser.parse(buf, 2, 10))).isEqualTo(0xAC100504);
+    assertThat(buf.position()).isEqualTo(0);
+  }
+  
+  @Test
+  public void testParse_invalid() {
+    assertInvalid("", 0);
+    assertInvalid("1.2.3", 5);
+    assertInvalid("1.2.3.4.5", 7);
+    assertInvalid("1..3.4", 2);
+    assertInvalid(".1.2.3", 0);
+    assertInvalid("1.2.3.", 6);
+    assertInvalid("1.2.3.256", 8);
+    assertInvalid("1.2.3.4/", 8);
+    assertInvalid("1.2.3.4/33", 9);
+    assertInvalid("1.2.3/4", 5);
+    assertInvalid("1.2.3.4/1/2", 9);
+    assertInvalid("1.2.x.4", 4);
+    assertInvalid("1.2.3.4 ", 7);
+  }
+
+  private void assertInvalid(String literal, int errorIndex) {
+    long result = IPv4Parser.parse(literal);
+    
+    assertThat(IPv4Parser.isValid(result)).as(literal).isFalse();
+    assertThat(IPv4Parser.errorIndex(result)).as(literal).isEqualTo(errorIndex);
+  }
+}
@@ -0,0 +1,118 @@
+package org.sapia.ned.ip.v4;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class IPv4RangeSetTest {
+  
+  private IPv4RangeSet set = IPv4RangeSet.builder()
+      .add(new IPv4Address("10.0.1.0"), new IPv4Address("10.0.1.255"))
+      .add(new IPv4Subnet(new IPv4Address("10.0.0.0/24"), new IPv4Address("10.0.0.255/24")))
+      .add(new IPv4Address("192.168.0.1"))
+      .add(new IPv4Address("200.0.0.0"), new IPv4Address("255.255.255.255"))
+      .add(new IPv4Address("10.0.1.10"), new IPv4Address("10.0.1.20"))
+      .build();
+
+  @Test
+  public void testBuild() {
+    assertThat(set.getRangeCount()).isEqualTo(3);
+    assertThat(set.getRangeStartAt(0)).isEqualTo(new IPv4Address("10.0.0.0").toInt());
+    assertThat(set.getRangeEndAt(0)).isEqualTo(new IPv4Address("10.0.1.255").toInt());
+    assertThat(set.getRangeStartAt(1)).isEqualTo(new IPv4Address("192.168.0.1").toInt());
+    assertThat(set.getRangeEndAt(2)).isEqualTo(-1);
+    assertThat(set.getAddressCount()).isEqualTo(512 + 1 + 56L * 256 * 256 * 256);
+  }
+  
+  @Test
+  public void testContains() {
+    assertThat(set.contains(new IPv4Address("10.0.0.0"))).isTrue();
+    assertThat(set.contains(new IPv4Address("10.0.1.255"))).isTrue();
+    assertThat(set.contains(new IPv4Address("10.0.2.0"))).isFalse();
+    assertThat(set.contains(new IPv4Address("9.255.255.255"))).isFalse();
+    assertThat(set.contains(new IPv4Address("192.168.0.1"))).isTrue();
+    assertThat(set.contains(new IPv4Address("192.168.0.2"))).isFalse();
+    assertThat(set.contains(new IPv4Address("255.255.255.255"))).isTrue();
+  }
+  
+  @Test
+  public void testContainsAll() {
+    assertThat(set.containsAll(new IPv4Subnet(new IPv4Address("10.0.1.0/25"), new IPv4Address("10.0.1.127/25")))).isTrue();
+    assertThat(set.containsAll(new IPv4Subnet(new IPv4Address("10.0.0.0/22"), new IPv4Address("10.0.3.255/22")))).isFalse();
+  }
+  
+  @Test
+  public void testFloorAndCeiling() {
+    int address = new IPv4Address("100.0.0.0").toInt();
+    
+    assertThat(set.floor(address)).isEqualTo(new IPv4Address("10.0.1.255").toInt());
+    assertThat(set.ceiling(address)).isEqualTo(new IPv4Address("192.168.0.1").toInt() & 0xFFFFFFFFL);
+    assertThat(set.floor(new IPv4Address("10.0.0.5").toInt())).isEqualTo(new IPv4Address("10.0.0.5").toInt());
+    assertThat(set.ceiling(new IPv4Address("10.0.0.5").toInt())).isEqualTo(new IPv4Address("10.0.0.5").toInt());
+    assertThat(set.floor(new IPv4Address("1.0.0.0").toInt())).isEqualTo(-1);
+    assertThat(set.ceiling(new IPv4Address("1.0.0.0").toInt())).isEqualTo(new IPv4Address("10.0.0.0").toInt());
+    assertThat(IPv4RangeSet.builder().add(0, 5).build().ceiling(6)).isEqualTo(-1);
+  }
+  
+  @Test
+  public void testComplement() {
+    IPv4RangeSet complement = set.complement();
+    
+    assertThat(complement.getRangeCount()).isEqualTo(3);
+    assertThat(complement.getRangeStartAt(0)).isEqualTo(0);
+    assertThat(complement.contains(new IPv4Address("10.0.2.0"))).isTrue();
+    assertThat(complement.contains(new IPv4Address("10.0.1.0"))).isFalse();
+    assertThat(complement.complement()).isEqualTo(set);
+    assertThat(IPv4RangeSet.empty().complement()).isEqualTo(IPv4RangeSet.all());
+    assertThat(IPv4RangeSet.all().complement().isEmpty()).isTrue();
+  }
+  
+  @Test
+  public void testSetOperations_consistent_with_bitset() {
+    Random random = new Random(1);
+    for (int round = 0; round < 50; round++) {
+      IPv4RangeSet a  = randomSet(random);
+      IPv4RangeSet b  = randomSet(random);
+      BitSet       ba = toBitSet(a);
+      BitSet       bb = toBitSet(b);
+      
+      BitSet union = (BitSet) ba.clone();
+      union.or(bb);
+      BitSet intersection = (BitSet) ba.clone();
+      intersection.and(bb);
+      BitSet difference = (BitSet) ba.clone();
+      difference.andNot(bb);
+      
+      assertThat(toBitSet(a.union(b))).isEqualTo(union);
+      assertThat(toBitSet(a.intersection(b))).isEqualTo(intersection);
+      assertThat(toBitSet(a.difference(b))).isEqualTo(difference);
+      assertThat(a.union(b).getAddressCount()).isEqualTo(union.cardinality());
+    }
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testAdd_invalid_range() {
+    IPv4RangeSet.builder().add(-1, 0);
+  }
+  
+  // sets of ranges within [0, 1023]
+  private static IPv4RangeSet randomSet(Random random) {
+    IPv4RangeSet.Builder builder = IPv4RangeSet.builder();
+    for (int i = random.nextInt(10); i > 0; i--) {
+      int start = random.nextInt(1000);
+      builder.add(start, start + random.nextInt(24));
+    }
+    return builder.build();
+  }
+  
+  private static BitSet toBitSet(IPv4RangeSet set) {
+    BitSet bits = new BitSet();
+    for (int i = 0; i < set.getRangeCount(); i++) {
+      bits.set(set.getRangeStartAt(i), set.getRangeEndAt(i) + 1);
+    }
+    return bits;
+  }
+}
@@ -0,0 +1,125 @@
+package org.sapia.ned.ip.v4;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class IPv4SubnetGeneratorTest {
+
+  @Test
+  public void testGenerate_with_number_of_addresses() {
+    List<IPv4Subnet> subnets = new IPv4SubnetGenerator()
+        .withBaseAddress(new IPv4Address("206.0.64.0/18"))
+        .withNumberOfAddresses(1024)
+        .generate();
+    
+    assertThat(subnets).hasSize(1);
+    assertThat(subnets.get(0).getNetworkAddress()).isEqualTo(new IPv4Address("206.0.64.0"));
+    assertThat(subnets.get(0).getNetworkAddress().getPrefixLength()).isEqualTo(22);
+    assertThat(subnets.get(0).getLastAddress()).isEqualTo(new IPv4Address("206.0.67.255"));
+  }
+  
+  @Test
+  public void testGenerate_with_number_of_subnets() {
+    List<IPv4Subnet> subnets = new IPv4SubnetGenerator()
+        .withBaseAddress(new IPv4Address("205.101.55.0/24"))
+        .withNumberOfSubnets(4)
+        .generate();
+    
+    assertThat(subnets).hasSize(4);
+    assertThat(subnets.get(1).getNetworkAddress()).isEqualTo(new IPv4Address("205.101.55.64"));
+    assertThat(subnets.get(1).getNetworkAddress().getPrefixLength()).isEqualTo(26);
+    assertThat(subnets.get(3).getLastAddress()).isEqualTo(new IPv4Address("205.101.55.255"));
+  }
+  
+  @Test
+  public void testGenerate_with_prefix_1() {
+    List<IPv4Subnet> subnets = new IPv4SubnetGenerator()
+        .withBaseAddress(new IPv4Address("128.0.0.0/1"))
+        .withNumberOfSubnets(2)
+        .generate();
+    
+    assertThat(subnets.get(1).getNetworkAddress()).isEqualTo(new IPv4Address("192.0.0.0"));
+    assertThat(subnets.get(1).getNetworkAddress().getPrefixLength()).isEqualTo(2);
+    assertThat(subnets.get(1).getLastAddress()).isEqualTo(new IPv4Address("255.255.255.255"));
+  }
+  
+  @Test
+  public void testStream_consistent_with_generate() {
+    IPv4SubnetGenerator generator = new IPv4SubnetGenerator()
+        .withBaseAddress(new IPv4Address("10.0.0.0/16"))
+        .withNumberOfSubnets(256);
+    
+    assertThat(generator.stream().collect(Collectors.toList())).isEqualTo(generator.generate());
+  }
+  
+  @Test
+  public void testStream_large_split() {
+    IPv4SubnetGenerator generator = new IPv4SubnetGenerator()
+        .withBaseAddress(new IPv4Address("10.0.0.0/8"))
+        .withNumberOfSubnets(1 << 22);
+    
+    assertThat(generator.getSubnetCount()).isEqualTo(1 << 22);
+    assertThat(generator.stream().skip(1000).findFirst().get().getNetworkAddress()).isEqualTo(new IPv4Address("10.0.15.160"));
+  }
+  
+  @Test
+  public void testIterator() {
+    Iterator<IPv4Subnet> itr = new IPv4SubnetGenerator()
+        .withBaseAddress(new IPv4Address("192.168.0.0/24"))
+        .withNumberOfSubnets(2)
+        .iterator();
+    
+    assertThat(itr.next().getLastAddress()).isEqualTo(new IPv4Address("192.168.0.127"));
+    assertThat(itr.next().getLastAddress()).isEqualTo(new IPv4Address("192.168.0.255"));
+    assertThat(itr.hasNext()).isFalse();
+  }
+  
+  @Test
+  public void testSubnetAt() {
+    IPv4Subnet subnet = new IPv4SubnetGenerator()
+        .withBaseAddress(new IPv4Address("10.0.0.0/8"))
+        .withNumberOfSubnets(1 << 22)
+        .subnetAt((1 << 22) - 1);
+    
+    assertThat(subnet.getNetworkAddress()).isEqualTo(new IPv4Address("10.255.255.252"));
+    assertThat(subnet.getNetworkAddress().getPrefixLength()).isEqualTo(30);
+    assertThat(subnet.getLastAddress()).isEqualTo(new IPv4Address("10.255.255.255"));
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testSubnetAt_invalid_index() {
+    new IPv4SubnetGenerator()
+        .withBaseAddress(new IPv4Address("192.168.0.0/24"))
+        .withNumberOfSubnets(2)
+        .subnetAt(2);
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testGenerate_not_power_of_two() {
+    new IPv4SubnetGenerator()
+        .withBaseAddress(new IPv4Address("192.168.0.0/24"))
+        .withNumberOfSubnets(3)
+        .generate();
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testGenerate_too_many_subnets() {
+    new IPv4SubnetGenerator()
+        .withBaseAddress(new IPv4Address("192.168.0.0/24"))
+        .withNumberOfSubnets(512)
+        .generate();
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testGenerate_unaligned_base() {
+    new IPv4SubnetGenerator()
+        .withBaseAddress(new IPv4Address("192.168.0.16/24"))
+        .withNumberOfSubnets(2)
+        .generate();
+  }
+}
@@ -85,5 +85,89 @@ public class IPv4SubnetMaskTest {
     
     assertThat(copy).isEqualTo(mask);
   }
+  
+  @Test
+  public void testSerialization_resolves_canonical_instance() {
+    IPv4SubnetMask copy = Serialization.deserialize(Serialization.serialize(mask));
+    
+    assertThat(copy).isSameAs(IPv4SubnetMask.forPrefixLength(16));
+  }
+  
+  @Test
+  public void testSerialization_resolves_canonical_classful_instance() {
+    IPv4SubnetMask classful = IPAddressClass.CLASS_B.getSubnetMask();
+    
+    IPv4SubnetMask copy = Serialization.deserialize(Serialization.serialize(classful));
+    
+    assertThat(copy).isSameAs(classful);
+  }
+
+  @Test
+  public void testSerialization_non_canonical() {
+    IPv4SubnetMask nonContiguous = new IPv4SubnetMask(new int[] {255, 0, 255, 0}, 0);
+    
+    IPv4SubnetMask copy = Serialization.deserialize(Serialization.serialize(nonContiguous));
+    
+    assertThat(copy).isEqualTo(nonContiguous);
+  }
+  
+  @Test
+  public void testForPrefixLength() {
+    for (int i = 0; i <= IPv4Address.SIZE; i++) {
+      IPv4SubnetMask canonical = IPv4SubnetMask.forPrefixLength(i);
+      
+      assertThat(canonical.getPrefixLength()).isEqualTo(i);
+      assertThat(Integer.bitCount(canonical.toInt())).isEqualTo(i);
+      assertThat(Integer.numberOfLeadingZeros(~canonical.toInt())).isEqualTo(i);
+    }
+  }
+  
+  @Test
+  public void testForPrefixLength_shared() {
+    IPv4Address addr1 = new IPv4Address("10.0.0.1/20");
+    IPv4Address addr2 = new IPv4Address("172.16.32.1/20");
+    
+    assertThat(addr1.getSubnetMask()).isSameAs(addr2.getSubnetMask());
+    assertThat(addr1.getSubnetMask().toString()).isEqualTo("255.255.240.0");
+  }
+  
+  @Test
+  public void testClassfulMask_shared() {
+    IPv4Address addr1 = new IPv4Address("10.0.0.1");
+    IPv4Address addr2 = new IPv4Address("11.0.0.1");
+    
+    assertThat(addr1.getSubnetMask()).isSameAs(addr2.getSubnetMask());
+    assertThat(addr1.getSubnetMask()).isSameAs(IPAddressClass.CLASS_A.getSubnetMask());
+    assertThat(addr1.getSubnetMask().toString()).isEqualTo("255.0.0.0");
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testForPrefixLength_invalid() {
+    IPv4SubnetMask.forPrefixLength(33);
+  }
+  
+  @Test
+  public void testGetMaskLength() {
+    assertThat(IPv4SubnetMask.forPrefixLength(20).getMaskLength()).isEqualTo(20);
+    assertThat(IPv4SubnetMask.forPrefixLength(0).getMaskLength()).isEqualTo(0);
+    assertThat(IPv4SubnetMask.forPrefixLength(32).getMaskLength()).isEqualTo(32);
+    assertThat(IPAddressClass.CLASS_B.getSubnetMask().getMaskLength()).isEqualTo(16);
+  }
+  
+  @Test
+  public void testGetHostCount() {
+    assertThat(IPv4SubnetMask.forPrefixLength(20).getHostBitCount()).isEqualTo(12);
+    assertThat(IPv4SubnetMask.forPrefixLength(20).getHostCount()).isEqualTo(4096);
+    assertThat(IPv4SubnetMask.forPrefixLength(32).getHostCount()).isEqualTo(1);
+    assertThat(IPv4SubnetMask.forPrefixLength(0).getHostCount()).isEqualTo(1L << 32);
+  }
+  
+  @Test
+  public void testIsContiguous() {
+    assertThat(IPv4SubnetMask.forPrefixLength(20).isContiguous()).isTrue();
+    assertThat(IPv4SubnetMask.forPrefixLength(0).isContiguous()).isTrue();
+    assertThat(new IPv4SubnetMask(new int[] {255, 0, 255, 0}, 0).isContiguous()).isFalse();
+    assertThat(new IPv4SubnetMask(new int[] {0, 255, 0, 0}, 0).isContiguous()).isFalse();
+  }
 
 }
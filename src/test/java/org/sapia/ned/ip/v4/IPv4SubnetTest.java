@@ -0,0 +1,212 @@
+package org.sapia.ned.ip.v4;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class IPv4SubnetTest {
+  
+  private IPv4Subnet subnet;
+
+  @Before
+  public void setUp() throws Exception {
+    subnet = new IPv4Subnet(new IPv4Address("192.168.0.0/30"), new IPv4Address("192.168.0.3/30"));
+  }
+
+  @Test
+  public void testGetAddressCount() {
+    assertThat(subnet.getAddressCount()).isEqualTo(4);
+  }
+  
+  @Test
+  public void testGetAddressCount_full_space() {
+    IPv4Subnet all = new IPv4Subnet(new IPv4Address(0, 0), new IPv4Address(-1, 0));
+    
+    assertThat(all.getAddressCount()).isEqualTo(1L << 32);
+  }
+  
+  @Test
+  public void testContains_address() {
+    assertThat(subnet.contains(new IPv4Address("192.168.0.0"))).isTrue();
+    assertThat(subnet.contains(new IPv4Address("192.168.0.3/8"))).isTrue();
+    assertThat(subnet.contains(new IPv4Address("192.168.0.4"))).isFalse();
+    assertThat(subnet.contains(new IPv4Address("192.167.255.255"))).isFalse();
+    assertThat(subnet.contains(new IPv4Address("10.168.0.1"))).isFalse();
+  }
+  
+  @Test
+  public void testContains_address_range() {
+    IPv4Subnet range = new IPv4Subnet(new IPv4Address("10.0.0.5/24"), new IPv4Address("10.0.0.99/24"));
+    
+    assertThat(range.contains(new IPv4Address("10.0.0.4"))).isFalse();
+    assertThat(range.contains(new IPv4Address("10.0.0.5"))).isTrue();
+    assertThat(range.contains(new IPv4Address("10.0.0.99"))).isTrue();
+    assertThat(range.contains(new IPv4Address("10.0.0.100"))).isFalse();
+  }
+  
+  @Test
+  public void testContains_address_edges_of_space() {
+    IPv4Subnet all  = new IPv4Subnet(new IPv4Address(0, 0), new IPv4Address(-1, 0));
+    IPv4Subnet high = new IPv4Subnet(new IPv4Address("255.255.255.0/24"), new IPv4Address("255.255.255.255/24"));
+    
+    assertThat(all.contains(0)).isTrue();
+    assertThat(all.contains(-1)).isTrue();
+    assertThat(high.contains(-1)).isTrue();
+    assertThat(high.contains(0)).isFalse();
+    assertThat(high.contains(new IPv4Address("127.255.255.255").toInt())).isFalse();
+  }
+  
+  @Test
+  public void testContains_subnet() {
+    IPv4Subnet outer = new IPv4Subnet(new IPv4Address("192.168.0.0/24"), new IPv4Address("192.168.0.255/24"));
+    
+    assertThat(outer.contains(subnet)).isTrue();
+    assertThat(subnet.contains(subnet)).isTrue();
+    assertThat(subnet.contains(outer)).isFalse();
+  }
+  
+  @Test
+  public void testOverlaps() {
+    IPv4Subnet outer    = new IPv4Subnet(new IPv4Address("192.168.0.0/24"), new IPv4Address("192.168.0.255/24"));
+    IPv4Subnet adjacent = new IPv4Subnet(new IPv4Address("192.168.0.4/30"), new IPv4Address("192.168.0.7/30"));
+    IPv4Subnet partial  = new IPv4Subnet(new IPv4Address("192.168.0.2/24"), new IPv4Address("192.168.0.5/24"));
+    
+    assertThat(subnet.overlaps(outer)).isTrue();
+    assertThat(outer.overlaps(subnet)).isTrue();
+    assertThat(subnet.overlaps(adjacent)).isFalse();
+    assertThat(adjacent.overlaps(subnet)).isFalse();
+    assertThat(subnet.overlaps(partial)).isTrue();
+    assertThat(partial.overlaps(adjacent)).isTrue();
+  }
+  
+  @Test
+  public void testContainsAll() {
+    IPv4Subnet range     = new IPv4Subnet(new IPv4Address("10.0.0.5/24"), new IPv4Address("10.0.1.99/24"));
+    Random     random    = new Random(3);
+    int[]      addresses = new int[1000];
+    for (int i = 0; i < addresses.length; i++) {
+      addresses[i] = random.nextBoolean() ? random.nextInt() : range.getNetworkAddress().toInt() - 10 + random.nextInt(400);
+    }
+    BitSet out = new BitSet();
+    out.set(0, 2000);
+    
+    int count = range.containsAll(addresses, out);
+    
+    int expected = 0;
+    for (int i = 0; i < addresses.length; i++) {
+      assertThat(out.get(i)).isEqualTo(range.contains(addresses[i]));
+      expected += range.contains(addresses[i]) ? 1 : 0;
+    }
+    assertThat(count).isEqualTo(expected).isGreaterThan(0);
+    assertThat(out.nextClearBit(addresses.length)).isEqualTo(2000);
+  }
+
+  @Test
+  public void testContainsAll_partial_words() {
+    int inside  = new IPv4Address("192.168.0.1").toInt();
+    int outside = new IPv4Address("192.168.0.4").toInt();
+    for (int len : new int[] {0, 1, 63, 64, 65, 127, 130}) {
+      int[] addresses = new int[len];
+      for (int i = 0; i < len; i++) {
+        addresses[i] = i % 3 == 0 ? inside : outside;
+      }
+      BitSet out = new BitSet(256);
+      out.set(0, 256);
+
+      assertThat(subnet.containsAll(addresses, out)).isEqualTo((len + 2) / 3);
+      for (int i = 0; i < len; i++) {
+        assertThat(out.get(i)).isEqualTo(i % 3 == 0);
+      }
+      assertThat(out.nextClearBit(len)).isEqualTo(256);
+    }
+  }
+
+  @Test
+  public void testHashCode() {
+    IPv4Subnet same  = new IPv4Subnet(new IPv4Address("192.168.0.0/24"), new IPv4Address("192.168.0.3/24"));
+    IPv4Subnet other = new IPv4Subnet(new IPv4Address("192.168.0.4/30"), new IPv4Address("192.168.0.7/30"));
+    
+    assertThat(subnet).isEqualTo(same);
+    assertThat(subnet.hashCode()).isEqualTo(same.hashCode());
+    assertThat(subnet.hashCode()).isNotEqualTo(other.hashCode());
+  }
+  
+  @Test
+  public void testIterator() {
+    List<IPv4Address> addresses = new ArrayList<>();
+    for (IPv4Address a : subnet) {
+      addresses.add(a);
+    }
+    
+    assertThat(addresses).containsExactly(
+        new IPv4Address("192.168.0.0/30"),
+        new IPv4Address("192.168.0.1/30"),
+        new IPv4Address("192.168.0.2/30"),
+        new IPv4Address("192.168.0.3/30")
+    );
+    assertThat(addresses.get(3).getPrefixLength()).isEqualTo(30);
+  }
+  
+  @Test
+  public void testIntIterator() {
+    PrimitiveIterator.OfInt itr = subnet.intIterator();
+    
+    assertThat(itr.nextInt()).isEqualTo(new IPv4Address("192.168.0.0").toInt());
+    assertThat(itr.nextInt()).isEqualTo(new IPv4Address("192.168.0.1").toInt());
+    assertThat(itr.nextInt()).isEqualTo(new IPv4Address("192.168.0.2").toInt());
+    assertThat(itr.nextInt()).isEqualTo(new IPv4Address("192.168.0.3").toInt());
+    assertThat(itr.hasNext()).isFalse();
+  }
+  
+  @Test
+  public void testIntIterator_up_to_last_address() {
+    IPv4Subnet last = new IPv4Subnet(new IPv4Address("255.255.255.254/31"), new IPv4Address("255.255.255.255/31"));
+    PrimitiveIterator.OfInt itr = last.intIterator();
+    
+    assertThat(itr.nextInt()).isEqualTo(-2);
+    assertThat(itr.nextInt()).isEqualTo(-1);
+    assertThat(itr.hasNext()).isFalse();
+  }
+  
+  @Test
+  public void testIntStream() {
+    IPv4Subnet large = new IPv4Subnet(new IPv4Address("10.0.0.0/8"), new IPv4Address("10.255.255.255/8"));
+    
+    assertThat(large.intStream().count()).isEqualTo(1 << 24);
+    assertThat(large.intStream().max().getAsInt()).isEqualTo(new IPv4Address("10.255.255.255").toInt());
+  }
+  
+  @Test
+  public void testGetAddresses() {
+    List<IPv4Address> addresses = subnet.getAddresses();
+    List<IPv4Address> expected  = Arrays.asList(
+        new IPv4Address("192.168.0.0/30"),
+        new IPv4Address("192.168.0.1/30"),
+        new IPv4Address("192.168.0.2/30"),
+        new IPv4Address("192.168.0.3/30")
+    );
+    
+    assertThat(addresses).hasSize(4);
+    for (int i = 0; i < expected.size(); i++) {
+      assertThat(addresses.get(i)).isEqualTo(expected.get(i));
+    }
+    
+    List<IPv4Address> iterated = new ArrayList<>();
+    addresses.iterator().forEachRemaining(iterated::add);
+    assertThat(iterated).isEqualTo(expected);
+  }
+  
+  @Test(expected = IllegalStateException.class)
+  public void testGetAddresses_full_space() {
+    new IPv4Subnet(new IPv4Address(0, 0), new IPv4Address(-1, 0)).getAddresses();
+  }
+
+}
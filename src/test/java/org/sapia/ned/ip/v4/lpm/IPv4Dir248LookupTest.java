@@ -0,0 +1,65 @@
+package org.sapia.ned.ip.v4.lpm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.sapia.ned.ip.v4.IPv4Address;
+
+public class IPv4Dir248LookupTest {
+  
+  private static IPv4PrefixList   prefixes;
+  private static IPv4Dir248Lookup lookup;
+
+  @BeforeClass
+  public static void setUpClass() {
+    prefixes = new IPv4PrefixList()
+        .add(new IPv4Address("10.0.0.0/8"), 1)
+        .add(new IPv4Address("10.1.0.0/16"), 2)
+        .add(new IPv4Address("10.1.2.0/24"), 3)
+        .add(new IPv4Address("10.1.2.128/25"), 4)
+        .add(new IPv4Address("10.1.2.130/32"), 5);
+    lookup = IPv4Dir248Lookup.build(prefixes);
+  }
+
+  @Test
+  public void testLookup() {
+    assertThat(lookup.lookup(new IPv4Address("10.2.0.1"))).isEqualTo(1);
+    assertThat(lookup.lookup(new IPv4Address("10.1.3.1"))).isEqualTo(2);
+    assertThat(lookup.lookup(new IPv4Address("10.1.2.1"))).isEqualTo(3);
+    assertThat(lookup.lookup(new IPv4Address("10.1.2.129"))).isEqualTo(4);
+    assertThat(lookup.lookup(new IPv4Address("10.1.2.130"))).isEqualTo(5);
+    assertThat(lookup.lookup(new IPv4Address("11.0.0.0"))).isEqualTo(IPv4PrefixLookup.NO_MATCH);
+    assertThat(lookup.getBlockCount()).isEqualTo(1);
+  }
+  
+  @Test
+  public void testRebuild() {
+    IPv4PrefixList   other   = new IPv4PrefixList().add(0, 0, 7).add(new IPv4Address("192.168.1.1/32"), 8);
+    IPv4Dir248Lookup rebuilt = IPv4Dir248Lookup.build(prefixes);
+    rebuilt.rebuild(other);
+    
+    assertThat(rebuilt.lookup(new IPv4Address("10.1.2.130"))).isEqualTo(7);
+    assertThat(rebuilt.lookup(new IPv4Address("192.168.1.1"))).isEqualTo(8);
+    assertThat(rebuilt.lookup(new IPv4Address("192.168.1.2"))).isEqualTo(7);
+    
+    rebuilt.rebuild(PrefixLookupFixtures.randomPrefixes(5000, 1));
+    PrefixLookupFixtures.assertConsistentWithTrie(PrefixLookupFixtures.randomPrefixes(5000, 1), rebuilt, 2);
+  }
+  
+  @Test
+  public void testLookupBatch() {
+    IPv4PrefixList random = PrefixLookupFixtures.randomPrefixes(5000, 1);
+    PrefixLookupFixtures.assertBatchConsistent(IPv4Dir248Lookup.build(random), 2);
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testLookupBatch_with_invalid_length() {
+    lookup.lookupBatch(new int[10], 5, 6, new int[10]);
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testLookupBatch_with_values_too_short() {
+    lookup.lookupBatch(new int[10], 0, 10, new int[9]);
+  }
+}
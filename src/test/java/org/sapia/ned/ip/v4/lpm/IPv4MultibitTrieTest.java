@@ -0,0 +1,84 @@
+package org.sapia.ned.ip.v4.lpm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+import org.sapia.ned.ip.v4.IPv4Address;
+
+public class IPv4MultibitTrieTest {
+  
+  private IPv4PrefixList prefixes = new IPv4PrefixList()
+      .add(new IPv4Address("10.0.0.0/8"), 1)
+      .add(new IPv4Address("10.1.0.0/16"), 2)
+      .add(new IPv4Address("10.1.2.0/23"), 3)
+      .add(new IPv4Address("10.1.2.128/25"), 4)
+      .add(new IPv4Address("10.1.2.130/32"), 5)
+      .add(0, 0, 6);
+
+  @Test
+  public void testLookup_16_8_8() {
+    assertLookups(IPv4MultibitTrie.build(prefixes, IPv4MultibitTrie.STRIDES_16_8_8));
+  }
+  
+  @Test
+  public void testLookup_8_8_8_8() {
+    assertLookups(IPv4MultibitTrie.build(prefixes, IPv4MultibitTrie.STRIDES_8_8_8_8));
+  }
+  
+  @Test
+  public void testLookup_with_uneven_strides() {
+    assertLookups(IPv4MultibitTrie.build(prefixes, 12, 5, 7, 3, 5));
+  }
+  
+  @Test
+  public void testGetNodeCount() {
+    IPv4MultibitTrie trie = IPv4MultibitTrie.build(prefixes, IPv4MultibitTrie.STRIDES_8_8_8_8);
+    
+    assertThat(trie.getNodeCount()).isEqualTo(4);
+    assertThat(trie.getStrides()).containsExactly(8, 8, 8, 8);
+  }
+  
+  @Test
+  public void testRebuild() {
+    IPv4MultibitTrie trie = IPv4MultibitTrie.build(prefixes);
+    trie.rebuild(new IPv4PrefixList().add(new IPv4Address("192.168.1.1/32"), 8));
+    
+    assertThat(trie.lookup(new IPv4Address("192.168.1.1"))).isEqualTo(8);
+    assertThat(trie.lookup(new IPv4Address("10.1.2.130"))).isEqualTo(IPv4PrefixLookup.NO_MATCH);
+    assertThat(trie.getNodeCount()).isEqualTo(3);
+  }
+  
+  @Test
+  public void testLookup_consistent_with_trie() {
+    IPv4PrefixList random = PrefixLookupFixtures.randomPrefixes(5000, 1);
+    PrefixLookupFixtures.assertConsistentWithTrie(random, IPv4MultibitTrie.build(random, IPv4MultibitTrie.STRIDES_16_8_8), 2);
+    PrefixLookupFixtures.assertConsistentWithTrie(random, IPv4MultibitTrie.build(random, IPv4MultibitTrie.STRIDES_8_8_8_8), 3);
+    PrefixLookupFixtures.assertConsistentWithTrie(random, IPv4MultibitTrie.build(random, 4, 4, 4, 4, 4, 4, 4, 4), 4);
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testBuild_with_invalid_total() {
+    IPv4MultibitTrie.build(prefixes, 16, 8);
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testBuild_with_invalid_stride() {
+    IPv4MultibitTrie.build(prefixes, 28, 4);
+  }
+  
+  private void assertLookups(IPv4PrefixLookup lookup) {
+    assertThat(lookup.lookup(new IPv4Address("10.2.0.1"))).isEqualTo(1);
+    assertThat(lookup.lookup(new IPv4Address("10.1.5.1"))).isEqualTo(2);
+    assertThat(lookup.lookup(new IPv4Address("10.1.3.1"))).isEqualTo(3);
+    assertThat(lookup.lookup(new IPv4Address("10.1.2.1"))).isEqualTo(3);
+    assertThat(lookup.lookup(new IPv4Address("10.1.2.129"))).isEqualTo(4);
+    assertThat(lookup.lookup(new IPv4Address("10.1.2.130"))).isEqualTo(5);
+    assertThat(lookup.lookup(new IPv4Address("11.0.0.0"))).isEqualTo(6);
+  }
+  
+  @Test
+  public void testLookupBatch() {
+    IPv4PrefixList random = PrefixLookupFixtures.randomPrefixes(5000, 1);
+    PrefixLookupFixtures.assertBatchConsistent(IPv4MultibitTrie.build(random, IPv4MultibitTrie.STRIDES_8_8_8_8), 2);
+  }
+}
@@ -0,0 +1,87 @@
+package org.sapia.ned.ip.v4.lpm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+import org.sapia.ned.ip.v4.IPv4Address;
+import org.sapia.ned.ip.v4.IPv4Subnet;
+import org.sapia.ned.ip.v4.IPv4SubnetGenerator;
+
+public class IPv4PoptrieTest {
+  
+  @Test
+  public void testLookup() {
+    IPv4Poptrie poptrie = IPv4Poptrie.build(new IPv4PrefixList()
+        .add(new IPv4Address("10.0.0.0/8"), 1)
+        .add(new IPv4Address("10.1.0.0/16"), 2)
+        .add(new IPv4Address("10.1.2.0/23"), 3)
+        .add(new IPv4Address("10.1.2.128/25"), 4)
+        .add(new IPv4Address("10.1.2.130/32"), 5)
+        .add(new IPv4Address("10.1.2.255/32"), 7)
+        .add(0, 0, 6));
+    
+    assertThat(poptrie.lookup(new IPv4Address("10.2.0.1"))).isEqualTo(1);
+    assertThat(poptrie.lookup(new IPv4Address("10.1.5.1"))).isEqualTo(2);
+    assertThat(poptrie.lookup(new IPv4Address("10.1.3.1"))).isEqualTo(3);
+    assertThat(poptrie.lookup(new IPv4Address("10.1.2.1"))).isEqualTo(3);
+    assertThat(poptrie.lookup(new IPv4Address("10.1.2.129"))).isEqualTo(4);
+    assertThat(poptrie.lookup(new IPv4Address("10.1.2.130"))).isEqualTo(5);
+    assertThat(poptrie.lookup(new IPv4Address("10.1.2.131"))).isEqualTo(4);
+    assertThat(poptrie.lookup(new IPv4Address("10.1.2.255"))).isEqualTo(7);
+    assertThat(poptrie.lookup(new IPv4Address("11.0.0.0"))).isEqualTo(6);
+    // nodes for 10.1.0.0/16, 10.1.0.0/22, and the last level: 10.1.2.128/28 and 10.1.2.240/28
+    assertThat(poptrie.getNodeCount()).isEqualTo(4);
+  }
+  
+  @Test
+  public void testLookup_with_subnets() {
+    IPv4PrefixList      prefixes  = new IPv4PrefixList();
+    IPv4SubnetGenerator generator = new IPv4SubnetGenerator()
+        .withBaseAddress(new IPv4Address("192.168.0.0/16"))
+        .withNumberOfSubnets(64);
+    int value = 0;
+    for (IPv4Subnet s : generator.generate()) {
+      prefixes.add(s, value++);
+    }
+    IPv4Poptrie poptrie = IPv4Poptrie.build(prefixes);
+    
+    assertThat(poptrie.lookup(new IPv4Address("192.168.0.1"))).isEqualTo(0);
+    assertThat(poptrie.lookup(new IPv4Address("192.168.255.255"))).isEqualTo(63);
+    assertThat(poptrie.lookup(new IPv4Address("192.169.0.0"))).isEqualTo(IPv4PrefixLookup.NO_MATCH);
+  }
+  
+  @Test
+  public void testLookup_consistent_with_trie() {
+    IPv4PrefixList random = PrefixLookupFixtures.randomPrefixes(5000, 1);
+    PrefixLookupFixtures.assertConsistentWithTrie(random, IPv4Poptrie.build(random), 2);
+  }
+  
+  @Test
+  public void testLookup_with_many_distinct_values() {
+    IPv4PrefixList prefixes = new IPv4PrefixList();
+    for (int i = 0; i < 70_000; i++) {
+      prefixes.add(new IPv4Address("10.0.0.0").toInt() + i, 32, i);
+    }
+    IPv4Poptrie poptrie = IPv4Poptrie.build(prefixes);
+    
+    for (int i = 0; i < 70_000; i++) {
+      assertThat(poptrie.lookup(new IPv4Address("10.0.0.0").toInt() + i)).isEqualTo(i);
+    }
+    assertThat(poptrie.lookup(new IPv4Address("10.0.0.0").toInt() + 70_000)).isEqualTo(IPv4PrefixLookup.NO_MATCH);
+  }
+  
+  @Test
+  public void testLookup_empty() {
+    IPv4Poptrie poptrie = IPv4Poptrie.build(new IPv4PrefixList());
+    
+    assertThat(poptrie.lookup(0)).isEqualTo(IPv4PrefixLookup.NO_MATCH);
+    assertThat(poptrie.getNodeCount()).isEqualTo(0);
+    assertThat(poptrie.getLeafCount()).isEqualTo(0);
+  }
+  
+  @Test
+  public void testLookupBatch() {
+    IPv4PrefixList random = PrefixLookupFixtures.randomPrefixes(5000, 1);
+    PrefixLookupFixtures.assertBatchConsistent(IPv4Poptrie.build(random), 2);
+  }
+}
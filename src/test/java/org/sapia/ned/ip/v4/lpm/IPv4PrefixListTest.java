@@ -0,0 +1,65 @@
+package org.sapia.ned.ip.v4.lpm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import org.junit.Test;
+import org.sapia.ned.ip.v4.IPv4Address;
+
+public class IPv4PrefixListTest {
+
+  @Test
+  public void testAdd() {
+    IPv4PrefixList list = new IPv4PrefixList(1)
+        .add(new IPv4Address("10.1.2.3/16"), 5)
+        .add(new IPv4Address("172.16.0.0"), 6);
+    
+    assertThat(list.size()).isEqualTo(2);
+    assertThat(list.getNetworkAt(0)).isEqualTo(new IPv4Address("10.1.0.0").toInt());
+    assertThat(list.getPrefixLengthAt(0)).isEqualTo(16);
+    assertThat(list.getValueAt(0)).isEqualTo(5);
+    assertThat(list.getPrefixLengthAt(1)).isEqualTo(16);
+  }
+  
+  @Test
+  public void testRemove() {
+    IPv4PrefixList list = new IPv4PrefixList()
+        .add(new IPv4Address("10.0.0.0/8"), 1)
+        .add(new IPv4Address("10.1.0.0/16"), 2)
+        .add(new IPv4Address("10.0.0.0/8"), 3);
+    
+    assertThat(list.remove(new IPv4Address("10.0.0.0").toInt(), 8)).isEqualTo(2);
+    assertThat(list.size()).isEqualTo(1);
+    assertThat(list.getValueAt(0)).isEqualTo(2);
+  }
+  
+  @Test
+  public void testIndexesByPrefixLength() {
+    IPv4PrefixList list = new IPv4PrefixList()
+        .add(new IPv4Address("10.1.0.0/16"), 1)
+        .add(new IPv4Address("10.0.0.0/8"), 2)
+        .add(new IPv4Address("10.2.0.0/16"), 3)
+        .add(0, 0, 4);
+    
+    assertThat(list.indexesByPrefixLength()).containsExactly(3, 1, 0, 2);
+  }
+  
+  @Test
+  public void testAdd_classful_without_network_mask() {
+    IPv4PrefixList list = new IPv4PrefixList();
+    for (String address : new String[] {"224.0.0.5", "240.0.0.1"}) {
+      try {
+        list.add(new IPv4Address(address), 7);
+        fail("Expected IllegalArgumentException for " + address);
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    }
+    assertThat(list.size()).isEqualTo(0);
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testAdd_invalid_value() {
+    new IPv4PrefixList().add(0, 0, -1);
+  }
+}
@@ -0,0 +1,168 @@
+package org.sapia.ned.ip.v4.lpm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sapia.ned.ip.v4.IPv4Address;
+import org.sapia.ned.ip.v4.IPv4CidrLong;
+
+public class IPv4PrefixTableTest {
+  
+  private IPv4PrefixTable<String> table;
+
+  @Before
+  public void setUp() {
+    table = new IPv4PrefixTable<>();
+    table.put(new IPv4Address("10.0.0.0/8"), "10/8");
+    table.put(new IPv4Address("10.1.0.0/16"), "10.1/16");
+    table.put(new IPv4Address("10.1.2.0/24"), "10.1.2/24");
+    table.put(new IPv4Address("192.168.0.0/16"), "192.168/16");
+  }
+
+  @Test
+  public void testLookup() {
+    assertThat(table.lookup(new IPv4Address("10.1.2.3"))).isEqualTo("10.1.2/24");
+    assertThat(table.lookup(new IPv4Address("10.1.3.3"))).isEqualTo("10.1/16");
+    assertThat(table.lookup(new IPv4Address("10.2.3.3"))).isEqualTo("10/8");
+    assertThat(table.lookup(new IPv4Address("192.168.200.1"))).isEqualTo("192.168/16");
+    assertThat(table.lookup(new IPv4Address("11.0.0.1"))).isNull();
+  }
+  
+  @Test
+  public void testLookup_default_route() {
+    table.put(0, 0, "default");
+    
+    assertThat(table.lookup(new IPv4Address("11.0.0.1"))).isEqualTo("default");
+    assertThat(table.lookup(new IPv4Address("10.1.2.3"))).isEqualTo("10.1.2/24");
+  }
+  
+  @Test
+  public void testLookup_host_route() {
+    table.put(new IPv4Address("10.1.2.3/32"), "host");
+    
+    assertThat(table.lookup(new IPv4Address("10.1.2.3"))).isEqualTo("host");
+    assertThat(table.lookup(new IPv4Address("10.1.2.4"))).isEqualTo("10.1.2/24");
+  }
+  
+  @Test
+  public void testPut_classful() {
+    table.put(new IPv4Address("172.16.0.0"), "class B");
+    
+    assertThat(table.get(new IPv4Address("172.16.0.0").toInt(), 16)).isEqualTo("class B");
+  }
+  
+  @Test
+  public void testAsLookup() {
+    IPv4PrefixLookup lookup = table.asLookup(String::length);
+    
+    assertThat(lookup.lookup(new IPv4Address("10.1.2.3"))).isEqualTo("10.1.2/24".length());
+    assertThat(lookup.lookup(new IPv4Address("11.0.0.1"))).isEqualTo(IPv4PrefixLookup.NO_MATCH);
+    table.put(new IPv4Address("11.0.0.0/8"), "11/8");
+    assertThat(lookup.lookup(new IPv4Address("11.0.0.1"))).isEqualTo("11/8".length());
+  }
+  
+  @Test
+  public void testAsLookup_consistent_with_trie() {
+    IPv4PrefixList   random = PrefixLookupFixtures.randomPrefixes(5000, 1);
+    IPv4PrefixLookup lookup = IPv4PrefixTable.build(random).asLookup(Integer::intValue);
+    
+    PrefixLookupFixtures.assertConsistentWithTrie(random, lookup, 2);
+    PrefixLookupFixtures.assertBatchConsistent(lookup, 3);
+  }
+  
+  @Test
+  public void testPut_classful_without_network_mask() {
+    for (String address : new String[] {"224.0.0.5", "240.0.0.1"}) {
+      try {
+        table.put(new IPv4Address(address), "no mask");
+        fail("Expected IllegalArgumentException for " + address);
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    }
+    assertThat(table.lookup(new IPv4Address("8.8.8.8").toInt())).isNull();
+    assertThat(table.size()).isEqualTo(4);
+  }
+  
+  @Test
+  public void testPut_replace() {
+    assertThat(table.put(new IPv4Address("10.1.0.0/16"), "other")).isEqualTo("10.1/16");
+    assertThat(table.size()).isEqualTo(4);
+  }
+  
+  @Test
+  public void testPut_ignores_host_bits() {
+    table.put(new IPv4Address("172.16.5.5/12"), "172.16/12");
+    
+    assertThat(table.get(new IPv4Address("172.16.0.0").toInt(), 12)).isEqualTo("172.16/12");
+  }
+  
+  @Test
+  public void testGet() {
+    assertThat(table.get(new IPv4Address("10.1.0.0").toInt(), 16)).isEqualTo("10.1/16");
+    assertThat(table.get(new IPv4Address("10.1.0.0").toInt(), 17)).isNull();
+    assertThat(table.get(new IPv4Address("10.0.0.0").toInt(), 9)).isNull();
+  }
+  
+  @Test
+  public void testRemove() {
+    assertThat(table.remove(new IPv4Address("10.1.0.0").toInt(), 16)).isEqualTo("10.1/16");
+    assertThat(table.remove(new IPv4Address("10.1.0.0").toInt(), 16)).isNull();
+    
+    assertThat(table.size()).isEqualTo(3);
+    assertThat(table.lookup(new IPv4Address("10.1.3.3"))).isEqualTo("10/8");
+    assertThat(table.lookup(new IPv4Address("10.1.2.3"))).isEqualTo("10.1.2/24");
+  }
+  
+  @Test
+  public void testForEach() {
+    List<String> values = new ArrayList<>();
+    table.forEach((network, prefixLen, value) -> values.add(value));
+    
+    assertThat(values).containsExactly("10/8", "10.1/16", "10.1.2/24", "192.168/16");
+  }
+  
+  @Test
+  public void testConsistent_with_linear_scan() {
+    Random                   random   = new Random(3);
+    IPv4PrefixTable<Integer> trie     = new IPv4PrefixTable<>();
+    List<int[]>              prefixes = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      int len     = random.nextInt(33);
+      int network = (random.nextInt() & 0xFF00FFFF) & IPv4CidrLong.mask(len);
+      if (trie.put(network, len, i) == null) {
+        prefixes.add(new int[] { network, len, i });
+      } else {
+        for (int[] p : prefixes) {
+          if (p[0] == network && p[1] == len) {
+            p[2] = i;
+          }
+        }
+      }
+      if (random.nextInt(4) == 0) {
+        int[] removed = prefixes.remove(random.nextInt(prefixes.size()));
+        assertThat(trie.remove(removed[0], removed[1])).isEqualTo(removed[2]);
+      }
+    }
+    assertThat(trie.size()).isEqualTo(prefixes.size());
+    
+    for (int i = 0; i < 20_000; i++) {
+      int     address  = random.nextInt() & 0xFF00FFFF;
+      Integer expected = null;
+      int     bestLen  = -1;
+      for (int[] p : prefixes) {
+        if ((address & IPv4CidrLong.mask(p[1])) == p[0] && p[1] > bestLen) {
+          bestLen  = p[1];
+          expected = p[2];
+        }
+      }
+      assertThat(trie.lookup(address)).isEqualTo(expected);
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package org.sapia.ned.ip.v4.lpm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+/**
+ * Fixtures shared by the tests of the {@link IPv4PrefixLookup} implementations.
+ *
+ */
+final class PrefixLookupFixtures {
+
+  private PrefixLookupFixtures() {
+  }
+  
+  /**
+   * @param count the number of prefixes to generate.
+   * @param seed the seed of the random generator.
+   * @return a new {@link IPv4PrefixList}, holding random prefixes of all lengths (concentrated in a few /8s,
+   * so that prefixes overlap).
+   */
+  static IPv4PrefixList randomPrefixes(int count, long seed) {
+    Random         random = new Random(seed);
+    IPv4PrefixList list   = new IPv4PrefixList();
+    for (int i = 0; i < count; i++) {
+      int len     = random.nextInt(33);
+      int network = (random.nextInt(4) << 24) | (random.nextInt() >>> 8 & 0x03FFFF) << 6;
+      list.add(network, len, random.nextInt(1000));
+    }
+    return list;
+  }
+  
+  /**
+   * Asserts that the given lookup yields the same results as an {@link IPv4PrefixTable} holding the given prefixes.
+   * 
+   * @param prefixes an {@link IPv4PrefixList}.
+   * @param lookup the {@link IPv4PrefixLookup} built from the given prefixes.
+   * @param seed the seed of the random generator used to generate the addresses to look up.
+   */
+  static void assertConsistentWithTrie(IPv4PrefixList prefixes, IPv4PrefixLookup lookup, long seed) {
+    IPv4PrefixTable<Integer> trie = IPv4PrefixTable.build(prefixes);
+    Random random = new Random(seed);
+    for (int i = 0; i < 100_000; i++) {
+      int     address  = i % 2 == 0 ? random.nextInt() : (random.nextInt(4) << 24) | (random.nextInt() >>> 8);
+      Integer expected = trie.lookup(address);
+      assertThat(lookup.lookup(address)).isEqualTo(expected == null ? IPv4PrefixLookup.NO_MATCH : expected);
+    }
+  }
+  
+  /**
+   * Asserts that the batch lookups of the given {@link IPv4PrefixLookup} yield the same results as its single lookups.
+   * 
+   * @param lookup an {@link IPv4PrefixLookup}.
+   * @param seed the seed of the random generator used to generate the addresses to look up.
+   */
+  static void assertBatchConsistent(IPv4PrefixLookup lookup, long seed) {
+    Random random    = new Random(seed);
+    int[]  addresses = new int[10_003];
+    for (int i = 0; i < addresses.length; i++) {
+      addresses[i] = i % 2 == 0 ? random.nextInt() : (random.nextInt(4) << 24) | (random.nextInt() >>> 8);
+    }
+    int[] expected = new int[addresses.length];
+    for (int i = 0; i < addresses.length; i++) {
+      expected[i] = lookup.lookup(addresses[i]);
+    }
+    int[] values = new int[addresses.length];
+    values[0] = values[1] = values[addresses.length - 1] = 42;
+    lookup.lookupBatch(addresses, 2, addresses.length - 3, values);
+    assertThat(values[0]).isEqualTo(42);
+    assertThat(values[1]).isEqualTo(42);
+    assertThat(values[addresses.length - 1]).isEqualTo(42);
+    for (int i = 2; i < addresses.length - 1; i++) {
+      assertThat(values[i]).isEqualTo(expected[i]);
+    }
+    // in place
+    lookup.lookupBatch(addresses, 0, addresses.length, addresses);
+    assertThat(addresses).isEqualTo(expected);
+  }
+}
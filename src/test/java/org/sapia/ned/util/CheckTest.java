@@ -0,0 +1,69 @@
+package org.sapia.ned.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import org.junit.Test;
+
+public class CheckTest {
+
+  @Test
+  public void testIsTrue_with_int_args() {
+    Check.isTrue(true, "Invalid index: %s. Expected within [0, %s]", 5, 10);
+  }
+  
+  @Test
+  public void testIsTrue_with_int_args_failure() {
+    try {
+      Check.isTrue(false, "Invalid index: %s. Expected within [0, %s]", 11, 10);
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException e) {
+      assertThat(e.getMessage()).isEqualTo("Invalid index: 11. Expected within [0, 10]");
+    }
+  }
+  
+  @Test
+  public void testIsTrue_with_long_args_failure() {
+    try {
+      Check.isTrue(false, "Invalid value: %s (max: %s)", 1L << 32, 10L);
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException e) {
+      assertThat(e.getMessage()).isEqualTo("Invalid value: 4294967296 (max: 10)");
+    }
+  }
+  
+  @Test
+  public void testIsTrue_with_char_arg_failure() {
+    try {
+      Check.isTrue(false, "Invalid character: %s", 'x');
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException e) {
+      assertThat(e.getMessage()).isEqualTo("Invalid character: x");
+    }
+  }
+  
+  @Test
+  public void testIsTrue_with_object_and_int_args_failure() {
+    try {
+      Check.isTrue(false, "Invalid literal: %s (at index %s)", "10.0.0", 6);
+      fail("IllegalArgumentException expected");
+    } catch (IllegalArgumentException e) {
+      assertThat(e.getMessage()).isEqualTo("Invalid literal: 10.0.0 (at index 6)");
+    }
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testIsFalse_failure() {
+    Check.isFalse(true, "Bitset is empty");
+  }
+  
+  @Test
+  public void testState_with_int_arg_failure() {
+    try {
+      Check.state(false, "Invalid state: %s", 3);
+      fail("IllegalStateException expected");
+    } catch (IllegalStateException e) {
+      assertThat(e.getMessage()).isEqualTo("Invalid state: 3");
+    }
+  }
+}
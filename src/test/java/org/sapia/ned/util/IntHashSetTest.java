@@ -0,0 +1,102 @@
+package org.sapia.ned.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class IntHashSetTest {
+  
+  private IntHashSet set;
+
+  @Before
+  public void setUp() {
+    set = new IntHashSet();
+  }
+  
+  @Test
+  public void testAdd() {
+    assertThat(set.add(5)).isTrue();
+    assertThat(set.add(5)).isFalse();
+    assertThat(set.contains(5)).isTrue();
+    assertThat(set.size()).isEqualTo(1);
+  }
+  
+  @Test
+  public void testAdd_zero() {
+    assertThat(set.contains(0)).isFalse();
+    assertThat(set.add(0)).isTrue();
+    assertThat(set.add(0)).isFalse();
+    assertThat(set.contains(0)).isTrue();
+    assertThat(set.size()).isEqualTo(1);
+  }
+  
+  @Test
+  public void testRemove() {
+    set.add(5);
+    set.add(0);
+    
+    assertThat(set.remove(5)).isTrue();
+    assertThat(set.remove(5)).isFalse();
+    assertThat(set.remove(0)).isTrue();
+    assertThat(set.isEmpty()).isTrue();
+  }
+  
+  @Test
+  public void testRemoveAny() {
+    set.add(0);
+    set.add(-1);
+    set.add(42);
+    
+    Set<Integer> removed = new HashSet<>();
+    removed.add(set.removeAny());
+    removed.add(set.removeAny());
+    removed.add(set.removeAny());
+    
+    assertThat(removed).containsOnly(0, -1, 42);
+    assertThat(set.isEmpty()).isTrue();
+  }
+  
+  @Test(expected = IllegalStateException.class)
+  public void testRemoveAny_empty() {
+    set.removeAny();
+  }
+  
+  @Test
+  public void testToArray() {
+    set.add(0);
+    set.add(7);
+    
+    assertThat(set.toArray()).containsOnly(0, 7);
+  }
+  
+  @Test
+  public void testConsistent_with_HashSet() {
+    Random       random   = new Random(7);
+    Set<Integer> expected = new HashSet<>();
+    for (int i = 0; i < 200_000; i++) {
+      int value = random.nextInt(5000) << 8;
+      switch (random.nextInt(4)) {
+        case 0:
+        case 1:
+          assertThat(set.add(value)).isEqualTo(expected.add(value));
+          break;
+        case 2:
+          assertThat(set.remove(value)).isEqualTo(expected.remove(value));
+          break;
+        default:
+          if (!set.isEmpty()) {
+            assertThat(expected.remove(set.removeAny())).isTrue();
+          }
+      }
+      assertThat(set.size()).isEqualTo(expected.size());
+    }
+    for (int v : expected) {
+      assertThat(set.contains(v)).isTrue();
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package org.sapia.ned.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class SafeTest {
+
+  @Test
+  public void testHashInt() {
+    assertThat(Safe.hashInt(42)).isEqualTo(Safe.hashInts(new int[] {42}));
+    assertThat(Safe.hashInt(42)).isNotEqualTo(Safe.hashInt(43));
+  }
+  
+  @Test
+  public void testMix() {
+    assertThat(Safe.mix(0)).isEqualTo(0);
+    assertThat(Safe.mix(1)).isEqualTo(0x514e28b7);
+    assertThat(Safe.mix(0x0A000001)).isEqualTo(0x1b0ba38f);
+    assertThat(Safe.mix(0L)).isEqualTo(0L);
+    assertThat(Safe.mix(1L)).isEqualTo(0xb456bcfc34c2cb2cL);
+  }
+
+  @Test
+  public void testHashInts() {
+    assertThat(Safe.hashInts(1, 2)).isEqualTo(Safe.hashInts(new int[] {1, 2}));
+    assertThat(Safe.hashInts(1, 2)).isNotEqualTo(Safe.hashInts(2, 1));
+    assertThat(Safe.hashInts(new int[] {1, 2, 3})).isNotEqualTo(Safe.hashInts(new int[] {3, 2, 1}));
+  }
+  
+  @Test
+  public void testHashInts_empty() {
+    assertThat(Safe.hashInts()).isEqualTo(0);
+    assertThat(Safe.hashInts((int[]) null)).isEqualTo(0);
+  }
+  
+  @Test
+  public void testHashBytes() {
+    assertThat(Safe.hashBytes((byte) 10, (byte) 1, (byte) 2, (byte) 3)).isEqualTo(Safe.hashInt(0x0A010203));
+    assertThat(Safe.hashBytes((byte) 10, (byte) 1, (byte) 2, (byte) 3))
+      .isNotEqualTo(Safe.hashBytes((byte) 3, (byte) 2, (byte) 1, (byte) 10));
+  }
+  
+  @Test
+  public void testHashBytes_partial_word() {
+    assertThat(Safe.hashBytes((byte) 1, (byte) 2)).isNotEqualTo(Safe.hashBytes((byte) 1, (byte) 2, (byte) 0));
+    assertThat(Safe.hashBytes((byte) 1, (byte) 2, (byte) 3, (byte) 4, (byte) 5))
+      .isNotEqualTo(Safe.hashBytes((byte) 1, (byte) 2, (byte) 3, (byte) 4, (byte) 6));
+  }
+  
+  @Test
+  public void testHashBytes_empty() {
+    assertThat(Safe.hashBytes()).isEqualTo(0);
+  }
+  
+  @Test
+  public void testHashCode() {
+    assertThat(Safe.hashCode("a", "b")).isNotEqualTo(Safe.hashCode("b", "a"));
+    assertThat(Safe.hashCode("a", null)).isEqualTo(Safe.hashCode("a", null));
+    assertThat(Safe.hashCode((Object[]) null)).isEqualTo(0);
+  }
+  
+  @Test
+  public void testHashInts_sequential_values_distinct() {
+    Set<Integer> hashes = new HashSet<>();
+    for (int i = 0; i < 65536; i++) {
+      hashes.add(Safe.hashInts(0x0A000000, 0x0A000000 + i));
+    }
+    assertThat(hashes).hasSize(65536);
+  }
+  
+  @Test
+  public void testEquals() {
+    assertThat(Safe.equals(null, null)).isTrue();
+    assertThat(Safe.equals("a", null)).isFalse();
+    assertThat(Safe.equals("a", "a")).isTrue();
+  }
+}
@@ -0,0 +1,121 @@
+package org.sapia.ned.util.logic;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sapia.ned.bitset.BooleanBitSet;
+import org.sapia.ned.bitset.ImmutableBitSet;
+import org.sapia.ned.bitset.LongWordBitSet;
+
+public class BitSetEvaluatorTest {
+  
+  private ImmutableBitSet a, b, c, zeros, ones;
+
+  @Before
+  public void setUp() throws Exception {
+    a     = new BooleanBitSet("110101");
+    b     = new BooleanBitSet("010111");
+    c     = new BooleanBitSet("100110");
+    zeros = new BooleanBitSet("000000");
+    ones  = new BooleanBitSet("111111");
+  }
+
+  @Test
+  public void testEvaluate() {
+    ImmutableBitSet expression = a.or(b.not()).and(c);
+    
+    LongWordBitSet result = BitSetEvaluator.evaluate(expression);
+    
+    assertThat(result).isEqualTo(expression);
+    assertThat(result.toString()).isEqualTo("100100");
+  }
+  
+  @Test
+  public void testEvaluate_double_negation() {
+    ImmutableBitSet expression = a.not().not();
+    
+    assertThat(BitSetEvaluator.evaluate(expression)).isEqualTo(a);
+  }
+  
+  @Test
+  public void testEvaluate_de_morgan() {
+    assertThat(BitSetEvaluator.evaluate(a.and(b).not())).isEqualTo(a.not().or(b.not()));
+    assertThat(BitSetEvaluator.evaluate(a.or(b).not())).isEqualTo(a.not().and(b.not()));
+    assertThat(BitSetEvaluator.evaluate(a.xor(b).not())).isEqualTo(a.xor(b).not());
+  }
+  
+  @Test
+  public void testEvaluate_constant_folding() {
+    assertThat(BitSetEvaluator.evaluate(a.and(zeros))).isEqualTo(zeros);
+    assertThat(BitSetEvaluator.evaluate(a.and(ones))).isEqualTo(a);
+    assertThat(BitSetEvaluator.evaluate(a.or(ones))).isEqualTo(ones);
+    assertThat(BitSetEvaluator.evaluate(a.or(zeros))).isEqualTo(a);
+    assertThat(BitSetEvaluator.evaluate(a.xor(zeros))).isEqualTo(a);
+    assertThat(BitSetEvaluator.evaluate(a.xor(ones))).isEqualTo(a.not());
+    assertThat(BitSetEvaluator.evaluate(zeros.not().and(a.or(zeros.not())))).isEqualTo(ones);
+  }
+  
+  @Test
+  public void testEvaluate_shared_operand() {
+    ImmutableBitSet expression = a.xor(a);
+    
+    assertThat(BitSetEvaluator.evaluate(expression)).isEqualTo(zeros);
+  }
+  
+  @Test
+  public void testEvaluate_operand_only() {
+    assertThat(BitSetEvaluator.evaluate(a)).isEqualTo(a);
+  }
+  
+  @Test
+  public void testEvaluate_multi_words() {
+    Random random = new Random(42);
+    ImmutableBitSet[] operands = new ImmutableBitSet[4];
+    for (int i = 0; i < operands.length; i++) {
+      boolean[] bits = new boolean[200];
+      for (int j = 0; j < bits.length; j++) {
+        bits[j] = random.nextBoolean();
+      }
+      operands[i] = new BooleanBitSet(bits);
+    }
+    ImmutableBitSet expression = operands[0].and(operands[1].not())
+        .or(operands[2].xor(operands[3]).not())
+        .and(operands[1].or(operands[3]).not().not());
+    
+    assertThat(BitSetEvaluator.evaluate(expression)).isEqualTo(expression);
+  }
+  
+  @Test
+  public void testOperatorCount() {
+    assertThat(BitSetEvaluator.operatorCount(a)).isEqualTo(0);
+    assertThat(BitSetEvaluator.operatorCount(a.not())).isEqualTo(1);
+    assertThat(BitSetEvaluator.operatorCount(a.or(b.not()).and(c))).isEqualTo(3);
+  }
+  
+  @Test
+  public void testOptimize_below_threshold() {
+    ImmutableBitSet expression = a.or(b);
+    
+    assertThat(BitSetEvaluator.optimize(expression, 2)).isSameAs(expression);
+  }
+  
+  @Test
+  public void testOptimize_above_threshold() {
+    ImmutableBitSet expression = a.or(b).not();
+    
+    ImmutableBitSet result = BitSetEvaluator.optimize(expression, 2);
+    
+    assertThat(result).isInstanceOf(LongWordBitSet.class);
+    assertThat(result).isEqualTo(expression);
+  }
+  
+  @Test
+  public void testOptimize_always_lazy() {
+    ImmutableBitSet expression = a.or(b).not();
+    
+    assertThat(BitSetEvaluator.optimize(expression, Integer.MAX_VALUE)).isSameAs(expression);
+  }
+}